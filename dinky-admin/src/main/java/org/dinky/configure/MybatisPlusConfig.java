@@ -20,6 +20,7 @@
 package org.dinky.configure;
 
 import org.dinky.context.TenantContextHolder;
+import org.dinky.interceptor.CatalogueTreeCacheInterceptor;
 import org.dinky.interceptor.PostgreSQLPrepareInterceptor;
 import org.dinky.interceptor.PostgreSQLQueryInterceptor;
 import org.dinky.mybatis.handler.DateMetaObjectHandler;
@@ -120,6 +121,7 @@ public class MybatisPlusConfig {
             }
         }));
         interceptor.addInnerInterceptor(new PaginationInnerInterceptor());
+        interceptor.addInnerInterceptor(new CatalogueTreeCacheInterceptor());
         return interceptor;
     }
 
@@ -19,6 +19,10 @@
 
 package org.dinky.configure;
 
+import org.dinky.alert.AlertDispatcher;
+import org.dinky.job.handler.AlertHistoryWriter;
+import org.dinky.service.AlertHistoryService;
+
 import java.util.concurrent.Executor;
 
 import org.springframework.context.annotation.Bean;
@@ -51,4 +55,25 @@ public class ThreadPoolConfig {
         threadPoolTaskExecutor.initialize();
         return threadPoolTaskExecutor;
     }
+
+    /**
+     * Sends the job alerts asynchronously, its threads are stopped with the application context.
+     *
+     * @return
+     */
+    @Bean(destroyMethod = "shutdown")
+    public AlertDispatcher alertDispatcher() {
+        return new AlertDispatcher();
+    }
+
+    /**
+     * Saves the history of the sent alerts in batches, the pending history is saved before the
+     * {@link AlertHistoryService} it uses is destroyed.
+     *
+     * @return
+     */
+    @Bean
+    public AlertHistoryWriter alertHistoryWriter(AlertHistoryService alertHistoryService) {
+        return new AlertHistoryWriter(alertHistoryService);
+    }
 }
@@ -30,24 +30,29 @@ import org.dinky.data.enums.Status;
 import org.dinky.data.exception.BusException;
 import org.dinky.data.model.ProcessEntity;
 import org.dinky.data.model.ProcessStepEntity;
+import org.dinky.data.vo.ProcessConsoleVo;
 import org.dinky.utils.LogUtil;
 import org.dinky.ws.GlobalWebSocketTopic;
 
 import org.apache.http.util.TextUtils;
 
+import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.MDC;
 
 import com.alibaba.fastjson2.JSONObject;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.lang.Assert;
@@ -69,10 +74,29 @@ public class ConsoleContextHolder {
         return instance;
     }
 
+    /** lines appended within this interval are pushed to the console together */
+    private static final long FLUSH_INTERVAL_MILLIS = 100;
+    /** minimal interval between two spills of the new lines of a running process */
+    private static final long SPILL_INTERVAL_MILLIS = 5000;
+    /** number of lines of a running process that clients can resume from */
+    private static final int RING_CAPACITY = 4096;
+
     private final Map<String, ProcessEntity> logPross = new ConcurrentHashMap<>();
+    private final Map<String, ProcessConsoleBuffer> consoles = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService flusher;
+
+    private ConsoleContextHolder() {
+        flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("process-console-flusher-%d")
+                .setDaemon(true)
+                .build());
+        flusher.scheduleWithFixedDelay(
+                this::flushAll, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
 
     /**
-     * Get a list of all processes
+     * Get a list of all processes, a running process does not carry its log, see {@link #getProcess}.
      */
     public List<ProcessEntity> list() {
         return new ArrayList<>(logPross.values());
@@ -91,21 +115,25 @@ public class ConsoleContextHolder {
         for (Thread t : threads) {
             if (t.getId() == process.getThreadId()) {
                 t.interrupt();
-                return process;
+                break;
             }
         }
         return getProcess(processName);
     }
 
     public ProcessEntity getProcess(String processName) {
-        if (logPross.containsKey(processName)) {
-            return logPross.get(processName);
+        ProcessConsoleBuffer console = consoles.get(processName);
+        if (console != null) {
+            return console.fullProcess();
         }
         try {
-            String filePath = String.format("%s/log/%s.json", DirConstant.getTempRootDir(), processName);
+            String filePath = getLogFilePath(processName);
             String string = FileUtil.readString(filePath, StandardCharsets.UTF_8);
             ProcessEntity process = JSONObject.parseObject(string, ProcessEntity.class);
             if (process.getStatus().isActiveStatus()) {
+                // the process did not finish before a restart, its log is still in the spill file
+                process = ProcessConsoleBuffer.withLog(
+                        process, ProcessConsoleBuffer.readSpill(new File(getSpillFilePath(processName))));
                 process.setStatus(ProcessStatus.UNKNOWN);
             }
             return process;
@@ -115,9 +143,34 @@ public class ConsoleContextHolder {
         }
     }
 
+    /**
+     * Get the console of a process from a sequence number on. A running process answers with the
+     * lines after {@code fromSeq} while they are still buffered, any other case with a full update.
+     *
+     * @param processName process name
+     * @param fromSeq     sequence number of the last line the client has, negative for a full update
+     * @return console update, null if the process does not exist
+     */
+    public ProcessConsoleVo getConsole(String processName, long fromSeq) {
+        ProcessConsoleBuffer console = consoles.get(processName);
+        if (console != null) {
+            return console.since(fromSeq);
+        }
+        ProcessEntity process = getProcess(processName);
+        if (process == null) {
+            return null;
+        }
+        return ProcessConsoleVo.builder()
+                .key(process.getKey())
+                .full(true)
+                .process(process)
+                .build();
+    }
+
     public boolean clearProcessLog(String processName) {
         // find process and delete
-        String filePath = String.format("%s/log/%s.json", DirConstant.getTempRootDir(), processName);
+        String filePath = getLogFilePath(processName);
+        FileUtil.del(getSpillFilePath(processName));
         if (FileUtil.exist(filePath)) {
             return FileUtil.del(filePath);
         }
@@ -133,29 +186,64 @@ public class ConsoleContextHolder {
      * @throws BusException Throws an exception if the process does not exist
      */
     public void appendLog(String processName, String stepPid, String logLine, boolean recordGlobal) {
-        if (!logPross.containsKey(processName)) {
+        ProcessConsoleBuffer console = consoles.get(processName);
+        if (console == null) {
             log.debug("Process {} does not exist, This log was abandoned", processName);
             return;
         }
-        ProcessEntity process = logPross.get(processName);
-        if (recordGlobal) {
-            process.appendLog(logLine);
-        }
+        ProcessStepEntity stepNode = null;
         if (stepPid != null) {
-            ProcessStepEntity stepNode = getStepNode(stepPid, getStepsMap(processName));
-            if (stepNode != null) {
-                stepNode.appendLog(logLine);
-                process.setLastUpdateStep(stepNode);
-            } else {
+            stepNode = getStepNode(stepPid, getStepsMap(processName));
+            if (stepNode == null) {
                 log.error("process step not found {},{}", processName, stepPid);
             }
-            process.setLastUpdateStep(stepNode);
         }
-        CompletableFuture.runAsync(() -> {
+        console.append(stepNode, recordGlobal, logLine);
+    }
+
+    /**
+     * Push the buffered lines of all running processes to the console.
+     */
+    private void flushAll() {
+        consoles.forEach((processName, console) -> {
+            try {
+                flush(processName, console);
+                if (console.spill(SPILL_INTERVAL_MILLIS)) {
+                    saveProcess(processName, console);
+                }
+            } catch (Exception e) {
+                log.error("Flush console of process {} failed", processName, e);
+            }
+        });
+    }
+
+    private void flush(String processName, ProcessConsoleBuffer console) {
+        ProcessConsoleVo update = console.drain();
+        if (update != null) {
             sendTopic(
                     GlobalWebSocketTopic.PROCESS_CONSOLE,
-                    MapUtil.<String, Object>builder(processName, process).build());
-        });
+                    MapUtil.<String, Object>builder(processName, update).build());
+        }
+    }
+
+    /**
+     * Write the step tree and status of a running process to its log file, its lines are in the
+     * spill file, so that both survive a restart. Synchronized with {@link #finishedProcess} to
+     * never overwrite the final log.
+     */
+    private synchronized void saveProcess(String processName, ProcessConsoleBuffer console) {
+        if (consoles.get(processName) == console) {
+            FileUtil.writeUtf8String(
+                    JSONObject.toJSONString(console.getProcess().copy(false)), getLogFilePath(processName));
+        }
+    }
+
+    private static String getLogFilePath(String processName) {
+        return String.format("%s/log/%s.json", DirConstant.getTempRootDir(), processName);
+    }
+
+    private static String getSpillFilePath(String processName) {
+        return String.format("%s/log/%s.spill", DirConstant.getTempRootDir(), processName);
     }
 
     /**
@@ -180,6 +268,10 @@ public class ConsoleContextHolder {
                 .threadId(Thread.currentThread().getId())
                 .build();
         logPross.put(processName, entity);
+        File spillFile = new File(getSpillFilePath(processName));
+        // left over by a run of the same name that did not finish
+        FileUtil.del(spillFile);
+        consoles.put(processName, new ProcessConsoleBuffer(entity, RING_CAPACITY, spillFile));
         appendLog(processName, null, "Start Process:" + processName, true);
     }
 
@@ -220,6 +312,7 @@ public class ConsoleContextHolder {
                 stepNode.getChildren().add(processStepEntity);
             }
         }
+        consoles.get(processName).markChanged();
         return processStepEntity;
     }
 
@@ -240,11 +333,13 @@ public class ConsoleContextHolder {
             if (e != null) {
                 appendLog(processName, null, LogUtil.getError(e.getCause()), true);
             }
-            String filePath = String.format("%s/log/%s.json", DirConstant.getTempRootDir(), processName);
+            ProcessConsoleBuffer console = consoles.get(processName);
+            ProcessEntity finished = console == null ? process : console.close();
+            String filePath = getLogFilePath(processName);
             if (FileUtil.exist(filePath)) {
                 Assert.isTrue(FileUtil.del(filePath));
             }
-            FileUtil.writeUtf8String(JSONObject.toJSONString(process), filePath);
+            FileUtil.writeUtf8String(JSONObject.toJSONString(finished), filePath);
             appendLog(
                     processName,
                     null,
@@ -254,6 +349,10 @@ public class ConsoleContextHolder {
             appendLog(processName, null, LogUtil.getError(ex.getCause()), true);
             log.error("finishedProcess error", ex);
         } finally {
+            ProcessConsoleBuffer console = consoles.remove(processName);
+            if (console != null) {
+                flush(processName, console);
+            }
             logPross.remove(processName);
         }
     }
@@ -19,30 +19,26 @@
 
 package org.dinky.context;
 
-import static org.dinky.data.constant.MonitorTableConstant.JOB_ID;
 import static org.dinky.ws.GlobalWebSocket.sendTopic;
 
-import org.dinky.data.constant.MonitorTableConstant;
+import org.dinky.data.constant.DirConstant;
+import org.dinky.data.exception.DinkyException;
 import org.dinky.data.vo.MetricsVO;
-import org.dinky.utils.SqliteUtil;
+import org.dinky.metrics.MetricsResolution;
+import org.dinky.metrics.MetricsStore;
 import org.dinky.ws.GlobalWebSocketTopic;
 
-import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.io.File;
+import java.time.ZoneId;
+import java.util.EnumMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import cn.hutool.core.map.MapUtil;
@@ -52,23 +48,14 @@ import lombok.extern.slf4j.Slf4j;
 /**
  * The MetricsContextHolder class is used to manage the metric context,
  * including operations such as storing and sending metric data.
+ * The metric history is stored in a {@link MetricsStore}.
  */
 @Slf4j
 public class MetricsContextHolder {
-    private static final ObjectMapper objectMapper = new ObjectMapper();
-
     @Getter
     protected static final MetricsContextHolder instance = new MetricsContextHolder();
 
-    private final List<MetricsVO> metricsVOS = new CopyOnWriteArrayList<>();
-    private final AtomicLong lastDumpTime = new AtomicLong(0);
-
-    static {
-        String sql = String.format(
-                "%s BIGINT, %s TEXT, %s TEXT, %s INTEGER",
-                JOB_ID, MonitorTableConstant.VALUE, MonitorTableConstant.HEART_TIME, MonitorTableConstant.DATE);
-        SqliteUtil.INSTANCE.createTable(MonitorTableConstant.DINKY_METRICS, sql);
-    }
+    private volatile MetricsStore metricsStore;
 
     // Create a ThreadFactory with custom naming
     ThreadFactory namedThreadFactory =
@@ -96,52 +83,60 @@ public class MetricsContextHolder {
         });
     }
 
-    public void saveToSqlite(String key, MetricsVO o) {
+    /**
+     * Opens the metrics storage, samples are only persisted once it is open.
+     *
+     * @param type          the {@link MetricsStore#getType()} of the storage
+     * @param retentionDays how many days samples are kept, by resolution
+     */
+    public synchronized void initStore(String type, Map<MetricsResolution, Integer> retentionDays) {
+        if (metricsStore != null) {
+            return;
+        }
+        MetricsStore store = MetricsStore.get(type);
+        Map<MetricsResolution, Long> retentionMillis = new EnumMap<>(MetricsResolution.class);
+        retentionDays.forEach((resolution, days) -> retentionMillis.put(resolution, TimeUnit.DAYS.toMillis(days)));
+        store.open(new File(DirConstant.getMetricsRootDir(), store.getType()), retentionMillis);
+        metricsStore = store;
+    }
+
+    public void setRetentionDays(MetricsResolution resolution, int retentionDays) {
+        MetricsStore store = metricsStore;
+        if (store != null) {
+            store.setRetention(resolution, TimeUnit.DAYS.toMillis(retentionDays));
+        }
+    }
+
+    public synchronized void closeStore() {
+        if (metricsStore != null) {
+            metricsStore.close();
+            metricsStore = null;
+        }
+    }
+
+    public MetricsStore getMetricsStore() {
+        MetricsStore store = metricsStore;
+        if (store == null) {
+            throw new DinkyException("The metrics storage is not initialized");
+        }
+        return store;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void saveMetrics(String key, MetricsVO o) {
         Object content = o.getContent();
         if (content == null
                 || (content instanceof ConcurrentHashMap && ((ConcurrentHashMap<?, ?>) content).isEmpty())) {
             return;
         }
-
-        metricsVOS.add(o);
-        long current = System.currentTimeMillis();
-        long duration = current - lastDumpTime.get();
-        if (metricsVOS.size() >= 1000 || duration >= 15000) {
-            lastDumpTime.set(current);
-            List<List<String>> values = convertMetricsVOsToStringList(metricsVOS);
-            try {
-                final List<String> columns = Arrays.asList(
-                        JOB_ID, MonitorTableConstant.VALUE, MonitorTableConstant.HEART_TIME, MonitorTableConstant.DATE);
-                SqliteUtil.INSTANCE.write(MonitorTableConstant.DINKY_METRICS, columns, values);
-            } catch (SQLException e) {
-                log.error("Failed to write metrics to SQLite", e);
-                return;
-            }
-            metricsVOS.clear();
+        MetricsStore store = metricsStore;
+        if (store != null) {
+            long timestamp =
+                    o.getHeartTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            store.write(o.getModel(), timestamp, (Map<String, Map<String, String>>) content);
         }
         Map<String, Object> result =
                 MapUtil.<String, Object>builder().put(key, o).build();
-        ;
         sendTopic(GlobalWebSocketTopic.METRICS, result);
     }
-
-    public List<List<String>> convertMetricsVOsToStringList(List<MetricsVO> metricsVOS) {
-        List<List<String>> result = new ArrayList<>();
-
-        for (MetricsVO metricsVO : metricsVOS) {
-            Map<String, Object> content = (Map<String, Object>) metricsVO.getContent();
-            try {
-                List<String> row = new ArrayList<>();
-                row.add(metricsVO.getModel());
-                row.add(objectMapper.writeValueAsString(content));
-                row.add(metricsVO.getHeartTime().toString());
-                row.add(metricsVO.getDate());
-                result.add(row);
-            } catch (JsonProcessingException e) {
-                log.error("Failed to serialize content of MetricsVO: {}", metricsVO, e);
-            }
-        }
-
-        return result;
-    }
 }
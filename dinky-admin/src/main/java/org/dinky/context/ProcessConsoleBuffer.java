@@ -0,0 +1,296 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.context;
+
+import org.dinky.data.model.ProcessEntity;
+import org.dinky.data.model.ProcessStepEntity;
+import org.dinky.data.vo.ProcessConsoleVo;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.alibaba.fastjson2.JSONObject;
+
+import cn.hutool.core.io.FileUtil;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Console state of a running process. Every appended line gets a sequence number and is kept in
+ * a bounded ring, so that an update only has to carry the lines after the sequence number the
+ * client has already seen. A client that fell behind the ring gets a full update instead.
+ * <p>
+ * The process itself does not keep its log while it runs. New lines are appended to a spill file,
+ * a full update reads the log back from that file and the lines not spilled yet.
+ * </p>
+ */
+@Slf4j
+final class ProcessConsoleBuffer {
+
+    private final ProcessEntity process;
+    private final int capacity;
+    private final ArrayDeque<Line> ring;
+    private final File spillFile;
+    /** lines appended since the last spill */
+    private final List<Line> unspilled = new ArrayList<>();
+
+    private long seq;
+    private long shippedSeq;
+    private boolean changed = true;
+    /** lines were evicted from the ring before they were shipped */
+    private boolean overflowed;
+    /** the step tree or a status changed since the last spill */
+    private boolean structureChanged = true;
+
+    private boolean closed;
+
+    private long lastSpillMillis;
+
+    ProcessConsoleBuffer(ProcessEntity process, int capacity, File spillFile) {
+        this.process = process;
+        this.capacity = capacity;
+        this.ring = new ArrayDeque<>(capacity);
+        this.spillFile = spillFile;
+    }
+
+    ProcessEntity getProcess() {
+        return process;
+    }
+
+    synchronized void append(ProcessStepEntity step, boolean global, String line) {
+        if (step != null) {
+            process.setLastUpdateStep(step);
+        }
+        if (!global && step == null) {
+            return;
+        }
+        Line appended = new Line(++seq, step == null ? null : step.getKey(), global, line);
+        ring.addLast(appended);
+        if (!closed) {
+            unspilled.add(appended);
+        }
+        if (ring.size() > capacity) {
+            Line first = ring.removeFirst();
+            overflowed |= first.seq > shippedSeq;
+        }
+    }
+
+    /**
+     * Marks a change of the step tree or of a status that is not accompanied by a log line.
+     */
+    synchronized void markChanged() {
+        changed = true;
+        structureChanged = true;
+    }
+
+    /**
+     * Returns the update carrying everything that changed since the previous call, or null when
+     * nothing changed.
+     */
+    synchronized ProcessConsoleVo drain() {
+        if (seq == shippedSeq && !changed) {
+            return null;
+        }
+        ProcessConsoleVo update = overflowed ? snapshot() : since(shippedSeq);
+        shippedSeq = seq;
+        changed = false;
+        overflowed = false;
+        return update;
+    }
+
+    /**
+     * Returns the lines after {@code fromSeq}, or a full update when they are no longer in the ring.
+     */
+    synchronized ProcessConsoleVo since(long fromSeq) {
+        Line first = ring.peekFirst();
+        if (fromSeq < 0 || fromSeq > seq || (first != null && fromSeq < first.seq - 1)) {
+            return snapshot();
+        }
+        List<ProcessConsoleVo.Segment> segments = new ArrayList<>();
+        ProcessConsoleVo.Segment current = null;
+        Iterator<Line> iterator = ring.descendingIterator();
+        List<Line> lines = new ArrayList<>();
+        while (iterator.hasNext()) {
+            Line line = iterator.next();
+            if (line.seq <= fromSeq) {
+                break;
+            }
+            lines.add(line);
+        }
+        Collections.reverse(lines);
+        for (Line line : lines) {
+            if (current == null
+                    || current.isGlobal() != line.global
+                    || !Objects.equals(current.getStepKey(), line.stepKey)) {
+                current = new ProcessConsoleVo.Segment(line.seq, line.stepKey, line.global, new ArrayList<>());
+                segments.add(current);
+            }
+            current.getLines().add(line.text);
+        }
+        return ProcessConsoleVo.builder()
+                .key(process.getKey())
+                .full(false)
+                .fromSeq(fromSeq)
+                .seq(seq)
+                .process(process.copy(false))
+                .segments(segments)
+                .build();
+    }
+
+    synchronized ProcessConsoleVo snapshot() {
+        return ProcessConsoleVo.builder()
+                .key(process.getKey())
+                .full(true)
+                .seq(seq)
+                .process(fullProcess())
+                .segments(Collections.emptyList())
+                .build();
+    }
+
+    /**
+     * Returns a copy of the process carrying its whole log so far.
+     */
+    synchronized ProcessEntity fullProcess() {
+        List<Line> lines = readSpill(spillFile);
+        lines.addAll(unspilled);
+        return withLog(process, lines);
+    }
+
+    /**
+     * Appends the lines added since the previous spill to the spill file. Nothing is written
+     * while the previous spill is less than {@code intervalMillis} old, unless a ring full of
+     * lines is waiting, which bounds the lines held for the spill.
+     *
+     * @return true when anything changed since the previous spill, the caller then stores the
+     *     step tree and status of the process
+     */
+    synchronized boolean spill(long intervalMillis) {
+        if (closed || (unspilled.isEmpty() && !structureChanged)) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        if (unspilled.size() < capacity && now - lastSpillMillis < intervalMillis) {
+            return false;
+        }
+        if (!unspilled.isEmpty()) {
+            List<String> records = new ArrayList<>(unspilled.size());
+            unspilled.forEach(line -> records.add(line.toJson()));
+            FileUtil.appendUtf8Lines(records, spillFile);
+            unspilled.clear();
+        }
+        structureChanged = false;
+        lastSpillMillis = now;
+        return true;
+    }
+
+    /**
+     * Stops spilling and deletes the spill file, lines appended afterwards are only shipped.
+     *
+     * @return a copy of the process carrying its whole log
+     */
+    synchronized ProcessEntity close() {
+        ProcessEntity finished = fullProcess();
+        closed = true;
+        unspilled.clear();
+        FileUtil.del(spillFile);
+        return finished;
+    }
+
+    /**
+     * Reads the lines of a spill file, a missing file has none. A record that can not be parsed,
+     * as the last one after a crash while writing it, is skipped.
+     */
+    static List<Line> readSpill(File spillFile) {
+        List<Line> lines = new ArrayList<>();
+        if (!FileUtil.exist(spillFile)) {
+            return lines;
+        }
+        for (String record : FileUtil.readUtf8Lines(spillFile)) {
+            try {
+                lines.add(Line.fromJson(record));
+            } catch (Exception e) {
+                log.warn("Skip broken record of console spill {}", spillFile.getName());
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Returns a copy of the process and its step tree holding the given lines as log.
+     */
+    static ProcessEntity withLog(ProcessEntity process, Collection<Line> lines) {
+        ProcessEntity copy = process.copy(false);
+        copy.setLog(new StringBuilder());
+        Map<String, ProcessStepEntity> steps = new HashMap<>();
+        collectSteps(copy.getChildren(), steps);
+        for (Line line : lines) {
+            if (line.global) {
+                copy.appendLog(line.text);
+            }
+            ProcessStepEntity step = line.stepKey == null ? null : steps.get(line.stepKey);
+            if (step != null) {
+                step.appendLog(line.text);
+            }
+        }
+        return copy;
+    }
+
+    private static void collectSteps(List<ProcessStepEntity> children, Map<String, ProcessStepEntity> steps) {
+        for (ProcessStepEntity step : children) {
+            step.setLog(new StringBuilder());
+            steps.put(step.getKey(), step);
+            collectSteps(step.getChildren(), steps);
+        }
+    }
+
+    @AllArgsConstructor
+    static final class Line {
+        private final long seq;
+        private final String stepKey;
+        private final boolean global;
+        private final String text;
+
+        private String toJson() {
+            JSONObject json = new JSONObject();
+            json.put("seq", seq);
+            json.put("step", stepKey);
+            json.put("global", global);
+            json.put("text", text);
+            return json.toJSONString();
+        }
+
+        private static Line fromJson(String record) {
+            JSONObject json = JSONObject.parseObject(record);
+            return new Line(
+                    json.getLongValue("seq"),
+                    json.getString("step"),
+                    json.getBooleanValue("global"),
+                    json.getString("text"));
+        }
+    }
+}
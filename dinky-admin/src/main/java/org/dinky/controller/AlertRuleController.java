@@ -26,6 +26,7 @@ import org.dinky.data.enums.Status;
 import org.dinky.data.model.alert.AlertRule;
 import org.dinky.data.result.ProTableResult;
 import org.dinky.data.result.Result;
+import org.dinky.job.handler.AlertRuleMetrics;
 import org.dinky.job.handler.JobAlertHandler;
 import org.dinky.service.AlertRuleService;
 
@@ -33,6 +34,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -72,6 +74,12 @@ public class AlertRuleController {
         return result;
     }
 
+    @GetMapping("/metrics")
+    @ApiOperation("Get the evaluation count and time of each alert rule")
+    public Result<List<AlertRuleMetrics>> getRuleMetrics() {
+        return Result.succeed(JobAlertHandler.getInstance().getRuleMetrics());
+    }
+
     @PutMapping
     @ApiImplicitParam(
             name = "alertRule",
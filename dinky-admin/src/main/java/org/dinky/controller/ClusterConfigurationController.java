@@ -26,7 +26,9 @@ import org.dinky.data.enums.BusinessType;
 import org.dinky.data.enums.Status;
 import org.dinky.data.model.ClusterConfiguration;
 import org.dinky.data.result.Result;
+import org.dinky.gateway.config.GatewayConfig;
 import org.dinky.gateway.result.TestResult;
+import org.dinky.gateway.yarn.YarnClientRegistry;
 import org.dinky.service.ClusterConfigurationService;
 
 import java.util.List;
@@ -87,13 +89,27 @@ public class ClusterConfigurationController {
     public Result<Void> saveOrUpdateClusterConfig(@RequestBody ClusterConfigurationDTO clusterConfiguration) {
         TestResult testResult = clusterConfigurationService.testGateway(clusterConfiguration);
         clusterConfiguration.setIsAvailable(testResult.isAvailable());
+        ClusterConfiguration oldConfiguration = clusterConfiguration.getId() == null
+                ? null
+                : clusterConfigurationService.getClusterConfigById(clusterConfiguration.getId());
         if (clusterConfigurationService.saveOrUpdate(clusterConfiguration.toBean())) {
+            // the configuration files of the cluster may have been changed as well
+            invalidateYarnClient(clusterConfiguration);
+            if (oldConfiguration != null) {
+                invalidateYarnClient(ClusterConfigurationDTO.fromBean(oldConfiguration));
+            }
             return Result.succeed(Status.SAVE_SUCCESS);
         } else {
             return Result.failed(Status.SAVE_FAILED);
         }
     }
 
+    private static void invalidateYarnClient(ClusterConfigurationDTO clusterConfiguration) {
+        if (clusterConfiguration.getConfig() != null) {
+            YarnClientRegistry.invalidate(GatewayConfig.build(clusterConfiguration.getConfig()));
+        }
+    }
+
     /**
      * query cluster config list
      * @param keyword
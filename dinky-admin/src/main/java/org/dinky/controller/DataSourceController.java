@@ -34,11 +34,15 @@ import org.dinky.data.model.SqlGeneration;
 import org.dinky.data.model.Table;
 import org.dinky.data.result.Result;
 import org.dinky.metadata.driver.DriverPool;
+import org.dinky.metadata.driver.DriverPoolMetrics;
 import org.dinky.metadata.result.JdbcSelectResult;
 import org.dinky.service.DataBaseService;
 
+import java.io.IOException;
 import java.util.List;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -324,9 +328,21 @@ public class DataSourceController {
             },
             mode = SaMode.OR)
     public Result<String> unCacheSchemasAndTables(@RequestParam Integer id) {
+        databaseService.unCacheMetadata(id);
         return Result.succeed(Status.DATASOURCE_CLEAR_CACHE_SUCCESS);
     }
 
+    /**
+     * get the connection pool state of the data sources in use
+     *
+     * @return {@link Result}< {@link List}< {@link DriverPoolMetrics}>>
+     */
+    @GetMapping("/poolMetrics")
+    @ApiOperation("Get Connection Pool Metrics Of Data Sources")
+    public Result<List<DriverPoolMetrics>> getPoolMetrics() {
+        return Result.succeed(DriverPool.getMetrics());
+    }
+
     /**
      * get columns of table
      *
@@ -427,6 +443,30 @@ public class DataSourceController {
         }
     }
 
+    /**
+     * export the result of a query as csv
+     *
+     * @param queryData {@link QueryData}
+     * @param response {@link HttpServletResponse}
+     */
+    @PostMapping("/exportData")
+    @Log(title = "Export Data", businessType = BusinessType.EXPORT)
+    @ApiOperation("Export Data As Csv")
+    @ApiImplicitParam(
+            name = "queryData",
+            value = "Query Data",
+            required = true,
+            dataType = "QueryData",
+            paramType = "body",
+            dataTypeClass = QueryData.class)
+    @SaCheckPermission(PermissionConstants.REGISTRATION_DATA_SOURCE_DETAIL_QUERY)
+    public void exportData(@RequestBody QueryData queryData, HttpServletResponse response) throws IOException {
+        String fileName = Asserts.isNotNullString(queryData.getTableName()) ? queryData.getTableName() : "result";
+        response.setContentType("text/csv;charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=" + fileName + ".csv");
+        databaseService.exportData(queryData, response.getOutputStream());
+    }
+
     /**
      * get sql generation
      *
@@ -25,6 +25,7 @@ import org.dinky.data.annotations.Log;
 import org.dinky.data.enums.BusinessType;
 import org.dinky.data.enums.Status;
 import org.dinky.data.model.ID;
+import org.dinky.data.model.JobStatusEvent;
 import org.dinky.data.model.devops.TaskManagerConfiguration;
 import org.dinky.data.model.ext.JobInfoDetail;
 import org.dinky.data.model.home.JobInstanceStatus;
@@ -327,4 +328,12 @@ public class JobInstanceController {
             return Result.failed();
         }
     }
+
+    @PostMapping("/hookJobEvent")
+    @ApiOperation("hookJobEvent")
+    @SaIgnore
+    public Result<Void> hookJobEvent(@RequestBody JobStatusEvent event) {
+        jobInstanceService.hookJobEvent(event);
+        return Result.succeed();
+    }
 }
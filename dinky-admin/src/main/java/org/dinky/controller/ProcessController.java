@@ -24,6 +24,7 @@ import org.dinky.data.enums.Status;
 import org.dinky.data.model.ProcessEntity;
 import org.dinky.data.result.ProTableResult;
 import org.dinky.data.result.Result;
+import org.dinky.data.vo.ProcessConsoleVo;
 
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -34,6 +35,7 @@ import org.springframework.web.bind.annotation.RestController;
 import cn.dev33.satoken.annotation.SaCheckLogin;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiImplicitParam;
+import io.swagger.annotations.ApiImplicitParams;
 import io.swagger.annotations.ApiOperation;
 import lombok.RequiredArgsConstructor;
 
@@ -75,6 +77,20 @@ public class ProcessController {
         return Result.succeed(ConsoleContextHolder.getInstances().getProcess(processName));
     }
 
+    @GetMapping("/getConsole")
+    @ApiOperation("Get process console from a sequence number on")
+    @ApiImplicitParams({
+        @ApiImplicitParam(name = "processName", value = "process name", dataType = "String"),
+        @ApiImplicitParam(
+                name = "seq",
+                value = "sequence number of the last line the client has, negative for the full console",
+                dataType = "Long")
+    })
+    public Result<ProcessConsoleVo> getConsole(
+            @RequestParam String processName, @RequestParam(defaultValue = "-1") long seq) {
+        return Result.succeed(ConsoleContextHolder.getInstances().getConsole(processName, seq));
+    }
+
     @DeleteMapping("/clearProcessLog")
     @ApiOperation("Clear Process")
     @ApiImplicitParam(name = "processName", value = "process name", dataType = "ProcessEntity")
@@ -31,7 +31,13 @@ import org.dinky.data.model.Column;
 import org.dinky.data.model.Schema;
 import org.dinky.data.result.IResult;
 import org.dinky.data.result.Result;
+import org.dinky.data.result.ResultPool;
+import org.dinky.data.result.ResultPoolMetrics;
 import org.dinky.data.result.SelectResult;
+import org.dinky.executor.ExecutorPool;
+import org.dinky.executor.ExecutorPoolMetrics;
+import org.dinky.explainer.ExplainCache;
+import org.dinky.explainer.ExplainCacheMetrics;
 import org.dinky.explainer.lineage.LineageResult;
 import org.dinky.service.StudioService;
 
@@ -86,9 +92,27 @@ public class StudioController {
     /** 根据jobId获取数据 */
     @GetMapping("/getJobData")
     @ApiOperation("Get Job Plan")
-    @ApiImplicitParam(name = "jobId", value = "Get Job Plan", required = true, dataType = "String", paramType = "query")
-    public Result<SelectResult> getJobData(@RequestParam String jobId) {
-        return Result.succeed(studioService.getJobData(jobId));
+    @ApiImplicitParams({
+        @ApiImplicitParam(
+                name = "jobId",
+                value = "Get Job Plan",
+                required = true,
+                dataType = "String",
+                paramType = "query"),
+        @ApiImplicitParam(name = "offset", value = "First Row", dataType = "Integer", paramType = "query"),
+        @ApiImplicitParam(name = "limit", value = "Max Rows", dataType = "Integer", paramType = "query")
+    })
+    public Result<SelectResult> getJobData(
+            @RequestParam String jobId,
+            @RequestParam(required = false) Integer offset,
+            @RequestParam(required = false) Integer limit) {
+        if (offset == null && limit == null) {
+            return Result.succeed(studioService.getJobData(jobId));
+        }
+        return Result.succeed(studioService.getJobData(
+                jobId,
+                offset == null ? 0 : Math.max(offset, 0),
+                limit == null ? Integer.MAX_VALUE : Math.max(limit, 0)));
     }
 
     /** 获取单任务实例的血缘分析 */
@@ -167,4 +191,37 @@ public class StudioController {
     public Result<List<Column>> getMSColumns(@RequestBody StudioMetaStoreDTO studioMetaStoreDTO) {
         return Result.succeed(studioService.getMSColumns(studioMetaStoreDTO));
     }
+
+    /**
+     * get the state of the warm Flink executors used by explain
+     *
+     * @return {@link Result}< {@link List}< {@link ExecutorPoolMetrics}>>
+     */
+    @GetMapping("/executorPoolMetrics")
+    @ApiOperation("Get Executor Pool Metrics")
+    public Result<List<ExecutorPoolMetrics>> getExecutorPoolMetrics() {
+        return Result.succeed(ExecutorPool.getMetrics());
+    }
+
+    /**
+     * get the size and hit rate of the cache of explain results
+     *
+     * @return {@link Result}< {@link ExplainCacheMetrics}>
+     */
+    @GetMapping("/explainCacheMetrics")
+    @ApiOperation("Get Explain Cache Metrics")
+    public Result<ExplainCacheMetrics> getExplainCacheMetrics() {
+        return Result.succeed(ExplainCache.getMetrics());
+    }
+
+    /**
+     * get the memory use, spills and evictions of the results of the running previews
+     *
+     * @return {@link Result}< {@link ResultPoolMetrics}>
+     */
+    @GetMapping("/resultPoolMetrics")
+    @ApiOperation("Get Result Pool Metrics")
+    public Result<ResultPoolMetrics> getResultPoolMetrics() {
+        return Result.succeed(ResultPool.getMetrics());
+    }
 }
@@ -0,0 +1,66 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.data.vo;
+
+import org.dinky.data.model.ProcessEntity;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A console update of a process. A full update carries the process with all of its logs, a
+ * delta carries the step tree without logs and the lines appended after {@link #fromSeq}.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProcessConsoleVo {
+    /** key of the process run, it changes when the task is submitted again */
+    private String key;
+
+    private boolean full;
+    private long fromSeq;
+    /** sequence number of the last line contained in this update */
+    private long seq;
+
+    private ProcessEntity process;
+    private List<Segment> segments;
+
+    /**
+     * Successive lines written to the same target, the first of them has sequence number {@link #seq}.
+     */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Segment {
+        private long seq;
+        /** step the lines belong to, null when they are only written to the process log */
+        private String stepKey;
+        /** whether the lines are also written to the process log */
+        private boolean global;
+
+        private List<String> lines;
+    }
+}
@@ -20,6 +20,7 @@
 package org.dinky.init;
 
 import org.dinky.assertion.Asserts;
+import org.dinky.context.MetricsContextHolder;
 import org.dinky.context.TenantContextHolder;
 import org.dinky.daemon.pool.FlinkJobThreadPool;
 import org.dinky.daemon.pool.ScheduleThreadPool;
@@ -31,10 +32,15 @@ import org.dinky.data.model.SystemConfiguration;
 import org.dinky.data.model.Task;
 import org.dinky.data.model.job.JobInstance;
 import org.dinky.data.model.rbac.Tenant;
+import org.dinky.data.result.ResultPool;
+import org.dinky.executor.ExecutorPool;
+import org.dinky.explainer.ExplainCache;
 import org.dinky.function.constant.PathConstant;
 import org.dinky.function.pool.UdfCodePool;
 import org.dinky.job.ClearJobHistoryTask;
 import org.dinky.job.FlinkJobTask;
+import org.dinky.metadata.driver.DriverPool;
+import org.dinky.metrics.MetricsResolution;
 import org.dinky.resource.BaseResourceManager;
 import org.dinky.scheduler.client.ProjectClient;
 import org.dinky.scheduler.exception.SchedulerException;
@@ -49,10 +55,14 @@ import org.dinky.utils.JsonUtils;
 import org.dinky.utils.UDFUtils;
 
 import java.net.URL;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import javax.annotation.PreDestroy;
+
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.context.annotation.Profile;
@@ -102,6 +112,11 @@ public class SystemInit implements ApplicationRunner {
         for (Tenant tenant : tenants) {
             taskService.initDefaultFlinkSQLEnv(tenant.getId());
         }
+        initMetricsStore();
+        initResultPool();
+        initDriverPool();
+        initExecutorPool();
+        initExplainCache();
         initDaemon();
         initDolphinScheduler();
         registerUDF();
@@ -140,6 +155,78 @@ public class SystemInit implements ApplicationRunner {
                 }));
     }
 
+    /**
+     * init the storage of the Flink metrics history
+     */
+    private void initMetricsStore() {
+        MetricsContextHolder metricsContextHolder = MetricsContextHolder.getInstance();
+        Map<MetricsResolution, Configuration<Integer>> retentionDays = new EnumMap<>(MetricsResolution.class);
+        retentionDays.put(MetricsResolution.RAW, systemConfiguration.getMetricsRetentionDays());
+        retentionDays.put(MetricsResolution.MINUTE, systemConfiguration.getMetricsMinuteRetentionDays());
+        retentionDays.put(MetricsResolution.TEN_MINUTES, systemConfiguration.getMetricsTenMinutesRetentionDays());
+        retentionDays.put(MetricsResolution.HOUR, systemConfiguration.getMetricsHourRetentionDays());
+        Map<MetricsResolution, Integer> days = new EnumMap<>(MetricsResolution.class);
+        retentionDays.forEach((resolution, configuration) -> days.put(resolution, configuration.getValue()));
+        metricsContextHolder.initStore(systemConfiguration.getMetricsStorage().getValue(), days);
+        retentionDays.forEach((resolution, configuration) ->
+                configuration.addChangeEvent(value -> metricsContextHolder.setRetentionDays(resolution, value)));
+    }
+
+    /**
+     * init the memory budget of the running query previews
+     */
+    private void initResultPool() {
+        Configuration<Integer> poolMaxMemory = systemConfiguration.getResultPoolMaxMemory();
+        Configuration<Integer> resultMaxMemory = systemConfiguration.getResultMaxMemory();
+        Configuration<Integer> idleTimeout = systemConfiguration.getResultIdleTimeout();
+        ResultPool.setMaxBytes(poolMaxMemory.getValue() * 1024L * 1024);
+        ResultPool.setMaxResultBytes(resultMaxMemory.getValue() * 1024L * 1024);
+        ResultPool.setIdleMillis(TimeUnit.MINUTES.toMillis(idleTimeout.getValue()));
+        poolMaxMemory.addChangeEvent(value -> ResultPool.setMaxBytes(value * 1024L * 1024));
+        resultMaxMemory.addChangeEvent(value -> ResultPool.setMaxResultBytes(value * 1024L * 1024));
+        idleTimeout.addChangeEvent(value -> ResultPool.setIdleMillis(TimeUnit.MINUTES.toMillis(value)));
+    }
+
+    /**
+     * init the limits of the data source connection pools
+     */
+    private void initDriverPool() {
+        Configuration<Integer> maxPools = systemConfiguration.getDatasourceMaxPools();
+        Configuration<Integer> idleTimeout = systemConfiguration.getDatasourceIdleTimeout();
+        DriverPool.setMaxPools(maxPools.getValue());
+        DriverPool.setIdleTimeoutMillis(TimeUnit.MINUTES.toMillis(idleTimeout.getValue()));
+        maxPools.addChangeEvent(DriverPool::setMaxPools);
+        idleTimeout.addChangeEvent(value -> DriverPool.setIdleTimeoutMillis(TimeUnit.MINUTES.toMillis(value)));
+    }
+
+    /**
+     * init the pool of warm Flink executors used by explain
+     */
+    private void initExecutorPool() {
+        Configuration<Integer> poolSize = systemConfiguration.getExecutorPoolSize();
+        ExecutorPool.setMaxIdle(poolSize.getValue());
+        ExecutorPool.warmUp();
+        poolSize.addChangeEvent(value -> {
+            ExecutorPool.setMaxIdle(value);
+            ExecutorPool.trim();
+            ExecutorPool.warmUp();
+        });
+    }
+
+    /**
+     * init the size of the cache of explain results
+     */
+    private void initExplainCache() {
+        Configuration<Integer> cacheSize = systemConfiguration.getExplainCacheSize();
+        ExplainCache.setCapacity(cacheSize.getValue());
+        cacheSize.addChangeEvent(ExplainCache::setCapacity);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        MetricsContextHolder.getInstance().closeStore();
+    }
+
     /**
      * init task monitor
      */
@@ -151,6 +238,11 @@ public class SystemInit implements ApplicationRunner {
         // Add flink running job task to flink job thread pool
         List<JobInstance> jobInstances = jobInstanceService.listJobInstanceActive();
         FlinkJobThreadPool flinkJobThreadPool = FlinkJobThreadPool.getInstance();
+        flinkJobThreadPool.setMaxRequestsPerHost(
+                systemConfiguration.getJobMonitorMaxRequestsPerHost().getValue());
+        flinkJobThreadPool.setAsyncMode(systemConfiguration.getJobMonitorAsync().getValue());
+        systemConfiguration.getJobMonitorMaxRequestsPerHost().addChangeEvent(flinkJobThreadPool::setMaxRequestsPerHost);
+        systemConfiguration.getJobMonitorAsync().addChangeEvent(flinkJobThreadPool::setAsyncMode);
         for (JobInstance jobInstance : jobInstances) {
             DaemonTaskConfig config = new DaemonTaskConfig(FlinkJobTask.TYPE, jobInstance.getId());
             DaemonTask daemonTask = DaemonTask.build(config);
@@ -0,0 +1,66 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.interceptor;
+
+import org.dinky.mapper.CatalogueMapper;
+import org.dinky.mapper.TaskMapper;
+import org.dinky.service.catalogue.cache.CatalogueTreeCache;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.baomidou.mybatisplus.extension.plugins.inner.InnerInterceptor;
+
+/**
+ * Invalidates the {@link CatalogueTreeCache} on every insert, update or delete of a catalogue or a
+ * task, and once more when the surrounding transaction completes, so that a tree built from
+ * uncommitted data does not outlive the transaction.
+ */
+public class CatalogueTreeCacheInterceptor implements InnerInterceptor {
+
+    private static final String CATALOGUE_STATEMENT_PREFIX = CatalogueMapper.class.getName() + ".";
+    private static final String TASK_STATEMENT_PREFIX = TaskMapper.class.getName() + ".";
+    /** bound to a transaction which already invalidates the cache on completion */
+    private static final Object SYNCHRONIZATION_KEY = new Object();
+
+    @Override
+    public void beforeUpdate(Executor executor, MappedStatement ms, Object parameter) {
+        String id = ms.getId();
+        if (!id.startsWith(CATALOGUE_STATEMENT_PREFIX) && !id.startsWith(TASK_STATEMENT_PREFIX)) {
+            return;
+        }
+        CatalogueTreeCache.invalidate();
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(SYNCHRONIZATION_KEY)) {
+            TransactionSynchronizationManager.bindResource(SYNCHRONIZATION_KEY, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(SYNCHRONIZATION_KEY);
+                    CatalogueTreeCache.invalidate();
+                }
+            });
+        }
+    }
+}
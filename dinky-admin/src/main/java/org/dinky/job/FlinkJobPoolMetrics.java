@@ -0,0 +1,59 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.job;
+
+import org.dinky.daemon.pool.ConcurrencyLimiter;
+import org.dinky.daemon.pool.FlinkJobThreadPool;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exposes the state of the {@link FlinkJobThreadPool} through the actuator metrics endpoints:
+ * the number of monitored jobs, the refresh lag and the in-flight refreshes per JobManager host.
+ */
+@Component
+public class FlinkJobPoolMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FlinkJobThreadPool pool = FlinkJobThreadPool.getInstance();
+        Gauge.builder("dinky.job.monitor.queue.size", pool, FlinkJobThreadPool::getQueueSize)
+                .description("Number of jobs monitored by the flink job thread pool")
+                .register(registry);
+        Gauge.builder("dinky.job.monitor.refresh.lag", pool, FlinkJobThreadPool::getRefreshLag)
+                .baseUnit("milliseconds")
+                .description("How late the most recent job refresh started compared with the time it was due")
+                .register(registry);
+
+        ConcurrencyLimiter limiter = pool.getConcurrencyLimiter();
+        Gauge.builder("dinky.job.monitor.inflight", limiter, ConcurrencyLimiter::getTotalInFlight)
+                .description("Number of job refreshes in flight")
+                .register(registry);
+        limiter.setNewKeyListener(
+                host -> Gauge.builder("dinky.job.monitor.host.inflight", limiter, l -> l.getInFlight(host))
+                        .tag("host", host)
+                        .description("Number of job refreshes in flight against one JobManager host")
+                        .register(registry));
+    }
+}
@@ -21,7 +21,6 @@ package org.dinky.job;
 
 import org.dinky.assertion.Asserts;
 import org.dinky.context.SpringContextUtils;
-import org.dinky.daemon.constant.FlinkTaskConstant;
 import org.dinky.daemon.task.DaemonTask;
 import org.dinky.daemon.task.DaemonTaskConfig;
 import org.dinky.data.model.SystemConfiguration;
@@ -54,8 +53,6 @@ public class FlinkJobTask implements DaemonTask {
 
     private static final MonitorService monitorService;
 
-    private long preDealTime;
-
     private long refreshCount = 0;
 
     private Map<String, Map<String, String>> verticesAndMetricsMap = new ConcurrentHashMap<>();
@@ -99,8 +96,6 @@ public class FlinkJobTask implements DaemonTask {
      */
     @Override
     public boolean dealTask() {
-        volatilityBalance();
-
         boolean isDone = JobRefreshHandler.refreshJob(jobInfoDetail, isNeedSave());
         if (Asserts.isAllNotNull(jobInfoDetail.getClusterInstance())) {
             JobAlertHandler.getInstance().check(jobInfoDetail);
@@ -112,24 +107,48 @@ public class FlinkJobTask implements DaemonTask {
     }
 
     /**
-     * Volatility balance.
+     * Refresh interval of the job.
      * <p>
-     * This method is used to perform volatility equilibrium operations. Between each call,
-     * by calculating the time interval between the current time and the last processing time,
-     * If the interval is less than the set sleep time (TIME_SLEEP),
-     * The thread sleeps for a period of time. Then update the last processing time to the current time.
+     * The task queue schedules the next refresh of this job once this interval has elapsed after the previous one,
+     * so the worker never sleeps while holding the task.
+     * Jobs that push their own state (see {@link JobStatusReportRegistry}) are polled less often,
+     * unless their metrics are collected on every refresh.
      * </p>
+     *
+     * @return refresh interval in milliseconds
      */
-    public void volatilityBalance() {
-        long gap = System.currentTimeMillis() - this.preDealTime;
-        if (gap < FlinkTaskConstant.TIME_SLEEP) {
-            try {
-                Thread.sleep(FlinkTaskConstant.TIME_SLEEP);
-            } catch (InterruptedException e) {
-                log.error(e.getMessage(), e);
-            }
+    @Override
+    public long getRefreshInterval() {
+        long interval = SystemConfiguration.getInstances().getJobRefreshInterval();
+        if (!SystemConfiguration.getInstances().getMetricsSysEnable().getValue()
+                && JobStatusReportRegistry.getInstance().isReporting(config.getId())) {
+            return Math.max(interval, JobStatusReportRegistry.REPORTED_REFRESH_INTERVAL);
+        }
+        return interval;
+    }
+
+    /**
+     * Refreshes of jobs running on the same JobManager share one concurrency limit in async mode.
+     *
+     * @return the JobManager host, or null if the cluster is unknown
+     */
+    @Override
+    public String getConcurrencyKey() {
+        if (jobInfoDetail == null || jobInfoDetail.getClusterInstance() == null) {
+            return null;
+        }
+        return jobInfoDetail.getClusterInstance().getJobManagerHost();
+    }
+
+    /**
+     * Drops the job data cached for the refreshes of this job and the reporting state of the instance.
+     */
+    @Override
+    public void onRemoved() {
+        JobStatusReportRegistry.getInstance().remove(config.getId());
+        if (jobInfoDetail != null && jobInfoDetail.getInstance() != null) {
+            JobRefreshHandler.invalidateJobData(jobInfoDetail.getInstance().getJid());
         }
-        preDealTime = System.currentTimeMillis();
     }
 
     /**
@@ -0,0 +1,103 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.job;
+
+import org.dinky.data.enums.JobStatus;
+import org.dinky.data.model.JobStatusEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Tracks the job instances whose dinky-app pushes its own state.
+ * <p>
+ * While events keep arriving within {@link #LEASE} the job is considered self reporting and {@link FlinkJobTask}
+ * polls it only every {@link #REPORTED_REFRESH_INTERVAL}. Once the events stop, for example because the reporter
+ * can not reach the admin, the lease expires and normal polling resumes.
+ * </p>
+ * <p>
+ * Whether a job instance runs in application mode, the only mode with a reporter, is decided once per instance.
+ * The entries of an instance are dropped by {@link #remove(Integer)} when its {@link FlinkJobTask} is removed.
+ * </p>
+ */
+public class JobStatusReportRegistry {
+
+    /** Three missed heartbeats of the reporter, which sends one every 15 seconds. */
+    public static final long LEASE = 45_000;
+
+    public static final long REPORTED_REFRESH_INTERVAL = 60_000;
+
+    private static final JobStatusReportRegistry INSTANCE = new JobStatusReportRegistry();
+
+    private final Map<Integer, Long> lastReportTimes = new ConcurrentHashMap<>();
+
+    private final Map<Integer, Boolean> applicationModes = new ConcurrentHashMap<>();
+
+    public static JobStatusReportRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records an event of a job instance, a done status ends the tracking.
+     */
+    public void report(Integer jobInstanceId, JobStatusEvent event) {
+        if (JobStatus.isDone(event.getStatus())) {
+            lastReportTimes.remove(jobInstanceId);
+        } else {
+            lastReportTimes.put(jobInstanceId, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Whether a job instance runs in application mode, the decision is cached until the instance is removed.
+     *
+     * @param resolver decides it for a job instance id that is not cached yet
+     */
+    public boolean isApplicationMode(Integer jobInstanceId, Predicate<Integer> resolver) {
+        Boolean applicationMode = applicationModes.get(jobInstanceId);
+        if (applicationMode == null) {
+            // resolved outside of the map, it queries the database
+            applicationMode = resolver.test(jobInstanceId);
+            applicationModes.putIfAbsent(jobInstanceId, applicationMode);
+        }
+        return applicationMode;
+    }
+
+    /**
+     * Forgets a job instance, called when its refresh task is removed.
+     */
+    public void remove(Integer jobInstanceId) {
+        lastReportTimes.remove(jobInstanceId);
+        applicationModes.remove(jobInstanceId);
+    }
+
+    public boolean isReporting(Integer jobInstanceId) {
+        Long lastReportTime = lastReportTimes.get(jobInstanceId);
+        if (lastReportTime == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - lastReportTime > LEASE) {
+            lastReportTimes.remove(jobInstanceId, lastReportTime);
+            return false;
+        }
+        return true;
+    }
+}
@@ -55,6 +55,7 @@ public class SystemMetricsTask implements DaemonTask {
         registerMetrics(metricsTotal.getJvm());
         registerMetrics(metricsTotal.getCpu());
         registerMetrics(metricsTotal.getMem());
+        registerMetrics(metricsTotal.getResourceCache());
 
         return this;
     }
@@ -0,0 +1,113 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.job.handler;
+
+import org.dinky.context.TenantContextHolder;
+import org.dinky.data.model.alert.AlertHistory;
+import org.dinky.service.AlertHistoryService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Collects the history of the dispatched alerts and saves it in batches, instead of one insert per alert on the
+ * thread that sent it. It is the {@code alertHistoryWriter} bean, the history still pending is saved when the
+ * application context closes.
+ */
+@Slf4j
+public class AlertHistoryWriter {
+
+    private static final long FLUSH_INTERVAL_MILLIS = 1000;
+    private static final int BATCH_SIZE = 200;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
+    private final AlertHistoryService alertHistoryService;
+    private final Queue<AlertHistory> pending = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService scheduler;
+
+    public AlertHistoryWriter(AlertHistoryService alertHistoryService) {
+        this.alertHistoryService = alertHistoryService;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("alert-history-writer-%d")
+                .setDaemon(true)
+                .build());
+        scheduler.scheduleWithFixedDelay(
+                this::flush, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public void add(AlertHistory alertHistory) {
+        pending.add(alertHistory);
+    }
+
+    /**
+     * Saves the pending alert history.
+     */
+    public synchronized void flush() {
+        // the tenant of every row is set when it is added
+        TenantContextHolder.ignoreTenant();
+        List<AlertHistory> batch = new ArrayList<>();
+        AlertHistory alertHistory;
+        while ((alertHistory = pending.poll()) != null) {
+            batch.add(alertHistory);
+            if (batch.size() >= BATCH_SIZE) {
+                save(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            save(batch);
+        }
+    }
+
+    /**
+     * Stops the scheduled flushes and saves the history that is still pending.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                log.warn("Alert history writer did not stop in {} ms", SHUTDOWN_TIMEOUT_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void save(List<AlertHistory> batch) {
+        try {
+            alertHistoryService.saveBatch(batch);
+        } catch (Exception e) {
+            log.error("Failed to save {} alert history records", batch.size(), e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.job.handler;
+
+import lombok.Data;
+
+/**
+ * AlertRuleMetrics
+ *
+ * <p>Snapshot of the evaluations of one {@link CompiledAlertRule} since the rules were last refreshed.
+ */
+@Data
+public class AlertRuleMetrics {
+
+    private Integer ruleId;
+    private String name;
+    private boolean compiled;
+    private long evaluationCount;
+    private long matchCount;
+    private long failureCount;
+    private long avgNanos;
+    private long maxNanos;
+}
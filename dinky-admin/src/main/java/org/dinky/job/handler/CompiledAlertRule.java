@@ -0,0 +1,332 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.job.handler;
+
+import org.dinky.data.dto.AlertRuleDTO;
+import org.dinky.data.exception.DinkyException;
+import org.dinky.data.model.alert.AlertTriggerRule;
+import org.dinky.data.model.ext.JobAlertData;
+import org.dinky.data.options.JobAlertRuleOptions;
+import org.dinky.utils.JsonUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+import org.jeasy.rules.api.Condition;
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.spel.SpELCondition;
+
+import cn.hutool.core.text.StrFormatter;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * CompiledAlertRule
+ *
+ * <p>An alert rule whose rule items are compiled once, when the rules are refreshed, into a predicate
+ * over the fields of {@link JobAlertData}. Checking a job therefore neither converts it to a map nor
+ * interprets SpEL. A rule that refers to an unknown key, uses an unknown operator or compares with
+ * something other than a plain literal falls back to the SpEL condition it was defined with.
+ */
+@Slf4j
+public class CompiledAlertRule {
+
+    private static final Map<String, Function<JobAlertData, String>> STRING_FIELDS = new HashMap<>();
+    private static final Map<String, Function<JobAlertData, Number>> NUMBER_FIELDS = new HashMap<>();
+    private static final Map<String, Predicate<JobAlertData>> BOOLEAN_FIELDS = new HashMap<>();
+
+    static {
+        STRING_FIELDS.put(JobAlertRuleOptions.FIELD_NAME_TIME, JobAlertData::getAlertTime);
+        STRING_FIELDS.put(JobAlertRuleOptions.FIELD_NAME_START_TIME, JobAlertData::getJobStartTime);
+        STRING_FIELDS.put(JobAlertRuleOptions.FIELD_NAME_END_TIME, JobAlertData::getJobEndTime);
+        STRING_FIELDS.put(JobAlertRuleOptions.FIELD_NAME_JOB_NAME, JobAlertData::getJobName);
+        STRING_FIELDS.put(JobAlertRuleOptions.FIELD_NAME_JOB_ID, JobAlertData::getJobId);
+        STRING_FIELDS.put(JobAlertRuleOptions.FIELD_NAME_JOB_STATUS, JobAlertData::getJobStatus);
+        STRING_FIELDS.put(JobAlertRuleOptions.FIELD_JOB_TASK_URL, JobAlertData::getTaskUrl);
+        STRING_FIELDS.put(JobAlertRuleOptions.FIELD_NAME_CLUSTER_NAME, JobAlertData::getClusterName);
+        STRING_FIELDS.put(JobAlertRuleOptions.FIELD_NAME_CLUSTER_TYPE, JobAlertData::getClusterType);
+        STRING_FIELDS.put(JobAlertRuleOptions.FIELD_NAME_CLUSTER_HOSTS, JobAlertData::getClusterHosts);
+        STRING_FIELDS.put(JobAlertRuleOptions.FIELD_NAME_EXCEPTIONS_MSG, JobAlertData::getErrorMsg);
+
+        NUMBER_FIELDS.put(JobAlertRuleOptions.FIELD_NAME_DURATION, JobAlertData::getDuration);
+        NUMBER_FIELDS.put(JobAlertRuleOptions.FIELD_TASK_ID, JobAlertData::getTaskId);
+        NUMBER_FIELDS.put(JobAlertRuleOptions.FIELD_JOB_INSTANCE_ID, JobAlertData::getJobInstanceId);
+        NUMBER_FIELDS.put(JobAlertRuleOptions.FIELD_NAME_CHECKPOINT_COST_TIME, JobAlertData::getCheckpointCostTime);
+        NUMBER_FIELDS.put(
+                JobAlertRuleOptions.FIELD_NAME_CHECKPOINT_FAILED_COUNT, JobAlertData::getCheckpointFailedCount);
+        NUMBER_FIELDS.put(
+                JobAlertRuleOptions.FIELD_NAME_CHECKPOINT_COMPLETE_COUNT, JobAlertData::getCheckpointCompleteCount);
+
+        BOOLEAN_FIELDS.put(JobAlertRuleOptions.FIELD_JOB_BATCH_MODEL, JobAlertData::isBatchModel);
+        BOOLEAN_FIELDS.put(JobAlertRuleOptions.FIELD_NAME_CHECKPOINT_FAILED, JobAlertData::isCheckpointFailed);
+        BOOLEAN_FIELDS.put(JobAlertRuleOptions.FIELD_NAME_IS_EXCEPTION, JobAlertData::isException);
+    }
+
+    @Getter
+    private final AlertRuleDTO alertRule;
+
+    /** The compiled predicate, null if the rule is evaluated through {@link #fallback}. */
+    private final Predicate<JobAlertData> predicate;
+
+    private final Condition fallback;
+
+    private final LongAdder evaluationCount = new LongAdder();
+    private final LongAdder matchCount = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    private CompiledAlertRule(AlertRuleDTO alertRule, Predicate<JobAlertData> predicate, Condition fallback) {
+        this.alertRule = alertRule;
+        this.predicate = predicate;
+        this.fallback = fallback;
+    }
+
+    public static CompiledAlertRule compile(AlertRuleDTO alertRuleDTO) {
+        List<AlertTriggerRule> ruleItems = JsonUtils.toList(alertRuleDTO.getRule(), AlertTriggerRule.class);
+        Predicate<JobAlertData> predicate = compile(ruleItems, alertRuleDTO.getTriggerConditions());
+        if (predicate != null) {
+            return new CompiledAlertRule(alertRuleDTO, predicate, null);
+        }
+
+        List<String> conditionList = ruleItems.stream()
+                .map(r -> StrFormatter.format(" #{} {} {} ", r.getRuleKey(), r.getRuleOperator(), r.getRuleValue()))
+                .collect(Collectors.toList());
+        String conditionContent = String.join(alertRuleDTO.getTriggerConditions(), conditionList);
+        String condition = StrFormatter.format("#{{}}", conditionContent);
+        log.info("Alert Rule: {} can not be compiled, evaluate it as SpEL: {}", alertRuleDTO.getName(), condition);
+        return new CompiledAlertRule(alertRuleDTO, null, new SpELCondition(condition));
+    }
+
+    /**
+     * Evaluates the rule against the data of one job.
+     *
+     * @param data the job alert data
+     * @return true if the alert should be fired
+     */
+    public boolean evaluate(JobAlertData data) {
+        long start = System.nanoTime();
+        boolean matched = false;
+        try {
+            matched = predicate != null ? predicate.test(data) : fallback.evaluate(toFacts(data));
+        } catch (Exception e) {
+            failureCount.increment();
+            log.error("Alert Rule: {} evaluated with error", alertRule.getName(), e);
+        }
+        long cost = System.nanoTime() - start;
+        evaluationCount.increment();
+        totalNanos.add(cost);
+        maxNanos.accumulateAndGet(cost, Math::max);
+        if (matched) {
+            matchCount.increment();
+        }
+        return matched;
+    }
+
+    public boolean isCompiled() {
+        return predicate != null;
+    }
+
+    public AlertRuleMetrics getMetrics() {
+        AlertRuleMetrics metrics = new AlertRuleMetrics();
+        long count = evaluationCount.sum();
+        metrics.setRuleId(alertRule.getId());
+        metrics.setName(alertRule.getName());
+        metrics.setCompiled(isCompiled());
+        metrics.setEvaluationCount(count);
+        metrics.setMatchCount(matchCount.sum());
+        metrics.setFailureCount(failureCount.sum());
+        metrics.setAvgNanos(count == 0 ? 0 : totalNanos.sum() / count);
+        metrics.setMaxNanos(maxNanos.get());
+        return metrics;
+    }
+
+    /**
+     * Converts the job alert data to the variables visible to SpEL conditions and alert templates.
+     */
+    public static Map<String, Object> toDataModel(JobAlertData data) {
+        Map<String, Object> dataModel = JsonUtils.toMap(data);
+        dataModel.forEach((k, v) -> {
+            if (v == null) {
+                throw new DinkyException(StrFormatter.format(
+                        "When deal alert job data, the key [{}] value is null, its maybe dinky bug,please report", k));
+            }
+        });
+        return dataModel;
+    }
+
+    private static Facts toFacts(JobAlertData data) {
+        Facts facts = new Facts();
+        toDataModel(data).forEach(facts::put);
+        return facts;
+    }
+
+    private static Predicate<JobAlertData> compile(List<AlertTriggerRule> ruleItems, String triggerConditions) {
+        if (ruleItems == null || ruleItems.isEmpty() || triggerConditions == null) {
+            return null;
+        }
+        String trigger = triggerConditions.trim().toLowerCase(Locale.ROOT);
+        if (!"and".equals(trigger) && !"or".equals(trigger)) {
+            return null;
+        }
+        Predicate<JobAlertData> result = null;
+        for (AlertTriggerRule ruleItem : ruleItems) {
+            Predicate<JobAlertData> item = compile(ruleItem);
+            if (item == null) {
+                return null;
+            }
+            result = result == null ? item : "and".equals(trigger) ? result.and(item) : result.or(item);
+        }
+        return result;
+    }
+
+    /**
+     * Compiles one rule item, such as {@code jobStatus EQ 'FAILED'}, following the semantics of the
+     * SpEL relational operators: null is smaller than any value.
+     */
+    private static Predicate<JobAlertData> compile(AlertTriggerRule ruleItem) {
+        Operator operator = Operator.of(ruleItem.getRuleOperator());
+        String key = ruleItem.getRuleKey();
+        String value =
+                ruleItem.getRuleValue() == null ? "" : ruleItem.getRuleValue().trim();
+        if (operator == null || key == null) {
+            return null;
+        }
+
+        ToIntFunction<JobAlertData> comparator = null;
+        if (STRING_FIELDS.containsKey(key)) {
+            Function<JobAlertData, String> getter = STRING_FIELDS.get(key);
+            String literal = parseString(value);
+            if (literal != null) {
+                comparator = d -> {
+                    String actual = getter.apply(d);
+                    return actual == null ? -1 : Integer.signum(actual.compareTo(literal));
+                };
+            }
+        } else if (NUMBER_FIELDS.containsKey(key)) {
+            Function<JobAlertData, Number> getter = NUMBER_FIELDS.get(key);
+            comparator = compileNumber(getter, value);
+        } else if (BOOLEAN_FIELDS.containsKey(key)) {
+            Predicate<JobAlertData> getter = BOOLEAN_FIELDS.get(key);
+            if ("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
+                boolean literal = Boolean.parseBoolean(value);
+                comparator = d -> Boolean.compare(getter.test(d), literal);
+            }
+        }
+        return comparator == null ? null : operator.apply(comparator);
+    }
+
+    private static ToIntFunction<JobAlertData> compileNumber(Function<JobAlertData, Number> getter, String value) {
+        try {
+            long literal = Long.parseLong(value);
+            return d -> {
+                Number actual = getter.apply(d);
+                return actual == null ? -1 : Long.compare(actual.longValue(), literal);
+            };
+        } catch (NumberFormatException ignored) {
+            // not an integer, try it as a decimal
+        }
+        try {
+            double literal = Double.parseDouble(value);
+            return d -> {
+                Number actual = getter.apply(d);
+                return actual == null ? -1 : Integer.signum(Double.compare(actual.doubleValue(), literal));
+            };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses a SpEL string literal such as {@code 'FAILED'}, returns null if the value is not one.
+     */
+    private static String parseString(String value) {
+        if (value.length() < 2 || !value.startsWith("'") || !value.endsWith("'")) {
+            return null;
+        }
+        String content = value.substring(1, value.length() - 1);
+        if (content.replace("''", "").contains("'")) {
+            return null;
+        }
+        return content.replace("''", "'");
+    }
+
+    private enum Operator {
+        EQ,
+        NE,
+        GT,
+        LT,
+        GE,
+        LE;
+
+        static Operator of(String operator) {
+            if (operator == null) {
+                return null;
+            }
+            switch (operator.trim().toUpperCase(Locale.ROOT)) {
+                case "EQ":
+                case "==":
+                    return EQ;
+                case "NE":
+                case "!=":
+                    return NE;
+                case "GT":
+                case ">":
+                    return GT;
+                case "LT":
+                case "<":
+                    return LT;
+                case "GE":
+                case ">=":
+                    return GE;
+                case "LE":
+                case "<=":
+                    return LE;
+                default:
+                    return null;
+            }
+        }
+
+        Predicate<JobAlertData> apply(ToIntFunction<JobAlertData> comparator) {
+            switch (this) {
+                case EQ:
+                    return d -> comparator.applyAsInt(d) == 0;
+                case NE:
+                    return d -> comparator.applyAsInt(d) != 0;
+                case GT:
+                    return d -> comparator.applyAsInt(d) > 0;
+                case LT:
+                    return d -> comparator.applyAsInt(d) < 0;
+                case GE:
+                    return d -> comparator.applyAsInt(d) >= 0;
+                default:
+                    return d -> comparator.applyAsInt(d) <= 0;
+            }
+        }
+    }
+}
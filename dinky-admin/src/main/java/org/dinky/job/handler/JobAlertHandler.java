@@ -19,21 +19,21 @@
 
 package org.dinky.job.handler;
 
-import org.dinky.alert.Alert;
 import org.dinky.alert.AlertConfig;
-import org.dinky.alert.AlertResult;
+import org.dinky.alert.AlertDispatcher;
+import org.dinky.alert.AlertMessage;
 import org.dinky.alert.dingtalk.DingTalkConstants;
 import org.dinky.alert.sms.SmsConstants;
 import org.dinky.assertion.Asserts;
 import org.dinky.context.FreeMarkerHolder;
 import org.dinky.context.SpringContextUtils;
+import org.dinky.context.TenantContextHolder;
 import org.dinky.daemon.pool.FlinkJobThreadPool;
 import org.dinky.data.dto.AlertRuleDTO;
 import org.dinky.data.dto.TaskDTO;
 import org.dinky.data.enums.JobLifeCycle;
 import org.dinky.data.enums.Status;
 import org.dinky.data.enums.TaskOwnerAlertStrategyEnum;
-import org.dinky.data.exception.DinkyException;
 import org.dinky.data.model.Configuration;
 import org.dinky.data.model.SystemConfiguration;
 import org.dinky.data.model.alert.AlertGroup;
@@ -43,15 +43,16 @@ import org.dinky.data.model.ext.JobAlertData;
 import org.dinky.data.model.ext.JobInfoDetail;
 import org.dinky.data.model.rbac.User;
 import org.dinky.data.options.JobAlertRuleOptions;
-import org.dinky.service.AlertHistoryService;
 import org.dinky.service.TaskService;
 import org.dinky.service.UserService;
 import org.dinky.service.impl.AlertRuleServiceImpl;
-import org.dinky.utils.JsonUtils;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.compress.utils.Lists;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -59,13 +60,6 @@ import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
-import org.jeasy.rules.api.Facts;
-import org.jeasy.rules.api.Rule;
-import org.jeasy.rules.api.Rules;
-import org.jeasy.rules.api.RulesEngine;
-import org.jeasy.rules.core.DefaultRulesEngine;
-import org.jeasy.rules.core.RuleBuilder;
-import org.jeasy.rules.spel.SpELCondition;
 import org.springframework.context.annotation.DependsOn;
 
 import com.google.common.cache.CacheBuilder;
@@ -74,29 +68,23 @@ import com.google.common.cache.LoadingCache;
 
 import cn.hutool.core.text.StrFormatter;
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.json.JSONObject;
-import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @DependsOn("springContextUtils")
 public class JobAlertHandler {
 
-    private static final AlertHistoryService alertHistoryService;
     private static final TaskService taskService;
     private static final AlertRuleServiceImpl alertRuleService;
     private static final SystemConfiguration systemConfiguration = SystemConfiguration.getInstances();
     private static final UserService userService;
+    private static final AlertDispatcher alertDispatcher;
+    private static final AlertHistoryWriter alertHistoryWriter;
 
     /**
-     * Rules for evaluating alert conditions.
+     * Compiled rules for evaluating alert conditions, replaced as a whole when the rules are refreshed.
      */
-    private Rules rules;
-
-    /**
-     * Engine for evaluating rules.
-     */
-    private RulesEngine rulesEngine;
+    private volatile CompiledAlertRule[] rules = new CompiledAlertRule[0];
 
     /**
      * Holder for FreeMarker templates.
@@ -118,9 +106,10 @@ public class JobAlertHandler {
 
     static {
         taskService = SpringContextUtils.getBean("taskServiceImpl", TaskService.class);
-        alertHistoryService = SpringContextUtils.getBean("alertHistoryServiceImpl", AlertHistoryService.class);
         alertRuleService = SpringContextUtils.getBean("alertRuleServiceImpl", AlertRuleServiceImpl.class);
         userService = SpringContextUtils.getBean("userServiceImpl", UserService.class);
+        alertDispatcher = SpringContextUtils.getBean("alertDispatcher", AlertDispatcher.class);
+        alertHistoryWriter = SpringContextUtils.getBean("alertHistoryWriter", AlertHistoryWriter.class);
 
         Configuration<Integer> jobReSendDiffSecond = systemConfiguration.getJobReSendDiffSecond();
         jobReSendDiffSecond.addChangeEvent((c) -> {
@@ -160,16 +149,21 @@ public class JobAlertHandler {
      * checks for alert conditions for each job in the task pool.
      */
     public void check(JobInfoDetail jobInfoDetail) {
-        Facts ruleFacts = new Facts();
         JobAlertData jobAlertData = JobAlertData.buildData(jobInfoDetail);
-        JsonUtils.toMap(jobAlertData).forEach((k, v) -> {
-            if (v == null) {
-                throw new DinkyException(StrFormatter.format(
-                        "When deal alert job data, the key [{}] value is null, its maybe dinky bug,please report", k));
+        CompiledAlertRule[] compiledRules = rules;
+        for (int i = 0; i < compiledRules.length; i++) {
+            CompiledAlertRule rule = compiledRules[i];
+            if (rule.evaluate(jobAlertData)) {
+                try {
+                    executeAlertAction(jobAlertData, rule.getAlertRule());
+                } catch (Exception e) {
+                    log.error(
+                            "Alert Rule: {} performed with error",
+                            rule.getAlertRule().getName(),
+                            e);
+                }
             }
-            ruleFacts.put(k, v);
-        });
-        rulesEngine.fire(rules, ruleFacts);
+        }
     }
 
     /**
@@ -177,51 +171,41 @@ public class JobAlertHandler {
      */
     public void refreshRulesData() {
         List<AlertRuleDTO> ruleDTOS = alertRuleService.getBaseMapper().selectWithTemplate();
-        freeMarkerHolder = new FreeMarkerHolder();
-        rulesEngine = new DefaultRulesEngine();
-        rules = new Rules();
+        FreeMarkerHolder holder = new FreeMarkerHolder();
+        List<CompiledAlertRule> compiledRules = new ArrayList<>();
 
         ruleDTOS.forEach(ruleDto -> {
             if (ruleDto.getTemplateName() != null && !ruleDto.getTemplateName().isEmpty()) {
-                freeMarkerHolder.putTemplate(ruleDto.getTemplateName(), ruleDto.getTemplateContent());
+                holder.putTemplate(ruleDto.getTemplateName(), ruleDto.getTemplateContent());
                 ruleDto.setName(Status.findMessageByKey(ruleDto.getName()));
                 ruleDto.setDescription(Status.findMessageByKey(ruleDto.getDescription()));
-                rules.register(buildRule(ruleDto));
+                compiledRules.add(CompiledAlertRule.compile(ruleDto));
             } else {
                 log.error("Alert Rule: {} has no template", ruleDto.getName());
             }
         });
+        compiledRules.sort(Comparator.comparing(
+                r -> r.getAlertRule().getName(), Comparator.nullsFirst(Comparator.<String>naturalOrder())));
+        freeMarkerHolder = holder;
+        rules = compiledRules.toArray(new CompiledAlertRule[0]);
     }
 
-    private Rule buildRule(AlertRuleDTO alertRuleDTO) {
-
-        List<JSONObject> ruleItemList = JsonUtils.toList(alertRuleDTO.getRule(), JSONObject.class);
-        List<String> conditionList = ruleItemList.stream()
-                .map(r -> r.toBean(RuleItem.class).toString())
-                .collect(Collectors.toList());
-        String conditionContent = String.join(alertRuleDTO.getTriggerConditions(), conditionList);
-        String condition = StrFormatter.format("#{{}}", conditionContent);
-
-        log.info("Build Alert Rule: {}", condition);
-
-        return new RuleBuilder()
-                .name(alertRuleDTO.getName())
-                .description(alertRuleDTO.getDescription())
-                .priority(1)
-                .when(new SpELCondition(condition))
-                .then(f -> executeAlertAction(f, alertRuleDTO))
-                .build();
+    /**
+     * Returns how often and how fast each alert rule has been evaluated since the rules were last refreshed.
+     */
+    public List<AlertRuleMetrics> getRuleMetrics() {
+        return Arrays.stream(rules).map(CompiledAlertRule::getMetrics).collect(Collectors.toList());
     }
 
     /**
      * Executes the alert action when an alert condition is met.
      *
-     * @param facts        The facts representing the job details.
+     * @param jobAlertData The data representing the job details.
      * @param alertRuleDTO Alert Rule Info.
      */
-    private void executeAlertAction(Facts facts, AlertRuleDTO alertRuleDTO) throws Exception {
-        int jobInstanceId = facts.get(JobAlertRuleOptions.FIELD_JOB_INSTANCE_ID);
-        int taskId = facts.get(JobAlertRuleOptions.FIELD_TASK_ID);
+    private void executeAlertAction(JobAlertData jobAlertData, AlertRuleDTO alertRuleDTO) throws Exception {
+        int jobInstanceId = jobAlertData.getJobInstanceId();
+        int taskId = jobAlertData.getTaskId();
 
         // 进行是否需要告警判断 | Determine whether an alert is required
         Map<Integer, Integer> map = alertCache.get(jobInstanceId);
@@ -243,7 +227,7 @@ public class JobAlertHandler {
             // Only publish job can be alerted
             return;
         }
-        Map<String, Object> dataModel = new HashMap<>(facts.asMap());
+        Map<String, Object> dataModel = CompiledAlertRule.toDataModel(jobAlertData);
         dataModel.put(JobAlertRuleOptions.OPTIONS_JOB_ALERT_RULE, alertRuleDTO);
         String alertContent = freeMarkerHolder.buildWithData(alertRuleDTO.getTemplateName(), dataModel);
 
@@ -331,7 +315,8 @@ public class JobAlertHandler {
     }
 
     /**
-     * Sends an alert based on the alert instance's configuration.
+     * Queues an alert to be sent based on the alert instance's configuration,
+     * the result is added to the alert history once it has been sent.
      *
      * @param alertInstance The alert instance to use for sending the alert.
      * @param jobInstanceId The ID of the job instance triggering the alert.
@@ -341,31 +326,29 @@ public class JobAlertHandler {
      */
     private void sendAlert(
             AlertInstance alertInstance, int jobInstanceId, int alertGid, String title, String alertMsg) {
-        AlertConfig alertConfig =
-                AlertConfig.build(alertInstance.getName(), alertInstance.getType(), alertInstance.getParams());
-        Alert alert = Alert.build(alertConfig);
-        AlertResult alertResult = alert.send(title, alertMsg);
-
-        AlertHistory alertHistory = new AlertHistory();
-        alertHistory.setAlertGroupId(alertGid);
-        alertHistory.setJobInstanceId(jobInstanceId);
-        alertHistory.setTitle(title);
-        alertHistory.setContent(alertMsg);
-        alertHistory.setStatus(alertResult.getSuccessCode());
-        alertHistory.setLog(alertResult.getMessage());
-        alertHistoryService.save(alertHistory);
-    }
-
-    @Data
-    private static class RuleItem {
-        private String ruleKey;
-        private String ruleOperator;
-        //        private int rulePriority;
-        private String ruleValue;
-
-        @Override
-        public String toString() {
-            return StrFormatter.format(" #{} {} {} ", getRuleKey(), getRuleOperator(), getRuleValue());
-        }
+        AlertConfig alertConfig = AlertConfig.build(
+                alertInstance.getName(), alertInstance.getType(), new HashMap<>(alertInstance.getParams()));
+        Object tenantId = TenantContextHolder.get();
+        AlertMessage alertMessage = AlertMessage.builder()
+                .channel(String.valueOf(alertInstance.getId()))
+                .config(alertConfig)
+                .title(title)
+                .content(alertMsg)
+                .coalesceKey(StrFormatter.format("{}/{}/{}", alertInstance.getId(), jobInstanceId, title))
+                .callback(alertResult -> {
+                    AlertHistory alertHistory = new AlertHistory();
+                    if (tenantId instanceof Integer) {
+                        alertHistory.setTenantId((Integer) tenantId);
+                    }
+                    alertHistory.setAlertGroupId(alertGid);
+                    alertHistory.setJobInstanceId(jobInstanceId);
+                    alertHistory.setTitle(title);
+                    alertHistory.setContent(alertMsg);
+                    alertHistory.setStatus(alertResult.getSuccessCode());
+                    alertHistory.setLog(alertResult.getMessage());
+                    alertHistoryWriter.add(alertHistory);
+                })
+                .build();
+        alertDispatcher.dispatch(alertMessage);
     }
 }
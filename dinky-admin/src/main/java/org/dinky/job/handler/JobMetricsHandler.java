@@ -69,7 +69,7 @@ public class JobMetricsHandler {
             metricsVO.setHeartTime(LocalDateTime.now());
             metricsVO.setModel(jobId);
             metricsVO.setDate(TimeUtil.nowStr("yyyy-MM-dd"));
-            MetricsContextHolder.getInstance().saveToSqlite(metricsVO.getModel(), metricsVO);
+            MetricsContextHolder.getInstance().saveMetrics(metricsVO.getModel(), metricsVO);
         } catch (Exception e) {
             log.error("Get and save Flink metrics error", e);
         }
@@ -19,56 +19,60 @@
 
 package org.dinky.job.handler;
 
-import static org.dinky.utils.JsonUtils.objectMapper;
-
 import org.dinky.api.FlinkAPI;
 import org.dinky.assertion.Asserts;
 import org.dinky.cluster.FlinkClusterInfo;
 import org.dinky.context.SpringContextUtils;
-import org.dinky.data.constant.FlinkRestResultConstant;
 import org.dinky.data.dto.ClusterConfigurationDTO;
 import org.dinky.data.dto.JobDataDto;
 import org.dinky.data.enums.GatewayType;
 import org.dinky.data.enums.JobStatus;
-import org.dinky.data.flink.backpressure.FlinkJobNodeBackPressure;
 import org.dinky.data.flink.checkpoint.CheckPointOverView;
 import org.dinky.data.flink.config.CheckpointConfigInfo;
 import org.dinky.data.flink.config.FlinkJobConfigInfo;
 import org.dinky.data.flink.exceptions.FlinkJobExceptionsDetail;
 import org.dinky.data.flink.job.FlinkJobDetailInfo;
-import org.dinky.data.flink.watermark.FlinkJobNodeWaterMark;
+import org.dinky.data.flink.job.FlinkJobPlanNode;
+import org.dinky.data.flink.job.FlinkJobVertex;
 import org.dinky.data.model.ClusterInstance;
 import org.dinky.data.model.SystemConfiguration;
 import org.dinky.data.model.ext.JobInfoDetail;
 import org.dinky.data.model.job.JobInstance;
 import org.dinky.gateway.Gateway;
 import org.dinky.gateway.config.GatewayConfig;
-import org.dinky.gateway.exception.NotSupportGetStatusException;
 import org.dinky.gateway.model.FlinkClusterConfig;
+import org.dinky.gateway.yarn.YarnClientRegistry;
 import org.dinky.init.FlinkHistoryServer;
 import org.dinky.job.JobConfig;
 import org.dinky.service.ClusterInstanceService;
 import org.dinky.service.HistoryService;
 import org.dinky.service.JobHistoryService;
 import org.dinky.service.JobInstanceService;
-import org.dinky.utils.JsonUtils;
 import org.dinky.utils.TimeUtil;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import org.springframework.context.annotation.DependsOn;
 import org.springframework.stereotype.Component;
 
-import com.alibaba.fastjson2.JSON;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.type.CollectionType;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.bean.copier.CopyOptions;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -83,6 +87,24 @@ public class JobRefreshHandler {
     private static final ClusterInstanceService clusterInstanceService;
     private static final HistoryService historyService;
 
+    /** Executes the REST calls of one job refresh concurrently, the caller runs them when it is saturated */
+    private static final ExecutorService FETCH_EXECUTOR = new ThreadPoolExecutor(
+            4,
+            64,
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(1024),
+            new ThreadFactoryBuilder().setNameFormat("job-refresh-fetch-%d").build(),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+
+    /**
+     * Job config and checkpoint config by Flink job id, dropped when the refresh task of the job leaves the pool and
+     * in any case after {@link #STATIC_JOB_DATA_TTL_MILLIS}
+     */
+    private static final Map<String, StaticJobData> STATIC_JOB_DATA = new ConcurrentHashMap<>();
+
+    private static final long STATIC_JOB_DATA_TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
     static {
         jobInstanceService = SpringContextUtils.getBean("jobInstanceServiceImpl", JobInstanceService.class);
         jobHistoryService = SpringContextUtils.getBean("jobHistoryServiceImpl", JobHistoryService.class);
@@ -223,6 +245,12 @@ public class JobRefreshHandler {
     /**
      * Retrieves job history.
      * getJobStatusInformationFromFlinkRestAPI
+     * <p>
+     * The job detail is fetched first, then the watermark and back pressure of every vertex, the checkpoints and
+     * the exceptions are fetched concurrently. The job config and the checkpoint config do not change while a job
+     * is running, they are fetched once per job and reused until {@link #invalidateJobData(String)} is called or
+     * they expire.
+     * </p>
      *
      * @param id             The job ID.
      * @param jobManagerHost The job manager host.
@@ -240,55 +268,92 @@ public class JobRefreshHandler {
         JobDataDto.JobDataDtoBuilder builder = JobDataDto.builder();
         FlinkAPI api = FlinkAPI.build(jobManagerHost);
         try {
-            JsonNode jobInfo = FlinkAPI.build(jobManagerHost).getJobInfo(jobId);
-            if (jobInfo.has(FlinkRestResultConstant.ERRORS)) {
-                throw new Exception(String.valueOf(jobInfo.get(FlinkRestResultConstant.ERRORS)));
-            }
+            FlinkJobDetailInfo flinkJobDetailInfo = api.getJobDetailInfo(jobId);
 
-            FlinkJobConfigInfo jobConfigInfo =
-                    JSON.parseObject(api.getJobsConfig(jobId).toString()).toJavaObject(FlinkJobConfigInfo.class);
-
-            FlinkJobDetailInfo flinkJobDetailInfo =
-                    JSON.parseObject(jobInfo.toString()).toJavaObject(FlinkJobDetailInfo.class);
+            List<CompletableFuture<?>> futures = new ArrayList<>();
             // 获取 WATERMARK  & BACKPRESSURE 信息
-            api.getVertices(jobId).forEach(vertex -> {
-                flinkJobDetailInfo.getPlan().getNodes().forEach(planNode -> {
-                    if (planNode.getId().equals(vertex)) {
-                        try {
-                            CollectionType listType = objectMapper
-                                    .getTypeFactory()
-                                    .constructCollectionType(ArrayList.class, FlinkJobNodeWaterMark.class);
-                            List<FlinkJobNodeWaterMark> watermark =
-                                    objectMapper.readValue(api.getWatermark(jobId, vertex), listType);
-                            planNode.setWatermark(watermark);
-                        } catch (Exception ignored) {
-                        }
-                        planNode.setBackpressure(JsonUtils.toJavaBean(
-                                api.getBackPressure(jobId, vertex), FlinkJobNodeBackPressure.class));
-                    }
-                });
-            });
-            JsonNode checkPoints = api.getCheckPoints(jobId);
-            if (checkPoints.findParent("errors") == null) {
-                builder.checkpoints(JsonUtils.parseObject(checkPoints.toString(), CheckPointOverView.class));
+            Map<String, FlinkJobPlanNode> planNodes = flinkJobDetailInfo.getPlan().getNodes().stream()
+                    .collect(Collectors.toMap(FlinkJobPlanNode::getId, node -> node, (a, b) -> a));
+            for (FlinkJobVertex vertex : flinkJobDetailInfo.getVertices()) {
+                FlinkJobPlanNode planNode = planNodes.get(vertex.getId());
+                if (planNode == null) {
+                    continue;
+                }
+                // the watermark and back pressure of a vertex are optional, failing to get them is not an error
+                futures.add(CompletableFuture.runAsync(
+                        () -> planNode.setWatermark(api.getWatermarkInfo(jobId, vertex.getId())), FETCH_EXECUTOR));
+                futures.add(CompletableFuture.runAsync(
+                                () -> planNode.setBackpressure(api.getBackPressureInfo(jobId, vertex.getId())),
+                                FETCH_EXECUTOR)
+                        .exceptionally(e -> {
+                            log.debug("Get back pressure of vertex {} failed: {}", vertex.getId(), e.getMessage());
+                            return null;
+                        }));
             }
-            JsonNode checkpointConfigInfo = api.getCheckPointsConfig(jobId);
-            if (checkpointConfigInfo.findParent("errors") == null) {
-                builder.checkpointsConfig(
-                        JsonUtils.parseObject(checkpointConfigInfo.toString(), CheckpointConfigInfo.class));
+            CompletableFuture<CheckPointOverView> checkPoints =
+                    CompletableFuture.supplyAsync(() -> api.getCheckPointOverView(jobId), FETCH_EXECUTOR);
+            CompletableFuture<FlinkJobExceptionsDetail> exceptions =
+                    CompletableFuture.supplyAsync(() -> api.getExceptionsDetail(jobId), FETCH_EXECUTOR);
+            CompletableFuture<StaticJobData> staticJobData = getStaticJobData(api, jobManagerHost, jobId);
+            futures.add(checkPoints);
+            futures.add(exceptions);
+            futures.add(staticJobData);
+            try {
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                        .join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
             }
+
             return builder.id(id)
-                    .exceptions(
-                            JsonUtils.parseObject(api.getException(jobId).toString(), FlinkJobExceptionsDetail.class))
+                    .checkpoints(checkPoints.get())
+                    .exceptions(exceptions.get())
                     .job(flinkJobDetailInfo)
-                    .config(jobConfigInfo)
+                    .config(staticJobData.get().getJobConfigInfo())
+                    .checkpointsConfig(staticJobData.get().getCheckpointConfigInfo())
                     .build();
         } catch (Exception e) {
             log.warn("Connect {} failed,{}", jobManagerHost, e.getMessage());
+            invalidateJobData(jobId);
             return builder.id(id).error(true).errorMsg(e.getMessage()).build();
         }
     }
 
+    /**
+     * Gets the job config and checkpoint config of a job, fetching them only if they are not cached yet.
+     */
+    private static CompletableFuture<StaticJobData> getStaticJobData(
+            FlinkAPI api, String jobManagerHost, String jobId) {
+        StaticJobData cached = STATIC_JOB_DATA.get(jobId);
+        if (cached != null && cached.getJobManagerHost().equals(jobManagerHost) && !cached.isExpired()) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<FlinkJobConfigInfo> jobConfig =
+                CompletableFuture.supplyAsync(() -> api.getJobConfigInfo(jobId), FETCH_EXECUTOR);
+        CompletableFuture<CheckpointConfigInfo> checkpointConfig =
+                CompletableFuture.supplyAsync(() -> api.getCheckpointConfigInfo(jobId), FETCH_EXECUTOR);
+        return jobConfig.thenCombine(checkpointConfig, (jobConfigInfo, checkpointConfigInfo) -> {
+            StaticJobData staticJobData = new StaticJobData(jobManagerHost, jobConfigInfo, checkpointConfigInfo);
+            // a job without checkpointing answers with an error, it is fetched again on the next refresh
+            if (staticJobData.getCheckpointConfigInfo() != null) {
+                STATIC_JOB_DATA.values().removeIf(StaticJobData::isExpired);
+                STATIC_JOB_DATA.put(jobId, staticJobData);
+            }
+            return staticJobData;
+        });
+    }
+
+    /**
+     * Drops the cached job config and checkpoint config of a job, they are fetched again on the next refresh.
+     *
+     * @param jobId The job ID.
+     */
+    public static void invalidateJobData(String jobId) {
+        if (jobId != null) {
+            STATIC_JOB_DATA.remove(jobId);
+        }
+    }
+
     /**
      * Gets the job status.
      *
@@ -302,21 +367,14 @@ public class JobRefreshHandler {
         if (!Asserts.isNull(clusterCfg)
                 && (GatewayType.YARN_PER_JOB.getLongValue().equals(clusterInstance.getType())
                         || GatewayType.YARN_APPLICATION.getLongValue().equals(clusterInstance.getType()))) {
-            try {
-                String appId = jobInfoDetail.getClusterInstance().getName();
-
-                GatewayConfig gatewayConfig = GatewayConfig.build(clusterCfg.getConfig());
-                gatewayConfig.getClusterConfig().setAppId(appId);
-                gatewayConfig
-                        .getFlinkConfig()
-                        .setJobName(jobInfoDetail.getInstance().getName());
-
-                Gateway gateway = Gateway.build(gatewayConfig);
-                return Optional.of(gateway.getJobStatusById(appId));
-            } catch (NotSupportGetStatusException ignored) {
-                // if the gateway does not support get status, then use the api to get job status
-                // ignore to do something here
-            }
+            String appId = jobInfoDetail.getClusterInstance().getName();
+            GatewayConfig gatewayConfig = GatewayConfig.build(clusterCfg.getConfig());
+            SystemConfiguration systemConfiguration = SystemConfiguration.getInstances();
+            // in bulk mode a snapshot of all applications is shared by the jobs refreshed within half an interval
+            long maxSnapshotAge = systemConfiguration.getYarnBulkStatus().getValue()
+                    ? systemConfiguration.getJobRefreshInterval() / 2
+                    : 0;
+            return Optional.of(YarnClientRegistry.getJobStatus(gatewayConfig, appId, maxSnapshotAge));
         }
         return Optional.empty();
     }
@@ -328,6 +386,7 @@ public class JobRefreshHandler {
      */
     private static void handleJobDone(JobInfoDetail jobInfoDetail) {
         JobInstance jobInstance = jobInfoDetail.getInstance();
+        invalidateJobData(jobInstance.getJid());
         JobDataDto jobDataDto = jobInfoDetail.getJobDataDto();
         String clusterType = jobInfoDetail.getClusterInstance().getType();
 
@@ -362,15 +421,9 @@ public class JobRefreshHandler {
             ClusterInstance clusterInstance = jobInfoDetail.getClusterInstance();
             if (!Asserts.isNull(clusterCfg)) {
                 String appId = jobInfoDetail.getClusterInstance().getName();
-
                 GatewayConfig gatewayConfig = GatewayConfig.build(clusterCfg.getConfig());
-                gatewayConfig.getClusterConfig().setAppId(appId);
-                gatewayConfig
-                        .getFlinkConfig()
-                        .setJobName(jobInfoDetail.getInstance().getName());
-
-                Gateway gateway = Gateway.build(gatewayConfig);
-                String latestJobManageHost = gateway.getLatestJobManageHost(appId, clusterInstance.getJobManagerHost());
+                String latestJobManageHost = YarnClientRegistry.getLatestJobManageHost(
+                        gatewayConfig, appId, clusterInstance.getJobManagerHost());
 
                 if (Asserts.isNotNull(latestJobManageHost)) {
                     clusterInstance.setHosts(latestJobManageHost);
@@ -384,4 +437,20 @@ public class JobRefreshHandler {
             }
         }
     }
+
+    /**
+     * Data of a job that does not change while the job is running.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static class StaticJobData {
+        private final String jobManagerHost;
+        private final FlinkJobConfigInfo jobConfigInfo;
+        private final CheckpointConfigInfo checkpointConfigInfo;
+        private final long fetchTime = System.currentTimeMillis();
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() - fetchTime > STATIC_JOB_DATA_TTL_MILLIS;
+        }
+    }
 }
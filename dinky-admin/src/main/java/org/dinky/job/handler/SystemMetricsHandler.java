@@ -25,6 +25,7 @@ import org.dinky.data.metrics.Cpu;
 import org.dinky.data.metrics.Jvm;
 import org.dinky.data.metrics.Mem;
 import org.dinky.data.metrics.MetricsTotal;
+import org.dinky.data.metrics.ResourceCache;
 import org.dinky.data.vo.MetricsVO;
 
 import java.time.LocalDateTime;
@@ -43,6 +44,7 @@ public class SystemMetricsHandler {
         metricsTotal.setJvm(Jvm.of());
         metricsTotal.setCpu(Cpu.of());
         metricsTotal.setMem(Mem.of());
+        metricsTotal.setResourceCache(ResourceCache.of());
 
         MetricsVO metrics = new MetricsVO();
         metrics.setContent(metricsTotal);
@@ -0,0 +1,44 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A value of a series at a point in time. A rolled up point covers a bucket starting at its time, its value is
+ * the average of the bucket, a raw point has the same value, min, max and last.
+ */
+@Data
+@AllArgsConstructor
+public class MetricsPoint {
+
+    /** epoch milliseconds */
+    private final long time;
+
+    private final double value;
+    private final double min;
+    private final double max;
+    private final double last;
+
+    public MetricsPoint(long time, double value) {
+        this(time, value, value, value, value);
+    }
+}
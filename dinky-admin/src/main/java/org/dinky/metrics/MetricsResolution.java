@@ -0,0 +1,51 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+
+/**
+ * Resolutions of the metrics history. Raw samples are rolled up into the coarser resolutions, each resolution
+ * has its own retention so that coarse history can be kept much longer than the raw samples.
+ */
+@Getter
+public enum MetricsResolution {
+    RAW(0, TimeUnit.HOURS.toMillis(1)),
+    MINUTE(TimeUnit.MINUTES.toMillis(1), TimeUnit.DAYS.toMillis(1)),
+    TEN_MINUTES(TimeUnit.MINUTES.toMillis(10), TimeUnit.DAYS.toMillis(7)),
+    HOUR(TimeUnit.HOURS.toMillis(1), TimeUnit.DAYS.toMillis(30));
+
+    /** Length of a rollup bucket, 0 for raw samples */
+    private final long bucketMillis;
+
+    /** Time span of a storage partition, a partition is dropped as a whole once it expires */
+    private final long partitionMillis;
+
+    MetricsResolution(long bucketMillis, long partitionMillis) {
+        this.bucketMillis = bucketMillis;
+        this.partitionMillis = partitionMillis;
+    }
+
+    public boolean isRollup() {
+        return bucketMillis > 0;
+    }
+}
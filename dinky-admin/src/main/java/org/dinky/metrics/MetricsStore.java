@@ -0,0 +1,111 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.metrics;
+
+import org.dinky.assertion.Asserts;
+import org.dinky.data.exception.DinkyException;
+import org.dinky.data.vo.MetricsVO;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Storage of the collected Flink metrics history.
+ * <p>
+ * A sample is the content of one {@link MetricsVO}: the values of the metrics of every vertex of a job at one
+ * point in time. Implementations are found with {@link ServiceLoader} and selected by {@link #getType()}.
+ * </p>
+ */
+public interface MetricsStore extends AutoCloseable {
+
+    static MetricsStore get(String type) {
+        ServiceLoader<MetricsStore> stores = ServiceLoader.load(MetricsStore.class);
+        for (MetricsStore store : stores) {
+            if (Asserts.isEqualsIgnoreCase(store.getType(), type)) {
+                return store;
+            }
+        }
+        throw new DinkyException("Unsupported metrics storage: " + type);
+    }
+
+    String getType();
+
+    /**
+     * Opens the store, data is kept under dataDir.
+     *
+     * @param dataDir         directory owned by this store
+     * @param retentionMillis how long the samples of each resolution are kept
+     */
+    void open(File dataDir, Map<MetricsResolution, Long> retentionMillis);
+
+    /** Changes how long the samples of a resolution are kept, applied on the next retention check */
+    void setRetention(MetricsResolution resolution, long retentionMillis);
+
+    /**
+     * Writes one sample of a job.
+     *
+     * @param model     the Flink job id
+     * @param timestamp epoch milliseconds of the sample
+     * @param content   metric values by metric name by vertex id
+     */
+    void write(String model, long timestamp, Map<String, Map<String, String>> content);
+
+    /**
+     * Reads the samples of some jobs in [startTime, endTime] without a point budget.
+     *
+     * @see #read(Collection, long, long, int)
+     */
+    default List<MetricsVO> read(Collection<String> models, long startTime, long endTime) {
+        return read(models, startTime, endTime, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Reads the samples of some jobs in [startTime, endTime], the content of each sample is a map of metric
+     * values by metric name by vertex id. A store with rollups answers from the finest resolution that still
+     * holds the start of the range and returns at most about maxPoints samples per job.
+     */
+    List<MetricsVO> read(Collection<String> models, long startTime, long endTime, int maxPoints);
+
+    /**
+     * Reads the points of some series in [startTime, endTime] without a point budget.
+     *
+     * @see #readSeries(Collection, long, long, int)
+     */
+    default Map<SeriesKey, List<MetricsPoint>> readSeries(Collection<SeriesKey> series, long startTime, long endTime) {
+        return readSeries(series, startTime, endTime, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Reads the points of some series in [startTime, endTime], only the requested series are decoded. A store
+     * with rollups answers from the finest resolution that still holds the start of the range and returns at
+     * most about maxPoints points per series.
+     */
+    Map<SeriesKey, List<MetricsPoint>> readSeries(
+            Collection<SeriesKey> series, long startTime, long endTime, int maxPoints);
+
+    /** Persists the samples that are still buffered in memory */
+    void flush();
+
+    @Override
+    void close();
+}
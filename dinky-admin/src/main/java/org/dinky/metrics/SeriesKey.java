@@ -0,0 +1,44 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * One series of the metrics history: a metric of a vertex of a job.
+ */
+@Data
+@AllArgsConstructor
+public class SeriesKey implements Comparable<SeriesKey> {
+
+    private final String model;
+    private final String vertex;
+    private final String metric;
+
+    @Override
+    public int compareTo(SeriesKey o) {
+        int c = model.compareTo(o.model);
+        if (c == 0) {
+            c = vertex.compareTo(o.vertex);
+        }
+        return c == 0 ? metric.compareTo(o.metric) : c;
+    }
+}
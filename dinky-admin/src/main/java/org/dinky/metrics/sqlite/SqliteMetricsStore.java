@@ -0,0 +1,195 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.metrics.sqlite;
+
+import static org.dinky.data.constant.MonitorTableConstant.HEART_TIME;
+import static org.dinky.data.constant.MonitorTableConstant.JOB_ID;
+
+import org.dinky.data.constant.MonitorTableConstant;
+import org.dinky.data.exception.DinkyException;
+import org.dinky.data.vo.MetricsVO;
+import org.dinky.metrics.MetricsPoint;
+import org.dinky.metrics.MetricsResolution;
+import org.dinky.metrics.MetricsStore;
+import org.dinky.metrics.SeriesKey;
+import org.dinky.utils.JsonUtils;
+import org.dinky.utils.SqliteUtil;
+
+import java.io.File;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.MessageFormat;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import cn.hutool.core.date.DateUtil;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The default metrics storage, every sample is one row holding its content as json in the local SQLite database.
+ * There are no rollups, reads always return the raw samples and only the raw retention applies.
+ */
+@Slf4j
+public class SqliteMetricsStore implements MetricsStore {
+
+    public static final String TYPE = "sqlite";
+
+    private static final List<String> COLUMNS =
+            Arrays.asList(JOB_ID, MonitorTableConstant.VALUE, HEART_TIME, MonitorTableConstant.DATE);
+    private static final TypeReference<Map<String, Map<String, String>>> CONTENT_TYPE =
+            new TypeReference<Map<String, Map<String, String>>>() {};
+
+    private final List<List<String>> pending = new ArrayList<>();
+    private long lastDumpTime;
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    public void open(File dataDir, Map<MetricsResolution, Long> retentionMillis) {
+        String columns = String.format(
+                "%s BIGINT, %s TEXT, %s TEXT, %s INTEGER",
+                JOB_ID, MonitorTableConstant.VALUE, HEART_TIME, MonitorTableConstant.DATE);
+        SqliteUtil.INSTANCE.createTable(MonitorTableConstant.DINKY_METRICS, columns);
+        setRetention(MetricsResolution.RAW, retentionMillis.getOrDefault(MetricsResolution.RAW, Long.MAX_VALUE));
+    }
+
+    @Override
+    public void setRetention(MetricsResolution resolution, long retentionMillis) {
+        if (resolution != MetricsResolution.RAW) {
+            return;
+        }
+        long days = TimeUnit.MILLISECONDS.toDays(retentionMillis);
+        SqliteUtil.INSTANCE.setRetentionDays((int) Math.max(1, Math.min(Integer.MAX_VALUE, days)));
+    }
+
+    @Override
+    public synchronized void write(String model, long timestamp, Map<String, Map<String, String>> content) {
+        LocalDateTime heartTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault());
+        pending.add(Arrays.asList(
+                model,
+                JsonUtils.toJsonString(content),
+                heartTime.toString(),
+                heartTime.format(DateTimeFormatter.ofPattern("yyyy-MM-dd"))));
+        if (pending.size() >= 1000 || timestamp - lastDumpTime >= 15000) {
+            lastDumpTime = timestamp;
+            flush();
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            SqliteUtil.INSTANCE.write(MonitorTableConstant.DINKY_METRICS, COLUMNS, pending);
+        } catch (SQLException e) {
+            log.error("Failed to write metrics to SQLite", e);
+            return;
+        }
+        pending.clear();
+    }
+
+    @Override
+    public List<MetricsVO> read(Collection<String> models, long startTime, long endTime, int maxPoints) {
+        Set<String> modelSet = new HashSet<>(models);
+        List<MetricsVO> metricsVOList = new ArrayList<>();
+        try (SqliteUtil.PreparedResultSet ps =
+                SqliteUtil.INSTANCE.read(MonitorTableConstant.DINKY_METRICS, getCondition(startTime, endTime))) {
+            ResultSet read = ps.getRs();
+            while (read.next()) {
+                String model = read.getString(JOB_ID);
+                if (!modelSet.contains(model)) {
+                    continue;
+                }
+                MetricsVO metricsVO = new MetricsVO();
+                metricsVO.setModel(model);
+                metricsVO.setContent(JsonUtils.parseObject(read.getString(MonitorTableConstant.VALUE), CONTENT_TYPE));
+                metricsVO.setHeartTime(
+                        DateUtil.parse(read.getString(HEART_TIME)).toLocalDateTime());
+                metricsVO.setDate(read.getString(MonitorTableConstant.DATE));
+                metricsVOList.add(metricsVO);
+            }
+        } catch (Exception e) {
+            throw new DinkyException("Failed to get data from the database", e);
+        }
+        return metricsVOList;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<SeriesKey, List<MetricsPoint>> readSeries(
+            Collection<SeriesKey> series, long startTime, long endTime, int maxPoints) {
+        Map<SeriesKey, List<MetricsPoint>> result = new HashMap<>();
+        series.forEach(key -> result.put(key, new ArrayList<>()));
+        List<String> models =
+                series.stream().map(SeriesKey::getModel).distinct().collect(Collectors.toList());
+        for (MetricsVO metricsVO : read(models, startTime, endTime)) {
+            Map<String, Map<String, String>> content = (Map<String, Map<String, String>>) metricsVO.getContent();
+            long time = metricsVO
+                    .getHeartTime()
+                    .atZone(ZoneId.systemDefault())
+                    .toInstant()
+                    .toEpochMilli();
+            result.forEach((key, points) -> {
+                if (!key.getModel().equals(metricsVO.getModel()) || content == null) {
+                    return;
+                }
+                String value =
+                        content.getOrDefault(key.getVertex(), new HashMap<>()).get(key.getMetric());
+                try {
+                    points.add(new MetricsPoint(time, Double.parseDouble(value)));
+                } catch (NumberFormatException | NullPointerException ignored) {
+                }
+            });
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    private static String getCondition(long startTime, long endTime) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSS");
+        LocalDateTime startLdt = LocalDateTime.ofInstant(Instant.ofEpochMilli(startTime), ZoneId.systemDefault());
+        LocalDateTime endLdt = LocalDateTime.ofInstant(Instant.ofEpochMilli(endTime), ZoneId.systemDefault());
+        return MessageFormat.format(
+                "''{0}'' <= {2} AND {2} <= ''{1}''", startLdt.format(formatter), endLdt.format(formatter), HEART_TIME);
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.metrics.tsdb;
+
+import org.dinky.metrics.MetricsPoint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compresses the points of one series, following the Gorilla paper (Facebook, VLDB 2015).
+ * <p>
+ * Timestamps are stored as the delta of their deltas, a regularly collected series costs one bit per point.
+ * Values are XORed with the previous value and only the meaningful bits of the result are stored, an unchanged
+ * value costs one bit. The buckets of the timestamp encoding are wider than in the paper because the timestamps
+ * are in milliseconds.
+ * </p>
+ */
+final class GorillaCodec {
+
+    private GorillaCodec() {}
+
+    static byte[] encode(long[] times, double[] values, int count) {
+        BitWriter out = new BitWriter(count * 3 + 24);
+        out.writeBits(count, 32);
+        if (count == 0) {
+            return out.toByteArray();
+        }
+        out.writeBits(times[0], 64);
+        long previousBits = Double.doubleToRawLongBits(values[0]);
+        out.writeBits(previousBits, 64);
+
+        long previousDelta = 0;
+        int previousLeading = -1;
+        int previousTrailing = 0;
+        for (int i = 1; i < count; i++) {
+            long delta = times[i] - times[i - 1];
+            writeDeltaOfDelta(out, delta - previousDelta);
+            previousDelta = delta;
+
+            long bits = Double.doubleToRawLongBits(values[i]);
+            long xor = bits ^ previousBits;
+            previousBits = bits;
+            if (xor == 0) {
+                out.writeBit(false);
+                continue;
+            }
+            out.writeBit(true);
+            int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                out.writeBit(false);
+                out.writeBits(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+            } else {
+                int meaningful = 64 - leading - trailing;
+                out.writeBit(true);
+                out.writeBits(leading, 5);
+                // 64 meaningful bits do not fit in 6 bits, 0 can not happen and stands for it
+                out.writeBits(meaningful == 64 ? 0 : meaningful, 6);
+                out.writeBits(xor >>> trailing, meaningful);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes the points in [startTime, endTime], decoding stops at the first point after endTime.
+     */
+    static List<MetricsPoint> decode(byte[] data, long startTime, long endTime) {
+        BitReader in = new BitReader(data);
+        int count = (int) in.readBits(32);
+        List<MetricsPoint> points = new ArrayList<>();
+        if (count == 0) {
+            return points;
+        }
+        long time = in.readBits(64);
+        long bits = in.readBits(64);
+        addIfInRange(points, time, bits, startTime, endTime);
+
+        long delta = 0;
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 1; i < count && time <= endTime; i++) {
+            delta += readDeltaOfDelta(in);
+            time += delta;
+            if (in.readBit()) {
+                if (in.readBit()) {
+                    leading = (int) in.readBits(5);
+                    int meaningful = (int) in.readBits(6);
+                    if (meaningful == 0) {
+                        meaningful = 64;
+                    }
+                    trailing = 64 - leading - meaningful;
+                }
+                bits ^= in.readBits(64 - leading - trailing) << trailing;
+            }
+            addIfInRange(points, time, bits, startTime, endTime);
+        }
+        return points;
+    }
+
+    private static void addIfInRange(List<MetricsPoint> points, long time, long bits, long startTime, long endTime) {
+        if (time >= startTime && time <= endTime) {
+            points.add(new MetricsPoint(time, Double.longBitsToDouble(bits)));
+        }
+    }
+
+    private static void writeDeltaOfDelta(BitWriter out, long deltaOfDelta) {
+        long zigzag = (deltaOfDelta << 1) ^ (deltaOfDelta >> 63);
+        if (zigzag == 0) {
+            out.writeBit(false);
+        } else if (zigzag < (1L << 7)) {
+            out.writeBits(0b10, 2);
+            out.writeBits(zigzag, 7);
+        } else if (zigzag < (1L << 12)) {
+            out.writeBits(0b110, 3);
+            out.writeBits(zigzag, 12);
+        } else if (zigzag < (1L << 20)) {
+            out.writeBits(0b1110, 4);
+            out.writeBits(zigzag, 20);
+        } else {
+            out.writeBits(0b1111, 4);
+            out.writeBits(zigzag, 64);
+        }
+    }
+
+    private static long readDeltaOfDelta(BitReader in) {
+        int bits;
+        if (!in.readBit()) {
+            return 0;
+        } else if (!in.readBit()) {
+            bits = 7;
+        } else if (!in.readBit()) {
+            bits = 12;
+        } else if (!in.readBit()) {
+            bits = 20;
+        } else {
+            bits = 64;
+        }
+        long zigzag = in.readBits(bits);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.metrics.tsdb;
+
+import org.dinky.metrics.MetricsPoint;
+import org.dinky.metrics.SeriesKey;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.Getter;
+
+/**
+ * An immutable file holding the compressed points of many series within one time partition.
+ * <p>
+ * The file is a sequence of blocks, one per series, followed by an index that locates the block of every
+ * series. Only the index is kept in memory, a query reads and decodes the blocks of the requested series only.
+ * </p>
+ * <pre>
+ * block*
+ * int seriesCount, (UTF model, UTF vertex, UTF metric, long minTime, long maxTime, long offset, int length)*
+ * long indexOffset, int MAGIC
+ * </pre>
+ */
+@Getter
+class SegmentFile {
+
+    static final String SUFFIX = ".seg";
+    private static final int MAGIC = 0x44545344;
+    private static final int FOOTER_LENGTH = Long.BYTES + Integer.BYTES;
+
+    private final File file;
+    private final long partitionStart;
+    private final long minTime;
+    private final long maxTime;
+    private final Map<SeriesKey, Block> index;
+
+    private SegmentFile(File file, long partitionStart, Map<SeriesKey, Block> index) {
+        this.file = file;
+        this.partitionStart = partitionStart;
+        this.index = index;
+        this.minTime =
+                index.values().stream().mapToLong(Block::getMinTime).min().orElse(Long.MAX_VALUE);
+        this.maxTime =
+                index.values().stream().mapToLong(Block::getMaxTime).max().orElse(Long.MIN_VALUE);
+    }
+
+    /**
+     * Writes the points of the series in [startTime, endTime) to a new segment file, the file only becomes
+     * visible under its name once it is complete.
+     *
+     * @return the segment file, or null if no series has points in the range
+     */
+    static SegmentFile write(
+            File file, long partitionStart, Map<SeriesKey, SeriesBuffer> series, long startTime, long endTime)
+            throws IOException {
+        Map<SeriesKey, Block> index = new HashMap<>();
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            long offset = 0;
+            for (Map.Entry<SeriesKey, SeriesBuffer> entry : series.entrySet()) {
+                SeriesBuffer buffer = entry.getValue();
+                int from = buffer.indexOf(startTime);
+                int to = buffer.indexOf(endTime);
+                if (from >= to) {
+                    continue;
+                }
+                byte[] data = buffer.encode(from, to);
+                out.write(data);
+                index.put(entry.getKey(), new Block(offset, data.length, buffer.timeAt(from), buffer.timeAt(to - 1)));
+                offset += data.length;
+            }
+            if (index.isEmpty()) {
+                out.close();
+                Files.deleteIfExists(tmp.toPath());
+                return null;
+            }
+            out.writeInt(index.size());
+            for (Map.Entry<SeriesKey, Block> entry : index.entrySet()) {
+                SeriesKey key = entry.getKey();
+                Block block = entry.getValue();
+                out.writeUTF(key.getModel());
+                out.writeUTF(key.getVertex());
+                out.writeUTF(key.getMetric());
+                out.writeLong(block.getMinTime());
+                out.writeLong(block.getMaxTime());
+                out.writeLong(block.getOffset());
+                out.writeInt(block.getLength());
+            }
+            out.writeLong(offset);
+            out.writeInt(MAGIC);
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        return new SegmentFile(file, partitionStart, index);
+    }
+
+    /**
+     * Opens an existing segment file and loads its index.
+     */
+    static SegmentFile open(File file, long partitionStart) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            long length = raf.length();
+            if (length < FOOTER_LENGTH) {
+                throw new IOException("Segment file is truncated: " + file);
+            }
+            raf.seek(length - FOOTER_LENGTH);
+            long indexOffset = raf.readLong();
+            if (raf.readInt() != MAGIC) {
+                throw new IOException("Not a segment file: " + file);
+            }
+            byte[] indexBytes = new byte[(int) (length - FOOTER_LENGTH - indexOffset)];
+            raf.seek(indexOffset);
+            raf.readFully(indexBytes);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(indexBytes));
+            int count = in.readInt();
+            Map<SeriesKey, Block> index = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                SeriesKey key = new SeriesKey(in.readUTF(), in.readUTF(), in.readUTF());
+                long minTime = in.readLong();
+                long maxTime = in.readLong();
+                index.put(key, new Block(in.readLong(), in.readInt(), minTime, maxTime));
+            }
+            return new SegmentFile(file, partitionStart, index);
+        }
+    }
+
+    boolean overlaps(long startTime, long endTime) {
+        return minTime <= endTime && maxTime >= startTime;
+    }
+
+    Set<SeriesKey> getSeries() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    /**
+     * Reads the points of the series in [startTime, endTime], the blocks of other series are not read.
+     */
+    void read(Map<SeriesKey, List<MetricsPoint>> result, long startTime, long endTime) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            for (Map.Entry<SeriesKey, List<MetricsPoint>> entry : result.entrySet()) {
+                Block block = index.get(entry.getKey());
+                if (block == null || block.getMinTime() > endTime || block.getMaxTime() < startTime) {
+                    continue;
+                }
+                byte[] data = new byte[block.getLength()];
+                raf.seek(block.getOffset());
+                raf.readFully(data);
+                entry.getValue().addAll(GorillaCodec.decode(data, startTime, endTime));
+            }
+        }
+    }
+
+    @Getter
+    static class Block {
+        private final long offset;
+        private final int length;
+        private final long minTime;
+        private final long maxTime;
+
+        Block(long offset, int length, long minTime, long maxTime) {
+            this.offset = offset;
+            this.length = length;
+            this.minTime = minTime;
+            this.maxTime = maxTime;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.metrics.tsdb;
+
+import org.dinky.metrics.MetricsPoint;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * In memory points of one series that are not flushed to a segment file yet, in time order.
+ */
+class SeriesBuffer {
+
+    private long[] times = new long[16];
+    private double[] values = new double[16];
+    private int size;
+
+    /**
+     * Appends a point, a point that is not later than the last one is ignored.
+     */
+    void append(long time, double value) {
+        if (size > 0 && time <= times[size - 1]) {
+            return;
+        }
+        if (size == times.length) {
+            times = Arrays.copyOf(times, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        times[size] = time;
+        values[size] = value;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long timeAt(int index) {
+        return times[index];
+    }
+
+    long lastTime() {
+        return times[size - 1];
+    }
+
+    /** Index of the first point at or after time */
+    int indexOf(long time) {
+        int index = Arrays.binarySearch(times, 0, size, time);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /** Compresses the points in [from, to) */
+    byte[] encode(int from, int to) {
+        return GorillaCodec.encode(
+                Arrays.copyOfRange(times, from, to), Arrays.copyOfRange(values, from, to), to - from);
+    }
+
+    void collect(long startTime, long endTime, List<MetricsPoint> points) {
+        for (int i = indexOf(startTime); i < size && times[i] <= endTime; i++) {
+            points.add(new MetricsPoint(times[i], values[i]));
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.metrics.tsdb;
+
+import org.dinky.metrics.MetricsPoint;
+import org.dinky.metrics.SeriesKey;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import cn.hutool.core.io.FileUtil;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Points of many series in one directory: recent points are buffered in memory, older ones live in immutable
+ * {@link SegmentFile}s grouped in time partitions. A partition is compacted into one file once it is complete
+ * and dropped as a whole once it is older than the retention.
+ */
+@Slf4j
+class SeriesStorage {
+
+    private final AtomicLong fileSequence = new AtomicLong();
+    private final Object lock = new Object();
+
+    private final File dir;
+
+    @Getter
+    private final long partitionMillis;
+
+    private volatile long retentionMillis;
+
+    /** Points that are not flushed yet, guarded by lock */
+    private Map<SeriesKey, SeriesBuffer> head = new HashMap<>();
+    /** Points that are being flushed, still visible to readers until their segment files are, guarded by lock */
+    private Map<SeriesKey, SeriesBuffer> flushing = Collections.emptyMap();
+    /** Copy on write, replaced under lock */
+    private volatile List<SegmentFile> segments = Collections.emptyList();
+
+    SeriesStorage(File dir, long partitionMillis, long retentionMillis) {
+        this.dir = FileUtil.mkdir(dir);
+        this.partitionMillis = partitionMillis;
+        this.retentionMillis = retentionMillis;
+        List<SegmentFile> loaded = new ArrayList<>();
+        File[] files = dir.listFiles();
+        for (File file : files == null ? new File[0] : files) {
+            if (file.isDirectory()) {
+                continue;
+            }
+            if (!file.getName().endsWith(SegmentFile.SUFFIX)) {
+                // a flush or compaction that did not complete
+                FileUtil.del(file);
+                continue;
+            }
+            try {
+                loaded.add(SegmentFile.open(file, partitionOf(file)));
+            } catch (IOException | NumberFormatException e) {
+                log.warn("Skip broken metrics segment file {}: {}", file, e.getMessage());
+            }
+        }
+        loaded.sort(Comparator.comparingLong(SegmentFile::getMinTime));
+        segments = Collections.unmodifiableList(loaded);
+    }
+
+    long getRetentionMillis() {
+        return retentionMillis;
+    }
+
+    void setRetentionMillis(long retentionMillis) {
+        this.retentionMillis = retentionMillis;
+    }
+
+    int getSegmentCount() {
+        return segments.size();
+    }
+
+    void append(SeriesKey key, long time, double value) {
+        synchronized (lock) {
+            head.computeIfAbsent(key, k -> new SeriesBuffer()).append(time, value);
+        }
+    }
+
+    /**
+     * Adds the points in [startTime, endTime] of the series that are keys of result to their lists, the lists
+     * are sorted by time afterwards.
+     */
+    void read(Map<SeriesKey, List<MetricsPoint>> result, long startTime, long endTime) {
+        List<SegmentFile> snapshot;
+        synchronized (lock) {
+            snapshot = segments;
+            for (Map.Entry<SeriesKey, List<MetricsPoint>> entry : result.entrySet()) {
+                collect(flushing.get(entry.getKey()), startTime, endTime, entry.getValue());
+                collect(head.get(entry.getKey()), startTime, endTime, entry.getValue());
+            }
+        }
+        for (SegmentFile segment : snapshot) {
+            if (!segment.overlaps(startTime, endTime)) {
+                continue;
+            }
+            try {
+                segment.read(result, startTime, endTime);
+            } catch (IOException e) {
+                // the segment may have been dropped by retention or compaction in the meantime
+                log.debug("Failed to read metrics segment {}: {}", segment.getFile(), e.getMessage());
+            }
+        }
+        result.values().forEach(points -> points.sort(Comparator.comparingLong(MetricsPoint::getTime)));
+    }
+
+    /**
+     * Adds the series that have points in [startTime, endTime] to series, from the segment indexes and the
+     * memory only.
+     */
+    void listSeries(Set<SeriesKey> series, long startTime, long endTime) {
+        List<SegmentFile> snapshot;
+        synchronized (lock) {
+            snapshot = segments;
+            series.addAll(flushing.keySet());
+            series.addAll(head.keySet());
+        }
+        for (SegmentFile segment : snapshot) {
+            if (segment.overlaps(startTime, endTime)) {
+                series.addAll(segment.getSeries());
+            }
+        }
+    }
+
+    void flush() {
+        Map<SeriesKey, SeriesBuffer> toFlush;
+        synchronized (lock) {
+            if (head.isEmpty()) {
+                return;
+            }
+            toFlush = head;
+            flushing = toFlush;
+            head = new HashMap<>();
+        }
+        long minTime = Long.MAX_VALUE;
+        long maxTime = Long.MIN_VALUE;
+        for (SeriesBuffer buffer : toFlush.values()) {
+            minTime = Math.min(minTime, buffer.timeAt(0));
+            maxTime = Math.max(maxTime, buffer.lastTime());
+        }
+        List<SegmentFile> written = new ArrayList<>();
+        for (long partition = partitionStart(minTime); partition <= maxTime; partition += partitionMillis) {
+            try {
+                SegmentFile segment = SegmentFile.write(
+                        newSegmentFile(partition), partition, toFlush, partition, partition + partitionMillis);
+                if (segment != null) {
+                    written.add(segment);
+                }
+            } catch (IOException e) {
+                log.error("Failed to flush metrics of partition {} to {}", partition, dir, e);
+            }
+        }
+        synchronized (lock) {
+            List<SegmentFile> updated = new ArrayList<>(segments);
+            updated.addAll(written);
+            segments = Collections.unmodifiableList(updated);
+            flushing = Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Drops the partitions that are expired and compacts the partitions that ended before completeTime.
+     */
+    void maintain(long now, long completeTime) {
+        dropExpired(now - retentionMillis);
+        Map<Long, List<SegmentFile>> byPartition =
+                segments.stream().collect(Collectors.groupingBy(SegmentFile::getPartitionStart));
+        byPartition.forEach((partition, files) -> {
+            if (files.size() > 1 && partition + partitionMillis < completeTime) {
+                compact(partition, files);
+            }
+        });
+    }
+
+    private void dropExpired(long expireTime) {
+        List<SegmentFile> expired = segments.stream()
+                .filter(segment -> segment.getPartitionStart() + partitionMillis <= expireTime)
+                .collect(Collectors.toList());
+        if (expired.isEmpty()) {
+            return;
+        }
+        replace(expired, null);
+        expired.forEach(segment -> FileUtil.del(segment.getFile()));
+        log.info("Dropped {} expired metrics segment files of {}", expired.size(), dir);
+    }
+
+    private void compact(long partition, List<SegmentFile> files) {
+        Map<SeriesKey, List<MetricsPoint>> points = new HashMap<>();
+        files.forEach(file -> file.getSeries().forEach(key -> points.put(key, new ArrayList<>())));
+        try {
+            for (SegmentFile file : files) {
+                file.read(points, partition, partition + partitionMillis - 1);
+            }
+            Map<SeriesKey, SeriesBuffer> buffers = new HashMap<>();
+            points.forEach((key, list) -> {
+                list.sort(Comparator.comparingLong(MetricsPoint::getTime));
+                SeriesBuffer buffer = new SeriesBuffer();
+                list.forEach(point -> buffer.append(point.getTime(), point.getValue()));
+                buffers.put(key, buffer);
+            });
+            SegmentFile compacted = SegmentFile.write(
+                    newSegmentFile(partition), partition, buffers, partition, partition + partitionMillis);
+            replace(files, compacted);
+            files.forEach(file -> FileUtil.del(file.getFile()));
+        } catch (IOException e) {
+            log.error("Failed to compact metrics partition {} of {}", partition, dir, e);
+        }
+    }
+
+    private void replace(List<SegmentFile> removed, SegmentFile added) {
+        synchronized (lock) {
+            List<SegmentFile> updated = new ArrayList<>(segments);
+            updated.removeAll(removed);
+            if (added != null) {
+                updated.add(added);
+                updated.sort(Comparator.comparingLong(SegmentFile::getMinTime));
+            }
+            segments = Collections.unmodifiableList(updated);
+        }
+    }
+
+    private File newSegmentFile(long partition) {
+        return new File(
+                dir,
+                partition + "_" + System.currentTimeMillis() + "_" + fileSequence.incrementAndGet()
+                        + SegmentFile.SUFFIX);
+    }
+
+    private long partitionStart(long time) {
+        return Math.floorDiv(time, partitionMillis) * partitionMillis;
+    }
+
+    private static long partitionOf(File file) {
+        String name = file.getName();
+        return Long.parseLong(name.substring(0, name.indexOf('_')));
+    }
+
+    private static void collect(SeriesBuffer buffer, long startTime, long endTime, List<MetricsPoint> points) {
+        if (buffer != null) {
+            buffer.collect(startTime, endTime, points);
+        }
+    }
+}
@@ -0,0 +1,412 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.metrics.tsdb;
+
+import org.dinky.data.vo.MetricsVO;
+import org.dinky.metrics.MetricsPoint;
+import org.dinky.metrics.MetricsResolution;
+import org.dinky.metrics.MetricsStore;
+import org.dinky.metrics.SeriesKey;
+
+import java.io.File;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import cn.hutool.core.util.StrUtil;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Embedded time series storage of the metrics history.
+ * <p>
+ * Every (job, vertex, metric) is a series of numeric points. New points are buffered in memory and flushed every
+ * minute to an immutable {@link SegmentFile} of the hour they belong to, where every series is compressed on its
+ * own with {@link GorillaCodec}. The files of a past hour are compacted into one, and a whole hour is dropped
+ * by deleting its files once it is older than the retention. Values that are not numeric are not stored, a warning
+ * names each series that had one.
+ * </p>
+ * <p>
+ * Besides the raw points, every series is rolled up into the buckets of each {@link MetricsResolution} tier as
+ * four series of the min, avg, max and last value, each tier in its own directory with its own retention. A
+ * read answers from the finest tier that still holds the start of the range within the point budget.
+ * </p>
+ */
+@Slf4j
+public class TimeSeriesMetricsStore implements MetricsStore {
+
+    public static final String TYPE = "tsdb";
+
+    static final long PARTITION_MILLIS = MetricsResolution.RAW.getPartitionMillis();
+    private static final long FLUSH_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    /** Assumed distance of raw points when choosing a tier, the default gather interval of Flink metrics */
+    private static final long RAW_INTERVAL_MILLIS = 3000;
+
+    private static final char COLUMN_SEPARATOR = '\u0001';
+    private static final String MIN = "min";
+    private static final String AVG = "avg";
+    private static final String MAX = "max";
+    private static final String LAST = "last";
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private final Map<MetricsResolution, SeriesStorage> storages = new EnumMap<>(MetricsResolution.class);
+    /** Open rollup buckets by tier, guarded by itself */
+    private final Map<MetricsResolution, Map<SeriesKey, Bucket>> buckets = new EnumMap<>(MetricsResolution.class);
+
+    /** Series that had a value which is not a number, each one is only reported once */
+    private final Set<SeriesKey> nonNumericSeries = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService scheduler;
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    public void open(File dataDir, Map<MetricsResolution, Long> retentionMillis) {
+        for (MetricsResolution resolution : MetricsResolution.values()) {
+            // raw points stay in the root so that the data of a store without tiers is still found
+            File dir =
+                    resolution.isRollup() ? new File(dataDir, resolution.name().toLowerCase(Locale.ROOT)) : dataDir;
+            long retention = retentionMillis.getOrDefault(resolution, Long.MAX_VALUE);
+            storages.put(resolution, new SeriesStorage(dir, resolution.getPartitionMillis(), retention));
+            if (resolution.isRollup()) {
+                buckets.put(resolution, new HashMap<>());
+            }
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("metrics-tsdb-%d")
+                .setDaemon(true)
+                .build());
+        scheduler.scheduleWithFixedDelay(
+                this::maintain, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        log.info(
+                "Metrics storage opened at {} with {} segment files",
+                dataDir,
+                storages.values().stream()
+                        .mapToInt(SeriesStorage::getSegmentCount)
+                        .sum());
+    }
+
+    @Override
+    public void setRetention(MetricsResolution resolution, long retentionMillis) {
+        storages.get(resolution).setRetentionMillis(retentionMillis);
+    }
+
+    @Override
+    public void write(String model, long timestamp, Map<String, Map<String, String>> content) {
+        SeriesStorage raw = storages.get(MetricsResolution.RAW);
+        content.forEach((vertex, metrics) -> metrics.forEach((metric, value) -> {
+            if (value == null) {
+                return;
+            }
+            SeriesKey key = new SeriesKey(model, vertex, metric);
+            double number;
+            try {
+                number = Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                if (nonNumericSeries.add(key)) {
+                    log.warn(
+                            "Metric {} of vertex {} of job {} is not numeric, its values such as [{}] are not stored",
+                            metric,
+                            vertex,
+                            model,
+                            StrUtil.maxLength(value, 64));
+                }
+                return;
+            }
+            raw.append(key, timestamp, number);
+            rollup(key, timestamp, number);
+        }));
+    }
+
+    private void rollup(SeriesKey key, long timestamp, double value) {
+        buckets.forEach((resolution, open) -> {
+            long start = Math.floorDiv(timestamp, resolution.getBucketMillis()) * resolution.getBucketMillis();
+            synchronized (open) {
+                Bucket bucket = open.get(key);
+                if (bucket != null && start > bucket.start) {
+                    emit(resolution, key, bucket);
+                    bucket = null;
+                }
+                if (bucket == null) {
+                    bucket = new Bucket(start);
+                    open.put(key, bucket);
+                } else if (start < bucket.start) {
+                    // too late, the bucket of the point has been stored already
+                    return;
+                }
+                bucket.add(value);
+            }
+        });
+    }
+
+    private void emit(MetricsResolution resolution, SeriesKey key, Bucket bucket) {
+        SeriesStorage storage = storages.get(resolution);
+        storage.append(column(key, MIN), bucket.start, bucket.min);
+        storage.append(column(key, AVG), bucket.start, bucket.sum / bucket.count);
+        storage.append(column(key, MAX), bucket.start, bucket.max);
+        storage.append(column(key, LAST), bucket.start, bucket.last);
+    }
+
+    /**
+     * Stores the rollup buckets that ended before time, all of them if time is Long.MAX_VALUE.
+     */
+    private void emitBuckets(long time) {
+        buckets.forEach((resolution, open) -> {
+            synchronized (open) {
+                Iterator<Map.Entry<SeriesKey, Bucket>> iterator =
+                        open.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<SeriesKey, Bucket> entry = iterator.next();
+                    Bucket bucket = entry.getValue();
+                    if (time == Long.MAX_VALUE || bucket.start + resolution.getBucketMillis() <= time) {
+                        emit(resolution, entry.getKey(), bucket);
+                        iterator.remove();
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public List<MetricsVO> read(Collection<String> models, long startTime, long endTime, int maxPoints) {
+        MetricsResolution resolution = select(startTime, endTime, maxPoints);
+        Set<String> modelSet = new HashSet<>(models);
+        Set<SeriesKey> series = listSeries(resolution, startTime, endTime).stream()
+                .filter(key -> modelSet.contains(key.getModel()))
+                .collect(Collectors.toSet());
+
+        // model -> time -> vertex -> metric -> value
+        Map<String, TreeMap<Long, Map<String, Map<String, String>>>> samples = new HashMap<>();
+        readSeries(resolution, series, startTime, endTime).forEach((key, points) -> {
+            for (MetricsPoint point : points) {
+                samples.computeIfAbsent(key.getModel(), k -> new TreeMap<>())
+                        .computeIfAbsent(point.getTime(), k -> new HashMap<>())
+                        .computeIfAbsent(key.getVertex(), k -> new HashMap<>())
+                        .put(key.getMetric(), format(point.getValue()));
+            }
+        });
+
+        List<MetricsVO> result = new ArrayList<>();
+        samples.forEach((model, byTime) -> byTime.forEach((time, content) -> {
+            LocalDateTime heartTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+            MetricsVO metricsVO = new MetricsVO();
+            metricsVO.setModel(model);
+            metricsVO.setContent(content);
+            metricsVO.setHeartTime(heartTime);
+            metricsVO.setDate(heartTime.format(DATE_FORMATTER));
+            result.add(metricsVO);
+        }));
+        result.sort(Comparator.comparing(MetricsVO::getHeartTime));
+        return result;
+    }
+
+    @Override
+    public Map<SeriesKey, List<MetricsPoint>> readSeries(
+            Collection<SeriesKey> series, long startTime, long endTime, int maxPoints) {
+        return readSeries(select(startTime, endTime, maxPoints), series, startTime, endTime);
+    }
+
+    /**
+     * Reads the points of some series from one tier, a point of a rollup tier is the avg of its bucket as value
+     * along with the min, max and last.
+     */
+    public Map<SeriesKey, List<MetricsPoint>> readSeries(
+            MetricsResolution resolution, Collection<SeriesKey> series, long startTime, long endTime) {
+        Map<SeriesKey, List<MetricsPoint>> result = new HashMap<>();
+        SeriesStorage storage = storages.get(resolution);
+        if (!resolution.isRollup()) {
+            series.forEach(key -> result.put(key, new ArrayList<>()));
+            storage.read(result, startTime, endTime);
+            return result;
+        }
+        Map<SeriesKey, List<MetricsPoint>> columns = new HashMap<>();
+        for (SeriesKey key : series) {
+            for (String column : new String[] {MIN, AVG, MAX, LAST}) {
+                columns.put(column(key, column), new ArrayList<>());
+            }
+        }
+        storage.read(columns, startTime, endTime);
+        Map<SeriesKey, Bucket> open = buckets.get(resolution);
+        for (SeriesKey key : series) {
+            List<MetricsPoint> min = columns.get(column(key, MIN));
+            List<MetricsPoint> avg = columns.get(column(key, AVG));
+            List<MetricsPoint> max = columns.get(column(key, MAX));
+            List<MetricsPoint> last = columns.get(column(key, LAST));
+            // the columns of a bucket are always stored together
+            int size = Math.min(Math.min(min.size(), avg.size()), Math.min(max.size(), last.size()));
+            List<MetricsPoint> points = new ArrayList<>(size + 1);
+            for (int i = 0; i < size; i++) {
+                points.add(new MetricsPoint(
+                        avg.get(i).getTime(),
+                        avg.get(i).getValue(),
+                        min.get(i).getValue(),
+                        max.get(i).getValue(),
+                        last.get(i).getValue()));
+            }
+            synchronized (open) {
+                Bucket bucket = open.get(key);
+                if (bucket != null && bucket.start >= startTime && bucket.start <= endTime) {
+                    points.add(bucket.toPoint());
+                }
+            }
+            result.put(key, points);
+        }
+        return result;
+    }
+
+    /**
+     * Lists the series that have points of a tier in [startTime, endTime], from the segment indexes and the
+     * memory only.
+     */
+    public Set<SeriesKey> listSeries(MetricsResolution resolution, long startTime, long endTime) {
+        Set<SeriesKey> series = new HashSet<>();
+        storages.get(resolution).listSeries(series, startTime, endTime);
+        if (!resolution.isRollup()) {
+            return series;
+        }
+        Map<SeriesKey, Bucket> open = buckets.get(resolution);
+        synchronized (open) {
+            series.addAll(open.keySet());
+        }
+        return series.stream().map(TimeSeriesMetricsStore::uncolumn).collect(Collectors.toSet());
+    }
+
+    /**
+     * Chooses the finest tier that still holds startTime and has no more than maxPoints points in the range,
+     * or the coarsest tier that holds startTime if none is coarse enough.
+     */
+    MetricsResolution select(long startTime, long endTime, int maxPoints) {
+        long now = System.currentTimeMillis();
+        // there are no points after now, an open ended range must not push the read to a coarse tier
+        long range = Math.max(Math.min(endTime, now) - startTime, 0);
+        MetricsResolution selected = null;
+        for (MetricsResolution resolution : MetricsResolution.values()) {
+            if (startTime < now - storages.get(resolution).getRetentionMillis()) {
+                continue;
+            }
+            selected = resolution;
+            long interval = resolution.isRollup() ? resolution.getBucketMillis() : RAW_INTERVAL_MILLIS;
+            if (range / interval <= maxPoints) {
+                break;
+            }
+        }
+        // nothing reaches back that far, the coarsest tier has the most of the range
+        return selected == null ? MetricsResolution.HOUR : selected;
+    }
+
+    @Override
+    public void flush() {
+        storages.values().forEach(SeriesStorage::flush);
+    }
+
+    /**
+     * Stores the finished rollup buckets, flushes the memory, compacts the partitions that are complete and drops
+     * the partitions that are expired.
+     */
+    private void maintain() {
+        try {
+            long now = System.currentTimeMillis();
+            // late points of a bucket or a partition can still arrive shortly after it ends
+            emitBuckets(now - FLUSH_INTERVAL_MILLIS);
+            for (SeriesStorage storage : storages.values()) {
+                storage.flush();
+                storage.maintain(now, now - FLUSH_INTERVAL_MILLIS);
+            }
+        } catch (Exception e) {
+            log.error("Failed to maintain metrics storage", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        emitBuckets(Long.MAX_VALUE);
+        flush();
+    }
+
+    private static SeriesKey column(SeriesKey key, String column) {
+        return new SeriesKey(key.getModel(), key.getVertex(), key.getMetric() + COLUMN_SEPARATOR + column);
+    }
+
+    private static SeriesKey uncolumn(SeriesKey key) {
+        int index = key.getMetric().lastIndexOf(COLUMN_SEPARATOR);
+        return index < 0
+                ? key
+                : new SeriesKey(key.getModel(), key.getVertex(), key.getMetric().substring(0, index));
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return String.valueOf((long) value);
+        }
+        return String.valueOf(value);
+    }
+
+    /** Aggregate of the points of one series in one rollup bucket */
+    private static class Bucket {
+        private final long start;
+        private double min = Double.MAX_VALUE;
+        private double max = -Double.MAX_VALUE;
+        private double sum;
+        private double last;
+        private int count;
+
+        private Bucket(long start) {
+            this.start = start;
+        }
+
+        private void add(double value) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sum += value;
+            last = value;
+            count++;
+        }
+
+        private MetricsPoint toPoint() {
+            return new MetricsPoint(start, sum / count, min, max, last);
+        }
+    }
+}
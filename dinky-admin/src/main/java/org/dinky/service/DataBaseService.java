@@ -33,6 +33,7 @@ import org.dinky.job.JobResult;
 import org.dinky.metadata.result.JdbcSelectResult;
 import org.dinky.mybatis.service.ISuperService;
 
+import java.io.OutputStream;
 import java.util.List;
 
 /**
@@ -123,6 +124,13 @@ public interface DataBaseService extends ISuperService<DataBase> {
      */
     List<Column> listColumns(Integer id, String schemaName, String tableName);
 
+    /**
+     * clear the cached tables and columns of the database, shared with CDCSOURCE jobs
+     *
+     * @param id {@link Integer}
+     */
+    void unCacheMetadata(Integer id);
+
     /**
      * Get the Flink table SQL for the given ID, schema name, and table name.
      *
@@ -172,6 +180,15 @@ public interface DataBaseService extends ISuperService<DataBase> {
      */
     JdbcSelectResult execSql(QueryData queryData);
 
+    /**
+     * export the result of the sql, or of the table query when no sql is given, as csv. rows are streamed
+     * batch by batch, the query is cancelled when writing fails.
+     *
+     * @param queryData {@link QueryData}
+     * @param outputStream {@link OutputStream}
+     */
+    void exportData(QueryData queryData, OutputStream outputStream);
+
     /**
      * get sql generation
      *
@@ -19,6 +19,7 @@
 
 package org.dinky.service;
 
+import org.dinky.data.model.JobStatusEvent;
 import org.dinky.data.model.ext.JobInfoDetail;
 import org.dinky.data.model.home.JobInstanceStatus;
 import org.dinky.data.model.job.JobInstance;
@@ -87,15 +88,26 @@ public interface JobInstanceService extends ISuperService<JobInstance> {
 
     /**
      * Hook the job done for the given job ID and task ID.
+     * The job is refreshed at once by the job thread pool, which keeps refreshing it until it is done.
+     * The call waits a bounded time for that refresh, the caller retries until the job is seen done.
      *
      * @param jobId The ID of the job to hook the job done for.
      * @param taskId The ID of the task to hook the job done for.
-     * @return A boolean indicating whether the hooking was successful or not.
+     * @return true if there is no such job or the refresh found it done.
      */
     boolean hookJobDone(String jobId, Integer taskId);
 
     boolean hookJobDoneByHistory(String jobId);
 
+    /**
+     * Handle a job state event pushed by dinky-app.
+     * A status change refreshes the job at once. Events of application mode jobs also postpone polling of the
+     * job, events of other jobs only count as a status change.
+     *
+     * @param event The pushed event.
+     */
+    void hookJobEvent(JobStatusEvent event);
+
     /**
      * Refresh the job instances for the given task IDs.
      *
@@ -44,6 +44,16 @@ public interface StudioService {
 
     SelectResult getJobData(String jobId);
 
+    /**
+     * Get a page of the preview rows of a job, the rows of a running preview are not copied beyond the page.
+     *
+     * @param jobId  job id
+     * @param offset index of the first row
+     * @param limit  max number of rows
+     * @return the page, total is the number of all rows
+     */
+    SelectResult getJobData(String jobId, int offset, int limit);
+
     LineageResult getLineage(StudioLineageDTO studioCADTO);
 
     List<JsonNode> listFlinkJobs(Integer clusterId);
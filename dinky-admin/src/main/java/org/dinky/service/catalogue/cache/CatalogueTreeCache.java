@@ -0,0 +1,96 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.service.catalogue.cache;
+
+import org.dinky.context.TenantContextHolder;
+import org.dinky.data.model.Catalogue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import cn.hutool.core.bean.BeanUtil;
+import lombok.AllArgsConstructor;
+
+/**
+ * CatalogueTreeCache
+ *
+ * <p>Caches the catalogue tree of each tenant until a catalogue or a task is written, see
+ * {@link org.dinky.interceptor.CatalogueTreeCacheInterceptor}. A tree built while a write happened
+ * is returned but not cached.
+ */
+public final class CatalogueTreeCache {
+
+    private static final String ALL_TENANTS = "*";
+
+    private static final Map<String, CachedTree> TREES = new ConcurrentHashMap<>();
+    private static final AtomicLong VERSION = new AtomicLong();
+
+    private CatalogueTreeCache() {}
+
+    /**
+     * Get the catalogue tree of the current tenant.
+     *
+     * @param builder builds the tree when it is not cached
+     * @return a copy of the tree, which the caller may modify
+     */
+    public static List<Catalogue> get(Supplier<List<Catalogue>> builder) {
+        String key = TenantContextHolder.isIgnoreTenant() ? ALL_TENANTS : String.valueOf(TenantContextHolder.get());
+        long version = VERSION.get();
+        CachedTree cached = TREES.get(key);
+        if (cached == null || cached.version != version) {
+            cached = new CachedTree(version, builder.get());
+            if (VERSION.get() == version) {
+                TREES.put(key, cached);
+            }
+        }
+        return copy(cached.tree);
+    }
+
+    /**
+     * Invalidate the trees of all tenants.
+     */
+    public static void invalidate() {
+        VERSION.incrementAndGet();
+        TREES.clear();
+    }
+
+    private static List<Catalogue> copy(List<Catalogue> tree) {
+        if (tree == null) {
+            return null;
+        }
+        List<Catalogue> copied = new ArrayList<>(tree.size());
+        for (Catalogue catalogue : tree) {
+            Catalogue node = BeanUtil.copyProperties(catalogue, Catalogue.class, "children");
+            node.setChildren(copy(catalogue.getChildren()));
+            copied.add(node);
+        }
+        return copied;
+    }
+
+    @AllArgsConstructor
+    private static final class CachedTree {
+        private final long version;
+        private final List<Catalogue> tree;
+    }
+}
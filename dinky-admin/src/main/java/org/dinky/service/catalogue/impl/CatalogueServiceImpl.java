@@ -51,6 +51,7 @@ import org.dinky.service.JobInstanceService;
 import org.dinky.service.MonitorService;
 import org.dinky.service.TaskService;
 import org.dinky.service.catalogue.CatalogueService;
+import org.dinky.service.catalogue.cache.CatalogueTreeCache;
 import org.dinky.service.catalogue.factory.CatalogueFactory;
 import org.dinky.service.catalogue.factory.CatalogueTreeSortFactory;
 import org.dinky.service.catalogue.strategy.CatalogueTreeSortStrategy;
@@ -122,7 +123,7 @@ public class CatalogueServiceImpl extends SuperServiceImpl<CatalogueMapper, Cata
     @Override
     public List<Catalogue> getCatalogueTree(CatalogueTreeQueryDTO catalogueTreeQueryDto) {
         log.info("getCatalogueTree, catalogueTreeQueryDto: {}", catalogueTreeQueryDto);
-        List<Catalogue> catalogueTree = buildCatalogueTree(this.list());
+        List<Catalogue> catalogueTree = CatalogueTreeCache.get(() -> buildCatalogueTree(this.list()));
         // sort
         CatalogueTreeSortStrategy strategy = catalogueTreeSortFactory.getStrategy(catalogueTreeQueryDto.getSortValue());
         return strategy.sort(catalogueTree, SortTypeEnum.getByName(catalogueTreeQueryDto.getSortType()));
@@ -135,18 +136,33 @@ public class CatalogueServiceImpl extends SuperServiceImpl<CatalogueMapper, Cata
      * @return catalogue tree
      */
     public List<Catalogue> buildCatalogueTree(List<Catalogue> catalogueList) {
+        if (CollectionUtil.isEmpty(catalogueList)) {
+            return catalogueList;
+        }
         // sort
-        if (CollectionUtil.isNotEmpty(catalogueList)) {
-            catalogueList = catalogueList.stream()
-                    .sorted(Comparator.comparing(Catalogue::getId))
-                    .collect(Collectors.toList());
+        catalogueList = catalogueList.stream()
+                .sorted(Comparator.comparing(Catalogue::getId))
+                .collect(Collectors.toList());
+        Map<Integer, Task> taskMap = listTreeTasks().stream()
+                .collect(Collectors.toMap(Task::getId, task -> task, (task, duplicate) -> task));
+        Map<Integer, List<Catalogue>> childrenMap = new HashMap<>();
+        for (Catalogue catalogue : catalogueList) {
+            childrenMap
+                    .computeIfAbsent(catalogue.getParentId(), parentId -> new ArrayList<>())
+                    .add(catalogue);
         }
-        List<Task> taskList = taskService.list();
         List<Catalogue> returnList = new ArrayList<>();
         for (Catalogue catalogue : catalogueList) {
-            //  get all child catalogue of parent catalogue id , the 0 is root catalogue
+            List<Catalogue> children = childrenMap.get(catalogue.getId());
+            catalogue.setChildren(children == null ? new ArrayList<>() : children);
+            if (children == null && catalogue.getTaskId() != null) {
+                Task task = taskMap.get(catalogue.getTaskId());
+                if (task != null) {
+                    catalogue.setTaskAndNote(task);
+                }
+            }
+            //  the 0 is root catalogue
             if (catalogue.getParentId() == 0) {
-                recursionBuildCatalogueAndChildren(catalogueList, catalogue, taskList);
                 returnList.add(catalogue);
             }
         }
@@ -157,58 +173,13 @@ public class CatalogueServiceImpl extends SuperServiceImpl<CatalogueMapper, Cata
     }
 
     /**
-     * recursion build catalogue and children
+     * list the tasks shown in the catalogue tree, without their statements
      *
-     * @param list
-     * @param catalogues
+     * @return task list
      */
-    private void recursionBuildCatalogueAndChildren(List<Catalogue> list, Catalogue catalogues, List<Task> taskList) {
-        // 得到子节点列表
-        List<Catalogue> childList = getChildList(list, catalogues);
-        catalogues.setChildren(childList);
-        for (Catalogue tChild : childList) {
-            if (hasChild(list, tChild)) {
-                // Determine whether there are child nodes
-                for (Catalogue children : childList) {
-                    recursionBuildCatalogueAndChildren(list, children, taskList);
-                }
-            } else {
-                if (tChild.getIsLeaf() || null != tChild.getTaskId()) {
-                    taskList.stream()
-                            .filter(t -> t.getId().equals(tChild.getTaskId()))
-                            .findFirst()
-                            .ifPresent(tChild::setTaskAndNote);
-                }
-            }
-        }
-    }
-
-    /**
-     * Determine whether there are child nodes
-     *
-     * @param list
-     * @param catalogue
-     * @return
-     */
-    private boolean hasChild(List<Catalogue> list, Catalogue catalogue) {
-        return !getChildList(list, catalogue).isEmpty();
-    }
-
-    /**
-     * get child list
-     *
-     * @param list
-     * @param catalogue
-     * @return
-     */
-    private List<Catalogue> getChildList(List<Catalogue> list, Catalogue catalogue) {
-        List<Catalogue> childList = new ArrayList<>();
-        for (Catalogue n : list) {
-            if (n.getParentId().longValue() == catalogue.getId().longValue()) {
-                childList.add(n);
-            }
-        }
-        return childList;
+    private List<Task> listTreeTasks() {
+        return taskService.list(
+                new LambdaQueryWrapper<Task>().select(Task.class, field -> !"statement".equals(field.getProperty())));
     }
 
     /**
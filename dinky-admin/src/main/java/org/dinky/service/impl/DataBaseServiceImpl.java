@@ -40,6 +40,9 @@ import org.dinky.job.Job;
 import org.dinky.job.JobResult;
 import org.dinky.mapper.DataBaseMapper;
 import org.dinky.metadata.driver.Driver;
+import org.dinky.metadata.driver.MetadataCache;
+import org.dinky.metadata.result.JdbcResultCursor;
+import org.dinky.metadata.result.JdbcRowBatch;
 import org.dinky.metadata.result.JdbcSelectResult;
 import org.dinky.mybatis.service.impl.SuperServiceImpl;
 import org.dinky.service.DataBaseService;
@@ -47,6 +50,9 @@ import org.dinky.service.TaskService;
 
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -61,6 +67,9 @@ import org.springframework.stereotype.Service;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 
+import cn.hutool.core.io.IORuntimeException;
+import cn.hutool.core.text.csv.CsvWriter;
+
 /**
  * DataBaseServiceImpl
  *
@@ -69,6 +78,8 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 @Service
 public class DataBaseServiceImpl extends SuperServiceImpl<DataBaseMapper, DataBase> implements DataBaseService {
 
+    private static final int EXPORT_BATCH_SIZE = 1000;
+
     @Lazy
     @Autowired
     private TaskService taskService;
@@ -103,6 +114,7 @@ public class DataBaseServiceImpl extends SuperServiceImpl<DataBaseMapper, DataBa
             if (Asserts.isNull(dataBase.getId())) {
                 return save(dataBase);
             } else {
+                unCacheMetadata(dataBase.getId());
                 return updateById(dataBase);
             }
         }
@@ -176,11 +188,20 @@ public class DataBaseServiceImpl extends SuperServiceImpl<DataBaseMapper, DataBa
         DataBase dataBase = getById(id);
         Asserts.checkNotNull(dataBase, Status.DATASOURCE_NOT_EXIST.getMessage());
         Driver driver = Driver.build(dataBase.getDriverConfig());
-        List<Column> columns = driver.listColumns(schemaName, tableName);
+        List<Column> columns = MetadataCache.listColumns(driver, schemaName, tableName);
         driver.close();
         return columns;
     }
 
+    @Override
+    public void unCacheMetadata(Integer id) {
+        DataBase dataBase = getById(id);
+        if (Asserts.isNotNull(dataBase)) {
+            MetadataCache.invalidate(
+                    Driver.buildUnconnected(dataBase.getName(), dataBase.getType(), dataBase.getConnectConfig()));
+        }
+    }
+
     @Override
     public String getFlinkTableSql(Integer id, String schemaName, String tableName) {
         DataBase dataBase = getById(id);
@@ -232,6 +253,39 @@ public class DataBaseServiceImpl extends SuperServiceImpl<DataBaseMapper, DataBa
         return jdbcSelectResult;
     }
 
+    @Override
+    public void exportData(QueryData queryData, OutputStream outputStream) {
+        DataBase dataBase = getById(queryData.getId());
+        Asserts.checkNotNull(dataBase, Status.DATASOURCE_NOT_EXIST.getMessage());
+        try (Driver driver = Driver.build(dataBase.getDriverConfig())) {
+            String sql = Asserts.isNotNullString(queryData.getSql())
+                    ? queryData.getSql()
+                    : driver.genQueryOption(queryData).toString();
+            try (JdbcResultCursor cursor = driver.openCursor(sql, EXPORT_BATCH_SIZE)) {
+                CsvWriter writer = new CsvWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+                try {
+                    writer.writeLine(cursor.getColumnNames().toArray(new String[0]));
+                    String[] line = new String[cursor.getColumnNames().size()];
+                    while (cursor.hasNext()) {
+                        JdbcRowBatch batch = cursor.next();
+                        for (int row = 0; row < batch.getRowCount(); row++) {
+                            for (int column = 0; column < line.length; column++) {
+                                Object value = batch.getValue(column, row);
+                                line[column] = value == null ? null : value.toString();
+                            }
+                            writer.writeLine(line);
+                        }
+                        writer.flush();
+                    }
+                } catch (IORuntimeException e) {
+                    // the client went away, stop the query on the server instead of reading it to the end
+                    cursor.cancel();
+                    throw e;
+                }
+            }
+        }
+    }
+
     @Override
     public SqlGeneration getSqlGeneration(Integer id, String schemaName, String tableName) {
         DataBase dataBase = getById(id);
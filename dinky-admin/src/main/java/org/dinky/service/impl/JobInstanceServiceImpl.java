@@ -26,10 +26,12 @@ import org.dinky.daemon.task.DaemonTask;
 import org.dinky.daemon.task.DaemonTaskConfig;
 import org.dinky.data.dto.ClusterConfigurationDTO;
 import org.dinky.data.dto.JobDataDto;
+import org.dinky.data.enums.GatewayType;
 import org.dinky.data.enums.JobStatus;
 import org.dinky.data.enums.Status;
 import org.dinky.data.model.ClusterConfiguration;
 import org.dinky.data.model.ClusterInstance;
+import org.dinky.data.model.JobStatusEvent;
 import org.dinky.data.model.ext.JobInfoDetail;
 import org.dinky.data.model.home.JobInstanceCount;
 import org.dinky.data.model.home.JobInstanceStatus;
@@ -45,6 +47,7 @@ import org.dinky.executor.ExecutorConfig;
 import org.dinky.explainer.lineage.LineageBuilder;
 import org.dinky.explainer.lineage.LineageResult;
 import org.dinky.job.FlinkJobTask;
+import org.dinky.job.JobStatusReportRegistry;
 import org.dinky.mapper.JobInstanceMapper;
 import org.dinky.mybatis.service.impl.SuperServiceImpl;
 import org.dinky.mybatis.util.ProTableUtil;
@@ -56,7 +59,10 @@ import org.dinky.service.JobInstanceService;
 
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.springframework.stereotype.Service;
 
@@ -81,6 +87,12 @@ import lombok.extern.slf4j.Slf4j;
 public class JobInstanceServiceImpl extends SuperServiceImpl<JobInstanceMapper, JobInstance>
         implements JobInstanceService {
 
+    /** How long a hook or a forced refresh waits for the refresh it triggered */
+    private static final long REFRESH_TIMEOUT_SECONDS = 10;
+
+    /** The failure cause of a hooked event is logged only up to this length */
+    private static final int MAX_LOGGED_CAUSE_LENGTH = 500;
+
     private final HistoryService historyService;
     private final ClusterInstanceService clusterInstanceService;
     private final ClusterConfigurationService clusterConfigurationService;
@@ -206,14 +218,12 @@ public class JobInstanceServiceImpl extends SuperServiceImpl<JobInstanceMapper,
         if (daemonTask != null && !isForce) {
             return ((FlinkJobTask) daemonTask).getJobInfoDetail();
         } else if (isForce) {
-            FlinkJobThreadPool.getInstance().removeByTaskConfig(daemonTaskConfig);
-            daemonTask = DaemonTask.build(daemonTaskConfig);
-            daemonTask.dealTask();
-            JobInfoDetail jobInfoDetail = ((FlinkJobTask) daemonTask).getJobInfoDetail();
-            if (!JobStatus.isDone(jobInfoDetail.getInstance().getStatus())) {
-                FlinkJobThreadPool.getInstance().execute(daemonTask);
-            }
-            return jobInfoDetail;
+            // A rebuilt task reloads the job, the pool runs it so it never runs alongside a scheduled refresh
+            awaitRefresh(FlinkJobThreadPool.getInstance().trigger(daemonTaskConfig, true));
+            daemonTask = FlinkJobThreadPool.getInstance().getByTaskConfig(daemonTaskConfig);
+            return daemonTask != null
+                    ? ((FlinkJobTask) daemonTask).getJobInfoDetail()
+                    : getJobInfoDetail(jobInstanceId);
         } else {
             return getJobInfoDetail(jobInstanceId);
         }
@@ -234,16 +244,8 @@ public class JobInstanceServiceImpl extends SuperServiceImpl<JobInstanceMapper,
             return true;
         }
 
-        DaemonTaskConfig config = DaemonTaskConfig.build(FlinkJobTask.TYPE, instance.getId());
-        DaemonTask daemonTask = FlinkJobThreadPool.getInstance().removeByTaskConfig(config);
-        daemonTask = Optional.ofNullable(daemonTask).orElse(DaemonTask.build(config));
-
-        boolean isDone = daemonTask.dealTask();
-        // If the task is not completed, it is re-queued
-        if (!isDone) {
-            FlinkJobThreadPool.getInstance().execute(daemonTask);
-        }
-        return isDone;
+        // dinky-app exits once the hook succeeds, so it only succeeds when the refresh has seen the job done
+        return awaitRefresh(refreshJobTask(instance.getId()));
     }
 
     @Override
@@ -263,16 +265,92 @@ public class JobInstanceServiceImpl extends SuperServiceImpl<JobInstanceMapper,
             return true;
         }
 
-        DaemonTaskConfig config = DaemonTaskConfig.build(FlinkJobTask.TYPE, instance.getId());
-        DaemonTask daemonTask = FlinkJobThreadPool.getInstance().removeByTaskConfig(config);
-        daemonTask = Optional.ofNullable(daemonTask).orElse(DaemonTask.build(config));
+        // dinky-app exits once the hook succeeds, so it only succeeds when the refresh has seen the job done
+        return awaitRefresh(refreshJobTask(instance.getId()));
+    }
+
+    @Override
+    public void hookJobEvent(JobStatusEvent event) {
+        JobInstance instance;
+        if (StrUtil.isBlank(event.getJobId())) {
+            // The job failed before it was submitted, it can only belong to the unfinished instance of the task
+            instance = getJobInstanceByTaskId(event.getTaskId());
+            if (instance != null && JobStatus.isDone(instance.getStatus())) {
+                instance = null;
+            }
+        } else {
+            LambdaQueryWrapper<JobInstance> queryWrapper = new LambdaQueryWrapper<>();
+            queryWrapper
+                    .eq(JobInstance::getJid, event.getJobId())
+                    .eq(JobInstance::getTaskId, event.getTaskId())
+                    .orderByDesc(JobInstance::getCreateTime)
+                    .last("limit 1");
+            instance = baseMapper.selectOne(queryWrapper);
+        }
+        if (instance == null) {
+            return;
+        }
+
+        // Only dinky-app reports, so other jobs can not be given a lease that stops their polling
+        if (JobStatusReportRegistry.getInstance()
+                .isApplicationMode(instance.getId(), id -> isApplicationMode(instance))) {
+            JobStatusReportRegistry.getInstance().report(instance.getId(), event);
+        } else if (event.getType() != JobStatusEvent.Type.STATUS) {
+            return;
+        }
+        if (event.getType() == JobStatusEvent.Type.STATUS && !StrUtil.equals(event.getStatus(), instance.getStatus())) {
+            if (StrUtil.isNotBlank(event.getFailureCause())) {
+                log.warn(
+                        "Job {} of task {} failed: {}",
+                        event.getJobId(),
+                        event.getTaskId(),
+                        abbreviateCause(event.getFailureCause()));
+            }
+            // Refresh at once instead of waiting for the next poll, so alerts fire without delay
+            refreshJobTask(instance.getId());
+        }
+    }
+
+    /**
+     * The first line of a reported failure cause, capped at {@link #MAX_LOGGED_CAUSE_LENGTH}. The cause comes from
+     * the request, so it may not add lines to the log.
+     */
+    private static String abbreviateCause(String failureCause) {
+        String firstLine = StrUtil.subBefore(failureCause, '\n', false);
+        return StrUtil.maxLength(StrUtil.removeAllLineBreaks(firstLine).trim(), MAX_LOGGED_CAUSE_LENGTH);
+    }
+
+    private boolean isApplicationMode(JobInstance instance) {
+        if (instance.getClusterId() == null) {
+            return false;
+        }
+        ClusterInstance clusterInstance = clusterInstanceService.getById(instance.getClusterId());
+        return clusterInstance != null
+                && GatewayType.get(clusterInstance.getType()).isApplicationMode();
+    }
+
+    /**
+     * Make the refresh of a job instance due now. The pool runs it, so a refresh a worker is already running
+     * is never run concurrently or scheduled twice.
+     */
+    private CompletableFuture<Boolean> refreshJobTask(Integer jobInstanceId) {
+        return FlinkJobThreadPool.getInstance().trigger(DaemonTaskConfig.build(FlinkJobTask.TYPE, jobInstanceId));
+    }
 
-        boolean isDone = daemonTask.dealTask();
-        // If the task is not completed, it is re-queued
-        if (!isDone) {
-            FlinkJobThreadPool.getInstance().execute(daemonTask);
+    /**
+     * Wait for a triggered refresh, at most {@link #REFRESH_TIMEOUT_SECONDS}.
+     *
+     * @return true if the refresh found the job done
+     */
+    private static boolean awaitRefresh(CompletableFuture<Boolean> result) {
+        try {
+            return result.get(REFRESH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
         }
-        return isDone;
     }
 
     @Override
@@ -19,9 +19,7 @@
 
 package org.dinky.service.impl;
 
-import static org.dinky.data.constant.MonitorTableConstant.HEART_TIME;
-import static org.dinky.data.constant.MonitorTableConstant.JOB_ID;
-
+import org.dinky.context.MetricsContextHolder;
 import org.dinky.data.MetricsLayoutVo;
 import org.dinky.data.constant.MonitorTableConstant;
 import org.dinky.data.dto.MetricsLayoutDTO;
@@ -31,20 +29,13 @@ import org.dinky.data.model.job.JobInstance;
 import org.dinky.data.vo.CascaderVO;
 import org.dinky.data.vo.MetricsVO;
 import org.dinky.mapper.MetricsMapper;
+import org.dinky.metrics.MetricsPoint;
+import org.dinky.metrics.SeriesKey;
 import org.dinky.service.JobInstanceService;
 import org.dinky.service.MonitorService;
-import org.dinky.utils.JsonUtils;
-import org.dinky.utils.SqliteUtil;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.text.MessageFormat;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -52,8 +43,6 @@ import java.util.Map;
 import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
-import javax.annotation.PostConstruct;
-
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
@@ -66,8 +55,6 @@ import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.lang.Dict;
 import cn.hutool.core.lang.Opt;
-import cn.hutool.core.lang.Tuple;
-import cn.hutool.core.map.MapUtil;
 import cn.hutool.extra.spring.SpringUtil;
 import lombok.RequiredArgsConstructor;
 
@@ -75,13 +62,8 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class MonitorServiceImpl extends ServiceImpl<MetricsMapper, Metrics> implements MonitorService {
 
-    @PostConstruct
-    private void init() {
-        String sql = String.format(
-                "%s BIGINT, %s TEXT, %s TEXT, %s INTEGER",
-                JOB_ID, MonitorTableConstant.VALUE, MonitorTableConstant.HEART_TIME, MonitorTableConstant.DATE);
-        SqliteUtil.INSTANCE.createTable(MonitorTableConstant.DINKY_METRICS, sql);
-    }
+    /** About how many points of a job or a metric a chart gets, longer ranges are answered from rollups */
+    private static final int DEFAULT_POINT_BUDGET = 1000;
 
     private final Executor scheduleRefreshMonitorDataExecutor;
     private final JobInstanceService jobInstanceService;
@@ -96,35 +78,9 @@ public class MonitorServiceImpl extends ServiceImpl<MetricsMapper, Metrics> impl
             throw new DinkyException("The end date must be greater than the start date!");
         }
 
-        String condition = getUtcCondition(startTime, endTime);
-        List<MetricsVO> metricsVOList = new ArrayList<>();
-        try (SqliteUtil.PreparedResultSet ps =
-                SqliteUtil.INSTANCE.read(MonitorTableConstant.DINKY_METRICS, condition)) {
-            ResultSet read = ps.getRs();
-            while (read.next()) {
-                MetricsVO metricsVO = new MetricsVO();
-                metricsVO.setModel(read.getString(MonitorTableConstant.JOB_ID));
-                metricsVO.setContent(read.getString(MonitorTableConstant.VALUE));
-                metricsVO.setHeartTime(
-                        DateUtil.parse(read.getString(HEART_TIME)).toLocalDateTime());
-                metricsVO.setDate(read.getString(MonitorTableConstant.DATE));
-                metricsVOList.add(metricsVO);
-            }
-
-        } catch (SQLException e) {
-            throw new DinkyException("Failed to get data from the database", e);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
-        return metricsVOList;
-    }
-
-    public static String getUtcCondition(Date startTime, Date endTime) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSS");
-        LocalDateTime startLdt = LocalDateTime.ofInstant(startTime.toInstant(), ZoneId.systemDefault());
-        LocalDateTime endLdt = LocalDateTime.ofInstant(endTime.toInstant(), ZoneId.systemDefault());
-        return MessageFormat.format(
-                "''{0}'' <= {2} AND {2} <= ''{1}''", startLdt.format(formatter), endLdt.format(formatter), HEART_TIME);
+        return MetricsContextHolder.getInstance()
+                .getMetricsStore()
+                .read(models, startTime.getTime(), endTime.getTime(), DEFAULT_POINT_BUDGET);
     }
 
     @Override
@@ -219,40 +175,29 @@ public class MonitorServiceImpl extends ServiceImpl<MetricsMapper, Metrics> impl
             x.setJobId(jid);
         });
 
-        List<String> flinkJobIdList =
-                metrics.stream().map(Metrics::getJobId).distinct().collect(Collectors.toList());
-
-        Map<String, Map<String, List<Tuple>>> map = metrics.stream()
-                .collect(Collectors.groupingBy(
-                        Metrics::getJobId,
-                        Collectors.toMap(
-                                Metrics::getVertices,
-                                x -> Collections.singletonList(new Tuple(x.getMetrics(), x.getId())),
-                                CollUtil::unionAll)));
+        // only the series of the requested metrics are read
+        Map<SeriesKey, List<Integer>> seriesIds = new HashMap<>();
+        metrics.forEach(x -> seriesIds
+                .computeIfAbsent(new SeriesKey(x.getJobId(), x.getVertices(), x.getMetrics()), k -> new ArrayList<>())
+                .add(x.getId()));
 
         Map<Integer, List<Dict>> resultData = new HashMap<>();
-        List<MetricsVO> data = getData(
-                DateUtil.date(startTime),
-                DateUtil.date(Opt.ofNullable(endTime).orElse(DateUtil.date().getTime())),
-                flinkJobIdList);
-        data.forEach(x -> {
-            Map<String, List<Tuple>> tupleMap = map.get(x.getModel());
-            if (tupleMap == null) {
-                return;
-            }
-            tupleMap.keySet().forEach(y -> {
-                Map<String, String> jsonObject = JsonUtils.toMap(x.getContent().toString(), String.class, Map.class)
-                        .get(y);
-                List<Tuple> tupleList = tupleMap.get(y);
-                for (Tuple tuple : tupleList) {
-                    String metricsName = tuple.get(0);
-                    Integer d = MapUtil.getInt(jsonObject, metricsName);
-                    Dict dict = Dict.create().set("time", x.getHeartTime()).set(MonitorTableConstant.VALUE, d);
-                    Integer id = tuple.get(1);
-                    resultData.computeIfAbsent(id, k -> new ArrayList<>()).add(dict);
-                }
-            });
-        });
+        long end = Opt.ofNullable(endTime).orElse(DateUtil.date().getTime());
+        MetricsContextHolder.getInstance()
+                .getMetricsStore()
+                .readSeries(seriesIds.keySet(), startTime, end, DEFAULT_POINT_BUDGET)
+                .forEach((key, points) -> {
+                    for (MetricsPoint point : points) {
+                        Dict dict = Dict.create()
+                                .set("time", DateUtil.toLocalDateTime(DateUtil.date(point.getTime())))
+                                .set(MonitorTableConstant.VALUE, point.getValue())
+                                .set("min", point.getMin())
+                                .set("max", point.getMax());
+                        seriesIds.get(key).forEach(id -> resultData
+                                .computeIfAbsent(id, k -> new ArrayList<>())
+                                .add(dict));
+                    }
+                });
         return resultData;
     }
 
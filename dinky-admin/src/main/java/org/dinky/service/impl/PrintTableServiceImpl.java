@@ -19,6 +19,7 @@
 
 package org.dinky.service.impl;
 
+import org.dinky.connector.printnet.PrintNetFrameReader;
 import org.dinky.data.vo.PrintTableVo;
 import org.dinky.explainer.print_table.PrintStatementExplainer;
 import org.dinky.parser.SqlType;
@@ -26,11 +27,15 @@ import org.dinky.service.PrintTableService;
 import org.dinky.trans.Operations;
 import org.dinky.utils.SqlUtil;
 
+import java.io.IOException;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
 import java.net.SocketException;
 import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
@@ -42,6 +47,8 @@ import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -55,7 +62,7 @@ public class PrintTableServiceImpl implements PrintTableService {
         // TODO: 2023/4/7 this function not support variable sql, because, JobManager and executor
         // couple function
         //  and status and task execute.
-        final String[] statements = SqlUtil.getStatements(SqlUtil.removeNote(statement));
+        final String[] statements = SqlUtil.getCleanStatements(statement);
         return Arrays.stream(statements)
                 .filter(t -> SqlType.PRINT.equals(Operations.getOperationType(t)))
                 .flatMap(t -> Arrays.stream(PrintStatementExplainer.splitTableNames(t)))
@@ -74,23 +81,41 @@ public class PrintTableServiceImpl implements PrintTableService {
                 : String.format("`default_catalog`.`default_database`.`print_%s`", table);
     }
 
+    /**
+     * Receives the rows of the printnet sinks, one datagram per row over udp and framed batches of rows over tcp,
+     * both on {@link #PORT}.
+     */
     public static class PrintTableListener {
 
         private final Consumer<String> consumer;
         public static final int PORT = 7125;
+        /** The largest payload of a udp datagram */
+        private static final int MAX_DATAGRAM_BYTES = 65507;
+
         private DatagramSocket socket;
-        private final byte[] buf = new byte[4096];
+        private final byte[] buf = new byte[MAX_DATAGRAM_BYTES];
 
         private final ExecutorService executor;
+        private final ExecutorService connectionExecutor;
 
         public PrintTableListener(Consumer<String> consumer) {
             this.consumer = consumer;
             this.socket = getDatagramSocket(PORT);
-            executor = Executors.newSingleThreadExecutor();
+            executor = Executors.newFixedThreadPool(
+                    2,
+                    new ThreadFactoryBuilder()
+                            .setNameFormat("print-table-listener-%d")
+                            .setDaemon(true)
+                            .build());
+            connectionExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                    .setNameFormat("print-table-connection-%d")
+                    .setDaemon(true)
+                    .build());
         }
 
         public void start() {
             executor.execute(this::run);
+            executor.execute(this::accept);
         }
 
         private static DatagramSocket getDatagramSocket(int port) {
@@ -116,16 +141,57 @@ public class PrintTableServiceImpl implements PrintTableService {
                 if (socket == null) return;
             }
 
+            DatagramPacket packet = new DatagramPacket(buf, buf.length);
             while (true) {
-                DatagramPacket packet = new DatagramPacket(buf, buf.length);
                 try {
+                    packet.setLength(buf.length);
                     socket.receive(packet);
-                    String received = new String(packet.getData(), 0, packet.getLength());
+                    String received = new String(packet.getData(), 0, packet.getLength(), StandardCharsets.UTF_8);
                     consumer.accept(received);
                 } catch (Exception e) {
                     log.error("print table receive data:" + e.getMessage());
                 }
             }
         }
+
+        /** Accepts the tcp connections of the printnet sinks, one reading thread per connection */
+        private void accept() {
+            try (ServerSocket serverSocket = new ServerSocket(PORT)) {
+                log.info("PrintTableListener:ServerSocket init success, port: {}", PORT);
+                while (true) {
+                    Socket connection = serverSocket.accept();
+                    connectionExecutor.execute(() -> receive(connection));
+                }
+            } catch (IOException e) {
+                log.error("PrintTableListener:ServerSocket failed, port {}: {}", PORT, e.getMessage());
+            }
+        }
+
+        private void receive(Socket connection) {
+            try (Socket ignored = connection) {
+                PrintNetFrameReader reader = new PrintNetFrameReader(connection.getInputStream());
+                String prefix = reader.readIdentifier() + "\n";
+                PrintNetFrameReader.RecordConsumer rows = new PrintNetFrameReader.RecordConsumer() {
+                    @Override
+                    public void accept(byte[] buffer, int length) {
+                        consumer.accept(prefix + new String(buffer, 0, length, StandardCharsets.UTF_8));
+                    }
+
+                    @Override
+                    public void dropped(int count) {
+                        consumer.accept(prefix + "[printnet] " + count + " rows dropped, the receiver is too slow");
+                    }
+                };
+                // reading no faster than the rows are consumed back-pressures the sink
+                while (reader.readFrame(rows)) {
+                    // next frame
+                }
+            } catch (IOException e) {
+                log.warn(
+                        "print table connection from {} closed: {}",
+                        connection.getRemoteSocketAddress(),
+                        e.getMessage());
+            }
+        }
     }
 }
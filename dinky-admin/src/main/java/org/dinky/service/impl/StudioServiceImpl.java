@@ -98,6 +98,11 @@ public class StudioServiceImpl implements StudioService {
         return JobManager.getJobData(jobId);
     }
 
+    @Override
+    public SelectResult getJobData(String jobId, int offset, int limit) {
+        return JobManager.getJobData(jobId).page(offset, limit);
+    }
+
     @Override
     public LineageResult getLineage(StudioLineageDTO studioCADTO) {
         // TODO 添加ProcessStep
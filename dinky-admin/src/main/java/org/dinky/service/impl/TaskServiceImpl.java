@@ -95,7 +95,6 @@ import org.dinky.service.resource.ResourcesService;
 import org.dinky.service.task.BaseTask;
 import org.dinky.utils.FragmentVariableUtils;
 import org.dinky.utils.JsonUtils;
-import org.dinky.utils.RunTimeUtil;
 import org.dinky.utils.UDFUtils;
 
 import org.apache.commons.collections4.CollectionUtils;
@@ -511,9 +510,11 @@ public class TaskServiceImpl extends SuperServiceImpl<TaskMapper, Task> implemen
     public ObjectNode getStreamGraph(TaskDTO taskDTO) {
         JobConfig config = taskDTO.getJobConfig();
         JobManager jobManager = JobManager.buildPlanMode(config);
-        ObjectNode streamGraph = jobManager.getStreamGraph(taskDTO.getStatement());
-        RunTimeUtil.recovery(jobManager);
-        return streamGraph;
+        try {
+            return jobManager.getStreamGraph(taskDTO.getStatement());
+        } finally {
+            jobManager.close();
+        }
     }
 
     @Override
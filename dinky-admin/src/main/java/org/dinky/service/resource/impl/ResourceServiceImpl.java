@@ -26,6 +26,7 @@ import org.dinky.data.exception.BusException;
 import org.dinky.data.model.Resources;
 import org.dinky.data.model.SystemConfiguration;
 import org.dinky.data.result.Result;
+import org.dinky.explainer.ExplainCache;
 import org.dinky.mapper.ResourcesMapper;
 import org.dinky.resource.BaseResourceManager;
 import org.dinky.service.resource.ResourcesService;
@@ -176,6 +177,7 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
         }
         if (isRunStorageMove) {
             getBaseResourceManager().rename(sourceFullName, fullName);
+            ExplainCache.invalidate();
         }
     }
 
@@ -283,6 +285,7 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
             saveOrUpdate(resources);
         }
         uploadAction.accept(fullName);
+        ExplainCache.invalidate();
 
         List<Resources> resourceByPidToParent = getResourceByPidToParent(new ArrayList<>(), pid);
         resourceByPidToParent.forEach(x -> x.setSize(x.getSize() + size));
@@ -331,6 +334,7 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
 
             if (systemConfiguration.getPhysicalDeletion().getValue()) {
                 getBaseResourceManager().remove(byId.getFullName());
+                ExplainCache.invalidate();
                 log.warn(
                         "The resource type you have configured is [{}] and physical deletion is enabled. The File or Directory [{}] will be deleted",
                         systemConfiguration.getResourcesModel().getValue().name(),
@@ -37,13 +37,13 @@ public class FlinkJarSqlTask extends FlinkSqlTask {
 
     @Override
     public List<SqlExplainResult> explain() {
-        return jobManager.explainSql(task.getStatement()).getSqlExplainResults();
+        return getJobManager().explainSql(task.getStatement()).getSqlExplainResults();
     }
 
     @Override
     public JobResult execute() throws Exception {
 
-        return jobManager.executeJarSql(task.getStatement());
+        return getJobManager().executeJarSql(task.getStatement());
     }
 
     @Override
@@ -54,7 +54,7 @@ public class FlinkJarSqlTask extends FlinkSqlTask {
     @Override
     public ObjectNode getJobPlan() {
         try {
-            return jobManager.getJarStreamGraphJson(task.getStatement());
+            return getJobManager().getJarStreamGraphJson(task.getStatement());
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -42,20 +42,22 @@ import lombok.extern.slf4j.Slf4j;
 @SupportDialect(Dialect.FLINK_SQL_ENV)
 public class FlinkSqlEnvTask extends BaseTask {
 
-    protected final JobManager jobManager;
-
     public FlinkSqlEnvTask(TaskDTO task) {
         super(task);
         // Default run mode is local.
         if (Asserts.isNull(task.getType())) {
             task.setType(GatewayType.LOCAL.getLongValue());
         }
-        this.jobManager = getJobManager();
     }
 
     @Override
     public List<SqlExplainResult> explain() throws NotSupportExplainExcepition {
-        return jobManager.explainSql(task.getStatement()).getSqlExplainResults();
+        JobManager jobManager = getJobManager();
+        try {
+            return jobManager.explainSql(task.getStatement()).getSqlExplainResults();
+        } finally {
+            jobManager.close();
+        }
     }
 
     @Override
@@ -71,6 +73,6 @@ public class FlinkSqlEnvTask extends BaseTask {
 
     protected JobManager getJobManager() {
         TaskService taskService = SpringUtil.getBean(TaskServiceImpl.class);
-        return JobManager.build(taskService.buildJobSubmitConfig(task));
+        return JobManager.buildPlanMode(taskService.buildJobSubmitConfig(task));
     }
 }
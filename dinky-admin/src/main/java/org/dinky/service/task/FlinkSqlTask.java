@@ -25,6 +25,7 @@ import org.dinky.data.annotations.SupportDialect;
 import org.dinky.data.dto.TaskDTO;
 import org.dinky.data.enums.GatewayType;
 import org.dinky.data.result.SqlExplainResult;
+import org.dinky.job.JobConfig;
 import org.dinky.job.JobManager;
 import org.dinky.job.JobResult;
 import org.dinky.service.TaskService;
@@ -41,7 +42,8 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 @SupportDialect(Dialect.FLINK_SQL)
 public class FlinkSqlTask extends BaseTask {
-    protected final JobManager jobManager;
+    protected final JobConfig jobConfig;
+    private JobManager jobManager;
 
     public FlinkSqlTask(TaskDTO task) {
         super(task);
@@ -49,28 +51,42 @@ public class FlinkSqlTask extends BaseTask {
         if (Asserts.isNull(task.getType())) {
             task.setType(GatewayType.LOCAL.getLongValue());
         }
-        this.jobManager = getJobManager();
+        TaskService taskService = SpringUtil.getBean(TaskServiceImpl.class);
+        this.jobConfig = taskService.buildJobSubmitConfig(task);
     }
 
     @Override
     public List<SqlExplainResult> explain() {
-        return jobManager.explainSql(task.getStatement()).getSqlExplainResults();
+        JobManager planManager = JobManager.buildPlanMode(jobConfig);
+        try {
+            return planManager.explainSql(task.getStatement()).getSqlExplainResults();
+        } finally {
+            planManager.close();
+        }
     }
 
     public ObjectNode getJobPlan() {
-        String planJson = jobManager.getJobPlanJson(task.getStatement());
-        return JsonUtils.parseObject(planJson);
+        JobManager planManager = JobManager.buildPlanMode(jobConfig);
+        try {
+            String planJson = planManager.getJobPlanJson(task.getStatement());
+            return JsonUtils.parseObject(planJson);
+        } finally {
+            planManager.close();
+        }
     }
 
     @Override
     public JobResult execute() throws Exception {
         log.info("Initializing Flink job config...");
-        return jobManager.executeSql(task.getStatement());
+        return getJobManager().executeSql(task.getStatement());
     }
 
+    // The executor of a submit is only built when the task is executed, explain borrows a pooled one.
     protected JobManager getJobManager() {
-        TaskService taskService = SpringUtil.getBean(TaskServiceImpl.class);
-        return JobManager.build(taskService.buildJobSubmitConfig(task));
+        if (jobManager == null) {
+            jobManager = JobManager.build(jobConfig);
+        }
+        return jobManager;
     }
 
     @Override
@@ -21,7 +21,9 @@ package org.dinky.url;
 
 import org.dinky.data.exception.BusException;
 import org.dinky.resource.BaseResourceManager;
+import org.dinky.resource.cache.ResourceFileCache;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.net.URLConnection;
@@ -30,16 +32,17 @@ public class RsURLConnection extends URLConnection {
     private InputStream inputStream;
 
     @Override
-    public void connect() {
+    public void connect() throws IOException {
         BaseResourceManager instance = BaseResourceManager.getInstance();
         if (instance == null) {
             throw BusException.valueOf("ResourceManager is disabled");
         }
-        inputStream = instance.readFile(getURL().getPath());
+        ResourceFileCache.Lease lease = instance.leaseCachedFile(getURL().getPath());
+        inputStream = lease != null ? lease.getInputStream() : instance.readFile(getURL().getPath());
     }
 
     @Override
-    public InputStream getInputStream() {
+    public InputStream getInputStream() throws IOException {
         connect();
         return inputStream;
     }
@@ -36,6 +36,7 @@ public enum SqliteUtil {
 
     private Connection connection;
     private final AtomicLong lastRecyle = new AtomicLong(0);
+    private volatile int retentionDays = 7;
 
     static {
         try {
@@ -66,6 +67,10 @@ public enum SqliteUtil {
         connection.commit();
     }
 
+    public void setRetentionDays(int retentionDays) {
+        this.retentionDays = retentionDays;
+    }
+
     public void recyleData() {
         long now = System.currentTimeMillis();
         if (now - lastRecyle.get() < 1000 * 60 * 60) {
@@ -73,7 +78,8 @@ public enum SqliteUtil {
         }
         lastRecyle.set(now);
         try {
-            String sql = "DELETE FROM dinky_metrics WHERE heart_time <= datetime('now', '-7 days')";
+            String sql = String.format(
+                    "DELETE FROM dinky_metrics WHERE heart_time <= datetime('now', '-%d days')", retentionDays);
             executeSql(sql);
             executeSql("VACUUM");
         } catch (SQLException e) {
@@ -21,6 +21,7 @@ package org.dinky.ws.topic;
 
 import org.dinky.context.ConsoleContextHolder;
 import org.dinky.data.model.ProcessEntity;
+import org.dinky.data.vo.ProcessConsoleVo;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -45,9 +46,9 @@ public class ProcessConsole extends BaseTopic {
     public Map<String, Object> firstDataSend(Set<String> allParams) {
         Map<String, Object> result = new HashMap<>();
         allParams.forEach(processName -> {
-            ProcessEntity process = ConsoleContextHolder.getInstances().getProcess(processName);
-            if (process != null) {
-                result.put(processName, process);
+            ProcessConsoleVo console = ConsoleContextHolder.getInstances().getConsole(processName, -1);
+            if (console != null) {
+                result.put(processName, console);
             }
         });
         return result;
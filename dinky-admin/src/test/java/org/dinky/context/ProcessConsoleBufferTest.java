@@ -0,0 +1,178 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.context;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.dinky.data.enums.ProcessStatus;
+import org.dinky.data.model.ProcessEntity;
+import org.dinky.data.model.ProcessStepEntity;
+import org.dinky.data.vo.ProcessConsoleVo;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ProcessConsoleBufferTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static ProcessEntity process(ProcessStepEntity step) {
+        return ProcessEntity.builder()
+                .key("process")
+                .log(new StringBuilder())
+                .status(ProcessStatus.RUNNING)
+                .children(new CopyOnWriteArrayList<>(Arrays.asList(step)))
+                .build();
+    }
+
+    private static ProcessStepEntity step() {
+        return ProcessStepEntity.builder()
+                .key("step")
+                .log(new StringBuilder())
+                .children(new CopyOnWriteArrayList<>())
+                .build();
+    }
+
+    @Test
+    void testDrainCoalescesLines() {
+        ProcessStepEntity step = step();
+        ProcessEntity process = process(step);
+        ProcessConsoleBuffer console = new ProcessConsoleBuffer(process, 16, spillFile());
+        console.append(null, true, "a");
+        console.append(step, true, "b");
+        console.append(step, true, "c");
+        console.append(step, false, "d");
+
+        ProcessConsoleVo update = console.drain();
+        assertNotNull(update);
+        assertFalse(update.isFull());
+        assertEquals(0, update.getFromSeq());
+        assertEquals(4, update.getSeq());
+        assertNull(update.getProcess().getLog());
+        assertNull(update.getProcess().getChildren().get(0).getLog());
+        assertEquals(3, update.getSegments().size());
+        assertEquals(Arrays.asList("a"), update.getSegments().get(0).getLines());
+        assertEquals(2, update.getSegments().get(1).getSeq());
+        assertEquals("step", update.getSegments().get(1).getStepKey());
+        assertEquals(Arrays.asList("b", "c"), update.getSegments().get(1).getLines());
+        assertFalse(update.getSegments().get(2).isGlobal());
+        // the lines are only held by the console
+        assertEquals(0, process.getLog().length());
+        assertEquals(0, step.getLog().length());
+
+        assertNull(console.drain());
+        console.markChanged();
+        update = console.drain();
+        assertNotNull(update);
+        assertEquals(4, update.getFromSeq());
+        assertTrue(update.getSegments().isEmpty());
+    }
+
+    @Test
+    void testResume() {
+        ProcessStepEntity step = step();
+        ProcessConsoleBuffer console = new ProcessConsoleBuffer(process(step), 4, spillFile());
+        for (int i = 1; i <= 6; i++) {
+            console.append(step, false, String.valueOf(i));
+        }
+        ProcessConsoleVo update = console.since(3);
+        assertFalse(update.isFull());
+        assertEquals(4, update.getSegments().get(0).getSeq());
+        assertEquals(Arrays.asList("4", "5", "6"), update.getSegments().get(0).getLines());
+
+        update = console.since(1);
+        assertTrue(update.isFull());
+        assertEquals(6, update.getSeq());
+        assertEquals(
+                "1,2,3,4,5,6,",
+                update.getProcess().getChildren().get(0).getLog().toString().replaceAll("\\R", ","));
+    }
+
+    @Test
+    void testOverflowDrainsSnapshot() {
+        ProcessStepEntity step = step();
+        ProcessConsoleBuffer console = new ProcessConsoleBuffer(process(step), 2, spillFile());
+        console.append(null, true, "1");
+        console.append(null, true, "2");
+        console.append(null, true, "3");
+
+        ProcessConsoleVo update = console.drain();
+        assertTrue(update.isFull());
+        assertEquals(3, update.getSeq());
+        assertEquals("1,2,3,", update.getProcess().getLog().toString().replaceAll("\\R", ","));
+
+        console.append(null, true, "4");
+        update = console.drain();
+        assertFalse(update.isFull());
+        assertEquals(Arrays.asList("4"), update.getSegments().get(0).getLines());
+    }
+
+    @Test
+    void testSpillAppendsNewLines() throws Exception {
+        ProcessStepEntity step = step();
+        File spillFile = spillFile();
+        ProcessConsoleBuffer console = new ProcessConsoleBuffer(process(step), 2, spillFile);
+        console.append(null, true, "1");
+        assertFalse(console.spill(Long.MAX_VALUE));
+        assertTrue(console.spill(0));
+        assertEquals(
+                1,
+                Files.readAllLines(spillFile.toPath(), StandardCharsets.UTF_8).size());
+        assertFalse(console.spill(0));
+
+        // a ring full of waiting lines is spilled before the interval passed
+        console.append(step, true, "2");
+        console.append(step, false, "3\nat line");
+        assertTrue(console.spill(Long.MAX_VALUE));
+        assertEquals(
+                3,
+                Files.readAllLines(spillFile.toPath(), StandardCharsets.UTF_8).size());
+
+        console.append(null, true, "4");
+        ProcessEntity full = console.fullProcess();
+        assertEquals("1,2,4,", full.getLog().toString().replaceAll("\\R", ","));
+        assertEquals(
+                "2,3,at line,", full.getChildren().get(0).getLog().toString().replaceAll("\\R", ","));
+        assertEquals(3, ProcessConsoleBuffer.readSpill(spillFile).size());
+
+        ProcessEntity finished = console.close();
+        assertEquals(full.getLog().toString(), finished.getLog().toString());
+        assertFalse(spillFile.exists());
+        console.append(null, true, "5");
+        assertFalse(console.spill(0));
+        assertFalse(spillFile.exists());
+    }
+
+    private File spillFile() {
+        return tempDir.resolve("process.spill").toFile();
+    }
+}
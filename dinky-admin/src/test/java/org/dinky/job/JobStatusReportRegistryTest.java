@@ -0,0 +1,76 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.dinky.data.enums.JobStatus;
+import org.dinky.data.model.JobStatusEvent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+class JobStatusReportRegistryTest {
+
+    @Test
+    void tracksJobsUntilDone() {
+        JobStatusReportRegistry registry = new JobStatusReportRegistry();
+        assertFalse(registry.isReporting(1));
+
+        registry.report(1, event(JobStatusEvent.Type.STATUS, JobStatus.RUNNING));
+        registry.report(1, event(JobStatusEvent.Type.HEARTBEAT, JobStatus.RUNNING));
+        assertTrue(registry.isReporting(1));
+        assertFalse(registry.isReporting(2));
+
+        registry.report(1, event(JobStatusEvent.Type.STATUS, JobStatus.FAILED));
+        assertFalse(registry.isReporting(1));
+    }
+
+    @Test
+    void cachesApplicationModeUntilRemoved() {
+        JobStatusReportRegistry registry = new JobStatusReportRegistry();
+        AtomicInteger resolved = new AtomicInteger();
+        Predicate<Integer> resolver = id -> resolved.incrementAndGet() > 0;
+
+        assertTrue(registry.isApplicationMode(1, resolver));
+        assertTrue(registry.isApplicationMode(1, resolver));
+        assertEquals(1, resolved.get());
+        assertFalse(registry.isApplicationMode(2, id -> false));
+
+        registry.report(1, event(JobStatusEvent.Type.HEARTBEAT, JobStatus.RUNNING));
+        registry.remove(1);
+        assertFalse(registry.isReporting(1));
+        assertTrue(registry.isApplicationMode(1, resolver));
+        assertEquals(2, resolved.get());
+    }
+
+    private static JobStatusEvent event(JobStatusEvent.Type type, JobStatus status) {
+        return JobStatusEvent.builder()
+                .taskId(1)
+                .jobId("a")
+                .type(type)
+                .status(status.getValue())
+                .build();
+    }
+}
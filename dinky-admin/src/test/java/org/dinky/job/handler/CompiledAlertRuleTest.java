@@ -0,0 +1,97 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.job.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.dinky.data.dto.AlertRuleDTO;
+import org.dinky.data.model.ext.JobAlertData;
+
+import org.junit.jupiter.api.Test;
+
+class CompiledAlertRuleTest {
+
+    private static AlertRuleDTO rule(String rule, String triggerConditions) {
+        AlertRuleDTO alertRuleDTO = new AlertRuleDTO();
+        alertRuleDTO.setId(1);
+        alertRuleDTO.setName("test");
+        alertRuleDTO.setRule(rule);
+        alertRuleDTO.setTriggerConditions(triggerConditions);
+        return alertRuleDTO;
+    }
+
+    @Test
+    void testSystemRules() {
+        CompiledAlertRule jobFail = CompiledAlertRule.compile(rule(
+                "[{\"ruleKey\":\"jobStatus\",\"ruleOperator\":\"EQ\",\"ruleValue\":\"'FAILED'\",\"rulePriority\":\"1\"}]",
+                " or "));
+        CompiledAlertRule checkpointFail = CompiledAlertRule.compile(
+                rule("[{\"ruleKey\":\"isCheckpointFailed\",\"ruleOperator\":\"EQ\",\"ruleValue\":\"true\"}]", " or "));
+        assertTrue(jobFail.isCompiled());
+        assertTrue(checkpointFail.isCompiled());
+
+        JobAlertData failed = JobAlertData.builder().jobStatus("FAILED").build();
+        JobAlertData running = JobAlertData.builder()
+                .jobStatus("RUNNING")
+                .isCheckpointFailed(true)
+                .build();
+        assertTrue(jobFail.evaluate(failed));
+        assertFalse(jobFail.evaluate(running));
+        assertFalse(checkpointFail.evaluate(failed));
+        assertTrue(checkpointFail.evaluate(running));
+
+        AlertRuleMetrics metrics = jobFail.getMetrics();
+        assertEquals(2, metrics.getEvaluationCount());
+        assertEquals(1, metrics.getMatchCount());
+    }
+
+    @Test
+    void testTriggerConditions() {
+        String items = "[{\"ruleKey\":\"duration\",\"ruleOperator\":\"GT\",\"ruleValue\":\"60\"},"
+                + "{\"ruleKey\":\"clusterType\",\"ruleOperator\":\"NE\",\"ruleValue\":\"'local'\"}]";
+        CompiledAlertRule any = CompiledAlertRule.compile(rule(items, " or "));
+        CompiledAlertRule all = CompiledAlertRule.compile(rule(items, " and "));
+
+        JobAlertData longLocal =
+                JobAlertData.builder().duration(100L).clusterType("local").build();
+        JobAlertData shortYarn =
+                JobAlertData.builder().duration(60L).clusterType("yarn-session").build();
+        JobAlertData longYarn =
+                JobAlertData.builder().duration(61L).clusterType("yarn-session").build();
+        assertTrue(any.evaluate(longLocal));
+        assertTrue(any.evaluate(shortYarn));
+        assertFalse(all.evaluate(longLocal));
+        assertFalse(all.evaluate(shortYarn));
+        assertTrue(all.evaluate(longYarn));
+    }
+
+    @Test
+    void testFallbackToSpEL() {
+        CompiledAlertRule rule = CompiledAlertRule.compile(
+                rule("[{\"ruleKey\":\"jobName\",\"ruleOperator\":\"EQ\",\"ruleValue\":\"#jobId\"}]", " or "));
+        assertFalse(rule.isCompiled());
+        assertTrue(rule.evaluate(
+                JobAlertData.builder().jobName("same").jobId("same").build()));
+        assertFalse(rule.evaluate(
+                JobAlertData.builder().jobName("one").jobId("other").build()));
+    }
+}
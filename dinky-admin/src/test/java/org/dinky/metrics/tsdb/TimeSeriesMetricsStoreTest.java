@@ -0,0 +1,182 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.metrics.tsdb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.dinky.data.vo.MetricsVO;
+import org.dinky.metrics.MetricsPoint;
+import org.dinky.metrics.MetricsResolution;
+import org.dinky.metrics.SeriesKey;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TimeSeriesMetricsStoreTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testCodecRoundTrip() {
+        int count = 1000;
+        long[] times = new long[count];
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            // jittered collection interval, constant, slowly growing and fractional values
+            times[i] = START + i * 3000L + (i % 7 == 0 ? 13 : 0);
+            values[i] = i < 300 ? 42 : i < 600 ? i * 1024.0 : Math.sin(i) * 1e6;
+        }
+        byte[] data = GorillaCodec.encode(times, values, count);
+        assertTrue(data.length < count * 16 / 2, "points should be compressed, got " + data.length + " bytes");
+
+        List<MetricsPoint> points = GorillaCodec.decode(data, Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(count, points.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(times[i], points.get(i).getTime());
+            assertEquals(
+                    Double.doubleToLongBits(values[i]),
+                    Double.doubleToLongBits(points.get(i).getValue()));
+        }
+        List<MetricsPoint> range = GorillaCodec.decode(data, times[10], times[19]);
+        assertEquals(10, range.size());
+    }
+
+    @Test
+    public void testWriteFlushAndReopen() {
+        File dir = tempDir.toFile();
+        TimeSeriesMetricsStore store = new TimeSeriesMetricsStore();
+        store.open(dir, keepForever());
+        // spans two partitions
+        long step = TimeSeriesMetricsStore.PARTITION_MILLIS / 100;
+        for (int i = 0; i < 150; i++) {
+            store.write("job", START + i * step, content("v1", "numRecordsIn", String.valueOf(i)));
+        }
+        store.write("other", START, content("v1", "numRecordsIn", "1"));
+        SeriesKey key = new SeriesKey("job", "v1", "numRecordsIn");
+        assertEquals(
+                150,
+                store.readSeries(Collections.singleton(key), START, Long.MAX_VALUE)
+                        .get(key)
+                        .size());
+        store.close();
+
+        TimeSeriesMetricsStore reopened = new TimeSeriesMetricsStore();
+        reopened.open(dir, keepForever());
+        List<MetricsPoint> points = reopened.readSeries(
+                        Collections.singleton(key), START + 10 * step, START + 19 * step)
+                .get(key);
+        assertEquals(10, points.size());
+        assertEquals(10.0, points.get(0).getValue());
+
+        List<MetricsVO> samples = reopened.read(Collections.singletonList("job"), START, START + 2 * step);
+        assertEquals(3, samples.size());
+        assertEquals("job", samples.get(2).getModel());
+        assertEquals("2", ((Map<?, ?>) ((Map<?, ?>) samples.get(2).getContent()).get("v1")).get("numRecordsIn"));
+        reopened.close();
+    }
+
+    @Test
+    public void testRollupTiers() {
+        File dir = tempDir.toFile();
+        TimeSeriesMetricsStore store = new TimeSeriesMetricsStore();
+        store.open(dir, keepForever());
+        long start = Math.floorDiv(START, TimeUnit.HOURS.toMillis(1)) * TimeUnit.HOURS.toMillis(1);
+        long step = TimeUnit.SECONDS.toMillis(1);
+        // 25 minutes of one point per second
+        for (int i = 0; i < 1500; i++) {
+            store.write("job", start + i * step, content("v1", "numRecordsIn", String.valueOf(i)));
+        }
+        store.close();
+
+        TimeSeriesMetricsStore reopened = new TimeSeriesMetricsStore();
+        reopened.open(dir, keepForever());
+        SeriesKey key = new SeriesKey("job", "v1", "numRecordsIn");
+        long end = start + 1500 * step;
+        List<MetricsPoint> minutes = reopened.readSeries(
+                        MetricsResolution.MINUTE, Collections.singleton(key), start, end)
+                .get(key);
+        assertEquals(25, minutes.size());
+        MetricsPoint first = minutes.get(0);
+        assertEquals(start, first.getTime());
+        assertEquals(0.0, first.getMin());
+        assertEquals(29.5, first.getValue());
+        assertEquals(59.0, first.getMax());
+        assertEquals(59.0, first.getLast());
+
+        assertEquals(MetricsResolution.RAW, reopened.select(start, end, 1000));
+        assertEquals(MetricsResolution.TEN_MINUTES, reopened.select(start, end, 5));
+        List<MetricsPoint> budgeted =
+                reopened.readSeries(Collections.singleton(key), start, end, 5).get(key);
+        assertEquals(3, budgeted.size());
+        assertEquals(1499.0, budgeted.get(2).getLast());
+
+        List<MetricsVO> samples = reopened.read(Collections.singletonList("job"), start, end, 5);
+        assertEquals(3, samples.size());
+        assertEquals("299.5", ((Map<?, ?>) ((Map<?, ?>) samples.get(0).getContent()).get("v1")).get("numRecordsIn"));
+        reopened.close();
+    }
+
+    @Test
+    public void testNonNumericValuesAreSkipped() {
+        TimeSeriesMetricsStore store = new TimeSeriesMetricsStore();
+        store.open(tempDir.toFile(), keepForever());
+        Map<String, Map<String, String>> content = content("v1", "numRecordsIn", "1");
+        content.get("v1").put("lastCheckpointExternalPath", "hdfs://checkpoints/chk-1");
+        content.get("v1").put("numRecordsOut", null);
+        store.write("job", START, content);
+        store.write("job", START + 1, content);
+
+        SeriesKey numeric = new SeriesKey("job", "v1", "numRecordsIn");
+        SeriesKey text = new SeriesKey("job", "v1", "lastCheckpointExternalPath");
+        Map<SeriesKey, List<MetricsPoint>> series =
+                store.readSeries(Arrays.asList(numeric, text), START, Long.MAX_VALUE);
+        assertEquals(2, series.get(numeric).size());
+        assertTrue(series.get(text).isEmpty());
+        store.close();
+    }
+
+    private static Map<MetricsResolution, Long> keepForever() {
+        Map<MetricsResolution, Long> retention = new EnumMap<>(MetricsResolution.class);
+        for (MetricsResolution resolution : MetricsResolution.values()) {
+            retention.put(resolution, Long.MAX_VALUE);
+        }
+        return retention;
+    }
+
+    private static Map<String, Map<String, String>> content(String vertex, String metric, String value) {
+        Map<String, Map<String, String>> content = new HashMap<>();
+        content.computeIfAbsent(vertex, k -> new HashMap<>()).put(metric, value);
+        return content;
+    }
+}
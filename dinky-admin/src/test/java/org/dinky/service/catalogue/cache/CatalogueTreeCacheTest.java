@@ -0,0 +1,100 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.service.catalogue.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import org.dinky.context.TenantContextHolder;
+import org.dinky.data.model.Catalogue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CatalogueTreeCacheTest {
+
+    private final AtomicInteger builds = new AtomicInteger();
+
+    private final Supplier<List<Catalogue>> builder = () -> {
+        builds.incrementAndGet();
+        Catalogue child = new Catalogue("child", 2, "FlinkSql", 1, true);
+        child.setId(2);
+        Catalogue root = new Catalogue("root", null, null, 0, false);
+        root.setId(1);
+        root.setChildren(new ArrayList<>(Collections.singletonList(child)));
+        return new ArrayList<>(Collections.singletonList(root));
+    };
+
+    @BeforeEach
+    void setUp() {
+        CatalogueTreeCache.invalidate();
+        TenantContextHolder.set(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContextHolder.clear();
+    }
+
+    @Test
+    void testCachedUntilInvalidated() {
+        CatalogueTreeCache.get(builder);
+        CatalogueTreeCache.get(builder);
+        assertEquals(1, builds.get());
+
+        TenantContextHolder.set(2);
+        CatalogueTreeCache.get(builder);
+        assertEquals(2, builds.get());
+
+        CatalogueTreeCache.invalidate();
+        CatalogueTreeCache.get(builder);
+        assertEquals(3, builds.get());
+    }
+
+    @Test
+    void testReturnsCopies() {
+        List<Catalogue> first = CatalogueTreeCache.get(builder);
+        first.get(0).getChildren().clear();
+        first.get(0).setName("changed");
+
+        List<Catalogue> second = CatalogueTreeCache.get(builder);
+        assertNotSame(first.get(0), second.get(0));
+        assertEquals("root", second.get(0).getName());
+        assertEquals(1, second.get(0).getChildren().size());
+        assertEquals("child", second.get(0).getChildren().get(0).getName());
+    }
+
+    @Test
+    void testTreeBuiltDuringWriteIsNotCached() {
+        CatalogueTreeCache.get(() -> {
+            CatalogueTreeCache.invalidate();
+            return builder.get();
+        });
+        CatalogueTreeCache.get(builder);
+        assertEquals(2, builds.get());
+    }
+}
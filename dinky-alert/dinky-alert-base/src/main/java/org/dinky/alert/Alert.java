@@ -44,8 +44,11 @@ public interface Alert {
 
     static Alert build(AlertConfig config) {
         String key = config.getName();
-        if (AlertPool.exist(key)) {
-            return AlertPool.get(key);
+        Alert cached = AlertPool.get(key);
+        // rebuild the cached alert if the instance has been changed, e.g. receivers were added
+        if (cached != null
+                && (!(cached instanceof AbstractAlert) || config.equals(((AbstractAlert) cached).getConfig()))) {
+            return cached;
         }
         Optional<Alert> optionalDriver = Alert.get(config);
         if (!optionalDriver.isPresent()) {
@@ -20,6 +20,7 @@
 package org.dinky.alert;
 
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * AlertConfig
@@ -67,4 +68,21 @@ public class AlertConfig {
     public void setParam(Map<String, Object> param) {
         this.param = param;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        AlertConfig that = (AlertConfig) o;
+        return Objects.equals(name, that.name) && Objects.equals(type, that.type) && Objects.equals(param, that.param);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, type, param);
+    }
 }
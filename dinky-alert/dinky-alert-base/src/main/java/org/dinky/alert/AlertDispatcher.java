@@ -0,0 +1,228 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.alert;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import cn.hutool.core.thread.ThreadUtil;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * AlertDispatcher
+ *
+ * <p>Sends alerts asynchronously, so a slow or unreachable alert endpoint only delays the alerts of its own channel
+ * instead of the thread that raised them. Every channel has a bounded queue which is drained by one task at a time
+ * on a shared pool, so the alerts of a channel are sent in order. Identical alerts raised again within the coalesce
+ * window are dropped. A failed send is retried with exponential backoff before the next alert of its channel, without
+ * holding a thread while it waits. The {@link Alert} is taken from the {@link AlertPool} through
+ * {@link Alert#build(AlertConfig)}.
+ */
+@Slf4j
+public class AlertDispatcher {
+
+    private static final int DEFAULT_THREADS = 4;
+    private static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    private final ScheduledExecutorService executor;
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+    /** Coalesce key to the time the alert was accepted */
+    private final Map<String, Long> recent = new ConcurrentHashMap<>();
+
+    private final int queueCapacity;
+
+    @Setter
+    private volatile long coalesceMillis = TimeUnit.SECONDS.toMillis(10);
+
+    @Setter
+    private volatile int maxRetries = 3;
+
+    @Setter
+    private volatile long backoffMillis = TimeUnit.SECONDS.toMillis(1);
+
+    @Getter
+    private final LongAdder sentCount = new LongAdder();
+
+    @Getter
+    private final LongAdder failedCount = new LongAdder();
+
+    @Getter
+    private final LongAdder coalescedCount = new LongAdder();
+
+    @Getter
+    private final LongAdder rejectedCount = new LongAdder();
+
+    public AlertDispatcher() {
+        this(DEFAULT_THREADS, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public AlertDispatcher(int threads, int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+        ScheduledThreadPoolExecutor pool =
+                new ScheduledThreadPoolExecutor(threads, ThreadUtil.newNamedThreadFactory("alert-dispatcher", true));
+        pool.setRemoveOnCancelPolicy(true);
+        this.executor = pool;
+    }
+
+    /**
+     * Queues an alert to be sent.
+     *
+     * @return false if the alert was coalesced with an identical one or the queue of its channel is full
+     */
+    public boolean dispatch(AlertMessage message) {
+        long now = System.currentTimeMillis();
+        String coalesceKey = message.getCoalesceKey() != null
+                ? message.getCoalesceKey()
+                : message.getChannel() + '\n' + message.getTitle() + '\n' + message.getContent();
+        Long previous = recent.putIfAbsent(coalesceKey, now);
+        if (previous != null) {
+            if (now - previous < coalesceMillis) {
+                coalescedCount.increment();
+                log.debug("Alert [{}] of channel [{}] is coalesced", message.getTitle(), message.getChannel());
+                return false;
+            }
+            recent.put(coalesceKey, now);
+        }
+        if (recent.size() > queueCapacity) {
+            prune(now);
+        }
+
+        Channel channel = channels.computeIfAbsent(message.getChannel(), k -> new Channel(queueCapacity));
+        if (!channel.queue.offer(message)) {
+            rejectedCount.increment();
+            log.warn(
+                    "The alert queue of channel [{}] is full, drop alert [{}]",
+                    message.getChannel(),
+                    message.getTitle());
+            complete(message, new AlertResult(false, "The alert queue is full, the alert is dropped"));
+            return false;
+        }
+        schedule(channel);
+        return true;
+    }
+
+    /** Number of alerts waiting to be sent */
+    public int getQueueSize() {
+        return channels.values().stream()
+                .mapToInt(c -> c.queue.size() + (c.retrying != null ? 1 : 0))
+                .sum();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void schedule(Channel channel) {
+        if (channel.draining.compareAndSet(false, true)) {
+            executor.execute(() -> drain(channel));
+        }
+    }
+
+    private void drain(Channel channel) {
+        boolean waiting = false;
+        try {
+            AlertMessage message;
+            while ((message = channel.retrying != null ? channel.retrying : channel.queue.poll()) != null) {
+                int attempt = channel.retrying != null ? channel.attempt : 0;
+                channel.retrying = null;
+                if (!send(message, attempt)) {
+                    // the alerts behind it wait, the channel stays in the draining state until the retry
+                    channel.retrying = message;
+                    channel.attempt = attempt + 1;
+                    waiting = true;
+                    executor.schedule(() -> drain(channel), backoffMillis << attempt, TimeUnit.MILLISECONDS);
+                    return;
+                }
+            }
+        } finally {
+            if (!waiting) {
+                channel.draining.set(false);
+            }
+        }
+        // an alert queued after the last poll but before the flag was cleared
+        if (!channel.queue.isEmpty()) {
+            schedule(channel);
+        }
+    }
+
+    /** @return false if the send failed and should be retried */
+    private boolean send(AlertMessage message, int attempt) {
+        AlertResult result;
+        try {
+            result = Alert.build(message.getConfig()).send(message.getTitle(), message.getContent());
+        } catch (Exception e) {
+            log.error("Failed to send alert [{}] of channel [{}]", message.getTitle(), message.getChannel(), e);
+            result = new AlertResult(false, e.getMessage());
+        }
+        if (result != null && result.getSuccess()) {
+            sentCount.increment();
+            complete(message, result);
+        } else if (attempt < maxRetries) {
+            return false;
+        } else {
+            failedCount.increment();
+            complete(message, result == null ? new AlertResult(false, "No result") : result);
+        }
+        return true;
+    }
+
+    private void complete(AlertMessage message, AlertResult result) {
+        if (message.getCallback() == null) {
+            return;
+        }
+        try {
+            message.getCallback().accept(result);
+        } catch (Exception e) {
+            log.error("Failed to handle the result of alert [{}]", message.getTitle(), e);
+        }
+    }
+
+    private void prune(long now) {
+        Iterator<Map.Entry<String, Long>> iterator = recent.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().getValue() >= coalesceMillis) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static class Channel {
+        private final BlockingQueue<AlertMessage> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        /** The alert waiting for a retry, it is sent before the queued ones */
+        private volatile AlertMessage retrying;
+
+        private volatile int attempt;
+
+        private Channel(int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+}
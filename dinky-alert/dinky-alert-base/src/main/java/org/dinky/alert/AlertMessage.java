@@ -0,0 +1,48 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.alert;
+
+import java.util.function.Consumer;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * AlertMessage
+ *
+ * <p>An alert handed to the {@link AlertDispatcher}.
+ */
+@Getter
+@Builder
+public class AlertMessage {
+
+    /** Alerts of the same channel, usually one alert instance, are queued and sent in order */
+    private final String channel;
+
+    private final AlertConfig config;
+    private final String title;
+    private final String content;
+
+    /** Alerts with the same key raised within the coalesce window are sent once, defaults to the title and content */
+    private final String coalesceKey;
+
+    /** Called once with the final result of the alert, after the retries if it failed */
+    private final Consumer<AlertResult> callback;
+}
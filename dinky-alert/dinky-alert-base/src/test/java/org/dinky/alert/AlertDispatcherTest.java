@@ -0,0 +1,170 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.alert;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AlertDispatcherTest {
+
+    private static final List<String> SENT = new CopyOnWriteArrayList<>();
+    private static final AtomicInteger FAILURES = new AtomicInteger();
+    private static volatile CountDownLatch blocker = new CountDownLatch(0);
+
+    private AlertDispatcher dispatcher;
+
+    public static class TestAlert extends AbstractAlert {
+
+        @Override
+        public Alert setConfig(AlertConfig config) {
+            // no template to load for the test type
+            return this;
+        }
+
+        @Override
+        public String getType() {
+            return "Test";
+        }
+
+        @Override
+        public AlertResult send(String title, String content) {
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (FAILURES.getAndDecrement() > 0) {
+                throw new AlertException("endpoint unavailable");
+            }
+            SENT.add(title);
+            return new AlertResult(true, "ok");
+        }
+    }
+
+    @Before
+    public void setUp() {
+        SENT.clear();
+        FAILURES.set(0);
+        blocker = new CountDownLatch(0);
+        dispatcher = new AlertDispatcher(2, 2);
+        dispatcher.setBackoffMillis(10);
+    }
+
+    @After
+    public void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    private static AlertMessage message(String channel, String title, CountDownLatch done, List<AlertResult> results) {
+        return AlertMessage.builder()
+                .channel(channel)
+                .config(AlertConfig.build(channel, "Test", Collections.emptyMap()))
+                .title(title)
+                .content(title)
+                .callback(r -> {
+                    results.add(r);
+                    done.countDown();
+                })
+                .build();
+    }
+
+    @Test
+    public void testCoalesceAndOrder() throws InterruptedException {
+        List<AlertResult> results = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+        blocker = new CountDownLatch(1);
+        Assert.assertTrue(dispatcher.dispatch(message("a", "first", done, results)));
+        Assert.assertFalse(dispatcher.dispatch(message("a", "first", done, results)));
+        Assert.assertTrue(dispatcher.dispatch(message("a", "second", done, results)));
+        blocker.countDown();
+
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(2, SENT.size());
+        Assert.assertEquals("first", SENT.get(0));
+        Assert.assertEquals("second", SENT.get(1));
+        Assert.assertEquals(1, dispatcher.getCoalescedCount().sum());
+    }
+
+    @Test
+    public void testQueueFull() throws InterruptedException {
+        List<AlertResult> results = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(4);
+        blocker = new CountDownLatch(1);
+        dispatcher.dispatch(message("b", "alert-0", done, results));
+        while (dispatcher.getQueueSize() > 0) {
+            Thread.sleep(1);
+        }
+        for (int i = 1; i < 4; i++) {
+            dispatcher.dispatch(message("b", "alert-" + i, done, results));
+        }
+        // one alert is being sent and two are queued, the last one is rejected
+        Assert.assertEquals(1, dispatcher.getRejectedCount().sum());
+        blocker.countDown();
+
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(3, SENT.size());
+        Assert.assertEquals(1, results.stream().filter(r -> !r.getSuccess()).count());
+    }
+
+    @Test
+    public void testRetry() throws InterruptedException {
+        List<AlertResult> results = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        FAILURES.set(2);
+        dispatcher.dispatch(message("c", "retried", done, results));
+
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(results.get(0).getSuccess());
+        Assert.assertEquals(1, dispatcher.getSentCount().sum());
+
+        CountDownLatch failed = new CountDownLatch(1);
+        FAILURES.set(10);
+        dispatcher.setMaxRetries(1);
+        dispatcher.dispatch(message("c", "failed", failed, results));
+        Assert.assertTrue(failed.await(5, TimeUnit.SECONDS));
+        Assert.assertFalse(results.get(1).getSuccess());
+        Assert.assertEquals(1, dispatcher.getFailedCount().sum());
+    }
+
+    @Test
+    public void testRetryKeepsOrder() throws InterruptedException {
+        List<AlertResult> results = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+        FAILURES.set(1);
+        blocker = new CountDownLatch(1);
+        dispatcher.dispatch(message("d", "first", done, results));
+        dispatcher.dispatch(message("d", "second", done, results));
+        blocker.countDown();
+
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(2, SENT.size());
+        Assert.assertEquals("first", SENT.get(0));
+        Assert.assertEquals("second", SENT.get(1));
+    }
+}
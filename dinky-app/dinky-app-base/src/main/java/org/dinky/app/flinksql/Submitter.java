@@ -22,7 +22,7 @@ package org.dinky.app.flinksql;
 import org.dinky.app.db.DBUtil;
 import org.dinky.app.model.StatementParam;
 import org.dinky.app.model.SysConfig;
-import org.dinky.app.util.FlinkAppUtil;
+import org.dinky.app.util.JobStatusReporter;
 import org.dinky.assertion.Asserts;
 import org.dinky.classloader.DinkyClassLoader;
 import org.dinky.config.Dialect;
@@ -136,6 +136,8 @@ public class Submitter {
 
         String sql = readSql(executor);
         String[] statements = SqlUtil.getStatements(sql);
+        JobStatusReporter reporter = new JobStatusReporter(executor, config.getTaskId());
+        executor.getStreamExecutionEnvironment().registerJobListener(reporter);
         Optional<JobClient> jobClient = Optional.empty();
         try {
             if (Dialect.FLINK_JAR == appTask.getDialect()) {
@@ -146,7 +148,7 @@ public class Submitter {
         } finally {
             log.info("Start Monitor Job");
             if (jobClient.isPresent()) {
-                FlinkAppUtil.monitorFlinkTask(jobClient.get(), config.getTaskId());
+                reporter.watch(jobClient.get());
             } else {
                 log.error("jobClient is empty, can not  monitor job");
                 // FlinkAppUtil.monitorFlinkTask(Submitter.executor, config.getTaskId());
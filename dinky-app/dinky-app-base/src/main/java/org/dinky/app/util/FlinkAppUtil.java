@@ -28,7 +28,6 @@ import org.apache.flink.client.deployment.StandaloneClusterId;
 import org.apache.flink.client.program.rest.RestClusterClient;
 import org.apache.flink.configuration.Configuration;
 import org.apache.flink.configuration.ReadableConfig;
-import org.apache.flink.core.execution.JobClient;
 import org.apache.flink.runtime.client.JobStatusMessage;
 
 import java.util.Collection;
@@ -76,27 +75,6 @@ public class FlinkAppUtil {
         }
     }
 
-    public static void monitorFlinkTask(JobClient jobClient, int taskId) {
-        boolean isRun = true;
-        String jobId = jobClient.getJobID().toHexString();
-        try {
-            while (isRun) {
-                String jobStatus = jobClient.getJobStatus().get().toString();
-                JobStatus status = JobStatus.get(jobStatus);
-                if (status.isDone()) {
-                    sendHook(taskId, jobId, 0);
-                    log.info("refesh job status finished, status is {}", status);
-                    isRun = false;
-                }
-                Thread.sleep(5000);
-            }
-        } catch (Exception e) {
-            // If an exception is thrown, it will cause the k8s pod to trigger a restart,
-            // resulting in an inability to exit normally
-            log.error("refesh status failed:", e);
-        }
-    }
-
     /**
      * The sendHook method is used to send a Hook request.
      * This method sends an HTTP request to notify a specific address about the completion status of a task.
@@ -104,7 +82,7 @@ public class FlinkAppUtil {
      * If sending the request fails, it will be retried up to 30 times with a 1-second interval between each retry.
      * If the retry limit is exceeded, an exception is thrown.
      */
-    private static void sendHook(int taskId, String jobId, int reTryCount) {
+    static void sendHook(int taskId, String jobId, int reTryCount) {
         String dinkyAddr = SystemConfiguration.getInstances().getDinkyAddr().getValue();
         String url = StrFormatter.format("{}/api/jobInstance/hookJobDone?taskId={}&jobId={}", dinkyAddr, taskId, jobId);
         try {
@@ -141,7 +119,7 @@ public class FlinkAppUtil {
      * @return
      * @throws Exception
      */
-    private static RestClusterClient<StandaloneClusterId> createClient(Executor executor) throws Exception {
+    static RestClusterClient<StandaloneClusterId> createClient(Executor executor) throws Exception {
         ReadableConfig config = executor.getStreamExecutionEnvironment().getConfiguration();
         Configuration configuration = new Configuration((Configuration) config);
 
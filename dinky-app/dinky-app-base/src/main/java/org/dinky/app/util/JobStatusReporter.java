@@ -0,0 +1,211 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.app.util;
+
+import org.dinky.api.FlinkAPI;
+import org.dinky.data.enums.JobStatus;
+import org.dinky.data.flink.checkpoint.CheckPointOverView;
+import org.dinky.data.flink.checkpoint.CheckpointStatistics;
+import org.dinky.data.model.JobStatusEvent;
+import org.dinky.data.model.SystemConfiguration;
+import org.dinky.executor.Executor;
+import org.dinky.utils.JsonUtils;
+
+import org.apache.flink.api.common.JobExecutionResult;
+import org.apache.flink.client.deployment.StandaloneClusterId;
+import org.apache.flink.client.program.rest.RestClusterClient;
+import org.apache.flink.core.execution.JobClient;
+import org.apache.flink.core.execution.JobListener;
+
+import java.util.concurrent.TimeUnit;
+
+import cn.hutool.core.exceptions.ExceptionUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.http.HttpUtil;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pushes job state from dinky-app to the admin server as it happens: status transitions, completed checkpoints and
+ * failure causes, plus a heartbeat while nothing changes. The admin relies on the pushed state and polls the job
+ * only rarely while the heartbeat keeps arriving.
+ *
+ * <p>Registered as a {@link JobListener} it also reports jobs that fail before they are submitted. Events are
+ * best effort; the done hook at the end keeps its retries.
+ */
+@Slf4j
+public class JobStatusReporter implements JobListener {
+
+    private static final long STATUS_INTERVAL = 1000;
+    private static final long CHECKPOINT_INTERVAL = 5000;
+    private static final long HEARTBEAT_INTERVAL = 15000;
+    private static final int REQUEST_TIMEOUT = 3000;
+    private static final int MAX_FAILURE_CAUSE_LENGTH = 8192;
+
+    private final Executor executor;
+    private final int taskId;
+    private final String eventUrl;
+
+    private String checkpointAddress;
+    private boolean checkpointReportEnabled = true;
+    private long lastCheckpointId = -1;
+
+    public JobStatusReporter(Executor executor, int taskId) {
+        this.executor = executor;
+        this.taskId = taskId;
+        String dinkyAddr = SystemConfiguration.getInstances().getDinkyAddr().getValue();
+        this.eventUrl = StrUtil.isBlank(dinkyAddr) ? null : dinkyAddr + "/api/jobInstance/hookJobEvent";
+    }
+
+    @Override
+    public void onJobSubmitted(JobClient jobClient, Throwable throwable) {
+        if (throwable != null) {
+            push(event(null, JobStatusEvent.Type.STATUS, JobStatus.FAILED).failureCause(toCause(throwable)));
+        }
+    }
+
+    @Override
+    public void onJobExecuted(JobExecutionResult jobExecutionResult, Throwable throwable) {
+        if (throwable != null && jobExecutionResult == null) {
+            push(event(null, JobStatusEvent.Type.STATUS, JobStatus.FAILED).failureCause(toCause(throwable)));
+        }
+    }
+
+    /**
+     * Watches the job until it is done, pushing every change, then sends the done hook.
+     * In application mode the job client talks to the dispatcher in the same process, so watching is cheap.
+     */
+    public void watch(JobClient jobClient) {
+        String jobId = jobClient.getJobID().toHexString();
+        JobStatus reported = null;
+        long lastPush = 0;
+        long lastCheckpointCheck = 0;
+        try {
+            while (true) {
+                JobStatus status = JobStatus.get(jobClient.getJobStatus().get().toString());
+                long now = System.currentTimeMillis();
+                if (status != reported) {
+                    JobStatusEvent.JobStatusEventBuilder builder = event(jobId, JobStatusEvent.Type.STATUS, status);
+                    if (status == JobStatus.FAILED) {
+                        builder.failureCause(getFailureCause(jobClient));
+                    }
+                    push(builder);
+                    reported = status;
+                    lastPush = now;
+                } else if (now - lastPush >= HEARTBEAT_INTERVAL) {
+                    push(event(jobId, JobStatusEvent.Type.HEARTBEAT, status));
+                    lastPush = now;
+                }
+                if (status.isDone()) {
+                    FlinkAppUtil.sendHook(taskId, jobId, 0);
+                    log.info("refesh job status finished, status is {}", status);
+                    return;
+                }
+                if (status == JobStatus.RUNNING && now - lastCheckpointCheck >= CHECKPOINT_INTERVAL) {
+                    lastCheckpointCheck = now;
+                    if (reportCheckpoint(jobId, status)) {
+                        lastPush = now;
+                    }
+                }
+                Thread.sleep(STATUS_INTERVAL);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // If an exception is thrown, it will cause the k8s pod to trigger a restart,
+            // resulting in an inability to exit normally
+            log.error("refesh status failed:", e);
+        }
+    }
+
+    private boolean reportCheckpoint(String jobId, JobStatus status) {
+        if (!checkpointReportEnabled) {
+            return false;
+        }
+        try {
+            if (checkpointAddress == null) {
+                try (RestClusterClient<StandaloneClusterId> client = FlinkAppUtil.createClient(executor)) {
+                    checkpointAddress = client.getWebInterfaceURL();
+                }
+            }
+            CheckPointOverView overView = FlinkAPI.build(checkpointAddress).getCheckPointOverView(jobId);
+            if (overView == null) {
+                // checkpointing is not enabled
+                checkpointReportEnabled = false;
+                return false;
+            }
+            CheckpointStatistics latest = overView.getLatestCheckpoints() == null
+                    ? null
+                    : overView.getLatestCheckpoints().getCompletedCheckpointStatistics();
+            if (latest == null || latest.getId() <= lastCheckpointId) {
+                return false;
+            }
+            lastCheckpointId = latest.getId();
+            push(event(jobId, JobStatusEvent.Type.CHECKPOINT, status).checkpointId(latest.getId()));
+            return true;
+        } catch (Exception e) {
+            // the admin still polls checkpoints itself, so stop trying instead of failing the watch
+            log.warn("Can not read checkpoints of job {}, checkpoint events are disabled: {}", jobId, e.getMessage());
+            checkpointReportEnabled = false;
+            return false;
+        }
+    }
+
+    private String getFailureCause(JobClient jobClient) {
+        try {
+            jobClient.getJobExecutionResult().get(REQUEST_TIMEOUT, TimeUnit.MILLISECONDS);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            return toCause(e);
+        }
+    }
+
+    private JobStatusEvent.JobStatusEventBuilder event(String jobId, JobStatusEvent.Type type, JobStatus status) {
+        return JobStatusEvent.builder()
+                .taskId(taskId)
+                .jobId(jobId)
+                .type(type)
+                .status(status.getValue())
+                .eventTime(System.currentTimeMillis());
+    }
+
+    private void push(JobStatusEvent.JobStatusEventBuilder builder) {
+        if (eventUrl == null) {
+            return;
+        }
+        JobStatusEvent event = builder.build();
+        try {
+            String resultStr = HttpUtil.post(eventUrl, JsonUtils.toJsonString(event), REQUEST_TIMEOUT);
+            String code = JsonUtils.parseObject(resultStr).get("code").toString();
+            if (!"0".equals(code)) {
+                log.warn("Push job event failed, url:{}, err:{}", eventUrl, resultStr);
+            }
+        } catch (Exception e) {
+            // the admin falls back to polling when events stop arriving
+            log.warn("Push job event {} of task {} failed: {}", event.getType(), taskId, e.getMessage());
+        }
+    }
+
+    private static String toCause(Throwable throwable) {
+        return ExceptionUtil.stacktraceToString(ExceptionUtil.getRootCause(throwable), MAX_FAILURE_CAUSE_LENGTH);
+    }
+}
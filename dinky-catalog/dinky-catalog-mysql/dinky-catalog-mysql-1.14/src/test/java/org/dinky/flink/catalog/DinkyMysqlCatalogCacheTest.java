@@ -0,0 +1,239 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.flink.catalog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.dinky.flink.catalog.DinkyMysqlCatalogCache.DatabaseEntry;
+import org.dinky.flink.catalog.DinkyMysqlCatalogCache.TableEntry;
+
+import org.apache.flink.table.catalog.ObjectPath;
+import org.apache.flink.table.catalog.exceptions.CatalogException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class DinkyMysqlCatalogCacheTest {
+
+    private static final String[] DATABASE_COLUMNS = {"id", "database_name", "description", "key", "value"};
+    private static final String[] TABLE_COLUMNS = {
+        "id", "database_id", "table_name", "table_type", "description", "key", "value"
+    };
+    private static final String[] COLUMN_COLUMNS = {"table_id", "column_name", "data_type", "description"};
+
+    private Connection conn;
+    private DinkyMysqlCatalogCache cache;
+
+    @Before
+    public void setup() throws SQLException {
+        conn = mockConnection(
+                rows(
+                        DATABASE_COLUMNS,
+                        new Object[] {1, "shop", "shop db", "owner", "dinky"},
+                        new Object[] {1, "shop", "shop db", "env", "prod"},
+                        new Object[] {2, "empty", null, null, null},
+                        new Object[] {3, "dup", null, null, null},
+                        new Object[] {4, "dup", null, null, null}),
+                rows(
+                        TABLE_COLUMNS,
+                        new Object[] {10, 1, "orders", "TABLE", "order table", "connector", "kafka"},
+                        new Object[] {10, 1, "orders", "TABLE", "order table", "topic", "orders"},
+                        new Object[] {11, 1, "orders_view", "VIEW", null, "OriginalQuery", "select * from orders"},
+                        new Object[] {12, 99, "orphan", "TABLE", null, null, null}),
+                rows(
+                        COLUMN_COLUMNS,
+                        new Object[] {10, "id", "BIGINT", "order id"},
+                        new Object[] {10, "amount", "DECIMAL(10, 2)", null},
+                        new Object[] {11, "id", "BIGINT", null},
+                        new Object[] {12, "id", "INT", null}));
+        cache = DinkyMysqlCatalogCache.load(conn);
+    }
+
+    @Test
+    public void testLoadJoinedRows() throws SQLException {
+        assertEquals(Arrays.asList("shop", "empty", "dup"), cache.listDatabases());
+
+        DatabaseEntry shop = cache.getDatabase("shop");
+        assertEquals("shop db", shop.description);
+        assertEquals(2, shop.properties.size());
+        assertEquals("prod", shop.properties.get("env"));
+        assertEquals(
+                Arrays.asList("orders", "orders_view"),
+                Arrays.asList(shop.tables.keySet().toArray()));
+        assertTrue(cache.getDatabase("empty").tables.isEmpty());
+        assertTrue(cache.getDatabase("empty").properties.isEmpty());
+        assertNull(cache.getDatabase("missing"));
+
+        TableEntry orders = cache.getTable(new ObjectPath("shop", "orders"));
+        assertEquals("TABLE", orders.type);
+        assertEquals("kafka", orders.properties.get("connector"));
+        assertEquals("orders", orders.properties.get("topic"));
+        assertEquals(2, orders.columns.size());
+        assertEquals("amount", orders.columns.get(1).name);
+        assertEquals("DECIMAL(10, 2)", orders.columns.get(1).dataType);
+        assertNull(cache.getTable(new ObjectPath("shop", "orphan")));
+        assertNull(cache.getTable(new ObjectPath("missing", "orders")));
+
+        // 只读事务在加载完成后提交
+        verify(conn).commit();
+    }
+
+    @Test
+    public void testLoadDuplicateDatabases() {
+        assertThrows(CatalogException.class, () -> cache.getDatabase("dup"));
+        assertThrows(CatalogException.class, () -> cache.getTable(new ObjectPath("dup", "orders")));
+    }
+
+    @Test
+    public void testLoadViewWithColumns() {
+        TableEntry view = cache.getTable(new ObjectPath("shop", "orders_view"));
+        assertEquals("VIEW", view.type);
+        assertEquals("select * from orders", view.properties.get("OriginalQuery"));
+        assertEquals(1, view.columns.size());
+        assertEquals("id", view.columns.get(0).name);
+    }
+
+    @Test
+    public void testPutAndRemoveTable() {
+        DatabaseEntry shop = cache.getDatabase("shop");
+        Map<String, TableEntry> before = shop.tables;
+
+        cache.putTable("shop", new TableEntry(20, "users", "TABLE", null));
+        assertNotNull(cache.getTable(new ObjectPath("shop", "users")));
+        assertEquals(2, before.size());
+        assertThrows(UnsupportedOperationException.class, () -> shop.tables.remove("users"));
+
+        Map<String, TableEntry> afterPut = shop.tables;
+        cache.removeTable(new ObjectPath("shop", "orders"));
+        assertNull(cache.getTable(new ObjectPath("shop", "orders")));
+        assertTrue(afterPut.containsKey("orders"));
+        assertEquals(
+                Arrays.asList("orders_view", "users"),
+                Arrays.asList(shop.tables.keySet().toArray()));
+
+        // 不存在的 database 忽略
+        cache.putTable("missing", new TableEntry(21, "users", "TABLE", null));
+        cache.removeTable(new ObjectPath("missing", "users"));
+        assertNull(cache.getDatabase("missing"));
+    }
+
+    @Test
+    public void testRenameAndWithPropertiesCopyTheEntry() {
+        TableEntry orders = cache.getTable(new ObjectPath("shop", "orders"));
+
+        TableEntry renamed = orders.rename("orders_v2");
+        assertEquals("orders_v2", renamed.name);
+        assertEquals(orders.id, renamed.id);
+        assertEquals(orders.properties, renamed.properties);
+        assertEquals(2, renamed.columns.size());
+        renamed.properties.put("topic", "orders_v2");
+        assertEquals("orders", orders.properties.get("topic"));
+
+        Map<String, String> properties = new HashMap<>();
+        properties.put("topic", "orders_new");
+        properties.put("format", "json");
+        TableEntry altered = orders.withProperties(properties);
+        assertEquals("orders", altered.name);
+        assertEquals("orders_new", altered.properties.get("topic"));
+        assertEquals("kafka", altered.properties.get("connector"));
+        assertEquals("json", altered.properties.get("format"));
+        assertFalse(orders.properties.containsKey("format"));
+
+        cache.putTable("shop", altered);
+        assertSame(altered, cache.getTable(new ObjectPath("shop", "orders")));
+    }
+
+    @Test
+    public void testExpire() {
+        assertFalse(cache.isExpired(Duration.ofHours(1)));
+        assertTrue(cache.isExpired(Duration.ZERO));
+    }
+
+    /** 按查询语句的前缀返回对应的结果集 */
+    private static Connection mockConnection(
+            List<Object[]> databaseRows, List<Object[]> tableRows, List<Object[]> columnRows) throws SQLException {
+        Connection conn = mock(Connection.class);
+        when(conn.getAutoCommit()).thenReturn(false);
+        when(conn.prepareStatement(anyString())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            if (sql.startsWith("SELECT d.")) {
+                return mockStatement(DATABASE_COLUMNS, databaseRows);
+            } else if (sql.startsWith("SELECT t.")) {
+                return mockStatement(TABLE_COLUMNS, tableRows);
+            } else if (sql.startsWith("SELECT c.")) {
+                return mockStatement(COLUMN_COLUMNS, columnRows);
+            }
+            throw new SQLException("Unexpected query: " + sql);
+        });
+        return conn;
+    }
+
+    private static PreparedStatement mockStatement(String[] columns, List<Object[]> rows) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        int[] cursor = {-1};
+        when(rs.next()).thenAnswer(invocation -> ++cursor[0] < rows.size());
+        when(rs.getString(anyString())).thenAnswer(invocation -> {
+            Object value = value(columns, rows.get(cursor[0]), invocation.getArgument(0));
+            return value == null ? null : String.valueOf(value);
+        });
+        when(rs.getInt(anyString())).thenAnswer(invocation -> {
+            Object value = value(columns, rows.get(cursor[0]), invocation.getArgument(0));
+            return value == null ? 0 : (Integer) value;
+        });
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(ps.executeQuery()).thenReturn(rs);
+        return ps;
+    }
+
+    private static Object value(String[] columns, Object[] row, String column) throws SQLException {
+        int index = Arrays.asList(columns).indexOf(column);
+        if (index < 0) {
+            throw new SQLException("Unknown column: " + column);
+        }
+        return row[index];
+    }
+
+    private static List<Object[]> rows(String[] columns, Object[]... rows) {
+        for (Object[] row : rows) {
+            assertEquals(columns.length, row.length);
+        }
+        return Arrays.asList(rows);
+    }
+}
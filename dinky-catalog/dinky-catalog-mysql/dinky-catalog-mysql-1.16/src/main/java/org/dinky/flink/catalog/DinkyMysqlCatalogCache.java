@@ -0,0 +1,226 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.flink.catalog;
+
+import org.apache.flink.table.catalog.ObjectPath;
+import org.apache.flink.table.catalog.exceptions.CatalogException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link DinkyMysqlCatalog} 的元数据缓存。库、表、视图、字段和属性通过三条关联查询一次性加载，
+ * 本实例的写操作直接更新缓存，其他实例的修改在缓存过期重新加载后可见。
+ * 加载完成后条目不再修改，写操作替换表条目和表集合，读取方拿到的始终是一致的快照。
+ */
+class DinkyMysqlCatalogCache {
+
+    private static final String QUERY_DATABASES = "SELECT d.id, d.database_name, d.description, p.`key`, p.`value`"
+            + " FROM metadata_database d"
+            + " LEFT JOIN metadata_database_property p ON p.database_id = d.id";
+
+    private static final String QUERY_TABLES =
+            "SELECT t.id, t.database_id, t.table_name, t.table_type, t.description, p.`key`, p.`value`"
+                    + " FROM metadata_table t"
+                    + " JOIN metadata_database d ON d.id = t.database_id"
+                    + " LEFT JOIN metadata_table_property p ON p.table_id = t.id";
+
+    private static final String QUERY_COLUMNS = "SELECT c.table_id, c.column_name, c.data_type, c.description"
+            + " FROM metadata_column c"
+            + " JOIN metadata_table t ON t.id = c.table_id";
+
+    private final long loadTime = System.currentTimeMillis();
+
+    private final Map<String, DatabaseEntry> databases = new LinkedHashMap<>();
+
+    /** 同名的 database，查询时报错 */
+    private final List<String> duplicateDatabases = new ArrayList<>();
+
+    static DinkyMysqlCatalogCache load(Connection conn) throws SQLException {
+        DinkyMysqlCatalogCache cache = new DinkyMysqlCatalogCache();
+        Map<Integer, DatabaseEntry> databasesById = new HashMap<>();
+        try (PreparedStatement ps = conn.prepareStatement(QUERY_DATABASES);
+                ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                int id = rs.getInt("id");
+                DatabaseEntry database = databasesById.get(id);
+                if (database == null) {
+                    database = new DatabaseEntry(id, rs.getString("database_name"), rs.getString("description"));
+                    databasesById.put(id, database);
+                    if (cache.databases.putIfAbsent(database.name, database) != null) {
+                        cache.duplicateDatabases.add(database.name);
+                    }
+                }
+                String key = rs.getString("key");
+                if (key != null) {
+                    database.properties.put(key, rs.getString("value"));
+                }
+            }
+        }
+        Map<Integer, TableEntry> tablesById = new HashMap<>();
+        try (PreparedStatement ps = conn.prepareStatement(QUERY_TABLES);
+                ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                int id = rs.getInt("id");
+                TableEntry table = tablesById.get(id);
+                if (table == null) {
+                    table = new TableEntry(
+                            id, rs.getString("table_name"), rs.getString("table_type"), rs.getString("description"));
+                    tablesById.put(id, table);
+                    DatabaseEntry database = databasesById.get(rs.getInt("database_id"));
+                    if (database != null) {
+                        database.tables.put(table.name, table);
+                    }
+                }
+                String key = rs.getString("key");
+                if (key != null) {
+                    table.properties.put(key, rs.getString("value"));
+                }
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement(QUERY_COLUMNS);
+                ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                TableEntry table = tablesById.get(rs.getInt("table_id"));
+                if (table != null) {
+                    table.columns.add(new ColumnEntry(
+                            rs.getString("column_name"), rs.getString("data_type"), rs.getString("description")));
+                }
+            }
+        }
+        for (DatabaseEntry database : databasesById.values()) {
+            database.tables = Collections.unmodifiableMap(database.tables);
+        }
+        // 结束只读事务，否则之后的查询看不到其他实例的修改
+        if (!conn.getAutoCommit()) {
+            conn.commit();
+        }
+        return cache;
+    }
+
+    boolean isExpired(Duration ttl) {
+        return System.currentTimeMillis() - loadTime >= ttl.toMillis();
+    }
+
+    List<String> listDatabases() {
+        return new ArrayList<>(databases.keySet());
+    }
+
+    /**
+     * 获取 database
+     *
+     * @return database，不存在时返回 null
+     * @throws CatalogException 存在多个同名 database
+     */
+    DatabaseEntry getDatabase(String databaseName) throws CatalogException {
+        if (duplicateDatabases.contains(databaseName)) {
+            throw new CatalogException("存在多个同名database: " + databaseName);
+        }
+        return databases.get(databaseName);
+    }
+
+    TableEntry getTable(ObjectPath tablePath) {
+        DatabaseEntry database = getDatabase(tablePath.getDatabaseName());
+        return database == null ? null : database.tables.get(tablePath.getObjectName());
+    }
+
+    void putTable(String databaseName, TableEntry table) {
+        DatabaseEntry database = getDatabase(databaseName);
+        if (database != null) {
+            Map<String, TableEntry> tables = new LinkedHashMap<>(database.tables);
+            tables.put(table.name, table);
+            database.tables = Collections.unmodifiableMap(tables);
+        }
+    }
+
+    void removeTable(ObjectPath tablePath) {
+        DatabaseEntry database = getDatabase(tablePath.getDatabaseName());
+        if (database != null) {
+            Map<String, TableEntry> tables = new LinkedHashMap<>(database.tables);
+            tables.remove(tablePath.getObjectName());
+            database.tables = Collections.unmodifiableMap(tables);
+        }
+    }
+
+    static class DatabaseEntry {
+        final int id;
+        final String name;
+        final String description;
+        final Map<String, String> properties = new HashMap<>();
+        /** 加载时填充，之后只整体替换 */
+        volatile Map<String, TableEntry> tables = new LinkedHashMap<>();
+
+        DatabaseEntry(int id, String name, String description) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+        }
+    }
+
+    static class TableEntry {
+        final int id;
+        final String name;
+        final String type;
+        final String description;
+        final Map<String, String> properties = new HashMap<>();
+        final List<ColumnEntry> columns = new ArrayList<>();
+
+        TableEntry(int id, String name, String type, String description) {
+            this.id = id;
+            this.name = name;
+            this.type = type;
+            this.description = description;
+        }
+
+        TableEntry rename(String newName) {
+            TableEntry table = new TableEntry(id, newName, type, description);
+            table.properties.putAll(properties);
+            table.columns.addAll(columns);
+            return table;
+        }
+
+        TableEntry withProperties(Map<String, String> newProperties) {
+            TableEntry table = rename(name);
+            table.properties.putAll(newProperties);
+            return table;
+        }
+    }
+
+    static class ColumnEntry {
+        final String name;
+        final String dataType;
+        final String description;
+
+        ColumnEntry(String name, String dataType, String description) {
+            this.name = name;
+            this.dataType = dataType;
+            this.description = description;
+        }
+    }
+}
@@ -65,10 +65,12 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -136,6 +138,11 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
     /** 默认database */
     private static final String defaultDatabase = "default_database";
 
+    /** 元数据缓存的有效期，过期后重新加载以获取其他实例的修改 */
+    private final Duration cacheTtl;
+    /** 元数据缓存 */
+    private DinkyMysqlCatalogCache cache;
+
     /**
      * 数据库用户名
      *
@@ -164,10 +171,15 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
     }
 
     public DinkyMysqlCatalog(String name, String url, String user, String pwd) {
+        this(name, url, user, pwd, DinkyMysqlCatalogFactoryOptions.CACHE_TTL.defaultValue());
+    }
+
+    public DinkyMysqlCatalog(String name, String url, String user, String pwd, Duration cacheTtl) {
         super(name, defaultDatabase);
         this.url = url;
         this.user = user;
         this.pwd = pwd;
+        this.cacheTtl = checkNotNull(cacheTtl);
     }
 
     public DinkyMysqlCatalog(String name) {
@@ -175,6 +187,7 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
         this.url = DinkyMysqlCatalogFactoryOptions.URL.defaultValue();
         this.user = DinkyMysqlCatalogFactoryOptions.USERNAME.defaultValue();
         this.pwd = DinkyMysqlCatalogFactoryOptions.PASSWORD.defaultValue();
+        this.cacheTtl = DinkyMysqlCatalogFactoryOptions.CACHE_TTL.defaultValue();
     }
 
     @Override
@@ -232,60 +245,47 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
         }
     }
 
-    @Override
-    public List<String> listDatabases() throws CatalogException {
-        List<String> myDatabases = new ArrayList<>();
-        String querySql = "SELECT database_name FROM metadata_database";
-        Connection conn = getConnection();
-        try (PreparedStatement ps = conn.prepareStatement(querySql)) {
-
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                String dbName = rs.getString(1);
-                myDatabases.add(dbName);
+    /**
+     * 获取元数据缓存，缓存不存在或已过期时重新加载
+     *
+     * @return 元数据缓存
+     */
+    protected synchronized DinkyMysqlCatalogCache getCache() throws CatalogException {
+        if (cache == null || cache.isExpired(cacheTtl)) {
+            try {
+                cache = DinkyMysqlCatalogCache.load(getConnection());
+            } catch (SQLException e) {
+                sqlExceptionHappened = true;
+                throw new CatalogException(String.format("Failed loading metadata in catalog %s", getName()), e);
             }
-
-            return myDatabases;
-        } catch (Exception e) {
-            throw new CatalogException(String.format("Failed listing database in catalog %s", getName()), e);
         }
+        return cache;
     }
 
-    @Override
-    public CatalogDatabase getDatabase(String databaseName) throws DatabaseNotExistException, CatalogException {
-        String querySql = "SELECT id, database_name,description " + " FROM metadata_database where database_name=?";
-        Connection conn = getConnection();
-        try (PreparedStatement ps = conn.prepareStatement(querySql)) {
-            ps.setString(1, databaseName);
-            ResultSet rs = ps.executeQuery();
-
-            if (rs.next()) {
-                int id = rs.getInt("id");
-                String description = rs.getString("description");
+    /** 写操作之后更新缓存，缓存未加载时无需更新 */
+    private synchronized void updateCache(Consumer<DinkyMysqlCatalogCache> update) {
+        if (cache != null) {
+            update.accept(cache);
+        }
+    }
 
-                Map<String, String> map = new HashMap<>();
+    /** 丢弃缓存，下次访问时重新加载 */
+    private synchronized void invalidateCache() {
+        cache = null;
+    }
 
-                String sql = "select `key`,`value` " + "from metadata_database_property " + "where database_id=? ";
-                try (PreparedStatement pStat = conn.prepareStatement(sql)) {
-                    pStat.setInt(1, id);
-                    ResultSet prs = pStat.executeQuery();
-                    while (prs.next()) {
-                        map.put(prs.getString("key"), prs.getString("value"));
-                    }
-                } catch (SQLException e) {
-                    sqlExceptionHappened = true;
-                    throw new CatalogException(
-                            String.format("Failed get database properties in catalog %s", getName()), e);
-                }
+    @Override
+    public List<String> listDatabases() throws CatalogException {
+        return getCache().listDatabases();
+    }
 
-                return new CatalogDatabaseImpl(map, description);
-            } else {
-                throw new DatabaseNotExistException(getName(), databaseName);
-            }
-        } catch (SQLException e) {
-            sqlExceptionHappened = true;
-            throw new CatalogException(String.format("Failed get database in catalog %s", getName()), e);
+    @Override
+    public CatalogDatabase getDatabase(String databaseName) throws DatabaseNotExistException, CatalogException {
+        DinkyMysqlCatalogCache.DatabaseEntry database = getCache().getDatabase(databaseName);
+        if (database == null) {
+            throw new DatabaseNotExistException(getName(), databaseName);
         }
+        return new CatalogDatabaseImpl(new HashMap<>(database.properties), database.description);
     }
 
     @Override
@@ -294,26 +294,8 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
     }
 
     private Integer getDatabaseId(String databaseName) throws CatalogException {
-        String querySql = "select id from metadata_database where database_name=?";
-        Connection conn = getConnection();
-        try (PreparedStatement ps = conn.prepareStatement(querySql)) {
-            ps.setString(1, databaseName);
-            ResultSet rs = ps.executeQuery();
-            boolean multiDB = false;
-            Integer id = null;
-            while (rs.next()) {
-                if (!multiDB) {
-                    id = rs.getInt(1);
-                    multiDB = true;
-                } else {
-                    throw new CatalogException("存在多个同名database: " + databaseName);
-                }
-            }
-            return id;
-        } catch (SQLException e) {
-            sqlExceptionHappened = true;
-            throw new CatalogException(String.format("获取 database 信息失败：%s.%s", getName(), databaseName), e);
-        }
+        DinkyMysqlCatalogCache.DatabaseEntry database = getCache().getDatabase(databaseName);
+        return database == null ? null : database.id;
     }
 
     @Override
@@ -359,6 +341,7 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
                 sqlExceptionHappened = true;
                 logger.error("创建 database 信息失败：", e);
             }
+            invalidateCache();
         }
     }
 
@@ -407,6 +390,7 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             dStat.executeUpdate();
             dStat.close();
             conn.commit();
+            invalidateCache();
         } catch (SQLException e) {
             sqlExceptionHappened = true;
             throw new CatalogException("删除 database 信息失败：", e);
@@ -453,6 +437,7 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
                 pstat.executeBatch();
             }
             conn.commit();
+            invalidateCache();
         } catch (SQLException e) {
             sqlExceptionHappened = true;
             throw new CatalogException("修改 database 信息失败：", e);
@@ -471,125 +456,59 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
 
     protected List<String> listTablesViews(String databaseName, String tableType)
             throws DatabaseNotExistException, CatalogException {
-        Integer databaseId = getDatabaseId(databaseName);
-        if (null == databaseId) {
+        DinkyMysqlCatalogCache.DatabaseEntry database = getCache().getDatabase(databaseName);
+        if (null == database) {
             throw new DatabaseNotExistException(getName(), databaseName);
         }
 
-        // get all schemas
         // 要给出table 或 view
-        String querySql = "SELECT table_name FROM metadata_table where table_type=? and database_id = ?";
-        Connection conn = getConnection();
-        try (PreparedStatement ps = conn.prepareStatement(querySql)) {
-            ps.setString(1, tableType);
-            ps.setInt(2, databaseId);
-            ResultSet rs = ps.executeQuery();
-
-            List<String> tables = new ArrayList<>();
-
-            while (rs.next()) {
-                String table = rs.getString(1);
-                tables.add(table);
+        List<String> tables = new ArrayList<>();
+        for (DinkyMysqlCatalogCache.TableEntry table : database.tables.values()) {
+            if (tableType.equals(table.type)) {
+                tables.add(table.name);
             }
-            return tables;
-        } catch (Exception e) {
-            throw new CatalogException(String.format("Failed listing %s in catalog %s", tableType, getName()), e);
         }
+        return tables;
     }
 
     @Override
     public CatalogBaseTable getTable(ObjectPath tablePath) throws TableNotExistException, CatalogException {
-        // 还是分步骤来
-        // 1、先取出表 这可能是view也可能是table
-        // 2、取出列
-        // 3、取出属性
-        Integer id = getTableId(tablePath);
-
-        if (id == null) {
+        // 表、列和属性都从缓存中取出
+        DinkyMysqlCatalogCache.TableEntry table = getCache().getTable(tablePath);
+        if (table == null) {
             throw new TableNotExistException(getName(), tablePath);
         }
-
-        Connection conn = getConnection();
-        try {
-            String queryTable =
-                    "SELECT table_name " + " ,description, table_type " + " FROM metadata_table " + " where  id=?";
-            PreparedStatement ps = conn.prepareStatement(queryTable);
-            ps.setInt(1, id);
-            ResultSet rs = ps.executeQuery();
-            String description;
-            String tableType;
-            if (rs.next()) {
-                description = rs.getString("description");
-                tableType = rs.getString("table_type");
-                ps.close();
-            } else {
-                ps.close();
-                throw new TableNotExistException(getName(), tablePath);
-            }
-            if (tableType.equals(ObjectType.TABLE)) {
-                // 这个是 table
-                String propSql = "SELECT `key`, `value` from metadata_table_property " + "WHERE table_id=?";
-                PreparedStatement pState = conn.prepareStatement(propSql);
-                pState.setInt(1, id);
-                ResultSet prs = pState.executeQuery();
-                Map<String, String> props = new HashMap<>();
-                while (prs.next()) {
-                    String key = prs.getString("key");
-                    String value = prs.getString("value");
-                    props.put(key, value);
+        if (ObjectType.TABLE.equals(table.type)) {
+            // 这个是 table
+            Map<String, String> props = new HashMap<>(table.properties);
+            props.put(COMMENT, table.description);
+            return CatalogTable.fromProperties(props);
+        } else if (ObjectType.VIEW.equals(table.type)) {
+            // 1、取出字段。
+            Schema.Builder builder = Schema.newBuilder();
+            for (DinkyMysqlCatalogCache.ColumnEntry column : table.columns) {
+                builder.column(column.name, column.dataType);
+                if (null != column.description && column.description.length() > 0) {
+                    builder.withComment(column.description);
                 }
-                pState.close();
-                props.put(COMMENT, description);
-                return CatalogTable.fromProperties(props);
-            } else if (tableType.equals(ObjectType.VIEW)) {
-                // 1、从库中取出table信息。（前面已做）
-                // 2、取出字段。
-                String colSql = "SELECT column_name, column_type, data_type, description "
-                        + " FROM metadata_column WHERE "
-                        + " table_id=?";
-                PreparedStatement cStat = conn.prepareStatement(colSql);
-                cStat.setInt(1, id);
-                ResultSet crs = cStat.executeQuery();
-
-                Schema.Builder builder = Schema.newBuilder();
-                while (crs.next()) {
-                    String colName = crs.getString("column_name");
-                    String dataType = crs.getString("data_type");
-
-                    builder.column(colName, dataType);
-                    String cDesc = crs.getString("description");
-                    if (null != cDesc && cDesc.length() > 0) {
-                        builder.withComment(cDesc);
-                    }
-                }
-                cStat.close();
-                // 3、取出query
-                String qSql = "SELECT `key`, value FROM metadata_table_property" + " WHERE table_id=? ";
-                PreparedStatement qStat = conn.prepareStatement(qSql);
-                qStat.setInt(1, id);
-                ResultSet qrs = qStat.executeQuery();
-                String originalQuery = "";
-                String expandedQuery = "";
-                Map<String, String> options = new HashMap<>();
-                while (qrs.next()) {
-                    String key = qrs.getString("key");
-                    String value = qrs.getString("value");
-                    if ("OriginalQuery".equals(key)) {
-                        originalQuery = value;
-                    } else if ("ExpandedQuery".equals(key)) {
-                        expandedQuery = value;
-                    } else {
-                        options.put(key, value);
-                    }
+            }
+            // 2、取出query
+            String originalQuery = "";
+            String expandedQuery = "";
+            Map<String, String> options = new HashMap<>();
+            for (Map.Entry<String, String> entry : table.properties.entrySet()) {
+                if ("OriginalQuery".equals(entry.getKey())) {
+                    originalQuery = entry.getValue();
+                } else if ("ExpandedQuery".equals(entry.getKey())) {
+                    expandedQuery = entry.getValue();
+                } else {
+                    options.put(entry.getKey(), entry.getValue());
                 }
-                // 合成view
-                return CatalogView.of(builder.build(), description, originalQuery, expandedQuery, options);
-            } else {
-                throw new CatalogException("不支持的数据类型。" + tableType);
             }
-        } catch (SQLException e) {
-            sqlExceptionHappened = true;
-            throw new CatalogException("获取 表信息失败。", e);
+            // 合成view
+            return CatalogView.of(builder.build(), table.description, originalQuery, expandedQuery, options);
+        } else {
+            throw new CatalogException("不支持的数据类型。" + table.type);
         }
     }
 
@@ -600,26 +519,8 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
     }
 
     private Integer getTableId(ObjectPath tablePath) {
-        Integer dbId = getDatabaseId(tablePath.getDatabaseName());
-        if (dbId == null) {
-            return null;
-        }
-        // 获取id
-        String getIdSql = "select id from metadata_table " + " where table_name=? and database_id=?";
-        Connection conn = getConnection();
-        try (PreparedStatement gStat = conn.prepareStatement(getIdSql)) {
-            gStat.setString(1, tablePath.getObjectName());
-            gStat.setInt(2, dbId);
-            ResultSet rs = gStat.executeQuery();
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
-        } catch (SQLException e) {
-            sqlExceptionHappened = true;
-            logger.error("get table fail", e);
-            throw new CatalogException("get table fail.", e);
-        }
-        return null;
+        DinkyMysqlCatalogCache.TableEntry table = getCache().getTable(tablePath);
+        return table == null ? null : table.id;
     }
 
     @Override
@@ -650,6 +551,7 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             dStat.executeUpdate();
             dStat.close();
             conn.commit();
+            updateCache(c -> c.removeTable(tablePath));
         } catch (SQLException e) {
             sqlExceptionHappened = true;
             logger.error("drop table fail", e);
@@ -672,9 +574,18 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
         String updateSql = "UPDATE metadata_table SET table_name=? WHERE id=?";
         Connection conn = getConnection();
         try (PreparedStatement ps = conn.prepareStatement(updateSql)) {
+            conn.setAutoCommit(false);
             ps.setString(1, newTableName);
             ps.setInt(2, id);
             ps.executeUpdate();
+            conn.commit();
+            updateCache(c -> {
+                DinkyMysqlCatalogCache.TableEntry table = c.getTable(tablePath);
+                if (table != null) {
+                    c.removeTable(tablePath);
+                    c.putTable(tablePath.getDatabaseName(), table.rename(newTableName));
+                }
+            });
         } catch (SQLException ex) {
             sqlExceptionHappened = true;
             throw new CatalogException("修改表名失败", ex);
@@ -726,10 +637,13 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             }
             int id = idRs.getInt(1);
             iStat.close();
+            DinkyMysqlCatalogCache.TableEntry cachedTable = new DinkyMysqlCatalogCache.TableEntry(
+                    id, tablePath.getObjectName(), kind.toString(), table.getComment());
             // 插入属性和列
             if (table instanceof ResolvedCatalogTable) {
                 // table 就可以直接拿properties了。
                 Map<String, String> props = ((ResolvedCatalogTable) table).toProperties();
+                cachedTable.properties.putAll(props);
                 String propInsertSql =
                         "insert into metadata_table_property(table_id," + "`key`,`value`) values (?,?,?)";
                 PreparedStatement pStat = conn.prepareStatement(propInsertSql);
@@ -777,6 +691,10 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
                             colIStat.setInt(6, id);
                             colIStat.setObject(7, null); // view没有主键
                             colIStat.addBatch();
+                            cachedTable.columns.add(new DinkyMysqlCatalogCache.ColumnEntry(
+                                    pCol.getName(),
+                                    dataType.getLogicalType().asSerializableString(),
+                                    pCol.getComment().orElse("")));
                         } else {
                             throw new UnsupportedOperationException("暂时认为view 不会出现 非物理字段");
                         }
@@ -791,6 +709,7 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
                     }
                     option.put("OriginalQuery", view.getOriginalQuery());
                     option.put("ExpandedQuery", view.getExpandedQuery());
+                    cachedTable.properties.putAll(option);
                     String propInsertSql =
                             "insert into metadata_table_property(table_id," + "`key`,`value`) values (?,?,?)";
                     PreparedStatement pStat = conn.prepareStatement(propInsertSql);
@@ -805,6 +724,7 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
                 }
             }
             conn.commit();
+            updateCache(c -> c.putTable(tablePath.getDatabaseName(), cachedTable));
         } catch (SQLException ex) {
             sqlExceptionHappened = true;
             logger.error("插入数据库失败", ex);
@@ -828,6 +748,7 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
                     + "on duplicate key update `value` =?, update_time = sysdate()";
             Connection conn = getConnection();
             try (PreparedStatement ps = conn.prepareStatement(updateSql)) {
+                conn.setAutoCommit(false);
                 for (Map.Entry<String, String> entry : opts.entrySet()) {
                     ps.setInt(1, id);
                     ps.setString(2, entry.getKey());
@@ -836,6 +757,13 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
                     ps.addBatch();
                 }
                 ps.executeBatch();
+                conn.commit();
+                updateCache(c -> {
+                    DinkyMysqlCatalogCache.TableEntry table = c.getTable(tablePath);
+                    if (table != null) {
+                        c.putTable(tablePath.getDatabaseName(), table.withProperties(opts));
+                    }
+                });
             } catch (SQLException ex) {
                 sqlExceptionHappened = true;
                 throw new CatalogException("修改表名失败", ex);
@@ -20,6 +20,7 @@
 package org.dinky.cdc;
 
 import org.dinky.assertion.Asserts;
+import org.dinky.cdc.debezium.DebeziumRowDecoder;
 import org.dinky.cdc.utils.FlinkStatementUtil;
 import org.dinky.data.model.Column;
 import org.dinky.data.model.FlinkCDCConfig;
@@ -31,6 +32,8 @@ import org.dinky.utils.JsonUtils;
 import org.apache.flink.api.common.functions.FilterFunction;
 import org.apache.flink.api.common.functions.FlatMapFunction;
 import org.apache.flink.api.common.functions.MapFunction;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.common.typeinfo.Types;
 import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.streaming.api.datastream.DataStreamSource;
@@ -153,14 +156,28 @@ public abstract class AbstractSinkBuilder implements SinkBuilder {
         });
     }
 
-    protected DataStream<Map> shunt(SingleOutputStreamOperator<Map> processOperator, Table table, OutputTag<Map> tag) {
+    /**
+     * Dispatches every record once through the given router, the records of a table are then read from the
+     * side output registered for it, see {@link #shunt(SingleOutputStreamOperator, Table, OutputTag)}.
+     */
+    protected <I, T> SingleOutputStreamOperator<T> route(
+            DataStream<I> dataStream, TableRouter<I, T> router, TypeInformation<T> typeInformation) {
+        return dataStream.process(router, typeInformation).name("TableRouter(" + router.size() + ")");
+    }
+
+    protected SingleOutputStreamOperator<Map> route(
+            SingleOutputStreamOperator<Map> mapOperator, TableRouter<Map, Map> router) {
+        return route(mapOperator, router, TypeInformation.of(Map.class));
+    }
+
+    protected <T> DataStream<T> shunt(SingleOutputStreamOperator<T> processOperator, Table table, OutputTag<T> tag) {
         processOperator.forward();
         return processOperator.getSideOutput(tag).forward();
     }
 
     @SuppressWarnings("rawtypes")
     protected DataStream<RowData> buildRowData(
-            SingleOutputStreamOperator<Map> filterOperator,
+            DataStream<Map> filterOperator,
             List<String> columnNameList,
             List<LogicalType> columnTypeList,
             String schemaTableName) {
@@ -199,6 +216,41 @@ public abstract class AbstractSinkBuilder implements SinkBuilder {
         };
     }
 
+    /**
+     * Decodes the raw debezium json of one table straight into {@link RowData}, without the intermediate
+     * {@link Map} of {@link #buildRowData(DataStream, List, List, String)}.
+     */
+    protected DataStream<RowData> decodeRowData(
+            DataStream<String> routeOperator,
+            List<String> columnNameList,
+            List<LogicalType> columnTypeList,
+            String schemaTableName) {
+        return routeOperator
+                .flatMap(sinkRowDataDecodeFunction(columnNameList, columnTypeList, schemaTableName))
+                .returns(RowData.class);
+    }
+
+    protected FlatMapFunction<String, RowData> sinkRowDataDecodeFunction(
+            List<String> columnNameList, List<LogicalType> columnTypeList, String schemaTableName) {
+        return new FlatMapFunction<String, RowData>() {
+            // compiled on the task side, the bound converters refer to the deserialized builder
+            private transient DebeziumRowDecoder decoder;
+
+            @Override
+            public void flatMap(String value, Collector<RowData> out) throws Exception {
+                if (decoder == null) {
+                    decoder = new DebeziumRowDecoder(columnNameList, columnTypeList, typeConverterList, objectMapper);
+                }
+                try {
+                    decoder.decode(value, out);
+                } catch (Exception e) {
+                    logger.error("SchemaTable: {} - Row: {} - Exception: {}", schemaTableName, value, e.toString());
+                    throw e;
+                }
+            }
+        };
+    }
+
     @SuppressWarnings("rawtypes")
     protected void rowDataCollect(
             List<String> columnNameList,
@@ -289,7 +341,9 @@ public abstract class AbstractSinkBuilder implements SinkBuilder {
         final String schemaFieldName = config.getSchemaFieldName();
 
         if (Asserts.isNotNullCollection(schemaList)) {
-            SingleOutputStreamOperator<Map> mapOperator = deserialize(dataStreamSource);
+            TableRouter<String, String> router =
+                    new TableRouter<>(DebeziumRowDecoder.schemaTableKey(schemaFieldName), TableRouter.identity());
+            Map<Table, OutputTag<String>> tagMap = new LinkedHashMap<>();
             for (Schema schema : schemaList) {
                 if (Asserts.isNullCollection(schema.getTables())) {
                     // if schema tables is empty, throw exception
@@ -301,19 +355,25 @@ public abstract class AbstractSinkBuilder implements SinkBuilder {
                         .sorted(Comparator.comparing(Table::getName))
                         .collect(Collectors.toList());
                 for (Table table : tableList) {
-                    SingleOutputStreamOperator<Map> filterOperator = shunt(mapOperator, table, schemaFieldName);
+                    String schemaTableName = table.getSchemaTableName();
+                    tagMap.put(table, router.route(schemaTableName, TableRouter.stringOutputTag(schemaTableName)));
+                }
+            }
 
-                    List<String> columnNameList = new ArrayList<>();
-                    List<LogicalType> columnTypeList = new ArrayList<>();
+            SingleOutputStreamOperator<String> routeOperator = route(dataStreamSource, router, Types.STRING);
+            tagMap.forEach((table, tag) -> {
+                DataStream<String> filterOperator = shunt(routeOperator, table, tag);
 
-                    buildColumn(columnNameList, columnTypeList, table.getColumns());
+                List<String> columnNameList = new ArrayList<>();
+                List<LogicalType> columnTypeList = new ArrayList<>();
 
-                    DataStream<RowData> rowDataDataStream =
-                            buildRowData(filterOperator, columnNameList, columnTypeList, table.getSchemaTableName());
+                buildColumn(columnNameList, columnTypeList, table.getColumns());
 
-                    addSink(env, rowDataDataStream, table, columnNameList, columnTypeList);
-                }
-            }
+                DataStream<RowData> rowDataDataStream =
+                        decodeRowData(filterOperator, columnNameList, columnTypeList, table.getSchemaTableName());
+
+                addSink(env, rowDataDataStream, table, columnNameList, columnTypeList);
+            });
         }
         return dataStreamSource;
     }
@@ -0,0 +1,118 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc;
+
+import org.apache.flink.streaming.api.functions.ProcessFunction;
+import org.apache.flink.util.Collector;
+import org.apache.flink.util.OutputTag;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Dispatches every change record of a whole database sync exactly once. The route key of a record is
+ * resolved from its debezium {@code source} block and looked up in a hash map of side outputs, so the
+ * cost per record stays constant no matter how many tables are synchronized. Records that match no
+ * route, or whose key can not be resolved, are emitted to the main output.
+ *
+ * @param <I> type of the change records, a deserialized {@link Map} or the raw debezium json
+ * @param <T> type of the records written to the side outputs
+ */
+@SuppressWarnings("rawtypes")
+public class TableRouter<I, T> extends ProcessFunction<I, T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger logger = LoggerFactory.getLogger(TableRouter.class);
+
+    private final Map<String, OutputTag<T>> routes = new HashMap<>();
+    private final RouteKeySelector<I> keySelector;
+    private final RecordConverter<I, T> converter;
+
+    public TableRouter(RouteKeySelector<I> keySelector, RecordConverter<I, T> converter) {
+        this.keySelector = keySelector;
+        this.converter = converter;
+    }
+
+    /** Registers the side output of a table, the key must be what the {@link RouteKeySelector} yields. */
+    public OutputTag<T> route(String key, OutputTag<T> outputTag) {
+        routes.put(key, outputTag);
+        return outputTag;
+    }
+
+    public int size() {
+        return routes.size();
+    }
+
+    @Override
+    public void processElement(I value, ProcessFunction<I, T>.Context ctx, Collector<T> out) throws Exception {
+        OutputTag<T> outputTag = null;
+        try {
+            String key = keySelector.getKey(value);
+            if (key != null) {
+                outputTag = routes.get(key);
+            }
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+        }
+        T record = converter.convert(value);
+        if (outputTag == null) {
+            out.collect(record);
+        } else {
+            ctx.output(outputTag, record);
+        }
+    }
+
+    /** Route key of {@code schema.table}, the same form as {@link org.dinky.data.model.Table#getSchemaTableName()}. */
+    public static RouteKeySelector<Map> schemaTableKey(String schemaFieldName) {
+        return value -> {
+            Map source = (Map) value.get("source");
+            if (source == null) {
+                return null;
+            }
+            Object schema = source.get(schemaFieldName);
+            Object table = source.get("table");
+            return schema == null ? String.valueOf(table) : schema + "." + table;
+        };
+    }
+
+    /** Side output of raw debezium json records, created in a static context so it does not capture a sink builder. */
+    public static OutputTag<String> stringOutputTag(String id) {
+        return new OutputTag<String>(id) {};
+    }
+
+    public static <I> RecordConverter<I, I> identity() {
+        return value -> value;
+    }
+
+    @FunctionalInterface
+    public interface RouteKeySelector<I> extends Serializable {
+        String getKey(I value) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface RecordConverter<I, T> extends Serializable {
+        T convert(I value) throws Exception;
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc.debezium;
+
+import org.dinky.cdc.AbstractSinkBuilder.ConvertType;
+import org.dinky.cdc.TableRouter;
+
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.core.JsonFactory;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.core.JsonParser;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.core.JsonToken;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.types.RowKind;
+import org.apache.flink.util.Collector;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Decodes debezium json change records of one table straight into {@link RowData}. The field plan is
+ * compiled once from the table columns: the {@code before} and {@code after} payloads are stream parsed
+ * and every value is written to its column position through the converter bound to that column, so no
+ * intermediate {@link Map} is built and {@code typeConverterList} is only walked once per column.
+ *
+ * <p>Converters are bound on the first non null value of a column. That relies on every {@link
+ * ConvertType} deciding whether it applies from the {@link LogicalType} alone, as all of them do.
+ */
+public class DebeziumRowDecoder {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final String[] columnNames;
+    private final LogicalType[] columnTypes;
+    private final Map<String, Integer> columnIndex = new HashMap<>();
+    private final List<ConvertType> typeConverterList;
+    private final ConvertType[] converters;
+    private final boolean[] bound;
+    private final ObjectMapper objectMapper;
+
+    public DebeziumRowDecoder(
+            List<String> columnNameList,
+            List<LogicalType> columnTypeList,
+            List<ConvertType> typeConverterList,
+            ObjectMapper objectMapper) {
+        this.columnNames = columnNameList.toArray(new String[0]);
+        this.columnTypes = columnTypeList.toArray(new LogicalType[0]);
+        for (int i = 0; i < columnNames.length; i++) {
+            columnIndex.put(columnNames[i], i);
+        }
+        this.typeConverterList = typeConverterList;
+        this.converters = new ConvertType[columnNames.length];
+        this.bound = new boolean[columnNames.length];
+        this.objectMapper = objectMapper;
+    }
+
+    public void decode(String json, Collector<RowData> out) throws IOException {
+        Object[] before = null;
+        Object[] after = null;
+        String op = null;
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Debezium record is not a json object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                switch (name) {
+                    case "before":
+                        before = readRow(parser, token);
+                        break;
+                    case "after":
+                        after = readRow(parser, token);
+                        break;
+                    case "op":
+                        op = parser.getValueAsString();
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+        if (op == null) {
+            return;
+        }
+        switch (op) {
+            case "r":
+            case "c":
+                collect(RowKind.INSERT, after, out);
+                break;
+            case "d":
+                collect(RowKind.DELETE, before, out);
+                break;
+            case "u":
+                collect(RowKind.UPDATE_BEFORE, before, out);
+                collect(RowKind.UPDATE_AFTER, after, out);
+                break;
+            default:
+        }
+    }
+
+    private void collect(RowKind rowKind, Object[] fields, Collector<RowData> out) {
+        if (fields == null) {
+            throw new IllegalStateException("Debezium record has no row image for " + rowKind);
+        }
+        out.collect(GenericRowData.ofKind(rowKind, fields));
+    }
+
+    private Object[] readRow(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new IOException("Debezium row image is not a json object");
+        }
+        Object[] fields = new Object[columnNames.length];
+        int expected = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken valueToken = parser.nextToken();
+            // debezium writes the fields in column order, so the positional guess almost always hits
+            int index;
+            if (expected < columnNames.length && columnNames[expected].equals(name)) {
+                index = expected;
+            } else {
+                Integer found = columnIndex.get(name);
+                if (found == null) {
+                    parser.skipChildren();
+                    continue;
+                }
+                index = found;
+            }
+            expected = index + 1;
+            fields[index] = convert(index, readValue(parser, valueToken));
+        }
+        return fields;
+    }
+
+    private Object readValue(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getNumberValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_EMBEDDED_OBJECT:
+                return parser.getEmbeddedObject();
+            default:
+                // nested structures keep the shape the map based path gave them
+                return objectMapper.readValue(parser, Object.class);
+        }
+    }
+
+    private Object convert(int index, Object value) {
+        if (value == null) {
+            return null;
+        }
+        ConvertType converter = converters[index];
+        if (converter != null) {
+            return converter.convert(value, columnTypes[index]).orElse(value);
+        }
+        if (bound[index]) {
+            return value;
+        }
+        bound[index] = true;
+        for (ConvertType convertType : typeConverterList) {
+            Optional<Object> result = convertType.convert(value, columnTypes[index]);
+            if (result.isPresent()) {
+                converters[index] = convertType;
+                return result.get();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Route key of a raw debezium json record, in the form of {@link TableRouter#schemaTableKey(String)}.
+     * Only the {@code source} block is read, the row images are skipped without being materialized.
+     */
+    public static TableRouter.RouteKeySelector<String> schemaTableKey(String schemaFieldName) {
+        return json -> {
+            try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    return null;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.getCurrentName();
+                    JsonToken token = parser.nextToken();
+                    if (!"source".equals(name) || token != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    String schema = null;
+                    String table = null;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String field = parser.getCurrentName();
+                        parser.nextToken();
+                        if (schemaFieldName.equals(field)) {
+                            schema = parser.getValueAsString();
+                        } else if ("table".equals(field)) {
+                            table = parser.getValueAsString();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    return schema == null ? table : schema + "." + table;
+                }
+                return null;
+            }
+        };
+    }
+}
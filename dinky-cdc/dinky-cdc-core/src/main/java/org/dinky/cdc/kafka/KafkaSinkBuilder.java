@@ -42,12 +42,14 @@ import org.dinky.assertion.Asserts;
 import org.dinky.cdc.AbstractSinkBuilder;
 import org.dinky.cdc.CDCBuilder;
 import org.dinky.cdc.SinkBuilder;
+import org.dinky.cdc.TableRouter;
 import org.dinky.data.model.FlinkCDCConfig;
 import org.dinky.data.model.Schema;
 import org.dinky.data.model.Table;
 import org.dinky.executor.CustomTableEnvironment;
 
 import org.apache.flink.api.common.serialization.SimpleStringSchema;
+import org.apache.flink.api.common.typeinfo.Types;
 import org.apache.flink.connector.base.DeliveryGuarantee;
 import org.apache.flink.connector.kafka.sink.KafkaRecordSerializationSchema;
 import org.apache.flink.connector.kafka.sink.KafkaSink;
@@ -56,10 +58,8 @@ import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.streaming.api.datastream.DataStreamSource;
 import org.apache.flink.streaming.api.datastream.SingleOutputStreamOperator;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
-import org.apache.flink.streaming.api.functions.ProcessFunction;
 import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.types.logical.LogicalType;
-import org.apache.flink.util.Collector;
 import org.apache.flink.util.OutputTag;
 
 import java.io.Serializable;
@@ -130,7 +130,6 @@ public class KafkaSinkBuilder extends AbstractSinkBuilder implements Serializabl
             dataStreamSource.sinkTo(kafkaSink);
         } else {
             Map<Table, OutputTag<String>> tagMap = new LinkedHashMap<>();
-            Map<String, Table> tableMap = new LinkedHashMap<>();
             ObjectMapper objectMapper = new ObjectMapper();
             SingleOutputStreamOperator<Map> mapOperator = dataStreamSource
                     .map(x -> objectMapper.readValue(x, Map.class))
@@ -138,6 +137,8 @@ public class KafkaSinkBuilder extends AbstractSinkBuilder implements Serializabl
             final List<Schema> schemaList = config.getSchemaList();
 
             final String schemaFieldName = config.getSchemaFieldName();
+            TableRouter<Map, String> router =
+                    new TableRouter<>(TableRouter.schemaTableKey(schemaFieldName), objectMapper::writeValueAsString);
             if (Asserts.isNotNullCollection(schemaList)) {
                 for (Schema schema : schemaList) {
                     if (Asserts.isNullCollection(schema.getTables())) {
@@ -152,28 +153,10 @@ public class KafkaSinkBuilder extends AbstractSinkBuilder implements Serializabl
                     for (Table table : tableList) {
                         String sinkTableName = getSinkTableName(table);
                         OutputTag<String> outputTag = new OutputTag<String>(sinkTableName) {};
-                        tagMap.put(table, outputTag);
-                        tableMap.put(table.getSchemaTableName(), table);
+                        tagMap.put(table, router.route(table.getSchemaTableName(), outputTag));
                     }
                 }
-                SingleOutputStreamOperator<String> process = mapOperator.process(new ProcessFunction<Map, String>() {
-
-                    @Override
-                    public void processElement(Map map, ProcessFunction<Map, String>.Context ctx, Collector<String> out)
-                            throws Exception {
-                        LinkedHashMap source = (LinkedHashMap) map.get("source");
-                        try {
-                            String result = objectMapper.writeValueAsString(map);
-                            Table table =
-                                    tableMap.get(source.get(schemaFieldName).toString() + "."
-                                            + source.get("table").toString());
-                            OutputTag<String> outputTag = tagMap.get(table);
-                            ctx.output(outputTag, result);
-                        } catch (Exception e) {
-                            out.collect(objectMapper.writeValueAsString(map));
-                        }
-                    }
-                });
+                SingleOutputStreamOperator<String> process = route(mapOperator, router, Types.STRING);
                 tagMap.forEach((k, v) -> {
                     String topic = getSinkTableName(k);
                     org.apache.flink.connector.kafka.sink.KafkaSinkBuilder<String> kafkaSinkBuilder =
@@ -22,6 +22,7 @@ package org.dinky.cdc.sql;
 import org.dinky.assertion.Asserts;
 import org.dinky.cdc.AbstractSinkBuilder;
 import org.dinky.cdc.CDCBuilder;
+import org.dinky.cdc.TableRouter;
 import org.dinky.data.model.FlinkCDCConfig;
 import org.dinky.data.model.Schema;
 import org.dinky.data.model.Table;
@@ -38,7 +39,6 @@ import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.streaming.api.datastream.DataStreamSource;
 import org.apache.flink.streaming.api.datastream.SingleOutputStreamOperator;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
-import org.apache.flink.streaming.api.functions.ProcessFunction;
 import org.apache.flink.table.types.logical.DecimalType;
 import org.apache.flink.table.types.logical.LogicalType;
 import org.apache.flink.table.types.utils.TypeConversions;
@@ -169,20 +169,11 @@ public abstract class AbstractSqlSinkBuilder extends AbstractSinkBuilder impleme
                 dataStreamSource.map(x -> objectMapper.readValue(x, Map.class)).returns(Map.class);
         Map<String, String> split = config.getSplit();
         partitionByTableAndPrimarykey(mapOperator, tableMap);
-        return mapOperator.process(new ProcessFunction<Map, Map>() {
-            @Override
-            public void processElement(Map map, ProcessFunction<Map, Map>.Context ctx, Collector<Map> out) {
-                LinkedHashMap source = (LinkedHashMap) map.get("source");
-                try {
-                    String tableName = createTableName(source, schemaFieldName, split);
-                    OutputTag<Map> outputTag = tagMap.get(tableMap.get(tableName));
-                    ctx.output(outputTag, map);
-                } catch (Exception e) {
-                    logger.error(e.getMessage(), e);
-                    out.collect(map);
-                }
-            }
-        });
+        TableRouter<Map, Map> router = new TableRouter<>(
+                value -> createTableName((LinkedHashMap) value.get("source"), schemaFieldName, split),
+                TableRouter.identity());
+        tagMap.forEach((table, tag) -> router.route(table.getSchemaTableName(), tag));
+        return route(mapOperator, router);
     }
 
     protected abstract void addTableSink(
@@ -0,0 +1,124 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc;
+
+import org.apache.flink.api.common.functions.FlatMapFunction;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.BooleanType;
+import org.apache.flink.table.types.logical.DecimalType;
+import org.apache.flink.table.types.logical.DoubleType;
+import org.apache.flink.table.types.logical.IntType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.TimestampType;
+import org.apache.flink.table.types.logical.VarCharType;
+import org.apache.flink.util.Collector;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Compares the Debezium Row Decoder with the map based path it replaces, on the same records.
+ *
+ * <p>Not part of the default test run, the class name does not match the surefire includes. Run it with {@code mvn
+ * test -pl dinky-cdc/dinky-cdc-core -Dtest=DebeziumRowDecoderBenchmark}.
+ */
+@SuppressWarnings("rawtypes")
+public class DebeziumRowDecoderBenchmark {
+
+    private static final List<String> COLUMNS =
+            Arrays.asList("id", "user_id", "name", "amount", "ratio", "created", "paid");
+    private static final List<LogicalType> TYPES = Arrays.asList(
+            new IntType(),
+            new BigIntType(),
+            new VarCharType(),
+            new DecimalType(10, 2),
+            new DoubleType(),
+            new TimestampType(3),
+            new BooleanType());
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TestSinkBuilder sinkBuilder = new TestSinkBuilder();
+
+    /** Decodes the same records through the map based path and through the decoder. */
+    @Test
+    public void benchmarkMapPathAgainstDecoder() throws Exception {
+        String[] records = new String[1024];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = i % 4 == 0
+                    ? record("u", row(i, "name_" + i), row(i, "name_" + (i + 1)))
+                    : record("c", null, row(i, "name_" + i));
+        }
+        FlatMapFunction<Map, RowData> mapFunction = sinkBuilder.sinkRowDataFunction(COLUMNS, TYPES, "shop.orders");
+        FlatMapFunction<String, RowData> decodeFunction =
+                sinkBuilder.sinkRowDataDecodeFunction(COLUMNS, TYPES, "shop.orders");
+        CountingCollector out = new CountingCollector();
+
+        int events = 100_000;
+        long mapNanos = Long.MAX_VALUE;
+        long decodeNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < events; i++) {
+                mapFunction.flatMap(objectMapper.readValue(records[i & (records.length - 1)], Map.class), out);
+            }
+            mapNanos = Math.min(mapNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int i = 0; i < events; i++) {
+                decodeFunction.flatMap(records[i & (records.length - 1)], out);
+            }
+            decodeNanos = Math.min(decodeNanos, System.nanoTime() - start);
+        }
+        double ratio = (double) mapNanos / decodeNanos;
+        System.out.printf(
+                "map=%.0f events/s decode=%.0f events/s speedup=%.1fx%n",
+                events * 1e9 / mapNanos, events * 1e9 / decodeNanos, ratio);
+        Assert.assertTrue("decoder should beat the map path, speedup " + ratio, ratio > 1);
+    }
+
+    private static String row(int id, String name) {
+        return "{\"id\":" + id + ",\"user_id\":" + (id * 1000L) + ",\"name\":\"" + name + "\",\"amount\":\"" + id
+                + ".50\",\"ratio\":0." + id + ",\"created\":1688946316123,\"paid\":true}";
+    }
+
+    private static String record(String op, String before, String after) {
+        return "{\"before\":" + before + ",\"after\":" + after
+                + ",\"source\":{\"version\":\"1.9.7.Final\",\"connector\":\"mysql\",\"db\":\"shop\",\"table\":\"orders\"},"
+                + "\"op\":\"" + op + "\",\"ts_ms\":1688946316123}";
+    }
+
+    private static class CountingCollector implements Collector<RowData> {
+        private long count;
+
+        @Override
+        public void collect(RowData record) {
+            count++;
+        }
+
+        @Override
+        public void close() {}
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc;
+
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.BooleanType;
+import org.apache.flink.table.types.logical.DecimalType;
+import org.apache.flink.table.types.logical.DoubleType;
+import org.apache.flink.table.types.logical.IntType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.TimestampType;
+import org.apache.flink.table.types.logical.VarCharType;
+import org.apache.flink.types.RowKind;
+import org.apache.flink.util.Collector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** test Debezium Row Decoder, it must produce the same rows as the map based path. */
+@SuppressWarnings("rawtypes")
+public class DebeziumRowDecoderTest {
+
+    private static final List<String> COLUMNS =
+            Arrays.asList("id", "user_id", "name", "amount", "ratio", "created", "paid");
+    private static final List<LogicalType> TYPES = Arrays.asList(
+            new IntType(),
+            new BigIntType(),
+            new VarCharType(),
+            new DecimalType(10, 2),
+            new DoubleType(),
+            new TimestampType(3),
+            new BooleanType());
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TestSinkBuilder sinkBuilder = new TestSinkBuilder();
+
+    @Test
+    public void testDecodeMatchesMapPath() throws Exception {
+        String[] records = {
+            record("r", null, row(1, "alice")),
+            record("c", null, row(2, "bob")),
+            record("u", row(2, "bob"), row(2, "bobby")),
+            record("d", row(1, "alice"), null),
+            "{\"before\":null,\"after\":{\"paid\":false,\"name\":\"carol\",\"extra\":{\"a\":[1,2]},\"id\":3},"
+                    + "\"source\":{\"db\":\"shop\",\"table\":\"orders\"},\"op\":\"c\"}"
+        };
+        for (String record : records) {
+            Assert.assertEquals(record, decodeByMap(record), decode(record));
+        }
+    }
+
+    @Test
+    public void testUpdateEmitsBeforeAndAfter() throws Exception {
+        List<RowData> rows = decode(record("u", row(2, "bob"), row(2, "bobby")));
+        Assert.assertEquals(2, rows.size());
+        Assert.assertEquals(RowKind.UPDATE_BEFORE, rows.get(0).getRowKind());
+        Assert.assertEquals(RowKind.UPDATE_AFTER, rows.get(1).getRowKind());
+        Assert.assertEquals("bobby", rows.get(1).getString(2).toString());
+    }
+
+    private List<RowData> decodeByMap(String record) throws Exception {
+        List<RowData> rows = new ArrayList<>();
+        sinkBuilder
+                .sinkRowDataFunction(COLUMNS, TYPES, "shop.orders")
+                .flatMap(objectMapper.readValue(record, Map.class), new ListCollector(rows));
+        return rows;
+    }
+
+    private List<RowData> decode(String record) throws Exception {
+        List<RowData> rows = new ArrayList<>();
+        sinkBuilder.sinkRowDataDecodeFunction(COLUMNS, TYPES, "shop.orders").flatMap(record, new ListCollector(rows));
+        return rows;
+    }
+
+    private static String row(int id, String name) {
+        return "{\"id\":" + id + ",\"user_id\":" + (id * 1000L) + ",\"name\":\"" + name + "\",\"amount\":\"" + id
+                + ".50\",\"ratio\":0." + id + ",\"created\":1688946316123,\"paid\":true}";
+    }
+
+    private static String record(String op, String before, String after) {
+        return "{\"before\":" + before + ",\"after\":" + after
+                + ",\"source\":{\"version\":\"1.9.7.Final\",\"connector\":\"mysql\",\"db\":\"shop\",\"table\":\"orders\"},"
+                + "\"op\":\"" + op + "\",\"ts_ms\":1688946316123}";
+    }
+
+    private static class ListCollector implements Collector<RowData> {
+        private final List<RowData> rows;
+
+        ListCollector(List<RowData> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public void collect(RowData record) {
+            rows.add(record);
+        }
+
+        @Override
+        public void close() {}
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc;
+
+import org.apache.flink.api.common.functions.FilterFunction;
+import org.apache.flink.streaming.api.TimerService;
+import org.apache.flink.streaming.api.functions.ProcessFunction;
+import org.apache.flink.util.Collector;
+import org.apache.flink.util.OutputTag;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Compares the Table Router with the filter per table that shunt used to build, over a growing table count.
+ *
+ * <p>Not part of the default test run, the class name does not match the surefire includes. Run it with {@code mvn
+ * test -pl dinky-cdc/dinky-cdc-core -Dtest=TableRouterBenchmark}.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class TableRouterBenchmark {
+
+    private static final String SCHEMA_FIELD_NAME = "db";
+
+    /**
+     * Dispatches the same records through one filter per table, as shunt did, and through the router.
+     * The filters cost grows with the table count while the router stays flat.
+     */
+    @Test
+    public void benchmarkFilterPerTableAgainstRouter() throws Exception {
+        double ratio = 0;
+        for (int tableCount : new int[] {10, 100, 500}) {
+            List<FilterFunction<Map>> filters = new ArrayList<>();
+            TableRouter<Map, Map> router =
+                    new TableRouter<>(TableRouter.schemaTableKey(SCHEMA_FIELD_NAME), TableRouter.identity());
+            for (int i = 0; i < tableCount; i++) {
+                filters.add(filter("db", "table_" + i));
+                router.route("db.table_" + i, new OutputTag<Map>("db.table_" + i) {});
+            }
+            Map[] records = new Map[4096];
+            for (int i = 0; i < records.length; i++) {
+                records[i] = record("db", "table_" + (i % tableCount));
+            }
+
+            int events = 200_000;
+            long filterNanos = Long.MAX_VALUE;
+            long routerNanos = Long.MAX_VALUE;
+            for (int round = 0; round < 5; round++) {
+                filterNanos = Math.min(filterNanos, runFilters(filters, records, events));
+                routerNanos = Math.min(routerNanos, runRouter(router, records, events));
+            }
+            ratio = (double) filterNanos / routerNanos;
+            System.out.printf(
+                    "tables=%d filter=%.0f events/s router=%.0f events/s speedup=%.1fx%n",
+                    tableCount, events * 1e9 / filterNanos, events * 1e9 / routerNanos, ratio);
+        }
+        Assert.assertTrue("router should beat 500 filters, speedup " + ratio, ratio > 1);
+    }
+
+    private static long runFilters(List<FilterFunction<Map>> filters, Map[] records, int events) throws Exception {
+        long matched = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < events; i++) {
+            Map value = records[i & (records.length - 1)];
+            for (FilterFunction<Map> filter : filters) {
+                if (filter.filter(value)) {
+                    matched++;
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        Assert.assertEquals(events, matched);
+        return elapsed;
+    }
+
+    private static long runRouter(TableRouter<Map, Map> router, Map[] records, int events) throws Exception {
+        CountingContext<Map> context = new CountingContext<>(router);
+        Collector<Map> out = new Collector<Map>() {
+            @Override
+            public void collect(Map record) {}
+
+            @Override
+            public void close() {}
+        };
+        long start = System.nanoTime();
+        for (int i = 0; i < events; i++) {
+            router.processElement(records[i & (records.length - 1)], context, out);
+        }
+        long elapsed = System.nanoTime() - start;
+        Assert.assertEquals(events, context.count);
+        return elapsed;
+    }
+
+    private static FilterFunction<Map> filter(String schemaName, String tableName) {
+        return value -> {
+            LinkedHashMap source = (LinkedHashMap) value.get("source");
+            return tableName.equals(source.get("table").toString())
+                    && schemaName.equals(source.get(SCHEMA_FIELD_NAME).toString());
+        };
+    }
+
+    private static Map record(String schema, String table) {
+        Map source = new LinkedHashMap<>();
+        source.put(SCHEMA_FIELD_NAME, schema);
+        source.put("table", table);
+        Map value = new LinkedHashMap<>();
+        value.put("op", "c");
+        value.put("source", source);
+        return value;
+    }
+
+    private static class CountingContext<T> extends ProcessFunction<Map, T>.Context {
+        private long count;
+
+        CountingContext(ProcessFunction<Map, T> router) {
+            router.super();
+        }
+
+        @Override
+        public Long timestamp() {
+            return null;
+        }
+
+        @Override
+        public TimerService timerService() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <X> void output(OutputTag<X> outputTag, X value) {
+            count++;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc;
+
+import org.apache.flink.streaming.api.TimerService;
+import org.apache.flink.streaming.api.functions.ProcessFunction;
+import org.apache.flink.util.Collector;
+import org.apache.flink.util.OutputTag;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** test Table Router */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class TableRouterTest {
+
+    private static final String SCHEMA_FIELD_NAME = "db";
+
+    @Test
+    public void testRouteBySchemaAndTable() throws Exception {
+        TableRouter<Map, Map> router =
+                new TableRouter<>(TableRouter.schemaTableKey(SCHEMA_FIELD_NAME), TableRouter.identity());
+        OutputTag<Map> orders = router.route("shop.orders", new OutputTag<Map>("shop.orders") {});
+        OutputTag<Map> users = router.route("shop.users", new OutputTag<Map>("shop.users") {});
+
+        RecordingContext<Map> context = new RecordingContext<>(router);
+        List<Map> unrouted = new ArrayList<>();
+        Collector<Map> out = collector(unrouted);
+
+        router.processElement(record("shop", "orders"), context, out);
+        router.processElement(record("shop", "users"), context, out);
+        router.processElement(record("shop", "orders"), context, out);
+        router.processElement(record("other", "orders"), context, out);
+        router.processElement(new HashMap<>(), context, out);
+
+        Assert.assertEquals(2, context.outputs.get(orders).size());
+        Assert.assertEquals(1, context.outputs.get(users).size());
+        Assert.assertEquals(2, unrouted.size());
+    }
+
+    @Test
+    public void testConvertRoutedRecord() throws Exception {
+        TableRouter<Map, String> router = new TableRouter<>(
+                TableRouter.schemaTableKey(SCHEMA_FIELD_NAME), value -> String.valueOf(value.get("op")));
+        OutputTag<String> orders = router.route("shop.orders", new OutputTag<String>("shop.orders") {});
+
+        RecordingContext<String> context = new RecordingContext<>(router);
+        router.processElement(record("shop", "orders"), context, collector(new ArrayList<>()));
+
+        Assert.assertEquals("c", context.outputs.get(orders).get(0));
+    }
+
+    private static Map record(String schema, String table) {
+        Map source = new LinkedHashMap<>();
+        source.put(SCHEMA_FIELD_NAME, schema);
+        source.put("table", table);
+        Map value = new LinkedHashMap<>();
+        value.put("op", "c");
+        value.put("source", source);
+        return value;
+    }
+
+    private static <T> Collector<T> collector(List<T> target) {
+        return new Collector<T>() {
+            @Override
+            public void collect(T record) {
+                target.add(record);
+            }
+
+            @Override
+            public void close() {}
+        };
+    }
+
+    private static class RecordingContext<T> extends ProcessFunction<Map, T>.Context {
+        private final Map<OutputTag<?>, List<Object>> outputs = new HashMap<>();
+
+        RecordingContext(ProcessFunction<Map, T> router) {
+            router.super();
+        }
+
+        @Override
+        public Long timestamp() {
+            return null;
+        }
+
+        @Override
+        public TimerService timerService() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <X> void output(OutputTag<X> outputTag, X value) {
+            outputs.computeIfAbsent(outputTag, k -> new ArrayList<>()).add(value);
+        }
+    }
+}
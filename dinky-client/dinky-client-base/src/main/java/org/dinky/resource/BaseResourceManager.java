@@ -23,6 +23,7 @@ import org.dinky.data.exception.DinkyException;
 import org.dinky.data.model.ResourcesVO;
 import org.dinky.data.model.SystemConfiguration;
 import org.dinky.oss.OssTemplate;
+import org.dinky.resource.cache.ResourceFileCache;
 import org.dinky.resource.impl.HdfsResourceManager;
 import org.dinky.resource.impl.LocalResourceManager;
 import org.dinky.resource.impl.OssResourceManager;
@@ -59,6 +60,27 @@ public interface BaseResourceManager {
 
     InputStream readFile(String path);
 
+    /**
+     * Version of a file, such as its ETag or length and modification time, used to key the local resource
+     * cache. Returns null when the file is already local and needs no cache.
+     */
+    default String getFileVersion(String path) {
+        return null;
+    }
+
+    /**
+     * Leases a local copy of the file from {@link ResourceFileCache}, downloading it only when the cached
+     * version is missing or outdated. The caller must close the lease. Returns null when this resource model
+     * is not cached.
+     */
+    default ResourceFileCache.Lease leaseCachedFile(String path) {
+        String version = getFileVersion(path);
+        if (version == null) {
+            return null;
+        }
+        return ResourceFileCache.getInstance().acquire(path, version, () -> readFile(path));
+    }
+
     org.apache.flink.core.fs.FileSystem getFileSystem() throws IOException;
 
     static BaseResourceManager getInstance() {
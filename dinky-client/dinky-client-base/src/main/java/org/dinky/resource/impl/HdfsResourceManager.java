@@ -142,6 +142,16 @@ public class HdfsResourceManager implements BaseResourceManager {
         }
     }
 
+    @Override
+    public String getFileVersion(String path) {
+        try {
+            FileStatus status = getHdfs().getFileStatus(new Path(getFilePath(path)));
+            return status.getLen() + "-" + status.getModificationTime();
+        } catch (IOException e) {
+            throw new BusException(Status.RESOURCE_FILE_READ_FAILED, e);
+        }
+    }
+
     @Override
     public org.apache.flink.core.fs.FileSystem getFileSystem() {
         return Singleton.get(HadoopFileSystem.class, getHdfs());
@@ -42,6 +42,7 @@ import java.util.Map;
 
 import com.amazonaws.services.s3.model.CopyObjectRequest;
 import com.amazonaws.services.s3.model.DeleteObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 
 import cn.hutool.core.io.FileUtil;
@@ -143,6 +144,20 @@ public class OssResourceManager implements BaseResourceManager {
                 .getObjectContent();
     }
 
+    @Override
+    public String getFileVersion(String path) {
+        ObjectMetadata metadata = getOssTemplate()
+                .getAmazonS3()
+                .getObjectMetadata(getOssTemplate().getBucketName(), getFilePath(path));
+        if (StrUtil.isNotBlank(metadata.getETag())) {
+            return metadata.getETag();
+        }
+        long lastModified = metadata.getLastModified() == null
+                ? 0
+                : metadata.getLastModified().getTime();
+        return metadata.getContentLength() + "-" + lastModified;
+    }
+
     private FileSystem fileSystem;
 
     @Override
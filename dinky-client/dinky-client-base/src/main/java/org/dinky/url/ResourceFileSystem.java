@@ -20,6 +20,7 @@
 package org.dinky.url;
 
 import org.dinky.resource.BaseResourceManager;
+import org.dinky.resource.cache.ResourceFileCache;
 
 import org.apache.flink.api.common.io.InputStreamFSInputWrapper;
 import org.apache.flink.core.fs.BlockLocation;
@@ -29,6 +30,7 @@ import org.apache.flink.core.fs.FileStatus;
 import org.apache.flink.core.fs.FileSystem;
 import org.apache.flink.core.fs.FileSystemKind;
 import org.apache.flink.core.fs.Path;
+import org.apache.flink.core.fs.local.LocalDataInputStream;
 import org.apache.flink.core.fs.local.LocalFileStatus;
 
 import java.io.File;
@@ -90,6 +92,24 @@ public class ResourceFileSystem extends FileSystem {
 
     @Override
     public FSDataInputStream open(Path f) throws IOException {
+        ResourceFileCache.Lease lease = getBaseResourceManager().leaseCachedFile(f.getPath());
+        if (lease != null) {
+            try {
+                return new LocalDataInputStream(lease.getFile()) {
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            lease.close();
+                        }
+                    }
+                };
+            } catch (IOException | RuntimeException e) {
+                lease.close();
+                throw e;
+            }
+        }
         return new InputStreamFSInputWrapper(getBaseResourceManager().readFile(f.getPath()));
     }
 
@@ -70,4 +70,12 @@ public class DirConstant {
     public static String getTempRootDir() {
         return getRootPath() + FILE_SEPARATOR + "tmp";
     }
+
+    /**
+     * get metrics data dir root of dinky
+     * @return metrics data dir root of dinky
+     */
+    public static String getMetricsRootDir() {
+        return getRootPath() + FILE_SEPARATOR + "metrics";
+    }
 }
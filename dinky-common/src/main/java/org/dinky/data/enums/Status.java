@@ -368,6 +368,20 @@ public enum Status {
     SYS_ENV_SETTINGS_TASK_OWNER_LOCK_STRATEGY_NOTE(1178, "sys.env.settings.taskOwnerLockStrategy.note"),
     SYS_ENV_SETTINGS_TASK_OWNER_ALERT_STRATEGY(1179, "sys.env.settings.taskOwnerAlertStrategy"),
     SYS_ENV_SETTINGS_TASK_OWNER_ALERT_STRATEGY_NOTE(1180, "sys.env.settings.taskOwnerAlertStrategy.note"),
+    SYS_ENV_SETTINGS_RESULT_POOL_MAX_MEMORY(1181, "sys.env.settings.resultPoolMaxMemory"),
+    SYS_ENV_SETTINGS_RESULT_POOL_MAX_MEMORY_NOTE(1182, "sys.env.settings.resultPoolMaxMemory.note"),
+    SYS_ENV_SETTINGS_RESULT_MAX_MEMORY(1183, "sys.env.settings.resultMaxMemory"),
+    SYS_ENV_SETTINGS_RESULT_MAX_MEMORY_NOTE(1184, "sys.env.settings.resultMaxMemory.note"),
+    SYS_ENV_SETTINGS_RESULT_IDLE_TIMEOUT(1185, "sys.env.settings.resultIdleTimeout"),
+    SYS_ENV_SETTINGS_RESULT_IDLE_TIMEOUT_NOTE(1186, "sys.env.settings.resultIdleTimeout.note"),
+    SYS_ENV_SETTINGS_DATASOURCE_MAX_POOLS(1187, "sys.env.settings.datasourceMaxPools"),
+    SYS_ENV_SETTINGS_DATASOURCE_MAX_POOLS_NOTE(1188, "sys.env.settings.datasourceMaxPools.note"),
+    SYS_ENV_SETTINGS_DATASOURCE_IDLE_TIMEOUT(1189, "sys.env.settings.datasourceIdleTimeout"),
+    SYS_ENV_SETTINGS_DATASOURCE_IDLE_TIMEOUT_NOTE(1190, "sys.env.settings.datasourceIdleTimeout.note"),
+    SYS_ENV_SETTINGS_EXECUTOR_POOL_SIZE(1191, "sys.env.settings.executorPoolSize"),
+    SYS_ENV_SETTINGS_EXECUTOR_POOL_SIZE_NOTE(1192, "sys.env.settings.executorPoolSize.note"),
+    SYS_ENV_SETTINGS_EXPLAIN_CACHE_SIZE(1193, "sys.env.settings.explainCacheSize"),
+    SYS_ENV_SETTINGS_EXPLAIN_CACHE_SIZE_NOTE(1194, "sys.env.settings.explainCacheSize.note"),
 
     SYS_DOLPHINSCHEDULER_SETTINGS_ENABLE(118, "sys.dolphinscheduler.settings.enable"),
     SYS_DOLPHINSCHEDULER_SETTINGS_ENABLE_NOTE(119, "sys.dolphinscheduler.settings.enable.note"),
@@ -465,6 +479,25 @@ public enum Status {
             204, "sys.flink.settings.flinkHistoryServerArchiveRefreshInterval"),
     SYS_FLINK_SETTINGS_FLINK_HISTORY_SERVER_ARCHIVE_REFRESH_INTERVAL_NOTE(
             205, "sys.flink.settings.flinkHistoryServerArchiveRefreshInterval.note"),
+    SYS_FLINK_SETTINGS_JOB_REFRESH_INTERVAL(206, "sys.flink.settings.jobRefreshInterval"),
+    SYS_FLINK_SETTINGS_JOB_REFRESH_INTERVAL_NOTE(207, "sys.flink.settings.jobRefreshInterval.note"),
+    SYS_FLINK_SETTINGS_JOB_MONITOR_ASYNC(208, "sys.flink.settings.jobMonitorAsync"),
+    SYS_FLINK_SETTINGS_JOB_MONITOR_ASYNC_NOTE(209, "sys.flink.settings.jobMonitorAsync.note"),
+    SYS_FLINK_SETTINGS_JOB_MONITOR_MAX_REQUESTS_PER_HOST(210, "sys.flink.settings.jobMonitorMaxRequestsPerHost"),
+    SYS_FLINK_SETTINGS_JOB_MONITOR_MAX_REQUESTS_PER_HOST_NOTE(
+            211, "sys.flink.settings.jobMonitorMaxRequestsPerHost.note"),
+    SYS_FLINK_SETTINGS_YARN_BULK_STATUS(222, "sys.flink.settings.yarnBulkStatus"),
+    SYS_FLINK_SETTINGS_YARN_BULK_STATUS_NOTE(223, "sys.flink.settings.yarnBulkStatus.note"),
+    SYS_METRICS_SETTINGS_STORAGE(212, "sys.metrics.settings.storage"),
+    SYS_METRICS_SETTINGS_STORAGE_NOTE(213, "sys.metrics.settings.storage.note"),
+    SYS_METRICS_SETTINGS_RETENTION_DAYS(214, "sys.metrics.settings.retentionDays"),
+    SYS_METRICS_SETTINGS_RETENTION_DAYS_NOTE(215, "sys.metrics.settings.retentionDays.note"),
+    SYS_METRICS_SETTINGS_MINUTE_RETENTION_DAYS(216, "sys.metrics.settings.minuteRetentionDays"),
+    SYS_METRICS_SETTINGS_MINUTE_RETENTION_DAYS_NOTE(217, "sys.metrics.settings.minuteRetentionDays.note"),
+    SYS_METRICS_SETTINGS_TEN_MINUTES_RETENTION_DAYS(218, "sys.metrics.settings.tenMinutesRetentionDays"),
+    SYS_METRICS_SETTINGS_TEN_MINUTES_RETENTION_DAYS_NOTE(219, "sys.metrics.settings.tenMinutesRetentionDays.note"),
+    SYS_METRICS_SETTINGS_HOUR_RETENTION_DAYS(220, "sys.metrics.settings.hourRetentionDays"),
+    SYS_METRICS_SETTINGS_HOUR_RETENTION_DAYS_NOTE(221, "sys.metrics.settings.hourRetentionDays.note"),
     ;
     private final int code;
     private final String key;
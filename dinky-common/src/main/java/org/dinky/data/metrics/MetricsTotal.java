@@ -34,5 +34,6 @@ public class MetricsTotal implements Serializable {
     private Jvm jvm = Jvm.of();
     private Cpu cpu = Cpu.of();
     private Mem mem = Mem.of();
+    private ResourceCache resourceCache = ResourceCache.of();
     private SystemInfo systemInfo = SystemInfo.of();
 }
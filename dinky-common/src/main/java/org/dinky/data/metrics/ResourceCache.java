@@ -0,0 +1,61 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.data.metrics;
+
+import org.dinky.data.annotations.GaugeM;
+import org.dinky.resource.cache.ResourceFileCache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.With;
+
+@Getter
+@Setter
+@With
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResourceCache extends BaseMetrics {
+    /** 资源缓存命中次数 */
+    @GaugeM(name = "resource.cache.hits", baseUnit = "units", description = "Resource file cache hits")
+    private long hits;
+
+    /** 资源缓存未命中次数 */
+    @GaugeM(name = "resource.cache.misses", baseUnit = "units", description = "Resource file cache misses")
+    private long misses;
+
+    /** 资源缓存占用磁盘大小(b) */
+    @GaugeM(name = "resource.cache.size", description = "Disk space used by the resource file cache (b)")
+    private long size;
+
+    /** 资源缓存文件数 */
+    @GaugeM(name = "resource.cache.count", baseUnit = "units", description = "Number of cached resource files")
+    private int count;
+
+    public static ResourceCache of() {
+        ResourceFileCache cache = ResourceFileCache.getInstance();
+        return new ResourceCache()
+                .withHits(cache.getHits())
+                .withMisses(cache.getMisses())
+                .withSize(cache.getSize())
+                .withCount(cache.getCount());
+    }
+}
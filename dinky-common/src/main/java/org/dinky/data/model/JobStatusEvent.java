@@ -0,0 +1,63 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.data.model;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A job state change pushed by dinky-app to the admin server, so the admin does not have to poll jobs that report
+ * themselves.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobStatusEvent implements Serializable {
+
+    public enum Type {
+        /** The job status changed. */
+        STATUS,
+        /** A checkpoint completed. */
+        CHECKPOINT,
+        /** The reporter is alive and the status has not changed. */
+        HEARTBEAT
+    }
+
+    private Integer taskId;
+
+    /** Null if the job failed before it was submitted. */
+    private String jobId;
+
+    private Type type;
+
+    private String status;
+
+    private Long checkpointId;
+
+    /** Stack trace of the root cause when the job failed. */
+    private String failureCause;
+
+    private long eventTime;
+}
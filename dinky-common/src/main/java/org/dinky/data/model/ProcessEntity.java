@@ -55,4 +55,18 @@ public class ProcessEntity {
     public void appendLog(String str) {
         log.append(str).append(CommonConstant.LineSep);
     }
+
+    /**
+     * Copy this process and its step tree, logs are only copied when {@code withLog} is set.
+     * The copy does not carry {@link #lastUpdateStep}.
+     */
+    public ProcessEntity copy(boolean withLog) {
+        CopyOnWriteArrayList<ProcessStepEntity> copiedChildren = new CopyOnWriteArrayList<>();
+        if (children != null) {
+            children.forEach(child -> copiedChildren.add(child.copy(withLog)));
+        }
+        StringBuilder copiedLog = withLog && log != null ? new StringBuilder(log) : null;
+        return new ProcessEntity(
+                key, title, copiedLog, type, status, startTime, endTime, time, null, copiedChildren, threadId);
+    }
 }
@@ -54,4 +54,16 @@ public class ProcessStepEntity {
     public void appendLog(String str) {
         log.append(str).append(CommonConstant.LineSep);
     }
+
+    /**
+     * Copy this step and its children, the log is only copied when {@code withLog} is set.
+     */
+    public ProcessStepEntity copy(boolean withLog) {
+        CopyOnWriteArrayList<ProcessStepEntity> copiedChildren = new CopyOnWriteArrayList<>();
+        if (children != null) {
+            children.forEach(child -> copiedChildren.add(child.copy(withLog)));
+        }
+        StringBuilder copiedLog = withLog && log != null ? new StringBuilder(log) : null;
+        return new ProcessStepEntity(key, title, status, type, startTime, endTime, time, copiedLog, copiedChildren);
+    }
 }
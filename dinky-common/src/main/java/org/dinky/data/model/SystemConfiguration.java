@@ -93,6 +93,23 @@ public class SystemConfiguration {
                     .intType()
                     .defaultValue(5000)
                     .note(Status.SYS_FLINK_SETTINGS_FLINK_HISTORY_SERVER_ARCHIVE_REFRESH_INTERVAL_NOTE);
+    private final Configuration<Integer> jobRefreshInterval = key(Status.SYS_FLINK_SETTINGS_JOB_REFRESH_INTERVAL)
+            .intType()
+            .defaultValue(5000)
+            .note(Status.SYS_FLINK_SETTINGS_JOB_REFRESH_INTERVAL_NOTE);
+    private final Configuration<Boolean> jobMonitorAsync = key(Status.SYS_FLINK_SETTINGS_JOB_MONITOR_ASYNC)
+            .booleanType()
+            .defaultValue(false)
+            .note(Status.SYS_FLINK_SETTINGS_JOB_MONITOR_ASYNC_NOTE);
+    private final Configuration<Integer> jobMonitorMaxRequestsPerHost =
+            key(Status.SYS_FLINK_SETTINGS_JOB_MONITOR_MAX_REQUESTS_PER_HOST)
+                    .intType()
+                    .defaultValue(8)
+                    .note(Status.SYS_FLINK_SETTINGS_JOB_MONITOR_MAX_REQUESTS_PER_HOST_NOTE);
+    private final Configuration<Boolean> yarnBulkStatus = key(Status.SYS_FLINK_SETTINGS_YARN_BULK_STATUS)
+            .booleanType()
+            .defaultValue(true)
+            .note(Status.SYS_FLINK_SETTINGS_YARN_BULK_STATUS_NOTE);
 
     private final Configuration<String> mavenSettings = key(Status.SYS_MAVEN_SETTINGS_SETTINGSFILEPATH)
             .stringType()
@@ -167,6 +184,41 @@ public class SystemConfiguration {
                     .defaultValue(TaskOwnerAlertStrategyEnum.NONE)
                     .note(Status.SYS_ENV_SETTINGS_TASK_OWNER_ALERT_STRATEGY_NOTE);
 
+    private final Configuration<Integer> resultPoolMaxMemory = key(Status.SYS_ENV_SETTINGS_RESULT_POOL_MAX_MEMORY)
+            .intType()
+            .defaultValue(256)
+            .note(Status.SYS_ENV_SETTINGS_RESULT_POOL_MAX_MEMORY_NOTE);
+
+    private final Configuration<Integer> resultMaxMemory = key(Status.SYS_ENV_SETTINGS_RESULT_MAX_MEMORY)
+            .intType()
+            .defaultValue(32)
+            .note(Status.SYS_ENV_SETTINGS_RESULT_MAX_MEMORY_NOTE);
+
+    private final Configuration<Integer> resultIdleTimeout = key(Status.SYS_ENV_SETTINGS_RESULT_IDLE_TIMEOUT)
+            .intType()
+            .defaultValue(30)
+            .note(Status.SYS_ENV_SETTINGS_RESULT_IDLE_TIMEOUT_NOTE);
+
+    private final Configuration<Integer> datasourceMaxPools = key(Status.SYS_ENV_SETTINGS_DATASOURCE_MAX_POOLS)
+            .intType()
+            .defaultValue(32)
+            .note(Status.SYS_ENV_SETTINGS_DATASOURCE_MAX_POOLS_NOTE);
+
+    private final Configuration<Integer> datasourceIdleTimeout = key(Status.SYS_ENV_SETTINGS_DATASOURCE_IDLE_TIMEOUT)
+            .intType()
+            .defaultValue(30)
+            .note(Status.SYS_ENV_SETTINGS_DATASOURCE_IDLE_TIMEOUT_NOTE);
+
+    private final Configuration<Integer> executorPoolSize = key(Status.SYS_ENV_SETTINGS_EXECUTOR_POOL_SIZE)
+            .intType()
+            .defaultValue(2)
+            .note(Status.SYS_ENV_SETTINGS_EXECUTOR_POOL_SIZE_NOTE);
+
+    private final Configuration<Integer> explainCacheSize = key(Status.SYS_ENV_SETTINGS_EXPLAIN_CACHE_SIZE)
+            .intType()
+            .defaultValue(256)
+            .note(Status.SYS_ENV_SETTINGS_EXPLAIN_CACHE_SIZE_NOTE);
+
     private final Configuration<Boolean> dolphinschedulerEnable = key(Status.SYS_DOLPHINSCHEDULER_SETTINGS_ENABLE)
             .booleanType()
             .defaultValue(false)
@@ -259,6 +311,33 @@ public class SystemConfiguration {
                     .defaultValue(1000)
                     .note(Status.SYS_METRICS_SETTINGS_FLINK_GATHERTIMEOUT_NOTE);
 
+    private final Configuration<String> metricsStorage = key(Status.SYS_METRICS_SETTINGS_STORAGE)
+            .stringType()
+            .defaultValue("sqlite")
+            .note(Status.SYS_METRICS_SETTINGS_STORAGE_NOTE);
+
+    private final Configuration<Integer> metricsRetentionDays = key(Status.SYS_METRICS_SETTINGS_RETENTION_DAYS)
+            .intType()
+            .defaultValue(7)
+            .note(Status.SYS_METRICS_SETTINGS_RETENTION_DAYS_NOTE);
+
+    private final Configuration<Integer> metricsMinuteRetentionDays =
+            key(Status.SYS_METRICS_SETTINGS_MINUTE_RETENTION_DAYS)
+                    .intType()
+                    .defaultValue(30)
+                    .note(Status.SYS_METRICS_SETTINGS_MINUTE_RETENTION_DAYS_NOTE);
+
+    private final Configuration<Integer> metricsTenMinutesRetentionDays =
+            key(Status.SYS_METRICS_SETTINGS_TEN_MINUTES_RETENTION_DAYS)
+                    .intType()
+                    .defaultValue(90)
+                    .note(Status.SYS_METRICS_SETTINGS_TEN_MINUTES_RETENTION_DAYS_NOTE);
+
+    private final Configuration<Integer> metricsHourRetentionDays = key(Status.SYS_METRICS_SETTINGS_HOUR_RETENTION_DAYS)
+            .intType()
+            .defaultValue(365)
+            .note(Status.SYS_METRICS_SETTINGS_HOUR_RETENTION_DAYS_NOTE);
+
     private final Configuration<Boolean> resourcesEnable = key(Status.SYS_RESOURCE_SETTINGS_ENABLE)
             .booleanType()
             .defaultValue(true)
@@ -394,6 +473,10 @@ public class SystemConfiguration {
         return jobIdWait.getValue();
     }
 
+    public int getJobRefreshInterval() {
+        return jobRefreshInterval.getValue();
+    }
+
     public String getMavenSettings() {
 
         return mavenSettings.getValue();
@@ -0,0 +1,286 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.resource.cache;
+
+import org.dinky.data.constant.DirConstant;
+import org.dinky.data.exception.DinkyException;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.ArrayUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local disk cache of remote resource files (rs://) under the Dinky temp directory.
+ *
+ * <p>Each file is stored as {@code <key>/<file name>}, where the key is derived from the resource path and
+ * its version (ETag, length or modification time), so a changed file gets a new entry and an unchanged file
+ * is downloaded only once. Concurrent readers of the same entry wait for a single download; readers of
+ * other entries are not blocked. The total size is bounded, least recently used entries are deleted first.
+ *
+ * <p>Files are handed out as {@link Lease}s. An entry is never deleted while a lease on it is open, so the
+ * cache may go over its bound until the holders close their leases. Callers that keep a file for longer
+ * than a read, such as jars added to a class path, should copy it.
+ */
+@Slf4j
+public class ResourceFileCache {
+
+    private static final long DEFAULT_MAX_BYTES = 2L * 1024 * 1024 * 1024;
+    private static final String DOWNLOADING_SUFFIX = ".downloading";
+
+    private static volatile ResourceFileCache instance;
+
+    private final File root;
+    private final long maxBytes;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final Object evictLock = new Object();
+
+    public static ResourceFileCache getInstance() {
+        if (instance == null) {
+            synchronized (ResourceFileCache.class) {
+                if (instance == null) {
+                    instance = new ResourceFileCache(
+                            FileUtil.file(DirConstant.getTempRootDir(), "rs-cache"), DEFAULT_MAX_BYTES);
+                }
+            }
+        }
+        return instance;
+    }
+
+    ResourceFileCache(File root, long maxBytes) {
+        this.root = root;
+        this.maxBytes = maxBytes;
+        FileUtil.mkdir(root);
+        recover();
+    }
+
+    /**
+     * Leases the local copy of a resource file, downloading it with {@code loader} on a miss. The file is
+     * kept until the lease is closed.
+     *
+     * @param path resource path
+     * @param version version of the file, e.g. ETag or length and modification time
+     * @param loader opens the remote file, called at most once per version
+     * @return lease on the local file, which keeps the original file name
+     */
+    public Lease acquire(String path, String version, Supplier<InputStream> loader) {
+        String key = DigestUtil.sha256Hex(path + "\n" + version);
+        while (true) {
+            Entry entry = entries.computeIfAbsent(key, k -> new Entry(k, FileUtil.file(root, k)));
+            File file = entry.acquire(FileUtil.getName(path), loader);
+            if (file != null) {
+                return new Lease(entry, file);
+            }
+            // evicted between lookup and acquire, look it up again
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getSize() {
+        return totalBytes.get();
+    }
+
+    public int getCount() {
+        return entries.size();
+    }
+
+    private void recover() {
+        File[] dirs = root.listFiles(File::isDirectory);
+        if (ArrayUtil.isEmpty(dirs)) {
+            return;
+        }
+        for (File dir : dirs) {
+            File[] files = dir.listFiles(f -> f.isFile() && !f.getName().endsWith(DOWNLOADING_SUFFIX));
+            if (files == null || files.length != 1) {
+                FileUtil.del(dir);
+                continue;
+            }
+            FileUtil.del(FileUtil.file(dir, files[0].getName() + DOWNLOADING_SUFFIX));
+            Entry entry = new Entry(dir.getName(), dir);
+            entry.file = files[0];
+            entry.size = files[0].length();
+            entry.lastAccess = files[0].lastModified();
+            entries.put(entry.key, entry);
+            totalBytes.addAndGet(entry.size);
+        }
+        trim();
+    }
+
+    private void trim() {
+        if (totalBytes.get() <= maxBytes) {
+            return;
+        }
+        synchronized (evictLock) {
+            List<Entry> candidates = new ArrayList<>(entries.values());
+            candidates.sort(Comparator.comparingLong(e -> e.lastAccess));
+            for (Entry entry : candidates) {
+                if (totalBytes.get() <= maxBytes) {
+                    break;
+                }
+                // entries with open leases are skipped
+                entry.evict();
+            }
+        }
+    }
+
+    /** A cached file that is not evicted until the lease is closed. */
+    public final class Lease implements AutoCloseable {
+        private final Entry entry;
+        private final File file;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Lease(Entry entry, File file) {
+            this.entry = entry;
+            this.file = file;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        /** Opens the file, the lease is closed together with the stream. */
+        public InputStream getInputStream() throws IOException {
+            try {
+                return new FilterInputStream(new FileInputStream(file)) {
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            Lease.this.close();
+                        }
+                    }
+                };
+            } catch (IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                entry.release();
+                trim();
+            }
+        }
+    }
+
+    private final class Entry {
+        private final String key;
+        private final File dir;
+        private volatile File file;
+        private volatile long size;
+        private volatile long lastAccess;
+        private volatile boolean evicted;
+        private int holders;
+
+        private Entry(String key, File dir) {
+            this.key = key;
+            this.dir = dir;
+        }
+
+        private File acquire(String name, Supplier<InputStream> loader) {
+            File acquired;
+            synchronized (this) {
+                if (evicted) {
+                    return null;
+                }
+                if (file != null && file.exists()) {
+                    hits.increment();
+                    lastAccess = System.currentTimeMillis();
+                    holders++;
+                    return file;
+                }
+                misses.increment();
+                load(name, loader);
+                holders++;
+                acquired = file;
+            }
+            trim();
+            return acquired;
+        }
+
+        private synchronized void release() {
+            holders--;
+        }
+
+        private void load(String name, Supplier<InputStream> loader) {
+            totalBytes.addAndGet(-size);
+            File target = FileUtil.file(dir, name);
+            File downloading = FileUtil.file(dir, name + DOWNLOADING_SUFFIX);
+            try (InputStream inputStream = loader.get()) {
+                FileUtil.writeFromStream(inputStream, downloading, false);
+                Files.move(downloading.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException | RuntimeException e) {
+                FileUtil.del(dir);
+                file = null;
+                size = 0;
+                evicted = true;
+                entries.remove(key, this);
+                throw new DinkyException("Failed to cache resource file " + name, e);
+            }
+            file = target;
+            size = target.length();
+            lastAccess = System.currentTimeMillis();
+            totalBytes.addAndGet(size);
+        }
+
+        private synchronized void evict() {
+            if (evicted || holders > 0) {
+                return;
+            }
+            evicted = true;
+            entries.remove(key, this);
+            file = null;
+            totalBytes.addAndGet(-size);
+            size = 0;
+            FileUtil.del(dir);
+            log.debug("Evicted resource cache entry {}", key);
+        }
+    }
+}
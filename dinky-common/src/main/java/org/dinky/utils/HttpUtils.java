@@ -27,25 +27,33 @@ import org.apache.http.HttpStatus;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.ResponseHandler;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPatch;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.util.EntityUtils;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.CollectionUtils;
 
+import cn.hutool.core.io.IORuntimeException;
 import cn.hutool.http.HttpResponse;
 import cn.hutool.http.HttpUtil;
 
@@ -53,6 +61,94 @@ public class HttpUtils {
 
     private static final Logger logger = LoggerFactory.getLogger(HttpUtils.class);
 
+    /** Keeps connections alive between requests, so polling the same server reuses them */
+    private static final PoolingHttpClientConnectionManager CONNECTION_MANAGER =
+            new PoolingHttpClientConnectionManager(60, TimeUnit.SECONDS);
+
+    private static final CloseableHttpClient POOLED_CLIENT;
+
+    static {
+        CONNECTION_MANAGER.setMaxTotal(512);
+        CONNECTION_MANAGER.setDefaultMaxPerRoute(32);
+        CONNECTION_MANAGER.setValidateAfterInactivity(2000);
+        POOLED_CLIENT = HttpClients.custom()
+                .setConnectionManager(CONNECTION_MANAGER)
+                .evictExpiredConnections()
+                .evictIdleConnections(30, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * get the body of url with a pooled keep-alive connection, the body is returned whatever the status code is
+     *
+     * @param url
+     * @param timeout connect and read timeout in milliseconds
+     * @return
+     * @throws IORuntimeException if the request fails
+     */
+    public static String get(String url, int timeout) {
+        return execute(new HttpGet(url), timeout, HttpUtils::bodyOf);
+    }
+
+    /**
+     * post json data with a pooled keep-alive connection, the body is returned whatever the status code is
+     *
+     * @param url
+     * @param json
+     * @param timeout connect and read timeout in milliseconds
+     * @return
+     * @throws IORuntimeException if the request fails
+     */
+    public static String post(String url, String json, int timeout) {
+        return execute(withJsonBody(new HttpPost(url), json), timeout, HttpUtils::bodyOf);
+    }
+
+    /**
+     * patch json data with a pooled keep-alive connection, the body is returned whatever the status code is
+     *
+     * @param url
+     * @param json
+     * @param timeout connect and read timeout in milliseconds
+     * @return
+     * @throws IORuntimeException if the request fails
+     */
+    public static String patch(String url, String json, int timeout) {
+        return execute(withJsonBody(new HttpPatch(url), json), timeout, HttpUtils::bodyOf);
+    }
+
+    /**
+     * execute a request with a pooled keep-alive connection, the handler may read the body as a stream
+     *
+     * @param request
+     * @param timeout connect and read timeout in milliseconds
+     * @param handler
+     * @return the value of the handler
+     * @throws IORuntimeException if the request or the handler fails
+     */
+    public static <T> T execute(HttpRequestBase request, int timeout, ResponseHandler<? extends T> handler) {
+        request.setConfig(RequestConfig.custom()
+                .setConnectTimeout(timeout)
+                .setSocketTimeout(timeout)
+                .setConnectionRequestTimeout(timeout)
+                .build());
+        try {
+            return POOLED_CLIENT.execute(request, handler);
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
+    private static String bodyOf(org.apache.http.HttpResponse response) throws IOException {
+        HttpEntity entity = response.getEntity();
+        return entity == null ? "" : EntityUtils.toString(entity, StandardCharsets.UTF_8);
+    }
+
+    private static <R extends HttpEntityEnclosingRequestBase> R withJsonBody(R request, String json) {
+        request.setEntity(new StringEntity(json, StandardCharsets.UTF_8));
+        request.addHeader("Content-Type", "application/json; charset=utf-8");
+        return request;
+    }
+
     public static String post(String url, String jsonParam) throws IOException {
         return post(url, jsonParam, null);
     }
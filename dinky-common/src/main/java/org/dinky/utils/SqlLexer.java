@@ -0,0 +1,301 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import org.dinky.assertion.Asserts;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SqlLexer
+ *
+ * <p>Single pass scanner of SQL scripts, in place of the regular expressions that stripped comments and split
+ * statements. Those backtrack badly on scripts of several megabytes, and took the semicolons and comment markers
+ * inside quoted literals and identifiers for real ones. Quotes ({@code '}, {@code "} and {@code `}) and comments
+ * ({@code --} up to the line end and {@code /* *\/}, optimizer hints {@code /*+ *\/} excepted) are recognized, the
+ * rest of the text is copied by ranges.
+ */
+public final class SqlLexer {
+
+    private SqlLexer() {}
+
+    /**
+     * Removes the comments but the optimizer hints, replaces non-breaking spaces, merges consecutive line breaks into
+     * one {@code \n} and trims the result, as {@link SqlUtil#removeNote} always did.
+     */
+    public static String removeNote(String sql) {
+        if (Asserts.isNullString(sql)) {
+            return sql;
+        }
+        StringBuilder out = new StringBuilder(sql.length());
+        Normalizer normalizer = new Normalizer(out);
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            int next = skipComment(sql, i);
+            if (next > i) {
+                normalizer.lineBreak = false;
+                i = next;
+                continue;
+            }
+            next = skipQuoted(sql, i);
+            if (next == i + 1) {
+                next = plainEnd(sql, next, false);
+            }
+            normalizer.append(sql, i, next);
+            i = next;
+        }
+        return out.toString().trim();
+    }
+
+    /**
+     * Splits a script at the semicolons followed by a line break or by a {@code --} comment, which is dropped, as
+     * {@link SqlUtil#getStatements} always did: the statements keep their comments, the last one is trimmed when it
+     * ends with a semicolon.
+     */
+    public static String[] split(String sql) {
+        if (Asserts.isNullString(sql)) {
+            return new String[0];
+        }
+        String text = sql.replace("\r\n", "\n");
+        List<String> statements = new ArrayList<>();
+        int length = text.length();
+        int start = 0;
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (c != ';') {
+                int next = skipComment(text, i);
+                i = next > i ? next : skipQuoted(text, i);
+                continue;
+            }
+            int j = i + 1;
+            int lastLineBreak = -1;
+            while (j < length && isSpace(text.charAt(j))) {
+                if (text.charAt(j) == '\n') {
+                    lastLineBreak = j;
+                }
+                j++;
+            }
+            if (startsWith(text, j, '-', '-')) {
+                statements.add(text.substring(start, i));
+                start = i = lineEnd(text, j + 2);
+            } else if (lastLineBreak >= 0) {
+                statements.add(text.substring(start, i));
+                start = i = lastLineBreak + 1;
+            } else {
+                i++;
+            }
+        }
+        statements.add(text.substring(start));
+        // trailing empty statements are dropped, as String#split does
+        int size = statements.size();
+        while (size > 0 && statements.get(size - 1).isEmpty()) {
+            size--;
+        }
+        String[] result = statements.subList(0, size).toArray(new String[0]);
+        if (size > 0) {
+            String last = result[size - 1].trim();
+            if (last.endsWith(";")) {
+                result[size - 1] = last.substring(0, last.length() - 1);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Scans a script once for its statements. The statements are split at the semicolons followed by a line break or
+     * the end of the script, their comments removed as by {@link #removeNote}, trimmed and the empty ones dropped.
+     */
+    public static Script lex(String sql) {
+        if (Asserts.isNullString(sql)) {
+            return new Script(Collections.emptyList());
+        }
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        Normalizer normalizer = new Normalizer(current);
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            int next = skipComment(sql, i);
+            if (next > i) {
+                normalizer.lineBreak = false;
+                i = next;
+                continue;
+            }
+            char c = sql.charAt(i);
+            if (c == ';' && endsLine(sql, i + 1)) {
+                addStatement(statements, current);
+                normalizer.lineBreak = false;
+                i++;
+            } else {
+                next = skipQuoted(sql, i);
+                if (next == i + 1) {
+                    next = plainEnd(sql, next, true);
+                }
+                normalizer.append(sql, i, next);
+                i = next;
+            }
+        }
+        addStatement(statements, current);
+        return new Script(statements);
+    }
+
+    private static void addStatement(List<String> statements, StringBuilder current) {
+        String statement = current.toString().trim();
+        if (statement.endsWith(";")) {
+            statement = statement.substring(0, statement.length() - 1).trim();
+        }
+        if (!statement.isEmpty()) {
+            statements.add(statement);
+        }
+        current.setLength(0);
+    }
+
+    /** Whether only blanks and comments stand between {@code from} and the next line break or the end. */
+    private static boolean endsLine(String sql, int from) {
+        int i = from;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\n' || c == '\r' || startsWith(sql, i, '-', '-')) {
+                return true;
+            }
+            if (c == ' ' || c == '\t' || c == '\u000B' || c == '\f') {
+                i++;
+                continue;
+            }
+            int next = skipComment(sql, i);
+            if (next == i) {
+                return false;
+            }
+            i = next;
+        }
+        return true;
+    }
+
+    /** Returns the index after the comment starting at {@code i}, or {@code i} when none starts there. */
+    private static int skipComment(String sql, int i) {
+        if (startsWith(sql, i, '-', '-')) {
+            return lineEnd(sql, i + 2);
+        }
+        if (startsWith(sql, i, '/', '*') && i + 2 < sql.length() && sql.charAt(i + 2) != '+') {
+            int end = sql.indexOf("*/", i + 2);
+            if (end >= 0) {
+                return end + 2;
+            }
+        }
+        return i;
+    }
+
+    /** Returns the index after the quoted text starting at {@code i}, or {@code i + 1}. */
+    private static int skipQuoted(String sql, int i) {
+        char c = sql.charAt(i);
+        if (c == '\'' || c == '"' || c == '`') {
+            int end = sql.indexOf(c, i + 1);
+            if (end > 0) {
+                return end + 1;
+            }
+        }
+        return i + 1;
+    }
+
+    /** Returns the index of the first character from {@code from} which may start a quote, comment or more. */
+    private static int plainEnd(String sql, int from, boolean lex) {
+        int i = from;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '-' || c == '/' || c == '\'' || c == '"' || c == '`' || (lex && c == ';')) {
+                return i;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static int lineEnd(String sql, int from) {
+        for (int i = from; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\n' || c == '\r') {
+                return i;
+            }
+        }
+        return sql.length();
+    }
+
+    private static boolean startsWith(String sql, int i, char first, char second) {
+        return i + 1 < sql.length() && sql.charAt(i) == first && sql.charAt(i + 1) == second;
+    }
+
+    // the \s of regular expressions
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /** Copies text replacing non-breaking spaces and merging consecutive line breaks. */
+    private static class Normalizer {
+        private final StringBuilder out;
+        private boolean lineBreak;
+
+        private Normalizer(StringBuilder out) {
+            this.out = out;
+        }
+
+        private void append(String sql, int from, int to) {
+            int copied = from;
+            for (int i = from; i < to; i++) {
+                char c = sql.charAt(i);
+                if (c == '\n' || c == '\r') {
+                    out.append(sql, copied, i);
+                    if (!lineBreak) {
+                        out.append('\n');
+                    }
+                    lineBreak = true;
+                    copied = i + 1;
+                } else {
+                    lineBreak = false;
+                    if (c == '\u00A0') {
+                        out.append(sql, copied, i).append(' ');
+                        copied = i + 1;
+                    }
+                }
+            }
+            out.append(sql, copied, to);
+        }
+    }
+
+    /** The statements of a script, in order of appearance. */
+    public static class Script {
+        private final List<String> statements;
+
+        private Script(List<String> statements) {
+            this.statements = statements;
+        }
+
+        public List<String> getStatements() {
+            return statements;
+        }
+
+        public String[] toArray() {
+            return statements.toArray(new String[0]);
+        }
+    }
+}
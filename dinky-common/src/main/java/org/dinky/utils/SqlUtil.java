@@ -19,10 +19,7 @@
 
 package org.dinky.utils;
 
-import org.dinky.assertion.Asserts;
-
 import java.util.Map;
-import java.util.regex.Pattern;
 
 /**
  * SqlUtil
@@ -31,41 +28,23 @@ import java.util.regex.Pattern;
  */
 public class SqlUtil {
 
-    private static final String SEMICOLON = ";";
-    private static final String SQL_SEPARATOR = ";\\s*(?:\\n|--.*)";
-
     private SqlUtil() {}
 
     public static String[] getStatements(String sql) {
-        return getStatements(sql, SQL_SEPARATOR);
+        return SqlLexer.split(sql);
     }
 
     public static String[] getStatements(String sql, String sqlSeparator) {
-        if (Asserts.isNullString(sql)) {
-            return new String[0];
-        }
-
-        final String localSqlSeparator = ";\\s*(?:\\n|--.*)";
-        String[] splits = sql.replace("\r\n", "\n").split(localSqlSeparator);
-        String lastStatement = splits[splits.length - 1].trim();
-        if (lastStatement.endsWith(SEMICOLON)) {
-            splits[splits.length - 1] = lastStatement.substring(0, lastStatement.length() - 1);
-        }
+        return SqlLexer.split(sql);
+    }
 
-        return splits;
+    /** Returns the statements of a script without its comments, see {@link SqlLexer#lex}. */
+    public static String[] getCleanStatements(String sql) {
+        return SqlLexer.lex(sql).toArray();
     }
 
     public static String removeNote(String sql) {
-
-        if (Asserts.isNotNullString(sql)) {
-            // Remove the special-space characters
-            sql = sql.replaceAll("\u00A0", " ").replaceAll("[\r\n]+", "\n");
-            // Remove annotations Support '--aa' , '/**aaa*/' , '//aa' , '#aaa'
-            Pattern p = Pattern.compile("(?ms)('(?:[^'])*')|--.*?$|/\\*[^+].*?\\*/|");
-            String presult = p.matcher(sql).replaceAll("$1");
-            return presult.trim();
-        }
-        return sql;
+        return SqlLexer.removeNote(sql);
     }
 
     public static String replaceAllParam(String sql, String name, String value) {
@@ -0,0 +1,181 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.resource.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+
+public class ResourceFileCacheTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void downloadsOncePerVersion() {
+        ResourceFileCache cache = new ResourceFileCache(root.toFile(), 1024);
+        AtomicInteger loads = new AtomicInteger();
+
+        File first = get(cache, "/udf/a.jar", "v1", "a1", loads);
+        File second = get(cache, "/udf/a.jar", "v1", "a1", loads);
+        Assert.assertEquals(first, second);
+        Assert.assertEquals("a.jar", first.getName());
+        Assert.assertEquals("a1", FileUtil.readUtf8String(first));
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+
+        File changed = get(cache, "/udf/a.jar", "v2", "a2", loads);
+        Assert.assertNotEquals(first, changed);
+        Assert.assertEquals("a2", FileUtil.readUtf8String(changed));
+        Assert.assertEquals(2, loads.get());
+    }
+
+    @Test
+    void concurrentReadersShareOneDownload() throws Exception {
+        ResourceFileCache cache = new ResourceFileCache(root.toFile(), 1024);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    try (ResourceFileCache.Lease lease = cache.acquire("/udf/b.jar", "v1", () -> open("b", loads))) {
+                        return FileUtil.readUtf8String(lease.getFile());
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<String> future : futures) {
+                Assert.assertEquals("b", future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals(1, cache.getMisses());
+        Assert.assertEquals(7, cache.getHits());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() throws Exception {
+        ResourceFileCache cache = new ResourceFileCache(root.toFile(), 10);
+        AtomicInteger loads = new AtomicInteger();
+
+        File a = get(cache, "/a.jar", "v1", "aaaa", loads);
+        Thread.sleep(5);
+        File b = get(cache, "/b.jar", "v1", "bbbb", loads);
+        Thread.sleep(5);
+        get(cache, "/a.jar", "v1", "aaaa", loads);
+        Thread.sleep(5);
+        File c = get(cache, "/c.jar", "v1", "cccc", loads);
+
+        Assert.assertTrue(a.exists());
+        Assert.assertFalse(b.exists());
+        Assert.assertTrue(c.exists());
+        Assert.assertEquals(8, cache.getSize());
+        Assert.assertEquals(2, cache.getCount());
+    }
+
+    @Test
+    void heldFilesAreNotEvicted() throws Exception {
+        ResourceFileCache cache = new ResourceFileCache(root.toFile(), 10);
+        AtomicInteger loads = new AtomicInteger();
+
+        ResourceFileCache.Lease a = cache.acquire("/a.jar", "v1", () -> open("aaaa", loads));
+        Thread.sleep(5);
+        InputStream b = cache.acquire("/b.jar", "v1", () -> open("bbbb", loads)).getInputStream();
+        Thread.sleep(5);
+        File c = get(cache, "/c.jar", "v1", "cccc", loads);
+
+        // a and b are older but still held, so c is the only entry that can be evicted
+        Assert.assertFalse(c.exists());
+        Assert.assertEquals("aaaa", FileUtil.readUtf8String(a.getFile()));
+        Assert.assertEquals("bbbb", IoUtil.readUtf8(b));
+        Assert.assertEquals(8, cache.getSize());
+
+        a.close();
+        b.close();
+        File d = get(cache, "/d.jar", "v1", "dddd", loads);
+        Assert.assertFalse(a.getFile().exists());
+        Assert.assertTrue(d.exists());
+        Assert.assertEquals(8, cache.getSize());
+        Assert.assertEquals(2, cache.getCount());
+    }
+
+    @Test
+    void recoversEntriesAndDropsPartialDownloads() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        File cached = get(new ResourceFileCache(root.toFile(), 1024), "/a.jar", "v1", "aaaa", loads);
+        File partial = FileUtil.touch(FileUtil.file(root.toFile(), "partial", "b.jar.downloading"));
+
+        ResourceFileCache reopened = new ResourceFileCache(root.toFile(), 1024);
+        Assert.assertEquals(cached, get(reopened, "/a.jar", "v1", "aaaa", loads));
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals(1, reopened.getHits());
+        Assert.assertFalse(partial.exists());
+        Assert.assertEquals(4, reopened.getSize());
+    }
+
+    @Test
+    void failedDownloadIsNotCached() {
+        ResourceFileCache cache = new ResourceFileCache(root.toFile(), 1024);
+        Assert.assertThrows(
+                RuntimeException.class,
+                () -> cache.acquire("/a.jar", "v1", () -> {
+                    throw new IllegalStateException("unreachable");
+                }));
+        Assert.assertEquals(0, cache.getCount());
+        Assert.assertEquals(0, cache.getSize());
+
+        AtomicInteger loads = new AtomicInteger();
+        Assert.assertEquals("a", FileUtil.readUtf8String(get(cache, "/a.jar", "v1", "a", loads)));
+    }
+
+    private static File get(ResourceFileCache cache, String path, String version, String content, AtomicInteger loads) {
+        try (ResourceFileCache.Lease lease = cache.acquire(path, version, () -> open(content, loads))) {
+            return lease.getFile();
+        }
+    }
+
+    private static ByteArrayInputStream open(String content, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
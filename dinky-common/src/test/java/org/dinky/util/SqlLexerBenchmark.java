@@ -0,0 +1,55 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.util;
+
+import org.dinky.utils.SqlLexer;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the lexer with the regular expressions it replaced, on a script of 20 000 statements.
+ *
+ * <p>Not part of the default test run, the class name does not match the surefire includes. Run it with {@code mvn
+ * test -pl dinky-common -Dtest=SqlLexerBenchmark}.
+ */
+public class SqlLexerBenchmark {
+
+    @Test
+    void benchmarkRegexAgainstLexer() {
+        String script = SqlLexerTest.largeScript(20_000);
+        Assert.assertArrayEquals(SqlLexerTest.legacyGetStatements(script), SqlLexer.split(script));
+        long regexNanos = Long.MAX_VALUE;
+        long lexerNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            SqlLexerTest.legacyGetStatements(SqlLexerTest.legacyRemoveNote(script));
+            regexNanos = Math.min(regexNanos, System.nanoTime() - start);
+            start = System.nanoTime();
+            SqlLexer.lex(script);
+            lexerNanos = Math.min(lexerNanos, System.nanoTime() - start);
+        }
+        double ratio = (double) regexNanos / lexerNanos;
+        System.out.printf(
+                "script=%d KB regex=%d ms lexer=%d ms speedup=%.1fx%n",
+                script.length() / 1024, regexNanos / 1_000_000, lexerNanos / 1_000_000, ratio);
+        Assert.assertTrue("lexer should beat the regular expressions, speedup " + ratio, ratio > 1);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.util;
+
+import org.dinky.utils.SqlLexer;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+public class SqlLexerTest {
+
+    static final String SCRIPT = "-- source\n"
+            + "CREATE TABLE source (\n"
+            + "  id INT, -- key\n"
+            + "  name STRING\n"
+            + ") WITH ('connector' = 'datagen');\n"
+            + "\n"
+            + "/* sink\n of the job */\n"
+            + "CREATE TABLE sink WITH ('connector' = 'print') LIKE source;   -- same schema\n"
+            + "INSERT INTO sink SELECT /*+ OPTIONS('rows-per-second'='5') */ * FROM source;\r\n";
+
+    @Test
+    void removeNoteAsRegex() {
+        Assert.assertEquals(legacyRemoveNote(SCRIPT), SqlLexer.removeNote(SCRIPT));
+        Assert.assertEquals(legacyRemoveNote(largeScript(200)), SqlLexer.removeNote(largeScript(200)));
+        Assert.assertEquals("select  1", SqlLexer.removeNote("select\u00A0 1"));
+        Assert.assertNull(SqlLexer.removeNote(null));
+    }
+
+    @Test
+    void splitAsRegex() {
+        for (String script : new String[] {SCRIPT, largeScript(200), "select 1", "select 1;", "a;\n  ", " ; b"}) {
+            Assert.assertArrayEquals(script, legacyGetStatements(script), SqlLexer.split(script));
+        }
+        Assert.assertEquals(0, SqlLexer.split("").length);
+    }
+
+    @Test
+    void skipLiteralsAndComments() {
+        String script = "SELECT 'a;\n-- b' AS x;\n-- SELECT 2;\nSELECT \"c /* d */\", `e;\n`;";
+        Assert.assertArrayEquals(
+                new String[] {"SELECT 'a;\n-- b' AS x", "SELECT \"c /* d */\", `e;\n`"}, SqlLexer.split(script));
+        Assert.assertEquals("SELECT 'a;\n-- b' AS x;\n\nSELECT \"c /* d */\", `e;\n`;", SqlLexer.removeNote(script));
+    }
+
+    @Test
+    void lex() {
+        SqlLexer.Script script = SqlLexer.lex("tb:=${prefix}_t; -- name\n"
+                + "SELECT '${a}', ${b} FROM ${tb} /* ${c} */;\n"
+                + "-- ${d}\n"
+                + "SELECT 1; SELECT ';';");
+        Assert.assertEquals(
+                Arrays.asList("tb:=${prefix}_t", "SELECT '${a}', ${b} FROM ${tb}", "SELECT 1; SELECT ';'"),
+                script.getStatements());
+        Assert.assertTrue(SqlLexer.lex("-- only a comment\n").getStatements().isEmpty());
+    }
+
+    static String largeScript(int inserts) {
+        StringBuilder script = new StringBuilder(SCRIPT);
+        for (int i = 0; i < inserts; i++) {
+            script.append("-- batch ")
+                    .append(i)
+                    .append("\nINSERT INTO sink VALUES (")
+                    .append(i)
+                    .append(", 'name ")
+                    .append(i)
+                    .append("'), /* row */ (")
+                    .append(-i)
+                    .append(", 'other'); \n\n");
+        }
+        return script.toString();
+    }
+
+    // the regular expressions SqlUtil used before the lexer
+    static String legacyRemoveNote(String sql) {
+        sql = sql.replaceAll("\u00A0", " ").replaceAll("[\r\n]+", "\n");
+        Pattern p = Pattern.compile("(?ms)('(?:[^'])*')|--.*?$|/\\*[^+].*?\\*/|");
+        return p.matcher(sql).replaceAll("$1").trim();
+    }
+
+    static String[] legacyGetStatements(String sql) {
+        String[] splits = sql.replace("\r\n", "\n").split(";\\s*(?:\\n|--.*)");
+        String lastStatement = splits[splits.length - 1].trim();
+        if (lastStatement.endsWith(";")) {
+            splits[splits.length - 1] = lastStatement.substring(0, lastStatement.length() - 1);
+        }
+        return splits;
+    }
+}
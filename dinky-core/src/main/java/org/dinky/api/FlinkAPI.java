@@ -24,10 +24,25 @@ import org.dinky.data.constant.FlinkRestAPIConstant;
 import org.dinky.data.constant.NetConstant;
 import org.dinky.data.enums.GatewayType;
 import org.dinky.data.exception.BusException;
+import org.dinky.data.flink.backpressure.FlinkJobNodeBackPressure;
+import org.dinky.data.flink.checkpoint.CheckPointOverView;
+import org.dinky.data.flink.config.CheckpointConfigInfo;
+import org.dinky.data.flink.config.FlinkJobConfigInfo;
+import org.dinky.data.flink.exceptions.FlinkJobExceptionsDetail;
+import org.dinky.data.flink.job.FlinkJobDetailInfo;
+import org.dinky.data.flink.watermark.FlinkJobNodeWaterMark;
 import org.dinky.gateway.enums.SavePointType;
 import org.dinky.gateway.model.JobInfo;
 import org.dinky.gateway.result.SavePointResult;
+import org.dinky.utils.HttpUtils;
+import org.dinky.utils.JsonUtils;
 
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -37,14 +52,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Lists;
 
+import cn.hutool.cache.impl.TimedCache;
 import cn.hutool.core.net.URLEncodeUtil;
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.http.HttpUtil;
-import cn.hutool.http.Method;
 
 /**
  * FlinkAPI
@@ -68,6 +83,19 @@ public class FlinkAPI {
     public static final String ID = "id";
     public static final String JOBS = "jobs";
 
+    /** Responses of idempotent GET requests that change slowly are reused for this many milliseconds */
+    private static final long RESPONSE_CACHE_TTL = 3000;
+
+    /**
+     * Responses of all JobManagers keyed by address and route. Entries expire on their own, so addresses of
+     * clusters that are gone do not accumulate.
+     */
+    private static final TimedCache<String, String> RESPONSE_CACHE = new TimedCache<>(RESPONSE_CACHE_TTL);
+
+    static {
+        RESPONSE_CACHE.schedulePrune(RESPONSE_CACHE_TTL);
+    }
+
     private final String address;
     private static final ObjectMapper mapper = new ObjectMapper();
 
@@ -75,6 +103,12 @@ public class FlinkAPI {
         this.address = address;
     }
 
+    /**
+     * Gets the FlinkAPI of a JobManager address, the response cache is shared by all callers.
+     *
+     * @param address JobManager address
+     * @return FlinkAPI
+     */
     public static FlinkAPI build(String address) {
         return new FlinkAPI(address);
     }
@@ -88,11 +122,78 @@ public class FlinkAPI {
         }
     }
 
+    private String buildUrl(String route) {
+        String url = address + NetConstant.SLASH + route;
+        if (!address.startsWith(NetConstant.HTTP) && !address.startsWith(NetConstant.HTTPS)) {
+            url = NetConstant.HTTP + url;
+        }
+        return url;
+    }
+
     private JsonNode get(String route) {
         String res = getResult(route);
         return parse(res);
     }
 
+    /**
+     * get请求，短时间内重复请求同一个 route 时复用上一次的结果，只用于变化缓慢的幂等接口。
+     * 只缓存成功且可解析的响应，错误和空响应下次重新请求
+     *
+     * @param route route
+     * @return {@link String}
+     */
+    private String getCachedResult(String route) {
+        String key = address + NetConstant.SLASH + route;
+        String res = RESPONSE_CACHE.get(key, false);
+        if (res != null) {
+            return res;
+        }
+        boolean[] succeeded = new boolean[1];
+        res = HttpUtils.execute(new HttpGet(buildUrl(route)), NetConstant.SERVER_TIME_OUT_ACTIVE, response -> {
+            succeeded[0] = response.getStatusLine().getStatusCode() < HttpStatus.SC_MULTIPLE_CHOICES;
+            HttpEntity entity = response.getEntity();
+            return entity == null ? "" : EntityUtils.toString(entity, StandardCharsets.UTF_8);
+        });
+        if (succeeded[0] && isCacheable(res)) {
+            RESPONSE_CACHE.put(key, res);
+        }
+        return res;
+    }
+
+    private boolean isCacheable(String res) {
+        if (res == null || res.trim().isEmpty()) {
+            return false;
+        }
+        JsonNode node = parse(res);
+        return node != null && !node.isMissingNode() && !node.has(ERRORS);
+    }
+
+    /**
+     * get请求并直接从响应流反序列化为 clazz
+     *
+     * @param route       route
+     * @param clazz       result type
+     * @param nullOnError return null instead of throwing when Flink answers with an error
+     * @return T
+     */
+    private <T> T get(String route, Class<T> clazz, boolean nullOnError) {
+        return get(route, JsonUtils.objectMapper.constructType(clazz), nullOnError);
+    }
+
+    private <T> T get(String route, JavaType type, boolean nullOnError) {
+        return HttpUtils.execute(new HttpGet(buildUrl(route)), NetConstant.SERVER_TIME_OUT_ACTIVE, response -> {
+            HttpEntity entity = response.getEntity();
+            if (response.getStatusLine().getStatusCode() < HttpStatus.SC_MULTIPLE_CHOICES) {
+                return JsonUtils.objectMapper.readValue(entity.getContent(), type);
+            }
+            if (nullOnError) {
+                return null;
+            }
+            JsonNode result = parse(entity == null ? "" : EntityUtils.toString(entity, StandardCharsets.UTF_8));
+            throw new BusException(String.valueOf(result == null ? response.getStatusLine() : result.get(ERRORS)));
+        });
+    }
+
     /**
      * get请求获取jobManager/TaskManager的日志 (结果为字符串并不是json格式)
      *
@@ -100,33 +201,15 @@ public class FlinkAPI {
      * @return {@link String}
      */
     private String getResult(String route) {
-        String url = address + NetConstant.SLASH + route;
-        if (!address.startsWith(NetConstant.HTTP) && !address.startsWith(NetConstant.HTTPS)) {
-            url = NetConstant.HTTP + url;
-        }
-        return HttpUtil.get(url, NetConstant.SERVER_TIME_OUT_ACTIVE);
+        return HttpUtils.get(buildUrl(route), NetConstant.SERVER_TIME_OUT_ACTIVE);
     }
 
     private JsonNode post(String route, String body) {
-        String url = NetConstant.SLASH + route;
-        if (!address.startsWith(NetConstant.HTTP) && !address.startsWith(NetConstant.HTTPS)) {
-            url = NetConstant.HTTP + url;
-        }
-        String res = HttpUtil.post(url, body, NetConstant.SERVER_TIME_OUT_ACTIVE);
-        return parse(res);
+        return parse(HttpUtils.post(buildUrl(route), body, NetConstant.SERVER_TIME_OUT_ACTIVE));
     }
 
     private JsonNode patch(String route, String body) {
-        String url = address + NetConstant.SLASH + route;
-        if (!address.startsWith(NetConstant.HTTP) && !address.startsWith(NetConstant.HTTPS)) {
-            url = NetConstant.HTTP + url;
-        }
-        String res = HttpUtil.createRequest(Method.PATCH, url)
-                .timeout(NetConstant.SERVER_TIME_OUT_ACTIVE)
-                .body(body)
-                .execute()
-                .body();
-        return parse(res);
+        return parse(HttpUtils.patch(buildUrl(route), body, NetConstant.SERVER_TIME_OUT_ACTIVE));
     }
 
     public List<JsonNode> listJobs() {
@@ -244,13 +327,20 @@ public class FlinkAPI {
     }
 
     public JsonNode getOverview() {
-        return get(FlinkRestAPIConstant.OVERVIEW);
+        return parse(getCachedResult(FlinkRestAPIConstant.OVERVIEW));
     }
 
     public JsonNode getJobInfo(String jobId) {
         return get(FlinkRestAPIConstant.JOBS + jobId);
     }
 
+    /**
+     * @throws BusException if the job can not be found
+     */
+    public FlinkJobDetailInfo getJobDetailInfo(String jobId) {
+        return get(FlinkRestAPIConstant.JOBS + jobId, FlinkJobDetailInfo.class, false);
+    }
+
     public JsonNode getJobInfoSpecialItem(String jobId, String flinkRestAPIConstant) {
         return get(FlinkRestAPIConstant.JOBS + jobId + flinkRestAPIConstant);
     }
@@ -259,16 +349,46 @@ public class FlinkAPI {
         return getJobInfoSpecialItem(jobId, FlinkRestAPIConstant.EXCEPTIONS);
     }
 
+    /**
+     * @throws BusException if the job can not be found
+     */
+    public FlinkJobExceptionsDetail getExceptionsDetail(String jobId) {
+        return get(
+                FlinkRestAPIConstant.JOBS + jobId + FlinkRestAPIConstant.EXCEPTIONS,
+                FlinkJobExceptionsDetail.class,
+                false);
+    }
+
     public JsonNode getCheckPoints(String jobId) {
         return getJobInfoSpecialItem(jobId, FlinkRestAPIConstant.CHECKPOINTS);
     }
 
+    /** @return null if checkpointing is not enabled */
+    public CheckPointOverView getCheckPointOverView(String jobId) {
+        return get(
+                FlinkRestAPIConstant.JOBS + jobId + FlinkRestAPIConstant.CHECKPOINTS, CheckPointOverView.class, true);
+    }
+
     public JsonNode getCheckPointsConfig(String jobId) {
         return getJobInfoSpecialItem(jobId, FlinkRestAPIConstant.CHECKPOINTS_CONFIG);
     }
 
+    /** @return null if checkpointing is not enabled */
+    public CheckpointConfigInfo getCheckpointConfigInfo(String jobId) {
+        return get(
+                FlinkRestAPIConstant.JOBS + jobId + FlinkRestAPIConstant.CHECKPOINTS_CONFIG,
+                CheckpointConfigInfo.class,
+                true);
+    }
+
     public JsonNode getJobsConfig(String jobId) {
-        return getJobInfoSpecialItem(jobId, FlinkRestAPIConstant.CONFIG);
+        return parse(getCachedResult(FlinkRestAPIConstant.JOBS + jobId + FlinkRestAPIConstant.CONFIG));
+    }
+
+    public FlinkJobConfigInfo getJobConfigInfo(String jobId) {
+        return JsonUtils.parseObject(
+                getCachedResult(FlinkRestAPIConstant.JOBS + jobId + FlinkRestAPIConstant.CONFIG),
+                FlinkJobConfigInfo.class);
     }
 
     /** @return JsonNode */
@@ -313,12 +433,12 @@ public class FlinkAPI {
 
     /** @return JsonNode */
     public JsonNode getTaskManagers() {
-        return get(FlinkRestAPIConstant.TASK_MANAGER);
+        return parse(getCachedResult(FlinkRestAPIConstant.TASK_MANAGER));
     }
 
     /** @return String 可选值：task-manager, job-manager */
     public String buildMetricsParams(String type) {
-        JsonNode jsonNode = get(type + FlinkRestAPIConstant.METRICS);
+        JsonNode jsonNode = parse(getCachedResult(type + FlinkRestAPIConstant.METRICS));
         if (jsonNode == null) {
             return null;
         }
@@ -413,6 +533,20 @@ public class FlinkAPI {
                 + FlinkRestAPIConstant.BACKPRESSURE);
     }
 
+    /**
+     * GET backpressure, null when Flink answers with an error for the vertex
+     */
+    public FlinkJobNodeBackPressure getBackPressureInfo(String jobId, String verticeId) {
+        return get(
+                FlinkRestAPIConstant.JOBS
+                        + jobId
+                        + FlinkRestAPIConstant.VERTICES
+                        + verticeId
+                        + FlinkRestAPIConstant.BACKPRESSURE,
+                FlinkJobNodeBackPressure.class,
+                true);
+    }
+
     /**
      * GET watermark
      */
@@ -423,6 +557,29 @@ public class FlinkAPI {
                 + verticeId
                 + FlinkRestAPIConstant.WATERMARKS);
     }
+    /**
+     * GET watermark
+     *
+     * @return null if the watermarks can not be fetched
+     */
+    public List<FlinkJobNodeWaterMark> getWatermarkInfo(String jobId, String verticeId) {
+        try {
+            return get(
+                    FlinkRestAPIConstant.JOBS
+                            + jobId
+                            + FlinkRestAPIConstant.VERTICES
+                            + verticeId
+                            + FlinkRestAPIConstant.WATERMARKS,
+                    JsonUtils.objectMapper
+                            .getTypeFactory()
+                            .constructCollectionType(ArrayList.class, FlinkJobNodeWaterMark.class),
+                    true);
+        } catch (Exception e) {
+            logger.debug("get watermark of vertex {} failed: {}", verticeId, e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * get vertices
      */
@@ -0,0 +1,100 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.connector.printnet;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The framed stream of the tcp transport of the printnet connector.
+ * <p>
+ * A connection starts with the print identifier of the sink as one length prefixed UTF-8 string, followed by
+ * frames. A frame is the number of rows dropped before it, the number of rows in it and the rows, each a length
+ * prefixed byte array. All numbers are big endian ints.
+ * </p>
+ */
+public class PrintNetFrameReader {
+
+    public static final String TRANSPORT_UDP = "udp";
+    public static final String TRANSPORT_TCP = "tcp";
+
+    /** Longest row or identifier that is accepted, anything longer means the stream is corrupt */
+    public static final int MAX_RECORD_BYTES = 64 * 1024 * 1024;
+
+    private final DataInputStream in;
+    private byte[] buffer = new byte[8192];
+
+    public PrintNetFrameReader(InputStream in) {
+        this.in = new DataInputStream(new BufferedInputStream(in, 64 * 1024));
+    }
+
+    public String readIdentifier() throws IOException {
+        int length = readLength();
+        in.readFully(buffer, 0, length);
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the next frame, the buffer passed to the consumer is reused for the next row.
+     *
+     * @return false at the end of the stream
+     */
+    public boolean readFrame(RecordConsumer consumer) throws IOException {
+        int dropped;
+        try {
+            dropped = in.readInt();
+        } catch (EOFException e) {
+            return false;
+        }
+        int count = in.readInt();
+        if (dropped > 0) {
+            consumer.dropped(dropped);
+        }
+        for (int i = 0; i < count; i++) {
+            int length = readLength();
+            in.readFully(buffer, 0, length);
+            consumer.accept(buffer, length);
+        }
+        return true;
+    }
+
+    private int readLength() throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_RECORD_BYTES) {
+            throw new IOException("Invalid printnet record length " + length);
+        }
+        if (length > buffer.length) {
+            buffer = new byte[Math.max(length, buffer.length * 2)];
+        }
+        return length;
+    }
+
+    public interface RecordConsumer {
+
+        void accept(byte[] buffer, int length);
+
+        /** Rows the sink dropped because the receiver could not keep up */
+        void dropped(int rows);
+    }
+}
@@ -43,6 +43,7 @@ public class PrintNetDynamicTableSink implements DynamicTableSink, SupportsParti
     private String printIdentifier;
     private ObjectIdentifier objectIdentifier;
     private Map<String, String> staticPartitions = new LinkedHashMap<>();
+    private final PrintNetSinkFunction.TransportOptions transportOptions;
 
     public PrintNetDynamicTableSink(
             DataType type,
@@ -51,7 +52,8 @@ public class PrintNetDynamicTableSink implements DynamicTableSink, SupportsParti
             String hostname,
             int port,
             String printIdentifier,
-            ObjectIdentifier objectIdentifier) {
+            ObjectIdentifier objectIdentifier,
+            PrintNetSinkFunction.TransportOptions transportOptions) {
         this.hostname = hostname;
         this.port = port;
         this.encodingFormat = serializingFormat;
@@ -59,6 +61,7 @@ public class PrintNetDynamicTableSink implements DynamicTableSink, SupportsParti
         this.partitionKeys = partitionKeys;
         this.printIdentifier = printIdentifier;
         this.objectIdentifier = objectIdentifier;
+        this.transportOptions = transportOptions;
     }
 
     @Override
@@ -84,13 +87,20 @@ public class PrintNetDynamicTableSink implements DynamicTableSink, SupportsParti
         });
 
         return SinkFunctionProvider.of(
-                new PrintNetSinkFunction(hostname, port, serializer, converter, printIdentifier));
+                new PrintNetSinkFunction(hostname, port, serializer, converter, printIdentifier, transportOptions));
     }
 
     @Override
     public DynamicTableSink copy() {
         return new PrintNetDynamicTableSink(
-                type, partitionKeys, encodingFormat, hostname, port, printIdentifier, objectIdentifier);
+                type,
+                partitionKeys,
+                encodingFormat,
+                hostname,
+                port,
+                printIdentifier,
+                objectIdentifier,
+                transportOptions);
     }
 
     @Override
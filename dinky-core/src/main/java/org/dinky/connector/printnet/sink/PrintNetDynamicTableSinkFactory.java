@@ -21,6 +21,8 @@ package org.dinky.connector.printnet.sink;
 
 import static org.apache.flink.configuration.ConfigOptions.key;
 
+import org.dinky.connector.printnet.PrintNetFrameReader;
+
 import org.apache.flink.api.common.serialization.SerializationSchema;
 import org.apache.flink.configuration.ConfigOption;
 import org.apache.flink.configuration.ConfigOptions;
@@ -33,6 +35,7 @@ import org.apache.flink.table.factories.DynamicTableSinkFactory;
 import org.apache.flink.table.factories.FactoryUtil;
 import org.apache.flink.table.factories.SerializationFormatFactory;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
@@ -54,6 +57,28 @@ public class PrintNetDynamicTableSinkFactory implements DynamicTableSinkFactory
             .noDefaultValue()
             .withDescription("Message that identify print and is prefixed to the output of the" + " value.");
 
+    public static final ConfigOption<String> TRANSPORT = key("transport")
+            .stringType()
+            .defaultValue(PrintNetFrameReader.TRANSPORT_UDP)
+            .withDescription("How rows are sent, 'udp' sends one datagram per row, 'tcp' sends batches of rows"
+                    + " over a persistent connection.");
+
+    public static final ConfigOption<Integer> SINK_BUFFER_FLUSH_MAX_ROWS = key("sink.buffer-flush.max-rows")
+            .intType()
+            .defaultValue(100)
+            .withDescription("The max number of rows in one batch of the tcp transport.");
+
+    public static final ConfigOption<Duration> SINK_BUFFER_FLUSH_INTERVAL = key("sink.buffer-flush.interval")
+            .durationType()
+            .defaultValue(Duration.ofMillis(200))
+            .withDescription("The max time a row waits in a batch of the tcp transport.");
+
+    public static final ConfigOption<String> SINK_OVERFLOW = key("sink.overflow")
+            .stringType()
+            .defaultValue(PrintNetSinkFunction.OVERFLOW_DROP)
+            .withDescription("What the tcp transport does when the receiver cannot keep up, 'block' back-pressures"
+                    + " the job and 'drop' drops rows and reports how many were dropped.");
+
     @Override
     public DynamicTableSink createDynamicTableSink(Context context) {
         final FactoryUtil.TableFactoryHelper helper = FactoryUtil.createTableFactoryHelper(this, context);
@@ -77,7 +102,12 @@ public class PrintNetDynamicTableSinkFactory implements DynamicTableSinkFactory
                 options.get(HOSTNAME),
                 options.get(PORT),
                 options.get(PRINT_IDENTIFIER),
-                objectIdentifier);
+                objectIdentifier,
+                new PrintNetSinkFunction.TransportOptions(
+                        options.get(TRANSPORT),
+                        options.get(SINK_BUFFER_FLUSH_MAX_ROWS),
+                        options.get(SINK_BUFFER_FLUSH_INTERVAL).toMillis(),
+                        options.get(SINK_OVERFLOW)));
     }
 
     @Override
@@ -92,6 +122,12 @@ public class PrintNetDynamicTableSinkFactory implements DynamicTableSinkFactory
 
     @Override
     public Set<ConfigOption<?>> optionalOptions() {
-        return new HashSet<>(Arrays.asList(PRINT_IDENTIFIER, FactoryUtil.FORMAT));
+        return new HashSet<>(Arrays.asList(
+                PRINT_IDENTIFIER,
+                FactoryUtil.FORMAT,
+                TRANSPORT,
+                SINK_BUFFER_FLUSH_MAX_ROWS,
+                SINK_BUFFER_FLUSH_INTERVAL,
+                SINK_OVERFLOW));
     }
 }
@@ -19,6 +19,8 @@
 
 package org.dinky.connector.printnet.sink;
 
+import org.dinky.connector.printnet.PrintNetFrameReader;
+
 import org.apache.flink.api.common.serialization.SerializationSchema;
 import org.apache.flink.configuration.Configuration;
 import org.apache.flink.streaming.api.functions.sink.RichSinkFunction;
@@ -26,32 +28,47 @@ import org.apache.flink.table.connector.sink.DynamicTableSink;
 import org.apache.flink.table.data.RowData;
 
 import java.io.IOException;
+import java.io.Serializable;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
 
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class PrintNetSinkFunction extends RichSinkFunction<RowData> {
+    public static final String OVERFLOW_BLOCK = "block";
+    public static final String OVERFLOW_DROP = "drop";
+
+    private final String hostname;
     private final int port;
     private final SerializationSchema<RowData> serializer;
     private final DynamicTableSink.DataStructureConverter converter;
     private final byte[] printHeader;
     private transient DatagramSocket socket;
     private final InetAddress targetAddress;
+    private final String printIdentifier;
+    private final TransportOptions transportOptions;
+    private transient TcpBatchSender tcpSender;
 
     public PrintNetSinkFunction(
             String hostname,
             int port,
             SerializationSchema<RowData> serializer,
             DynamicTableSink.DataStructureConverter converter,
-            String printIdentifier) {
+            String printIdentifier,
+            TransportOptions transportOptions) {
+        this.hostname = hostname;
         this.port = port;
         this.serializer = serializer;
         this.converter = converter;
-        printHeader = (printIdentifier + "\n").getBytes();
+        this.printIdentifier = printIdentifier;
+        this.transportOptions = transportOptions;
+        printHeader = (printIdentifier + "\n").getBytes(StandardCharsets.UTF_8);
 
         try {
             this.targetAddress = InetAddress.getByName(hostname);
@@ -69,7 +86,17 @@ public class PrintNetSinkFunction extends RichSinkFunction<RowData> {
             serializer.open(null);
         }
 
-        socket = new DatagramSocket();
+        if (transportOptions.isTcp()) {
+            tcpSender = new TcpBatchSender(
+                    hostname,
+                    port,
+                    printIdentifier,
+                    transportOptions.getBatchRows(),
+                    transportOptions.getFlushIntervalMillis(),
+                    OVERFLOW_BLOCK.equalsIgnoreCase(transportOptions.getOverflow()));
+        } else {
+            socket = new DatagramSocket();
+        }
     }
 
     @Override
@@ -77,7 +104,12 @@ public class PrintNetSinkFunction extends RichSinkFunction<RowData> {
         try {
             byte[] buf = serializer != null
                     ? serializer.serialize(value)
-                    : converter.toExternal(value).toString().getBytes();
+                    : converter.toExternal(value).toString().getBytes(StandardCharsets.UTF_8);
+            if (tcpSender != null) {
+                // the receiver prefixes the identifier that was sent once per connection
+                tcpSender.send(buf);
+                return;
+            }
 
             byte[] target = new byte[printHeader.length + buf.length];
             System.arraycopy(printHeader, 0, target, 0, printHeader.length);
@@ -90,4 +122,28 @@ public class PrintNetSinkFunction extends RichSinkFunction<RowData> {
             throw new RuntimeException(e);
         }
     }
+
+    @Override
+    public void close() throws Exception {
+        if (tcpSender != null) {
+            tcpSender.close();
+        }
+        if (socket != null) {
+            socket.close();
+        }
+        super.close();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class TransportOptions implements Serializable {
+        private final String transport;
+        private final int batchRows;
+        private final long flushIntervalMillis;
+        private final String overflow;
+
+        public boolean isTcp() {
+            return PrintNetFrameReader.TRANSPORT_TCP.equalsIgnoreCase(transport);
+        }
+    }
 }
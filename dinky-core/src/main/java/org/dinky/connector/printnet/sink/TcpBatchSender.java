@@ -0,0 +1,255 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.connector.printnet.sink;
+
+import org.apache.flink.core.memory.DataOutputSerializer;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends rows in batches over one persistent tcp connection, in the frames read by
+ * {@link org.dinky.connector.printnet.PrintNetFrameReader}.
+ * <p>
+ * Rows are appended to a batch buffer that is handed to a sender thread once it is full or the flush interval
+ * passed. A small fixed set of buffers circulates between the two threads, so nothing is allocated per row. When
+ * the receiver cannot keep up all buffers are eventually in flight: the task then either waits for a free buffer,
+ * which back-pressures the job, or drops its rows and reports how many were dropped in the next frame.
+ * </p>
+ */
+@Slf4j
+class TcpBatchSender implements Closeable {
+
+    private static final int BUFFERS = 4;
+    private static final int MAX_BATCH_BYTES = 256 * 1024;
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+    private static final long RECONNECT_BACKOFF_MILLIS = 1000;
+
+    private final String hostname;
+    private final int port;
+    private final byte[] identifier;
+    private final int batchRows;
+    private final long flushIntervalMillis;
+    private final boolean blockOnOverflow;
+
+    private final BlockingQueue<Batch> free = new ArrayBlockingQueue<>(BUFFERS);
+    private final BlockingQueue<Batch> full = new ArrayBlockingQueue<>(BUFFERS);
+
+    /** The batch being filled, guarded by this */
+    private Batch current;
+    /** Rows dropped since the last hand off, guarded by this */
+    private int dropped;
+    /** Rows lost by failed sends, only used by the sender thread */
+    private int lost;
+
+    private final Thread senderThread;
+    private final ScheduledExecutorService flusher;
+    private volatile boolean running = true;
+
+    private Socket socket;
+    private DataOutputStream out;
+    private long lastConnectFailure;
+
+    TcpBatchSender(
+            String hostname,
+            int port,
+            String identifier,
+            int batchRows,
+            long flushIntervalMillis,
+            boolean blockOnOverflow) {
+        this.hostname = hostname;
+        this.port = port;
+        this.identifier = identifier.getBytes(StandardCharsets.UTF_8);
+        this.batchRows = batchRows;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.blockOnOverflow = blockOnOverflow;
+        for (int i = 0; i < BUFFERS; i++) {
+            free.add(new Batch());
+        }
+        senderThread = new Thread(this::sendLoop, "printnet-sender-" + hostname + ":" + port);
+        senderThread.setDaemon(true);
+        senderThread.start();
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "printnet-flusher-" + hostname + ":" + port);
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(
+                this::flushIfDue, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Appends one row, waits for a free buffer or drops the row when all are in flight */
+    synchronized void send(byte[] row) throws InterruptedException {
+        if (current == null) {
+            current = blockOnOverflow ? free.take() : free.poll();
+            if (current == null) {
+                dropped++;
+                return;
+            }
+        }
+        current.add(row);
+        if (current.count >= batchRows || current.buffer.length() >= MAX_BATCH_BYTES) {
+            handOff();
+        }
+    }
+
+    synchronized void flush() {
+        if (current != null && current.count > 0) {
+            handOff();
+        }
+    }
+
+    private synchronized void flushIfDue() {
+        if (current != null
+                && current.count > 0
+                && System.currentTimeMillis() - current.firstRowTime >= flushIntervalMillis) {
+            handOff();
+        }
+    }
+
+    private void handOff() {
+        current.dropped = dropped;
+        dropped = 0;
+        // there are never more batches than BUFFERS
+        full.add(current);
+        current = null;
+    }
+
+    private void sendLoop() {
+        while (running || !full.isEmpty()) {
+            Batch batch;
+            try {
+                batch = full.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (batch == null) {
+                continue;
+            }
+            try {
+                write(batch);
+            } catch (IOException e) {
+                log.warn("Failed to send {} rows to printnet {}:{}: {}", batch.count, hostname, port, e.getMessage());
+                lost += batch.count + batch.dropped;
+                disconnect();
+            } finally {
+                batch.clear();
+                free.add(batch);
+            }
+        }
+    }
+
+    private void write(Batch batch) throws IOException {
+        if (out == null) {
+            connect();
+        }
+        out.writeInt(batch.dropped + lost);
+        out.writeInt(batch.count);
+        out.write(batch.buffer.getSharedBuffer(), 0, batch.buffer.length());
+        out.flush();
+        lost = 0;
+    }
+
+    private void connect() throws IOException {
+        if (System.currentTimeMillis() - lastConnectFailure < RECONNECT_BACKOFF_MILLIS) {
+            throw new IOException("not connected");
+        }
+        Socket connecting = new Socket();
+        try {
+            connecting.connect(new InetSocketAddress(hostname, port), CONNECT_TIMEOUT_MILLIS);
+            connecting.setTcpNoDelay(true);
+            DataOutputStream stream =
+                    new DataOutputStream(new BufferedOutputStream(connecting.getOutputStream(), MAX_BATCH_BYTES));
+            stream.writeInt(identifier.length);
+            stream.write(identifier);
+            socket = connecting;
+            out = stream;
+            log.info("Connected to printnet {}:{}", hostname, port);
+        } catch (IOException e) {
+            lastConnectFailure = System.currentTimeMillis();
+            connecting.close();
+            throw e;
+        }
+    }
+
+    private void disconnect() {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                log.debug("Failed to close printnet connection", e);
+            }
+        }
+        socket = null;
+        out = null;
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdownNow();
+        flush();
+        running = false;
+        try {
+            senderThread.join(CONNECT_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        disconnect();
+    }
+
+    private static class Batch {
+        private final DataOutputSerializer buffer = new DataOutputSerializer(64 * 1024);
+        private int count;
+        private int dropped;
+        private long firstRowTime;
+
+        private void add(byte[] row) {
+            try {
+                buffer.writeInt(row.length);
+                buffer.write(row);
+            } catch (IOException e) {
+                // never thrown by the in memory buffer
+                throw new IllegalStateException(e);
+            }
+            if (count++ == 0) {
+                firstRowTime = System.currentTimeMillis();
+            }
+        }
+
+        private void clear() {
+            buffer.clear();
+            count = 0;
+            dropped = 0;
+        }
+    }
+}
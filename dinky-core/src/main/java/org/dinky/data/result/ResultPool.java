@@ -19,17 +19,34 @@
 
 package org.dinky.data.result;
 
+import org.dinky.data.constant.DirConstant;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
-import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import cn.hutool.core.io.FileUtil;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * ResultPool
+ * <p>
+ * Holds the results of the running previews. The rows of all results together are kept under a memory budget,
+ * the least recently read results are spilled to local disk when it is exceeded and loaded back when they are read
+ * again. A result that is not read for the idle timeout is evicted, its preview stops collecting rows.
+ * </p>
  *
  * @since 2021/7/1 22:20
  */
@@ -38,40 +55,186 @@ public final class ResultPool {
 
     private ResultPool() {}
 
-    private static final Map<String, SelectResult> RESULTS = Maps.newConcurrentMap();
+    private static final long CHECK_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    /** In access order, the least recently read result first, guarded by itself */
+    private static final Map<String, Entry> RESULTS = new LinkedHashMap<>(16, 0.75f, true);
+
+    private static final Object CHECK_LOCK = new Object();
+
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+    private static final AtomicLong SPILLS = new AtomicLong();
+    private static final AtomicLong EVICTIONS = new AtomicLong();
+
+    /** Estimated bytes of the rows of all results in memory */
+    @Setter
+    private static volatile long maxBytes = 256L * 1024 * 1024;
+
+    /** Estimated bytes of the rows of one result */
+    @Getter
+    @Setter
+    private static volatile long maxResultBytes = 32L * 1024 * 1024;
+
+    /** Time after the last read when a result is evicted */
+    @Setter
+    private static volatile long idleMillis = TimeUnit.MINUTES.toMillis(30);
+
+    private static final ScheduledExecutorService CHECKER =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                    .setNameFormat("result-pool-checker-%d")
+                    .setDaemon(true)
+                    .build());
+
+    static {
+        CHECKER.scheduleWithFixedDelay(
+                ResultPool::checkMemory, CHECK_INTERVAL_MILLIS, CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
 
     public static boolean containsKey(String key) {
-        return RESULTS.containsKey(key);
+        synchronized (RESULTS) {
+            return RESULTS.containsKey(key);
+        }
     }
 
     public static void put(SelectResult result) {
-        RESULTS.put(result.getJobId(), result);
+        int size;
+        synchronized (RESULTS) {
+            RESULTS.put(result.getJobId(), new Entry(result));
+            size = RESULTS.size();
+        }
         log.info("Put job result into cache. Job id: {}", result.getJobId());
-        log.info("Number of results in the running: {}", RESULTS.size());
+        log.info("Number of results in the running: {}", size);
     }
 
     public static SelectResult get(String key) {
-        SelectResult selectResult = RESULTS.get(key);
-        if (Objects.nonNull(selectResult)) {
-            return selectResult;
+        Entry entry;
+        synchronized (RESULTS) {
+            entry = RESULTS.get(key);
         }
+        if (Objects.nonNull(entry)) {
+            HITS.incrementAndGet();
+            entry.lastAccess = System.currentTimeMillis();
+            return entry.result;
+        }
+        MISSES.incrementAndGet();
         return SelectResult.buildDestruction(key);
     }
 
     public static boolean remove(String key) {
         log.info("Remove job result from cache. Job id: {}", key);
-        if (RESULTS.containsKey(key)) {
-            RESULTS.remove(key);
-            return true;
+        synchronized (RESULTS) {
+            return RESULTS.remove(key) != null;
         }
-        return false;
     }
 
     public static void clear() {
-        RESULTS.clear();
+        synchronized (RESULTS) {
+            RESULTS.clear();
+        }
     }
 
     public static List<String> getJobIds() {
-        return Lists.newArrayList(RESULTS.keySet());
+        synchronized (RESULTS) {
+            return new ArrayList<>(RESULTS.keySet());
+        }
+    }
+
+    public static ResultPoolMetrics getMetrics() {
+        List<Entry> entries;
+        synchronized (RESULTS) {
+            entries = new ArrayList<>(RESULTS.values());
+        }
+        long memoryBytes = 0;
+        int spilled = 0;
+        for (Entry entry : entries) {
+            RowMaterializer materializer = entry.result.getMaterializer();
+            if (materializer != null) {
+                memoryBytes += materializer.getBytes();
+                spilled += materializer.isSpilled() ? 1 : 0;
+            }
+        }
+        ResultPoolMetrics metrics = new ResultPoolMetrics();
+        metrics.setResults(entries.size());
+        metrics.setSpilledResults(spilled);
+        metrics.setMemoryBytes(memoryBytes);
+        metrics.setMaxBytes(maxBytes);
+        metrics.setHitCount(HITS.get());
+        metrics.setMissCount(MISSES.get());
+        metrics.setSpillCount(SPILLS.get());
+        metrics.setEvictionCount(EVICTIONS.get());
+        return metrics;
+    }
+
+    /**
+     * Evicts the idle results and spills the least recently read results until the rest fit into the memory
+     * budget. Runs periodically and whenever the rows of a result grew.
+     */
+    public static void checkMemory() {
+        synchronized (CHECK_LOCK) {
+            List<Map.Entry<String, Entry>> entries;
+            synchronized (RESULTS) {
+                entries = new ArrayList<>(RESULTS.entrySet());
+            }
+            long now = System.currentTimeMillis();
+            long total = 0;
+            List<Map.Entry<String, Entry>> resident = new ArrayList<>();
+            for (Map.Entry<String, Entry> entry : entries) {
+                if (now - entry.getValue().lastAccess > idleMillis) {
+                    evict(entry.getKey(), entry.getValue());
+                    continue;
+                }
+                RowMaterializer materializer = entry.getValue().result.getMaterializer();
+                if (materializer != null && !materializer.isSpilled()) {
+                    total += materializer.getBytes();
+                    resident.add(entry);
+                }
+            }
+            for (int i = 0; i < resident.size() && total > maxBytes; i++) {
+                total -= spill(resident.get(i).getKey(), resident.get(i).getValue());
+            }
+        }
+    }
+
+    private static void evict(String key, Entry entry) {
+        synchronized (RESULTS) {
+            if (RESULTS.get(key) != entry) {
+                return;
+            }
+            RESULTS.remove(key);
+        }
+        EVICTIONS.incrementAndGet();
+        entry.result.setEvicted(true);
+        RowMaterializer materializer = entry.result.getMaterializer();
+        if (materializer != null) {
+            // deletes the spill file, the rows spilled to it are not read back any more
+            materializer.close();
+        }
+        log.info("Evict job result that was not read for {} ms. Job id: {}", idleMillis, key);
+    }
+
+    private static long spill(String key, Entry entry) {
+        File dir = FileUtil.mkdir(new File(DirConstant.getTempRootDir(), "result-pool"));
+        File file = new File(dir, key.replaceAll("[^\\w-]", "_") + "-" + System.nanoTime() + ".spill");
+        try {
+            long freed = entry.result.getMaterializer().spill(file);
+            if (freed > 0) {
+                SPILLS.incrementAndGet();
+                log.info("Spill job result of {} bytes to {}. Job id: {}", freed, file, key);
+            }
+            return freed;
+        } catch (IOException e) {
+            log.error("Failed to spill job result to {}. Job id: {}", file, key, e);
+            return 0;
+        }
+    }
+
+    private static class Entry {
+        private final SelectResult result;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        private Entry(SelectResult result) {
+            this.result = result;
+        }
     }
 }
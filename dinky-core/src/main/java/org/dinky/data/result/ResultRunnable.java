@@ -24,20 +24,20 @@ import org.dinky.utils.FlinkUtil;
 
 import org.apache.flink.core.execution.JobClient;
 import org.apache.flink.table.api.TableResult;
+import org.apache.flink.table.catalog.UniqueConstraint;
 import org.apache.flink.types.Row;
 import org.apache.flink.types.RowKind;
+import org.apache.flink.util.CloseableIterator;
 
 import java.time.Instant;
 import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.function.BiConsumer;
-
-import com.google.common.collect.Streams;
+import java.util.function.Consumer;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -86,23 +86,27 @@ public class ResultRunnable implements Runnable {
                 if (!ResultPool.containsKey(id)) {
                     ResultPool.put(new SelectResult(id, new ArrayList<>(), new LinkedHashSet<>()));
                 }
+                SelectResult selectResult = ResultPool.get(id);
                 try {
                     if (isChangeLog) {
-                        catchChangLog(ResultPool.get(id));
+                        catchChangLog(selectResult);
                     } else {
-                        catchData(ResultPool.get(id));
+                        catchData(selectResult);
                     }
                     if (isAutoCancel) {
                         cancelJob();
                     }
-                    ResultPool.get(id).setDestroyed(Boolean.TRUE);
+                    selectResult.setDestroyed(Boolean.TRUE);
                     if (Objects.nonNull(callback)) {
-                        callback.accept(id, ResultPool.get(id));
+                        callback.accept(id, selectResult);
                     }
                 } catch (Exception e) {
                     log.error(String.format(e.toString()));
                 } finally {
                     ResultPool.remove(id);
+                    if (Objects.nonNull(selectResult.getMaterializer())) {
+                        selectResult.getMaterializer().close();
+                    }
                 }
             });
         } catch (Exception e) {
@@ -121,56 +125,89 @@ public class ResultRunnable implements Runnable {
         }
     }
 
-    private void catchChangLog(SelectResult selectResult) {
-        List<Map<String, Object>> rows = selectResult.getRowData();
+    private void catchChangLog(SelectResult selectResult) throws Exception {
         List<String> columns = FlinkUtil.catchColumn(tableResult);
 
         columns.add(0, FlinkConstant.OP);
+        RowMaterializer materializer =
+                new RowMaterializer(columns, Collections.emptyList(), true, ResultPool.getMaxResultBytes());
         selectResult.setColumns(new LinkedHashSet<>(columns));
-        Streams.stream(tableResult.collect()).limit(maxRowNum).forEach(row -> {
-            Map<String, Object> map = getFieldMap(columns.subList(1, columns.size()), row);
-            map.put(FlinkConstant.OP, row.getKind().shortString());
-            rows.add(map);
+        register(selectResult, materializer);
+        collect(selectResult, row -> {
+            Object[] values = new Object[row.getArity() + 1];
+            values[0] = row.getKind().shortString();
+            fillFieldValues(row, values, 1);
+            materializer.upsert(values);
         });
         log.info("Catch change log finish. Job id: {}", selectResult.getJobId());
     }
 
-    private void catchData(SelectResult selectResult) {
-        List<Map<String, Object>> rows = selectResult.getRowData();
+    private void catchData(SelectResult selectResult) throws Exception {
         List<String> columns = FlinkUtil.catchColumn(tableResult);
+        List<String> primaryKey = tableResult
+                .getResolvedSchema()
+                .getPrimaryKey()
+                .map(UniqueConstraint::getColumns)
+                .orElse(Collections.emptyList());
+        RowMaterializer materializer = new RowMaterializer(columns, primaryKey, false, ResultPool.getMaxResultBytes());
 
         selectResult.setColumns(new LinkedHashSet<>(columns));
-        Streams.stream(tableResult.collect()).limit(maxRowNum).forEach(row -> {
-            Map<String, Object> map = getFieldMap(columns, row);
-            if (RowKind.UPDATE_BEFORE == row.getKind() || RowKind.DELETE == row.getKind()) {
-                rows.remove(map);
+        register(selectResult, materializer);
+        collect(selectResult, row -> {
+            RowKind kind = row.getKind();
+            if (RowKind.UPDATE_BEFORE == kind && materializer.isKeyed()) {
+                // the UPDATE_AFTER that follows replaces the row in place
+                return;
+            }
+            Object[] values = new Object[row.getArity()];
+            fillFieldValues(row, values, 0);
+            if (RowKind.UPDATE_BEFORE == kind || RowKind.DELETE == kind) {
+                materializer.retract(values);
             } else {
-                rows.add(map);
+                materializer.upsert(values);
             }
         });
         log.info("Catch data finish. Job id: {}", selectResult.getJobId());
     }
 
-    private Map<String, Object> getFieldMap(List<String> columns, Row row) {
-        Map<String, Object> map = new LinkedHashMap<>();
+    private void register(SelectResult selectResult, RowMaterializer materializer) {
+        materializer.setGrowthListener(ResultPool::checkMemory);
+        selectResult.setMaterializer(materializer);
+    }
+
+    /**
+     * Passes at most maxRowNum changes to consumer, stops and closes the collection when the result is evicted
+     * from the pool.
+     */
+    private void collect(SelectResult selectResult, Consumer<Row> consumer) throws Exception {
+        CloseableIterator<Row> iterator = tableResult.collect();
+        for (int count = 0; count < maxRowNum && iterator.hasNext(); count++) {
+            if (selectResult.isEvicted()) {
+                log.info("Stop catching data of the evicted result. Job id: {}", selectResult.getJobId());
+                iterator.close();
+                return;
+            }
+            consumer.accept(iterator.next());
+        }
+    }
+
+    private void fillFieldValues(Row row, Object[] values, int offset) {
         for (int i = 0; i < row.getArity(); ++i) {
             Object field = row.getField(i);
-            String column = columns.get(i);
+            Object value;
             if (field == null) {
-                map.put(column, nullColumn);
+                value = nullColumn;
             } else if (field instanceof Instant) {
-                map.put(
-                        column,
-                        ((Instant) field)
-                                .atZone(ZoneId.of(timeZone))
-                                .toLocalDateTime()
-                                .toString());
+                value = ((Instant) field)
+                        .atZone(ZoneId.of(timeZone))
+                        .toLocalDateTime()
+                        .toString();
             } else if (field instanceof Boolean) {
-                map.put(column, field.toString());
+                value = field.toString();
             } else {
-                map.put(column, field);
+                value = field;
             }
+            values[offset + i] = value;
         }
-        return map;
     }
 }
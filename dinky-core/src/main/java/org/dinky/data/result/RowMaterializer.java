@@ -0,0 +1,478 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.data.result;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The live rows of a SELECT preview, materialized from its changelog.
+ * <p>
+ * Rows are kept as value arrays in the order they were first inserted and indexed by key, the values of the
+ * primary key columns when the query has one and the whole row otherwise, so that a retraction or an upsert does
+ * not scan the rows. Without a primary key equal rows are a multiset, a retraction removes the oldest of them.
+ * Retracted rows leave a hole that is compacted away once there are as many holes as rows. An append only
+ * materializer, for the changelog view, keeps no index.
+ * </p>
+ * <p>
+ * The estimated size of the rows is bounded, rows that would exceed it are dropped and the result is marked as
+ * truncated. The rows can be spilled to a local file to free the memory, changes that arrive meanwhile are
+ * appended to the file and the rows are loaded back on the next read.
+ * </p>
+ */
+@Slf4j
+public class RowMaterializer implements Closeable {
+
+    private static final int MIN_COMPACT_HOLES = 64;
+    /** Estimated bytes of a row besides its values: the array, its slot and its index entry */
+    private static final long ROW_OVERHEAD_BYTES = 96;
+    /** Growth between two calls of the growth listener */
+    private static final long NOTIFY_STEP_BYTES = 1024 * 1024;
+
+    private static final byte UPSERT = 1;
+    private static final byte RETRACT = 2;
+
+    private final List<String> columns;
+    /** Indexes of the primary key columns, null to key rows by all of their values */
+    private final int[] keyIndexes;
+
+    private final boolean appendOnly;
+    private final long maxBytes;
+
+    /** Rows by position, null for a retracted row */
+    private List<Object[]> slots = new ArrayList<>();
+    /** Positions of the live rows by key */
+    private final Map<List<Object>, Positions> index = new HashMap<>();
+
+    private int size;
+    private long bytes;
+    private long notifiedBytes;
+
+    @Getter
+    private volatile boolean truncated;
+
+    private File spillFile;
+    private ObjectOutputStream spillOut;
+
+    /** Called outside of the lock after the rows grew by a step or were loaded back */
+    @Setter
+    private Runnable growthListener;
+
+    /**
+     * @param columns    the columns of the rows
+     * @param keyColumns the primary key columns of the rows, empty to key rows by all of their values
+     * @param appendOnly whether rows are only added, for the changelog view
+     * @param maxBytes   the estimated size of the rows that is not exceeded
+     */
+    public RowMaterializer(List<String> columns, List<String> keyColumns, boolean appendOnly, long maxBytes) {
+        this.columns = new ArrayList<>(columns);
+        this.appendOnly = appendOnly;
+        this.maxBytes = maxBytes;
+        int[] indexes = null;
+        if (keyColumns != null && !keyColumns.isEmpty() && columns.containsAll(keyColumns)) {
+            indexes = keyColumns.stream().mapToInt(columns::indexOf).toArray();
+        }
+        this.keyIndexes = indexes;
+    }
+
+    public RowMaterializer(List<String> columns, List<String> keyColumns) {
+        this(columns, keyColumns, false, Long.MAX_VALUE);
+    }
+
+    public boolean isKeyed() {
+        return keyIndexes != null;
+    }
+
+    /**
+     * Adds a row, a keyed row replaces the live row of the same key in place.
+     */
+    public void upsert(Object[] row) {
+        boolean grew;
+        synchronized (this) {
+            if (spillOut != null) {
+                appendToSpill(UPSERT, row);
+                return;
+            }
+            grew = applyUpsert(row);
+        }
+        notifyGrowth(grew);
+    }
+
+    /**
+     * Removes the live row with the key of row, returns false if there is none. While the rows are spilled the
+     * retraction is only recorded and true is returned.
+     */
+    public synchronized boolean retract(Object[] row) {
+        if (spillOut != null) {
+            appendToSpill(RETRACT, row);
+            return true;
+        }
+        return applyRetract(row);
+    }
+
+    public int size() {
+        boolean loaded;
+        int result;
+        synchronized (this) {
+            loaded = load();
+            result = size;
+        }
+        notifyGrowth(loaded);
+        return result;
+    }
+
+    /**
+     * Copies the live rows from offset in insertion order, at most limit of them.
+     */
+    public List<Map<String, Object>> page(int offset, int limit) {
+        boolean loaded;
+        List<Map<String, Object>> page;
+        synchronized (this) {
+            loaded = load();
+            page = new ArrayList<>(Math.max(0, Math.min(limit, size - offset)));
+            int skipped = 0;
+            for (int i = 0; i < slots.size() && page.size() < limit; i++) {
+                Object[] row = slots.get(i);
+                if (row == null) {
+                    continue;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                } else {
+                    page.add(toMap(row));
+                }
+            }
+        }
+        notifyGrowth(loaded);
+        return page;
+    }
+
+    /** Copies all live rows in insertion order */
+    public List<Map<String, Object>> snapshot() {
+        return page(0, Integer.MAX_VALUE);
+    }
+
+    /** Estimated size of the rows in memory, 0 while they are spilled */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized boolean isSpilled() {
+        return spillOut != null;
+    }
+
+    /**
+     * Writes the rows to file and frees them, does nothing if they are spilled already.
+     *
+     * @return the estimated bytes that are freed
+     */
+    public synchronized long spill(File file) throws IOException {
+        if (spillOut != null || size == 0) {
+            return 0;
+        }
+        ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(file.toPath())));
+        try {
+            for (Object[] row : slots) {
+                if (row != null) {
+                    writeRow(out, UPSERT, row);
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            closeQuietly(out);
+            Files.deleteIfExists(file.toPath());
+            throw e;
+        }
+        long freed = bytes;
+        spillOut = out;
+        spillFile = file;
+        slots = new ArrayList<>();
+        index.clear();
+        size = 0;
+        bytes = 0;
+        notifiedBytes = 0;
+        return freed;
+    }
+
+    /** Deletes the spilled rows, which marks the rows as truncated, the rows in memory are kept */
+    @Override
+    public synchronized void close() {
+        if (spillOut != null) {
+            truncated = true;
+            closeQuietly(spillOut);
+            deleteQuietly(spillFile);
+            spillOut = null;
+            spillFile = null;
+        }
+    }
+
+    private boolean applyUpsert(Object[] row) {
+        long rowBytes = estimate(row);
+        if (appendOnly) {
+            if (!reserve(rowBytes)) {
+                return false;
+            }
+            slots.add(row);
+            size++;
+            return grew();
+        }
+        List<Object> key = keyOf(row);
+        Positions positions = index.get(key);
+        if (isKeyed() && positions != null) {
+            int position = positions.first();
+            bytes += rowBytes - estimate(slots.get(position));
+            slots.set(position, row);
+            return grew();
+        }
+        if (!reserve(rowBytes)) {
+            return false;
+        }
+        if (positions == null) {
+            positions = new Positions();
+            index.put(key, positions);
+        }
+        positions.add(slots.size());
+        slots.add(row);
+        size++;
+        return grew();
+    }
+
+    private boolean applyRetract(Object[] row) {
+        if (appendOnly) {
+            return false;
+        }
+        List<Object> key = keyOf(row);
+        Positions positions = index.get(key);
+        if (positions == null) {
+            return false;
+        }
+        int position = positions.poll();
+        bytes -= estimate(slots.get(position));
+        notifiedBytes = Math.min(notifiedBytes, bytes);
+        slots.set(position, null);
+        if (positions.isEmpty()) {
+            index.remove(key);
+        }
+        size--;
+        if (slots.size() - size >= Math.max(MIN_COMPACT_HOLES, size)) {
+            compact();
+        }
+        return true;
+    }
+
+    private boolean reserve(long rowBytes) {
+        if (bytes + rowBytes > maxBytes) {
+            if (!truncated) {
+                truncated = true;
+                log.warn("Preview rows exceed {} bytes, further rows are dropped", maxBytes);
+            }
+            return false;
+        }
+        bytes += rowBytes;
+        return true;
+    }
+
+    private boolean grew() {
+        if (bytes - notifiedBytes >= NOTIFY_STEP_BYTES) {
+            notifiedBytes = bytes;
+            return true;
+        }
+        return false;
+    }
+
+    private void notifyGrowth(boolean grew) {
+        Runnable listener = growthListener;
+        if (grew && listener != null) {
+            listener.run();
+        }
+    }
+
+    private void appendToSpill(byte op, Object[] row) {
+        try {
+            writeRow(spillOut, op, row);
+        } catch (IOException e) {
+            log.error("Failed to append a preview row to {}, it is dropped", spillFile, e);
+            truncated = true;
+        }
+    }
+
+    /**
+     * Loads the spilled rows back and replays the changes that were appended meanwhile.
+     *
+     * @return whether rows were loaded
+     */
+    private boolean load() {
+        if (spillOut == null) {
+            return false;
+        }
+        File file = spillFile;
+        closeQuietly(spillOut);
+        spillOut = null;
+        spillFile = null;
+        try (ObjectInputStream in =
+                new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            while (true) {
+                byte op;
+                try {
+                    op = in.readByte();
+                } catch (EOFException e) {
+                    break;
+                }
+                Object[] row = new Object[in.readInt()];
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = in.readObject();
+                }
+                if (op == UPSERT) {
+                    applyUpsert(row);
+                } else {
+                    applyRetract(row);
+                }
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            log.error("Failed to load the preview rows spilled to {}, the rest of them are lost", file, e);
+            truncated = true;
+        } finally {
+            deleteQuietly(file);
+        }
+        notifiedBytes = bytes;
+        return true;
+    }
+
+    private void compact() {
+        List<Object[]> live = new ArrayList<>(Math.max(size, 16));
+        index.clear();
+        for (Object[] row : slots) {
+            if (row != null) {
+                index.computeIfAbsent(keyOf(row), k -> new Positions()).add(live.size());
+                live.add(row);
+            }
+        }
+        slots = live;
+    }
+
+    private List<Object> keyOf(Object[] row) {
+        if (!isKeyed()) {
+            return Arrays.asList(row);
+        }
+        List<Object> key = new ArrayList<>(keyIndexes.length);
+        for (int keyIndex : keyIndexes) {
+            key.add(row[keyIndex]);
+        }
+        return key;
+    }
+
+    private Map<String, Object> toMap(Object[] row) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < row.length && i < columns.size(); i++) {
+            map.put(columns.get(i), row[i]);
+        }
+        return map;
+    }
+
+    private static void writeRow(ObjectOutputStream out, byte op, Object[] row) throws IOException {
+        out.writeByte(op);
+        out.writeInt(row.length);
+        for (Object value : row) {
+            out.writeObject(value == null || value instanceof Serializable ? value : String.valueOf(value));
+        }
+        // the stream must not keep the written rows reachable
+        out.reset();
+    }
+
+    private static long estimate(Object[] row) {
+        long result = ROW_OVERHEAD_BYTES + 8L * row.length;
+        for (Object value : row) {
+            if (value instanceof String) {
+                result += 40 + 2L * ((String) value).length();
+            } else if (value instanceof byte[]) {
+                result += 16 + ((byte[]) value).length;
+            } else if (value != null) {
+                result += 24;
+            }
+        }
+        return result;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            log.debug("Failed to close {}", closeable, e);
+        }
+    }
+
+    private static void deleteQuietly(File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            log.warn("Failed to delete {}", file, e);
+        }
+    }
+
+    /** Ascending positions of the live rows of one key, almost always exactly one */
+    private static class Positions {
+        private int[] values = new int[1];
+        private int head;
+        private int tail;
+
+        private void add(int position) {
+            if (tail == values.length) {
+                if (head > 0) {
+                    System.arraycopy(values, head, values, 0, tail - head);
+                    tail -= head;
+                    head = 0;
+                } else {
+                    values = Arrays.copyOf(values, values.length * 2);
+                }
+            }
+            values[tail++] = position;
+        }
+
+        private int first() {
+            return values[head];
+        }
+
+        private int poll() {
+            return values[head++];
+        }
+
+        private boolean isEmpty() {
+            return head == tail;
+        }
+    }
+}
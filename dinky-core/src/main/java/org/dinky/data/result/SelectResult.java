@@ -22,10 +22,13 @@ package org.dinky.data.result;
 import org.dinky.utils.JsonUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.google.common.collect.Sets;
 
 import cn.hutool.core.collection.CollectionUtil;
@@ -54,6 +57,14 @@ public class SelectResult extends AbstractResult implements IResult {
     private boolean isDestroyed;
     private boolean truncationFlag = false;
 
+    /** The live rows of a running preview, rowData is only used once it is set */
+    @JsonIgnore
+    private transient RowMaterializer materializer;
+
+    /** Set when the result is evicted from the {@link ResultPool}, the preview stops collecting rows */
+    @JsonIgnore
+    private transient volatile boolean evicted;
+
     public SelectResult(
             List<Map<String, Object>> rowData,
             Integer total,
@@ -91,6 +102,56 @@ public class SelectResult extends AbstractResult implements IResult {
         return jobID;
     }
 
+    public List<Map<String, Object>> getRowData() {
+        RowMaterializer live = materializer;
+        return live == null ? rowData : live.snapshot();
+    }
+
+    public void setRowData(List<Map<String, Object>> rowData) {
+        this.truncationFlag = isTruncationFlag();
+        this.materializer = null;
+        this.rowData = rowData;
+    }
+
+    /** Whether rows were dropped, by {@link #toTruncateJson} or by the materializer when over its size limit */
+    public boolean isTruncationFlag() {
+        RowMaterializer live = materializer;
+        return truncationFlag || (live != null && live.isTruncated());
+    }
+
+    public Integer getTotal() {
+        RowMaterializer live = materializer;
+        return live == null ? total : Integer.valueOf(live.size());
+    }
+
+    /**
+     * Get a page of the rows without copying the others, total is the number of all rows.
+     *
+     * @param offset index of the first row
+     * @param limit  max number of rows
+     * @return the page
+     */
+    public SelectResult page(int offset, int limit) {
+        List<Map<String, Object>> page;
+        int size;
+        RowMaterializer live = materializer;
+        if (live != null) {
+            size = live.size();
+            page = live.page(offset, limit);
+        } else {
+            List<Map<String, Object>> rows = rowData == null ? Collections.emptyList() : rowData;
+            size = rows.size();
+            page = new ArrayList<>(rows.subList(Math.min(offset, size), (int) Math.min((long) offset + limit, size)));
+        }
+        SelectResult result = new SelectResult(page, size, page.size(), columns, jobID, success);
+        result.setDestroyed(isDestroyed);
+        result.setTruncationFlag(isTruncationFlag());
+        result.setStartTime(startTime);
+        result.setEndTime(endTime);
+        result.setError(error);
+        return result;
+    }
+
     /**
      * Get the json truncated to the specified length.
      *
@@ -104,6 +165,7 @@ public class SelectResult extends AbstractResult implements IResult {
             return jsonStr;
         }
         this.truncationFlag = true;
+        List<Map<String, Object>> rowData = getRowData();
         if (CollectionUtil.isEmpty(rowData)) {
             this.columns = Sets.newLinkedHashSet();
             String finalJsonStr = JsonUtils.toJsonString(this);
@@ -121,7 +183,7 @@ public class SelectResult extends AbstractResult implements IResult {
         String lineJsonStr = JsonUtils.toJsonString(rowData.get(rowData.size() - 1));
         int lineLength = lineJsonStr.length();
         int removeLine = getRemoveLine(overLength, lineLength, rowData.size());
-        rowData = ListUtil.sub(rowData, 0, rowData.size() - removeLine);
+        setRowData(ListUtil.sub(rowData, 0, rowData.size() - removeLine));
         return toTruncateJson(length);
     }
 
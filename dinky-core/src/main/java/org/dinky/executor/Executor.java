@@ -160,7 +160,26 @@ public abstract class Executor {
 
         tableEnvironment = createCustomTableEnvironment(classLoader);
         CustomTableEnvironmentContext.set(tableEnvironment);
+        applyExecutorConfig();
+    }
+
+    /**
+     * Binds a pooled executor to the config of its next use, the leftovers of the previous use have been cleaned by
+     * {@link ExecutorPool}.
+     */
+    void reuse(ExecutorConfig executorConfig) {
+        this.executorConfig = executorConfig;
+        this.setConfig = new HashMap<>();
+        this.variableManager = new VariableManager();
+        Thread.currentThread().setContextClassLoader(dinkyClassLoader);
+        CustomTableEnvironmentContext.set(tableEnvironment);
+        if (executorConfig.isValidParallelism()) {
+            environment.setParallelism(executorConfig.getParallelism());
+        }
+        applyExecutorConfig();
+    }
 
+    private void applyExecutorConfig() {
         Configuration configuration = tableEnvironment.getConfig().getConfiguration();
         if (executorConfig.isValidJobName()) {
             configuration.setString(PipelineOptions.NAME.key(), executorConfig.getJobName());
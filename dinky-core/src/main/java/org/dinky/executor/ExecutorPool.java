@@ -0,0 +1,358 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.executor;
+
+import org.dinky.classloader.DinkyClassLoader;
+import org.dinky.context.CustomTableEnvironmentContext;
+
+import org.apache.flink.configuration.ConfigOptions;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.runtime.util.EnvironmentInformation;
+import org.apache.flink.table.catalog.Catalog;
+import org.apache.flink.table.catalog.ObjectPath;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import cn.hutool.core.thread.ThreadUtil;
+import cn.hutool.core.util.ReflectUtil;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ExecutorPool
+ *
+ * <p>Pre-initialized local plan executors for explain, job plan and lineage, keyed by Flink version and execution
+ * mode. Building the environment, catalog manager and planner costs seconds, so released executors are reset to the
+ * catalog and configuration state they had once built and handed out again. Executors which cannot be reset, such as
+ * the ones with an extra catalog, module or user jar, are discarded. Up to {@code maxIdle} executors per key are kept,
+ * refilled in the background after each borrow.
+ */
+@Slf4j
+public class ExecutorPool {
+
+    private static final String FLINK_VERSION = EnvironmentInformation.getVersion();
+
+    private static final Map<String, Entry> pools = new ConcurrentHashMap<>();
+
+    private static final Map<Executor, Pristine> pristines = Collections.synchronizedMap(new WeakHashMap<>());
+
+    @Setter
+    private static volatile int maxIdle = 2;
+
+    private static volatile ExecutorService warmer;
+
+    private ExecutorPool() {}
+
+    /** Whether an executor of the given config can come from the pool, user jars are bound to a fresh one. */
+    public static boolean isPoolable(ExecutorConfig executorConfig) {
+        return maxIdle > 0 && !executorConfig.isValidJarFiles();
+    }
+
+    public static Executor borrow(ExecutorConfig executorConfig) {
+        long start = System.nanoTime();
+        Entry entry = getEntry(executorConfig.isUseBatchModel());
+        Executor executor = entry.idle.pollFirst();
+        boolean hit = executor != null;
+        if (!hit) {
+            executor = entry.create();
+        }
+        pristines.get(executor).borrowed = true;
+        executor.reuse(executorConfig);
+        entry.active.increment();
+        entry.borrowCount.increment();
+        if (hit) {
+            entry.hitCount.increment();
+        }
+        long elapsed = System.nanoTime() - start;
+        entry.borrowNanos.add(elapsed);
+        entry.borrowMaxNanos.accumulateAndGet(elapsed, Math::max);
+        refill(entry);
+        return executor;
+    }
+
+    /**
+     * Gives an executor back to the pool, resetting it or discarding it.
+     *
+     * @return false if the executor was not borrowed from the pool, its owner has to release it
+     */
+    public static boolean release(Executor executor) {
+        Pristine pristine = executor == null ? null : pristines.get(executor);
+        if (pristine == null) {
+            return false;
+        }
+        synchronized (pristine) {
+            if (!pristine.borrowed) {
+                return true;
+            }
+            pristine.borrowed = false;
+        }
+        Entry entry = pristine.entry;
+        entry.active.decrement();
+        if (pristine.restore(executor) && entry.idle.size() < maxIdle) {
+            entry.idle.offerFirst(executor);
+        } else {
+            entry.discard(executor);
+        }
+        return true;
+    }
+
+    /** Fills the pool of streaming executors, and the ones of every mode used so far, in the background. */
+    public static void warmUp() {
+        getEntry(false);
+        pools.values().forEach(ExecutorPool::refill);
+    }
+
+    /** Discards the idle executors above {@code maxIdle}, all of them when the pool is disabled. */
+    public static void trim() {
+        for (Entry entry : pools.values()) {
+            Executor executor;
+            while (entry.idle.size() > maxIdle && (executor = entry.idle.pollLast()) != null) {
+                entry.discard(executor);
+            }
+        }
+    }
+
+    public static List<ExecutorPoolMetrics> getMetrics() {
+        List<ExecutorPoolMetrics> metrics = new ArrayList<>();
+        for (Entry entry : pools.values()) {
+            metrics.add(entry.getMetrics());
+        }
+        metrics.sort(Comparator.comparing(ExecutorPoolMetrics::getKey));
+        return metrics;
+    }
+
+    private static Entry getEntry(boolean useBatchModel) {
+        String key = FLINK_VERSION + "/" + (useBatchModel ? "batch" : "stream");
+        return pools.computeIfAbsent(key, k -> new Entry(k, useBatchModel));
+    }
+
+    private static void refill(Entry entry) {
+        if (maxIdle <= 0 || entry.idle.size() >= maxIdle || !entry.refilling.compareAndSet(false, true)) {
+            return;
+        }
+        getWarmer().execute(() -> {
+            try {
+                while (entry.idle.size() < maxIdle) {
+                    entry.idle.offerLast(entry.create());
+                }
+            } catch (Throwable e) {
+                log.warn("Warm up executor pool [{}] failed", entry.key, e);
+            } finally {
+                CustomTableEnvironmentContext.clear();
+                entry.refilling.set(false);
+            }
+        });
+    }
+
+    private static ExecutorService getWarmer() {
+        if (warmer == null) {
+            synchronized (ExecutorPool.class) {
+                if (warmer == null) {
+                    warmer = Executors.newSingleThreadExecutor(
+                            ThreadUtil.newNamedThreadFactory("executor-pool-warmer", true));
+                }
+            }
+        }
+        return warmer;
+    }
+
+    private static class Entry {
+        private final String key;
+        private final boolean useBatchModel;
+        private final Deque<Executor> idle = new ConcurrentLinkedDeque<>();
+        private final AtomicBoolean refilling = new AtomicBoolean();
+        private final LongAdder active = new LongAdder();
+        private final LongAdder borrowCount = new LongAdder();
+        private final LongAdder hitCount = new LongAdder();
+        private final LongAdder borrowNanos = new LongAdder();
+        private final AtomicLong borrowMaxNanos = new AtomicLong();
+        private final LongAdder createCount = new LongAdder();
+        private final LongAdder discardCount = new LongAdder();
+        private final LongAdder initNanos = new LongAdder();
+        private final AtomicLong initMaxNanos = new AtomicLong();
+
+        private Entry(String key, boolean useBatchModel) {
+            this.key = key;
+            this.useBatchModel = useBatchModel;
+        }
+
+        private Executor create() {
+            long start = System.nanoTime();
+            ExecutorConfig executorConfig =
+                    ExecutorConfig.builder().useBatchModel(useBatchModel).build();
+            executorConfig.setPlan(true);
+            DinkyClassLoader classLoader = DinkyClassLoader.build(ExecutorPool.class.getClassLoader());
+            Executor executor = ExecutorFactory.buildLocalExecutor(executorConfig, classLoader);
+            pristines.put(executor, new Pristine(this, executor));
+            long elapsed = System.nanoTime() - start;
+            createCount.increment();
+            initNanos.add(elapsed);
+            initMaxNanos.accumulateAndGet(elapsed, Math::max);
+            log.debug("Init executor of pool [{}] in {} ms", key, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            return executor;
+        }
+
+        private void discard(Executor executor) {
+            pristines.remove(executor);
+            discardCount.increment();
+            try {
+                executor.getDinkyClassLoader().close();
+            } catch (IOException e) {
+                log.warn("Close classloader of a discarded executor failed", e);
+            }
+        }
+
+        private ExecutorPoolMetrics getMetrics() {
+            ExecutorPoolMetrics metrics = new ExecutorPoolMetrics();
+            metrics.setKey(key);
+            metrics.setIdle(idle.size());
+            metrics.setActive(active.sum());
+            long borrows = borrowCount.sum();
+            long creates = createCount.sum();
+            metrics.setBorrowCount(borrows);
+            metrics.setHitCount(hitCount.sum());
+            metrics.setCreateCount(creates);
+            metrics.setDiscardCount(discardCount.sum());
+            metrics.setInitAvgMillis(creates == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(initNanos.sum() / creates));
+            metrics.setInitMaxMillis(TimeUnit.NANOSECONDS.toMillis(initMaxNanos.get()));
+            metrics.setBorrowAvgMillis(borrows == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(borrowNanos.sum() / borrows));
+            metrics.setBorrowMaxMillis(TimeUnit.NANOSECONDS.toMillis(borrowMaxNanos.get()));
+            return metrics;
+        }
+    }
+
+    /** The state an executor was built with, which {@link #restore(Executor)} brings it back to. */
+    private static class Pristine {
+        private final Entry entry;
+        private final String[] catalogs;
+        private final String[] modules;
+        private final String catalog;
+        private final String database;
+        private final Set<String> databases;
+        private final Map<String, String> tableConfig;
+        private final Map<String, String> rootConfig;
+        private final int parallelism;
+        private volatile boolean borrowed;
+
+        private Pristine(Entry entry, Executor executor) {
+            CustomTableEnvironment tableEnvironment = executor.getCustomTableEnvironment();
+            this.entry = entry;
+            this.catalogs = tableEnvironment.listCatalogs();
+            this.modules = tableEnvironment.listModules();
+            this.catalog = tableEnvironment.getCurrentCatalog();
+            this.database = tableEnvironment.getCurrentDatabase();
+            this.databases = new HashSet<>(Arrays.asList(tableEnvironment.listDatabases()));
+            this.tableConfig = tableEnvironment.getConfig().getConfiguration().toMap();
+            this.rootConfig = tableEnvironment.getRootConfiguration().toMap();
+            this.parallelism = executor.getStreamExecutionEnvironment().getParallelism();
+        }
+
+        private boolean restore(Executor executor) {
+            CustomTableEnvironment tableEnvironment = executor.getCustomTableEnvironment();
+            DinkyClassLoader classLoader = executor.getDinkyClassLoader();
+            if (classLoader.getURLs().length > 0
+                    || !classLoader.getUdfPathContextHolder().getAllFileSet().isEmpty()
+                    || !Arrays.equals(tableEnvironment.listCatalogs(), catalogs)
+                    || !Arrays.equals(tableEnvironment.listModules(), modules)) {
+                return false;
+            }
+            try {
+                Catalog defaultCatalog = tableEnvironment.getCatalog(catalog).orElse(null);
+                if (defaultCatalog == null) {
+                    return false;
+                }
+                tableEnvironment.useCatalog(catalog);
+                List<String> extraDatabases = new ArrayList<>();
+                for (String db : defaultCatalog.listDatabases()) {
+                    tableEnvironment.useDatabase(db);
+                    for (String view : tableEnvironment.listTemporaryViews()) {
+                        tableEnvironment.dropTemporaryView(quote(view));
+                    }
+                    for (String table : tableEnvironment.listTemporaryTables()) {
+                        tableEnvironment.dropTemporaryTable(quote(table));
+                    }
+                    for (String function : tableEnvironment.listUserDefinedFunctions()) {
+                        tableEnvironment.dropTemporaryFunction(quote(function));
+                    }
+                    for (String table : defaultCatalog.listTables(db)) {
+                        defaultCatalog.dropTable(new ObjectPath(db, table), true);
+                    }
+                    for (String function : defaultCatalog.listFunctions(db)) {
+                        defaultCatalog.dropFunction(new ObjectPath(db, function), true);
+                    }
+                    if (!databases.contains(db)) {
+                        extraDatabases.add(db);
+                    }
+                }
+                tableEnvironment.useDatabase(database);
+                for (String db : extraDatabases) {
+                    defaultCatalog.dropDatabase(db, true, true);
+                }
+                for (String function : tableEnvironment.listUserDefinedFunctions()) {
+                    tableEnvironment.dropTemporarySystemFunction(function);
+                }
+                restore(tableEnvironment.getConfig().getConfiguration(), tableConfig);
+                restore(tableEnvironment.getRootConfiguration(), rootConfig);
+                executor.getStreamExecutionEnvironment().setParallelism(parallelism);
+                List<?> transformations = (List<?>)
+                        ReflectUtil.getFieldValue(executor.getStreamExecutionEnvironment(), "transformations");
+                if (transformations != null) {
+                    transformations.clear();
+                }
+                return true;
+            } catch (Exception e) {
+                log.debug("Reset executor of pool [{}] failed, discard it", entry.key, e);
+                return false;
+            }
+        }
+
+        private static void restore(Configuration configuration, Map<String, String> snapshot) {
+            for (String key : configuration.keySet()) {
+                if (!snapshot.containsKey(key)) {
+                    configuration.removeConfig(
+                            ConfigOptions.key(key).stringType().noDefaultValue());
+                }
+            }
+            snapshot.forEach(configuration::setString);
+        }
+
+        private static String quote(String name) {
+            return "`" + name.replace("`", "``") + "`";
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.explainer;
+
+import org.dinky.executor.Executor;
+import org.dinky.executor.ExecutorConfig;
+import org.dinky.function.pool.UdfCodePool;
+import org.dinky.job.JobConfig;
+import org.dinky.job.JobManager;
+import org.dinky.utils.SqlUtil;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import cn.hutool.crypto.digest.DigestUtil;
+
+/**
+ * ExplainCache
+ *
+ * <p>Explain results and job plans of the studio checks, so that an unchanged script skips the statement
+ * pretreatment and the Calcite validation and optimization. The key digests the statement without its comments, the
+ * variables, the table configuration and executor settings of the job, its UDF references, the version of the UDF code
+ * pool and a catalog version bumped by {@link #invalidate()}. Beyond {@code capacity} the least recently used entries
+ * are evicted, and all of them expire after ten minutes as the external catalogs a statement uses can change unseen.
+ */
+public class ExplainCache {
+
+    public static final String EXPLAIN = "explain";
+    public static final String JOB_PLAN = "jobPlan";
+
+    private static final long EXPIRE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final AtomicLong catalogVersion = new AtomicLong();
+    private static final LongAdder hitCount = new LongAdder();
+    private static final LongAdder missCount = new LongAdder();
+
+    private static volatile LRUCache<String, Object> cache = CacheUtil.newLRUCache(256, EXPIRE_MILLIS);
+
+    private ExplainCache() {}
+
+    /** Resizes the cache, dropping its entries, 0 disables it. */
+    public static void setCapacity(int capacity) {
+        cache = capacity > 0 ? CacheUtil.newLRUCache(capacity, EXPIRE_MILLIS) : null;
+    }
+
+    /** Drops all the entries, to be called when a catalog, resource or UDF the statements may use has changed. */
+    public static void invalidate() {
+        catalogVersion.incrementAndGet();
+        LRUCache<String, Object> current = cache;
+        if (current != null) {
+            current.clear();
+        }
+    }
+
+    /**
+     * Builds the key of a statement about to be explained by an initialized job manager.
+     *
+     * @param kind {@link #EXPLAIN} or {@link #JOB_PLAN}
+     */
+    public static String key(String kind, JobManager jobManager, String statement) {
+        Executor executor = jobManager.getExecutor();
+        ExecutorConfig executorConfig = executor.getExecutorConfig();
+        JobConfig config = jobManager.getConfig();
+        StringBuilder material = new StringBuilder()
+                .append(kind)
+                .append('\n')
+                .append(catalogVersion.get())
+                .append('/')
+                .append(UdfCodePool.getVersion())
+                .append('\n')
+                .append(jobManager.isUseStatementSet())
+                .append('/')
+                .append(executorConfig.isUseBatchModel())
+                .append('/')
+                .append(executorConfig.isUseSqlFragment())
+                .append('/')
+                .append(executorConfig.getParallelism())
+                .append('\n')
+                .append(sorted(executor.getVariableManager().getVariable()))
+                .append('\n')
+                .append(sorted(executor.getTableConfig().getConfiguration().toMap()))
+                .append('\n')
+                .append(sorted(config.getUdfRefer()))
+                .append('\n')
+                .append(SqlUtil.removeNote(statement));
+        return DigestUtil.sha256Hex(material.toString());
+    }
+
+    /**
+     * Returns the cached value of the key, or loads it and caches it when accepted by {@code cacheable}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T get(String key, Supplier<T> loader, Predicate<T> cacheable) {
+        LRUCache<String, Object> current = cache;
+        if (current == null) {
+            return loader.get();
+        }
+        Object value = current.get(key);
+        if (value != null) {
+            hitCount.increment();
+            return (T) value;
+        }
+        missCount.increment();
+        T loaded = loader.get();
+        if (loaded != null && cacheable.test(loaded)) {
+            current.put(key, loaded);
+        }
+        return loaded;
+    }
+
+    public static ExplainCacheMetrics getMetrics() {
+        LRUCache<String, Object> current = cache;
+        long hits = hitCount.sum();
+        long misses = missCount.sum();
+        ExplainCacheMetrics metrics = new ExplainCacheMetrics();
+        metrics.setSize(current == null ? 0 : current.size());
+        metrics.setCapacity(current == null ? 0 : current.capacity());
+        metrics.setHitCount(hits);
+        metrics.setMissCount(misses);
+        metrics.setHitRate(hits + misses == 0 ? 0 : (double) hits / (hits + misses));
+        return metrics;
+    }
+
+    private static Map<String, String> sorted(Map<String, String> map) {
+        return map == null ? null : new TreeMap<>(map);
+    }
+}
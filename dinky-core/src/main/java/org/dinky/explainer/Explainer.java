@@ -101,7 +101,7 @@ public class Explainer {
 
     public Explainer initialize(JobConfig config, String statement) {
         DinkyClassLoaderUtil.initClassLoader(config, jobManager.getDinkyClassLoader());
-        String[] statements = SqlUtil.getStatements(SqlUtil.removeNote(statement));
+        String[] statements = SqlUtil.getCleanStatements(statement);
         List<UDF> udfs = parseUDFFromStatements(statements);
         jobManager.setJobParam(new JobParam(udfs));
         try {
@@ -168,10 +168,13 @@ public class Explainer {
                 Map<String, String> config = this.executor.getExecutorConfig().getConfig();
                 String host = config.getOrDefault("dinky.dinkyHost", IpUtil.getHostIp());
                 int port = Integer.parseInt(config.getOrDefault("dinky.dinkyPrintPort", "7125"));
+                String transport =
+                        config.getOrDefault("dinky.dinkyPrintTransport", PrintStatementExplainer.DEFAULT_TRANSPORT);
                 String[] tableNames = PrintStatementExplainer.getTableNames(statement);
                 for (String tableName : tableNames) {
                     trans.add(new StatementParam(
-                            PrintStatementExplainer.getCreateStatement(tableName, host, port), SqlType.CTAS));
+                            PrintStatementExplainer.getCreateStatement(tableName, host, port, transport),
+                            SqlType.CTAS));
                 }
             } else {
                 UDF udf = UDFUtil.toUDF(statement, jobManager.getDinkyClassLoader());
@@ -21,8 +21,10 @@ package org.dinky.explainer.lineage;
 
 import org.dinky.classloader.DinkyClassLoader;
 import org.dinky.data.model.LineageRel;
+import org.dinky.executor.Executor;
 import org.dinky.executor.ExecutorConfig;
 import org.dinky.executor.ExecutorFactory;
+import org.dinky.executor.ExecutorPool;
 import org.dinky.explainer.Explainer;
 import org.dinky.job.JobManager;
 
@@ -40,11 +42,18 @@ import java.util.Map;
 public class LineageBuilder {
 
     public static LineageResult getColumnLineageByLogicalPlan(String statement, ExecutorConfig executorConfig) {
-        Explainer explainer = new Explainer(
-                ExecutorFactory.buildExecutor(executorConfig, new WeakReference<>(DinkyClassLoader.build()).get()),
-                false,
-                new JobManager());
-        List<LineageRel> lineageRelList = explainer.getLineage(statement);
+        Executor executor = ExecutorPool.isPoolable(executorConfig)
+                ? ExecutorPool.borrow(executorConfig)
+                : ExecutorFactory.buildExecutor(executorConfig, new WeakReference<>(DinkyClassLoader.build()).get());
+        JobManager jobManager = new JobManager();
+        jobManager.setExecutor(executor);
+        Explainer explainer = new Explainer(executor, false, jobManager);
+        List<LineageRel> lineageRelList;
+        try {
+            lineageRelList = explainer.getLineage(statement);
+        } finally {
+            jobManager.close();
+        }
         List<LineageRelation> relations = new ArrayList<>();
         Map<String, LineageTable> tableMap = new HashMap<>();
         int tableIndex = 1;
@@ -19,6 +19,8 @@
 
 package org.dinky.explainer.print_table;
 
+import org.dinky.connector.printnet.PrintNetFrameReader;
+
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.text.MessageFormat;
@@ -38,9 +40,10 @@ public class PrintStatementExplainer {
 
     public static final String CREATE_SQL_TEMPLATE =
             "CREATE TABLE IF NOT EXISTS print_{0} WITH (''connector'' = ''printnet'', "
-                    + "''port''=''{2,number,#}'', ''hostName'' = ''{1}'')\n"
+                    + "''port''=''{2,number,#}'', ''hostName'' = ''{1}'', ''transport'' = ''{3}'')\n"
                     + "AS SELECT * FROM {0}";
     public static final int DEFAULT_PORT = 7125;
+    public static final String DEFAULT_TRANSPORT = PrintNetFrameReader.TRANSPORT_TCP;
 
     public static String[] getTableNames(String statement) {
         return splitTableNames(statement);
@@ -56,11 +59,20 @@ public class PrintStatementExplainer {
     }
 
     public static String getCreateStatement(String tableName, String localIp, Integer localPort) {
+        return getCreateStatement(tableName, localIp, localPort, DEFAULT_TRANSPORT);
+    }
+
+    public static String getCreateStatement(String tableName, String localIp, Integer localPort, String transport) {
         String ip = Strings.isNullOrEmpty(localIp)
                 ? getSystemLocalIp().map(InetAddress::getHostAddress).orElse("127.0.0.1")
                 : localIp;
         int port = localPort == null ? DEFAULT_PORT : localPort;
-        return MessageFormat.format(CREATE_SQL_TEMPLATE, tableName, ip, port);
+        return MessageFormat.format(
+                CREATE_SQL_TEMPLATE,
+                tableName,
+                ip,
+                port,
+                Strings.isNullOrEmpty(transport) ? DEFAULT_TRANSPORT : transport);
     }
 
     private static Optional<InetAddress> getSystemLocalIp() {
@@ -40,6 +40,8 @@ import org.dinky.data.result.SelectResult;
 import org.dinky.executor.Executor;
 import org.dinky.executor.ExecutorConfig;
 import org.dinky.executor.ExecutorFactory;
+import org.dinky.executor.ExecutorPool;
+import org.dinky.explainer.ExplainCache;
 import org.dinky.explainer.Explainer;
 import org.dinky.function.util.UDFUtil;
 import org.dinky.gateway.Gateway;
@@ -171,7 +173,8 @@ public class JobManager {
 
     // return dinkyclassloader
     public DinkyClassLoader getDinkyClassLoader() {
-        return dinkyClassLoader.get();
+        // a pooled executor brings its own classloader
+        return executor == null ? dinkyClassLoader.get() : executor.getDinkyClassLoader();
     }
 
     // return udfPathContextHolder
@@ -217,7 +220,11 @@ public class JobManager {
         useRestAPI = SystemConfiguration.getInstances().isUseRestAPI();
         executorConfig = config.getExecutorSetting();
         executorConfig.setPlan(isPlanMode);
-        executor = ExecutorFactory.buildExecutor(executorConfig, getDinkyClassLoader());
+        if (isPlanMode && ExecutorPool.isPoolable(executorConfig)) {
+            executor = ExecutorPool.borrow(executorConfig);
+        } else {
+            executor = ExecutorFactory.buildExecutor(executorConfig, getDinkyClassLoader());
+        }
     }
 
     private boolean ready() {
@@ -235,6 +242,9 @@ public class JobManager {
     public boolean close() {
         CustomTableEnvironmentContext.clear();
         RowLevelPermissionsContext.clear();
+        if (ExecutorPool.release(getExecutor())) {
+            return true;
+        }
         try {
             getExecutor().getDinkyClassLoader().close();
         } catch (IOException e) {
@@ -368,9 +378,12 @@ public class JobManager {
     }
 
     public ExplainResult explainSql(String statement) {
-        return Explainer.build(executor, useStatementSet, this)
-                .initialize(config, statement)
-                .explainSql(statement);
+        return ExplainCache.get(
+                ExplainCache.key(ExplainCache.EXPLAIN, this, statement),
+                () -> Explainer.build(executor, useStatementSet, this)
+                        .initialize(config, statement)
+                        .explainSql(statement),
+                ExplainResult::isCorrect);
     }
 
     public ObjectNode getStreamGraph(String statement) {
@@ -380,10 +393,13 @@ public class JobManager {
     }
 
     public String getJobPlanJson(String statement) {
-        return Explainer.build(executor, useStatementSet, this)
-                .initialize(config, statement)
-                .getJobPlanInfo(statement)
-                .getJsonPlan();
+        return ExplainCache.get(
+                ExplainCache.key(ExplainCache.JOB_PLAN, this, statement),
+                () -> Explainer.build(executor, useStatementSet, this)
+                        .initialize(config, statement)
+                        .getJobPlanInfo(statement)
+                        .getJsonPlan(),
+                Asserts::isNotNullString);
     }
 
     public boolean cancelNormal(String jobId) {
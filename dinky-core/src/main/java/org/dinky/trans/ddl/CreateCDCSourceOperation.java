@@ -24,11 +24,13 @@ import org.dinky.cdc.CDCBuilder;
 import org.dinky.cdc.CDCBuilderFactory;
 import org.dinky.cdc.SinkBuilder;
 import org.dinky.cdc.SinkBuilderFactory;
+import org.dinky.data.model.Column;
 import org.dinky.data.model.FlinkCDCConfig;
 import org.dinky.data.model.Schema;
 import org.dinky.data.model.Table;
 import org.dinky.executor.Executor;
 import org.dinky.metadata.driver.Driver;
+import org.dinky.metadata.driver.MetadataCache;
 import org.dinky.trans.AbstractOperation;
 import org.dinky.trans.Operation;
 import org.dinky.utils.JsonUtils;
@@ -41,6 +43,7 @@ import org.apache.flink.table.api.TableResult;
 
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -55,6 +58,7 @@ import java.util.stream.Collectors;
 public class CreateCDCSourceOperation extends AbstractOperation implements Operation {
 
     private static final String KEY_WORD = "EXECUTE CDCSOURCE";
+    private static final int METADATA_PARALLELISM = 4;
 
     public CreateCDCSourceOperation() {}
 
@@ -117,7 +121,7 @@ public class CreateCDCSourceOperation extends AbstractOperation implements Opera
                     // Real Table Name
                     String realSchemaName = schemaTableName.split("\\.")[0];
                     String tableName = schemaTableName.split("\\.")[1];
-                    table.setColumns(driver.listColumnsSortByPK(realSchemaName, tableName));
+                    table.setColumns(sortByPK(MetadataCache.listColumns(driver, realSchemaName, tableName)));
                     schemaList.add(schema);
 
                     if (null != sinkDriver) {
@@ -127,32 +131,46 @@ public class CreateCDCSourceOperation extends AbstractOperation implements Opera
                         checkAndCreateSinkTable(sinkDriver, sinkTable);
                     }
                 }
+                driver.destroy();
             } else {
+                // Load the tables and columns of every schema at once, served from the shared metadata cache
+                // when the database has been read recently
+                Map<String, Driver> drivers = new LinkedHashMap<>();
+                for (String schemaName : schemaNameList) {
+                    if (allConfigMap.containsKey(schemaName)) {
+                        Map<String, String> confMap = allConfigMap.get(schemaName);
+                        drivers.put(
+                                schemaName,
+                                Driver.buildUnconnected(
+                                        confMap.get("name"), confMap.get("type"), JsonUtils.toMap(confMap)));
+                    }
+                }
+                Map<String, List<Table>> tablesOfSchemas =
+                        MetadataCache.getTablesAndColumns(drivers, METADATA_PARALLELISM);
+
                 for (String schemaName : schemaNameList) {
                     Schema schema = Schema.build(schemaName);
-                    if (!allConfigMap.containsKey(schemaName)) {
+                    if (!tablesOfSchemas.containsKey(schemaName)) {
                         continue;
                     }
 
                     Driver sinkDriver = checkAndCreateSinkSchema(config, schemaName);
-                    Map<String, String> confMap = allConfigMap.get(schemaName);
-                    Driver driver = Driver.build(confMap.get("name"), confMap.get("type"), JsonUtils.toMap(confMap));
 
-                    final List<Table> tables = driver.listTables(schemaName);
+                    final List<Table> tables = tablesOfSchemas.get(schemaName);
                     for (Table table : tables) {
                         if (!Asserts.isEquals(table.getType(), "VIEW")) {
                             if (Asserts.isNotNullCollection(tableRegList)) {
                                 for (String tableReg : tableRegList) {
                                     if (table.getSchemaTableName().matches(tableReg.trim())
                                             && !schema.getTables().contains(Table.build(table.getName()))) {
-                                        table.setColumns(driver.listColumnsSortByPK(schemaName, table.getName()));
+                                        sortByPK(table.getColumns());
                                         schema.getTables().add(table);
                                         schemaTableNameList.add(table.getSchemaTableName());
                                         break;
                                     }
                                 }
                             } else {
-                                table.setColumns(driver.listColumnsSortByPK(schemaName, table.getName()));
+                                sortByPK(table.getColumns());
                                 schemaTableNameList.add(table.getSchemaTableName());
                                 schema.getTables().add(table);
                             }
@@ -199,6 +217,11 @@ public class CreateCDCSourceOperation extends AbstractOperation implements Opera
         return null;
     }
 
+    private static List<Column> sortByPK(List<Column> columns) {
+        columns.sort(Comparator.comparing(Column::isKeyFlag).reversed());
+        return columns;
+    }
+
     Driver checkAndCreateSinkSchema(FlinkCDCConfig config, String schemaName) throws Exception {
         Map<String, String> sink = config.getSink();
         String autoCreate = sink.get(FlinkCDCConfig.AUTO_CREATE);
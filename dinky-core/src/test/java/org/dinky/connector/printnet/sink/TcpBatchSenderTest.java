@@ -0,0 +1,78 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.connector.printnet.sink;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.dinky.connector.printnet.PrintNetFrameReader;
+
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TcpBatchSenderTest {
+
+    @Test
+    void sendsAllRowsInFrames() throws Exception {
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            Thread receiver = new Thread(() -> {
+                try (Socket socket = serverSocket.accept()) {
+                    PrintNetFrameReader reader = new PrintNetFrameReader(socket.getInputStream());
+                    String identifier = reader.readIdentifier();
+                    PrintNetFrameReader.RecordConsumer consumer = new PrintNetFrameReader.RecordConsumer() {
+                        @Override
+                        public void accept(byte[] buffer, int length) {
+                            received.add(identifier + ":" + new String(buffer, 0, length, StandardCharsets.UTF_8));
+                        }
+
+                        @Override
+                        public void dropped(int rows) {
+                            received.add("dropped " + rows);
+                        }
+                    };
+                    while (reader.readFrame(consumer)) {
+                        // next frame
+                    }
+                } catch (Exception e) {
+                    received.add(e.toString());
+                }
+            });
+            receiver.start();
+
+            TcpBatchSender sender =
+                    new TcpBatchSender("127.0.0.1", serverSocket.getLocalPort(), "orders", 10, 50, true);
+            // not a multiple of the batch size, the last rows are sent by the flush interval or on close
+            for (int i = 0; i < 1005; i++) {
+                sender.send(("row" + i).getBytes(StandardCharsets.UTF_8));
+            }
+            sender.close();
+            receiver.join(5000);
+        }
+        assertEquals(1005, received.size());
+        assertEquals("orders:row0", received.get(0));
+        assertEquals("orders:row1004", received.get(1004));
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.data.result;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RowMaterializerTest {
+
+    private static final List<String> COLUMNS = Arrays.asList("name", "cnt");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void retractRemovesOldestEqualRow() {
+        RowMaterializer materializer = new RowMaterializer(COLUMNS, Collections.emptyList());
+        materializer.upsert(row("a", 1));
+        materializer.upsert(row("b", 1));
+        materializer.upsert(row("a", 1));
+        assertTrue(materializer.retract(row("a", 1)));
+        assertFalse(materializer.retract(row("c", 1)));
+
+        List<Map<String, Object>> rows = materializer.snapshot();
+        assertEquals(2, rows.size());
+        assertEquals("b", rows.get(0).get("name"));
+        assertEquals("a", rows.get(1).get("name"));
+    }
+
+    @Test
+    public void upsertReplacesKeyedRowInPlace() {
+        RowMaterializer materializer = new RowMaterializer(COLUMNS, Collections.singletonList("name"));
+        materializer.upsert(row("a", 1));
+        materializer.upsert(row("b", 1));
+        materializer.upsert(row("a", 2));
+
+        List<Map<String, Object>> rows = materializer.snapshot();
+        assertEquals(2, rows.size());
+        assertEquals(2, rows.get(0).get("cnt"));
+        assertTrue(materializer.retract(row("b", 0)));
+        assertEquals(1, materializer.size());
+    }
+
+    @Test
+    public void pageSkipsRetractedRowsAcrossCompaction() {
+        RowMaterializer materializer = new RowMaterializer(COLUMNS, Collections.emptyList());
+        for (int i = 0; i < 1000; i++) {
+            materializer.upsert(row("r" + i, i));
+        }
+        // every even row is gone, enough holes to compact
+        for (int i = 0; i < 1000; i += 2) {
+            assertTrue(materializer.retract(row("r" + i, i)));
+        }
+        assertEquals(500, materializer.size());
+
+        List<Map<String, Object>> page = materializer.page(10, 5);
+        assertEquals(5, page.size());
+        assertEquals(21, page.get(0).get("cnt"));
+        assertEquals(29, page.get(4).get("cnt"));
+        assertTrue(materializer.retract(row("r21", 21)));
+        assertEquals(23, materializer.page(10, 1).get(0).get("cnt"));
+        assertTrue(materializer.page(500, 10).isEmpty());
+    }
+
+    @Test
+    public void spilledRowsReplayChangesOnLoad() throws IOException {
+        RowMaterializer materializer = new RowMaterializer(COLUMNS, Collections.emptyList());
+        for (int i = 0; i < 10; i++) {
+            materializer.upsert(row("r" + i, i));
+        }
+        File file = folder.newFile();
+        assertTrue(materializer.spill(file) > 0);
+        assertTrue(materializer.isSpilled());
+        assertEquals(0, materializer.getBytes());
+        materializer.upsert(row("r10", 10));
+        assertTrue(materializer.retract(row("r0", 0)));
+
+        List<Map<String, Object>> rows = materializer.snapshot();
+        assertFalse(materializer.isSpilled());
+        assertFalse(file.exists());
+        assertEquals(10, rows.size());
+        assertEquals("r1", rows.get(0).get("name"));
+        assertEquals(10, rows.get(9).get("cnt"));
+    }
+
+    @Test
+    public void rowsBeyondTheLimitAreDropped() {
+        RowMaterializer materializer = new RowMaterializer(COLUMNS, Collections.singletonList("name"), false, 1024);
+        for (int i = 0; i < 100; i++) {
+            materializer.upsert(row("r" + i, i));
+        }
+        assertTrue(materializer.isTruncated());
+        assertTrue(materializer.getBytes() <= 1024);
+        int size = materializer.size();
+        // replacing a row does not add one
+        materializer.upsert(row("r0", -1));
+        assertEquals(size, materializer.size());
+        assertEquals(-1, materializer.page(0, 1).get(0).get("cnt"));
+    }
+
+    @Test
+    public void truncationIsReportedByTheResult() {
+        RowMaterializer materializer = new RowMaterializer(COLUMNS, Collections.emptyList(), true, 1024);
+        SelectResult result = new SelectResult("job", Collections.emptyList(), new LinkedHashSet<>(COLUMNS));
+        result.setMaterializer(materializer);
+        assertFalse(result.isTruncationFlag());
+
+        for (int i = 0; i < 100; i++) {
+            materializer.upsert(row("r" + i, i));
+        }
+        assertTrue(result.isTruncationFlag());
+        assertTrue(result.page(0, 10).isTruncationFlag());
+        result.setRowData(result.getRowData());
+        assertTrue(result.isTruncationFlag());
+    }
+
+    @Test
+    public void closeDeletesTheSpillFile() throws IOException {
+        RowMaterializer materializer = new RowMaterializer(COLUMNS, Collections.emptyList());
+        materializer.upsert(row("a", 1));
+        File file = folder.newFile();
+        assertTrue(materializer.spill(file) > 0);
+
+        materializer.close();
+        assertFalse(file.exists());
+        assertFalse(materializer.isSpilled());
+        assertTrue(materializer.isTruncated());
+        assertEquals(0, materializer.size());
+    }
+
+    private static Object[] row(String name, int count) {
+        return new Object[] {name, count};
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.executor;
+
+import org.apache.flink.table.catalog.GenericInMemoryCatalog;
+import org.apache.flink.table.functions.ScalarFunction;
+import org.apache.flink.table.module.CoreModule;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/** test Executor Pool, a released executor must be handed out again in the state it was built with. */
+public class ExecutorPoolTest {
+
+    private final ExecutorConfig executorConfig = ExecutorConfig.DEFAULT;
+
+    @Before
+    public void setUp() {
+        // no background refill, so a released executor is the next one borrowed
+        ExecutorPool.setMaxIdle(0);
+        ExecutorPool.trim();
+    }
+
+    @After
+    public void tearDown() {
+        ExecutorPool.setMaxIdle(0);
+        ExecutorPool.trim();
+        ExecutorPool.setMaxIdle(2);
+    }
+
+    @Test
+    public void testRestoreState() {
+        Executor executor = ExecutorPool.borrow(executorConfig);
+        CustomTableEnvironment tableEnvironment = executor.getCustomTableEnvironment();
+        String database = tableEnvironment.getCurrentDatabase();
+        String[] databases = tableEnvironment.listDatabases();
+        String[] tables = tableEnvironment.listTables();
+        String[] functions = tableEnvironment.listUserDefinedFunctions();
+        Map<String, String> tableConfig =
+                tableEnvironment.getConfig().getConfiguration().toMap();
+
+        executor.executeSql("CREATE TEMPORARY VIEW v AS SELECT 1 AS a");
+        executor.executeSql("CREATE TABLE t (a INT) WITH ('connector' = 'datagen')");
+        executor.executeSql("CREATE TEMPORARY FUNCTION f AS '" + Echo.class.getName() + "'");
+        executor.executeSql("CREATE TEMPORARY SYSTEM FUNCTION sf AS '" + Echo.class.getName() + "'");
+        executor.executeSql("SET 'table.exec.mini-batch.enabled' = 'true'");
+        executor.executeSql("CREATE DATABASE db2");
+        executor.executeSql("USE db2");
+        executor.executeSql("CREATE TEMPORARY VIEW v2 AS SELECT 2 AS a");
+
+        Assert.assertSame(executor, reborrow(executor));
+        Assert.assertEquals(database, tableEnvironment.getCurrentDatabase());
+        Assert.assertArrayEquals(databases, tableEnvironment.listDatabases());
+        Assert.assertArrayEquals(tables, tableEnvironment.listTables());
+        Assert.assertEquals(0, tableEnvironment.listTemporaryViews().length);
+        Assert.assertArrayEquals(functions, tableEnvironment.listUserDefinedFunctions());
+        Assert.assertFalse(Arrays.asList(tableEnvironment.listFunctions()).contains("sf"));
+        Assert.assertEquals(
+                tableConfig, tableEnvironment.getConfig().getConfiguration().toMap());
+        ExecutorPool.release(executor);
+    }
+
+    @Test
+    public void testDiscardExtraCatalog() {
+        assertDiscarded(executor ->
+                executor.getCustomTableEnvironment().registerCatalog("extra", new GenericInMemoryCatalog("extra")));
+    }
+
+    @Test
+    public void testDiscardExtraModule() {
+        assertDiscarded(executor -> executor.getCustomTableEnvironment().loadModule("extra", CoreModule.INSTANCE));
+    }
+
+    @Test
+    public void testDiscardExtraJar() {
+        assertDiscarded(
+                executor -> executor.getDinkyClassLoader().addURLs(Collections.singletonList(new File("extra.jar"))));
+    }
+
+    private void assertDiscarded(Consumer<Executor> change) {
+        Executor executor = ExecutorPool.borrow(executorConfig);
+        change.accept(executor);
+        Assert.assertNotSame(executor, reborrow(executor));
+    }
+
+    /** Releases an executor into a pool with room for it and borrows the next one. */
+    private Executor reborrow(Executor executor) {
+        ExecutorPool.setMaxIdle(1);
+        Assert.assertTrue(ExecutorPool.release(executor));
+        ExecutorPool.setMaxIdle(0);
+        Executor next = ExecutorPool.borrow(executorConfig);
+        if (next != executor) {
+            ExecutorPool.release(next);
+        }
+        return next;
+    }
+
+    public static class Echo extends ScalarFunction {
+        public String eval(String value) {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.daemon.entity;
+
+import org.dinky.daemon.task.DaemonTask;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+
+/**
+ * A daemon task keyed by the time it is next due. Entries are never removed from the delay queue directly,
+ * they are only marked as cancelled and skipped when they reach the head of the queue.
+ * <p>
+ * The entry also serves as the handle of one run: {@link TaskQueue#getNext} hands it out and marks it as running,
+ * and only the holder of the entry that is still current can schedule the next run. Its result completes with
+ * whether the run found the task done.
+ * </p>
+ */
+@Getter
+public class DelayedTask<T extends DaemonTask> implements Delayed {
+
+    private final T task;
+
+    private final long dueTime;
+
+    private volatile boolean cancelled = false;
+
+    /** Handed out to a worker that has not finished processing it yet */
+    private volatile boolean running = false;
+
+    /** A refresh was requested while running, the next run is due at once */
+    private volatile boolean rerunRequested = false;
+
+    /** Completed when this entry has been processed, true if the task is done */
+    private final CompletableFuture<Boolean> result;
+
+    /** Result of the run requested while this one was running, handed to the next entry */
+    private volatile CompletableFuture<Boolean> rerunResult;
+
+    /** A freshly built task to use for the requested rerun instead of this one */
+    private volatile T replacement;
+
+    public DelayedTask(T task, long delayMillis) {
+        this(task, delayMillis, new CompletableFuture<>());
+    }
+
+    DelayedTask(T task, long delayMillis, CompletableFuture<Boolean> result) {
+        this.task = task;
+        this.dueTime = System.currentTimeMillis() + Math.max(delayMillis, 0);
+        this.result = result;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    void markRunning() {
+        running = true;
+    }
+
+    CompletableFuture<Boolean> requestRerun(T replacement) {
+        rerunRequested = true;
+        if (replacement != null) {
+            this.replacement = replacement;
+        }
+        if (rerunResult == null) {
+            rerunResult = new CompletableFuture<>();
+        }
+        return rerunResult;
+    }
+
+    /** Completes the result of this run, a done task also completes the rerun that will never happen. */
+    T getNextTask() {
+        return replacement != null ? replacement : task;
+    }
+
+    void finish(boolean done) {
+        result.complete(done);
+        if (done && rerunResult != null) {
+            rerunResult.complete(true);
+        }
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+        return unit.convert(dueTime - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed o) {
+        if (o instanceof DelayedTask) {
+            return Long.compare(dueTime, ((DelayedTask<?>) o).dueTime);
+        }
+        return Long.compare(getDelay(TimeUnit.MILLISECONDS), o.getDelay(TimeUnit.MILLISECONDS));
+    }
+}
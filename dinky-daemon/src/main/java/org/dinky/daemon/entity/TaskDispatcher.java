@@ -0,0 +1,106 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.daemon.entity;
+
+import org.dinky.daemon.pool.ConcurrencyLimiter;
+import org.dinky.daemon.pool.FlinkJobThreadPool;
+import org.dinky.daemon.task.DaemonTask;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Dispatches due tasks to an executor instead of processing them on a fixed set of workers.
+ * <p>
+ * A single dispatcher thread waits for the next due task, acquires a permit for the task's concurrency key and
+ * hands it to the executor. If the key is saturated or the executor is full, the task is retried shortly after,
+ * so a slow JobManager only delays its own jobs.
+ * </p>
+ */
+@Slf4j
+public class TaskDispatcher implements Runnable {
+
+    /** Max time the dispatcher waits for a due task before checking whether it has been shut down */
+    private static final long POLL_TIMEOUT = 1000;
+
+    /** Delay before a task whose concurrency key is saturated is dispatched again */
+    private static final long BUSY_RETRY_DELAY = 200;
+
+    private volatile boolean running = true;
+
+    private final TaskQueue<DaemonTask> queue;
+
+    private final ExecutorService executor;
+
+    private final ConcurrencyLimiter limiter;
+
+    public TaskDispatcher(TaskQueue<DaemonTask> queue, ExecutorService executor, ConcurrencyLimiter limiter) {
+        this.queue = queue;
+        this.executor = executor;
+        this.limiter = limiter;
+    }
+
+    @Override
+    public void run() {
+        log.debug("TaskDispatcher run:" + Thread.currentThread().getName());
+        while (running) {
+            DelayedTask<DaemonTask> delayedTask = queue.getNext(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+            if (delayedTask == null) {
+                continue;
+            }
+            String key = delayedTask.getTask().getConcurrencyKey();
+            if (!limiter.tryAcquire(key)) {
+                queue.postpone(delayedTask, BUSY_RETRY_DELAY);
+                continue;
+            }
+            try {
+                executor.execute(() -> process(delayedTask, key));
+            } catch (RejectedExecutionException e) {
+                limiter.release(key);
+                queue.postpone(delayedTask, BUSY_RETRY_DELAY);
+            }
+        }
+    }
+
+    private void process(DelayedTask<DaemonTask> delayedTask, String key) {
+        boolean done = false;
+        try {
+            done = delayedTask.getTask().dealTask();
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+        } finally {
+            limiter.release(key);
+        }
+        if (done) {
+            FlinkJobThreadPool.getInstance().complete(delayedTask);
+        } else {
+            queue.requeue(delayedTask);
+        }
+    }
+
+    public void shutdown() {
+        log.debug(Thread.currentThread().getName() + "TaskDispatcher shutdown");
+        running = false;
+        executor.shutdown();
+    }
+}
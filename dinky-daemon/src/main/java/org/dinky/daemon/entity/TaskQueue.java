@@ -22,76 +22,223 @@ package org.dinky.daemon.entity;
 import org.dinky.daemon.task.DaemonTask;
 import org.dinky.daemon.task.DaemonTaskConfig;
 
-import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
-import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
-@Getter
+/**
+ * Deadline ordered task queue.
+ * <p>
+ * Every task is kept in a {@link DelayQueue} ordered by the time it is next due, so workers only wake up when a
+ * task actually needs to be refreshed. An index keyed by {@link DaemonTaskConfig} makes lookups and removals O(1),
+ * removed entries are cancelled in place and dropped lazily when they reach the head of the queue.
+ * </p>
+ */
 @Slf4j
 public class TaskQueue<T extends DaemonTask> {
 
-    private final ArrayList<T> tasks = new ArrayList<>();
-    private int _next_index = 0;
+    private final DelayQueue<DelayedTask<T>> queue = new DelayQueue<>();
+
+    private final Map<DaemonTaskConfig, DelayedTask<T>> tasks = new ConcurrentHashMap<>();
 
-    private final Object lock = new Object();
+    /** How late (ms) the last dequeued task was compared with the time it was due */
+    private volatile long refreshLag = 0;
 
     public void addTask(T task) {
-        synchronized (lock) {
-            tasks.add(task);
-            lock.notifyAll();
+        addTask(task, 0);
+    }
+
+    /**
+     * Add a task that is first due after the given delay, a task with the same config is replaced.
+     */
+    public void addTask(T task, long delayMillis) {
+        DelayedTask<T> delayedTask = new DelayedTask<>(task, delayMillis);
+        DelayedTask<T> previous = tasks.put(task.getConfig(), delayedTask);
+        if (previous != null) {
+            previous.cancel();
         }
+        queue.offer(delayedTask);
     }
 
-    public T getNext() {
-        synchronized (lock) {
-            while (tasks.isEmpty()) {
-                try {
-                    lock.wait();
-                } catch (InterruptedException e) {
-                    log.error(e.getMessage(), e);
+    /**
+     * Wait for the next due task.
+     * <p>
+     * The returned entry is marked as running until it is passed back to {@link #requeue} or {@link #complete},
+     * so a {@link #trigger} in the meantime does not run the task a second time concurrently.
+     * </p>
+     *
+     * @param timeout max time to wait
+     * @param unit time unit of the timeout
+     * @return the entry of the next due task, or null if no task is due within the timeout
+     */
+    public DelayedTask<T> getNext(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        try {
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                DelayedTask<T> delayedTask = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (delayedTask == null) {
+                    return null;
+                }
+                if (acquire(delayedTask)) {
+                    refreshLag = Math.max(System.currentTimeMillis() - delayedTask.getDueTime(), 0);
+                    return delayedTask;
                 }
             }
-            if (_next_index >= tasks.size()) {
-                _next_index = 0;
-            }
-            T task = tasks.get(_next_index);
-            _next_index++;
-            return task;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error(e.getMessage(), e);
         }
+        return null;
     }
 
-    public T getByTaskConfig(DaemonTaskConfig task) {
-        synchronized (lock) {
-            T find = null;
-            for (T t : tasks) {
-                if (t.getConfig().equals(task)) {
-                    find = t;
-                }
+    /**
+     * Marks a dequeued entry as running if it is still the current entry of its task, under the same lock
+     * that {@link #trigger} uses.
+     */
+    private boolean acquire(DelayedTask<T> delayedTask) {
+        boolean[] acquired = {false};
+        tasks.computeIfPresent(delayedTask.getTask().getConfig(), (config, current) -> {
+            if (current == delayedTask && !current.isCancelled()) {
+                current.markRunning();
+                acquired[0] = true;
             }
-            return find;
-        }
+            return current;
+        });
+        return acquired[0];
     }
 
-    public T removeByTaskConfig(DaemonTaskConfig task) {
-        synchronized (lock) {
-            T find = getByTaskConfig(task);
-            if (find != null) {
-                tasks.remove(find);
+    /**
+     * Schedule the next run of an entry that has just been processed, after its refresh interval.
+     * Nothing is done if the task was removed or replaced while it was being processed.
+     */
+    public void requeue(DelayedTask<T> delayedTask) {
+        requeue(delayedTask, delayedTask.getTask().getRefreshInterval());
+    }
+
+    /**
+     * Schedule the next run of an entry after the given delay, or at once if a refresh was triggered while it
+     * was being processed.
+     * Nothing is done if the task was removed or replaced while it was being processed.
+     */
+    public void requeue(DelayedTask<T> delayedTask, long delayMillis) {
+        delayedTask.finish(false);
+        tasks.computeIfPresent(delayedTask.getTask().getConfig(), (config, current) -> {
+            if (current != delayedTask) {
+                return current;
+            }
+            long delay = current.isRerunRequested() ? 0 : delayMillis;
+            CompletableFuture<Boolean> result =
+                    current.getRerunResult() != null ? current.getRerunResult() : new CompletableFuture<>();
+            DelayedTask<T> next = new DelayedTask<>(current.getNextTask(), delay, result);
+            queue.offer(next);
+            return next;
+        });
+    }
+
+    /**
+     * Schedule an entry that was dequeued but not processed again after the given delay. Unlike
+     * {@link #requeue(DelayedTask, long)} the callers waiting for its run keep waiting for the next one.
+     */
+    public void postpone(DelayedTask<T> delayedTask, long delayMillis) {
+        tasks.computeIfPresent(delayedTask.getTask().getConfig(), (config, current) -> {
+            if (current != delayedTask) {
+                return current;
             }
-            return find;
+            long delay = current.isRerunRequested() ? 0 : delayMillis;
+            DelayedTask<T> next = new DelayedTask<>(current.getNextTask(), delay, current.getResult());
+            if (current.getRerunResult() != null) {
+                // the postponed run comes after the trigger, so it serves both
+                current.getResult().thenAccept(current.getRerunResult()::complete);
+            }
+            queue.offer(next);
+            return next;
+        });
+    }
+
+    /**
+     * Remove the task of an entry that has just been processed and is done.
+     * Nothing is done if the task was replaced while it was being processed.
+     *
+     * @return whether the task was removed
+     */
+    public boolean complete(DelayedTask<T> delayedTask) {
+        delayedTask.finish(true);
+        return tasks.remove(delayedTask.getTask().getConfig(), delayedTask);
+    }
+
+    /**
+     * Make a task due now.
+     * <p>
+     * A task that is being processed is not run concurrently, it runs again right after the current run finishes.
+     * A task that is not queued is created with the factory and added.
+     * </p>
+     *
+     * @return the result of the triggered run, true if it found the task done
+     */
+    public CompletableFuture<Boolean> trigger(DaemonTaskConfig config, Supplier<T> factory) {
+        return trigger(config, factory, false);
+    }
+
+    /**
+     * Make a task due now, see {@link #trigger(DaemonTaskConfig, Supplier)}.
+     *
+     * @param rebuild run a task newly created with the factory instead of the queued one
+     */
+    public CompletableFuture<Boolean> trigger(DaemonTaskConfig config, Supplier<T> factory, boolean rebuild) {
+        T created = rebuild || !tasks.containsKey(config) ? factory.get() : null;
+        @SuppressWarnings("unchecked")
+        CompletableFuture<Boolean>[] result = new CompletableFuture[1];
+        tasks.compute(config, (key, current) -> {
+            if (current != null && current.isRunning()) {
+                result[0] = current.requestRerun(rebuild ? created : null);
+                return current;
+            }
+            T task = current != null && !rebuild ? current.getTask() : created != null ? created : factory.get();
+            if (current != null) {
+                current.cancel();
+            }
+            DelayedTask<T> next = new DelayedTask<>(task, 0);
+            queue.offer(next);
+            result[0] = next.getResult();
+            return next;
+        });
+        return result[0];
+    }
+
+    public T getByTaskConfig(DaemonTaskConfig task) {
+        DelayedTask<T> delayedTask = tasks.get(task);
+        return delayedTask == null ? null : delayedTask.getTask();
+    }
+
+    public T removeByTaskConfig(DaemonTaskConfig task) {
+        DelayedTask<T> removed = tasks.remove(task);
+        if (removed == null) {
+            return null;
         }
+        removed.cancel();
+        removed.finish(false);
+        return removed.getTask();
     }
 
     public void removeByTask(T task) {
-        synchronized (lock) {
-            tasks.remove(task);
+        DelayedTask<T> current = tasks.get(task.getConfig());
+        if (current != null && current.getTask() == task && tasks.remove(task.getConfig(), current)) {
+            current.cancel();
+            current.finish(false);
         }
     }
 
     public int getTaskSize() {
-        synchronized (lock) {
-            return tasks.size();
-        }
+        return tasks.size();
+    }
+
+    public long getRefreshLag() {
+        return refreshLag;
     }
 }
@@ -22,6 +22,8 @@ package org.dinky.daemon.entity;
 import org.dinky.daemon.pool.FlinkJobThreadPool;
 import org.dinky.daemon.task.DaemonTask;
 
+import java.util.concurrent.TimeUnit;
+
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 
@@ -29,6 +31,9 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class TaskWorker implements Runnable {
 
+    /** Max time a worker waits for a due task before checking whether it has been shut down */
+    private static final long POLL_TIMEOUT = 1000;
+
     private volatile boolean running = true;
 
     private final TaskQueue<DaemonTask> queue;
@@ -40,27 +45,31 @@ public class TaskWorker implements Runnable {
     /**
      * Perform tasks.
      * <p>
-     * This method is used to perform tasks. Continuously fetch tasks from the queue
-     * while the task is running (call the queue.dequeue() method). </p>
+     * This method is used to perform tasks. Continuously wait for the next due task
+     * while the worker is running (call the queue.getNext() method). </p>
      * <p>If the task is fetched, try to process the task (call the daemonTask.dealTask() method).</p>
      * <p>If the processing task does not complete (returns False),
-     * the task is put back into the queue again (call the queue.enqueue(daemonTask) method).
+     * the task is scheduled again after its refresh interval (call the queue.requeue(delayedTask) method).
      * </p>
      */
     @Override
     public void run() {
         log.debug("TaskWorker run:" + Thread.currentThread().getName());
         while (running) {
-            DaemonTask daemonTask = queue.getNext();
-            if (daemonTask != null) {
+            DelayedTask<DaemonTask> delayedTask = queue.getNext(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+            if (delayedTask != null) {
+                DaemonTask daemonTask = delayedTask.getTask();
+                boolean done = false;
                 try {
-                    boolean done = daemonTask.dealTask();
-                    if (done) {
-                        FlinkJobThreadPool.getInstance().removeByTaskConfig(daemonTask.getConfig());
-                    }
+                    done = daemonTask.dealTask();
                 } catch (Exception e) {
                     log.error(e.getMessage(), e);
                 }
+                if (done) {
+                    FlinkJobThreadPool.getInstance().complete(delayedTask);
+                } else {
+                    queue.requeue(delayedTask);
+                }
             }
         }
     }
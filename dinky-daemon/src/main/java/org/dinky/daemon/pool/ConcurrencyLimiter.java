@@ -0,0 +1,102 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.daemon.pool;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Limits the number of in-flight tasks per concurrency key, e.g. per JobManager host.
+ */
+public class ConcurrencyLimiter {
+
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    private volatile int maxPerKey;
+
+    private volatile Consumer<String> newKeyListener = key -> {};
+
+    public ConcurrencyLimiter(int maxPerKey) {
+        this.maxPerKey = maxPerKey;
+    }
+
+    public void setMaxPerKey(int maxPerKey) {
+        this.maxPerKey = maxPerKey;
+    }
+
+    /**
+     * Called once for every key seen for the first time, used to register per key metrics.
+     */
+    public void setNewKeyListener(Consumer<String> newKeyListener) {
+        this.newKeyListener = newKeyListener;
+        inFlight.keySet().forEach(newKeyListener);
+    }
+
+    public boolean tryAcquire(String key) {
+        if (key == null) {
+            return true;
+        }
+        AtomicInteger counter = inFlight.get(key);
+        if (counter == null) {
+            AtomicInteger created = new AtomicInteger();
+            counter = inFlight.putIfAbsent(key, created);
+            if (counter == null) {
+                counter = created;
+                newKeyListener.accept(key);
+            }
+        }
+        while (true) {
+            int current = counter.get();
+            if (current >= maxPerKey) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(String key) {
+        if (key == null) {
+            return;
+        }
+        AtomicInteger counter = inFlight.get(key);
+        if (counter != null) {
+            counter.decrementAndGet();
+        }
+    }
+
+    public int getInFlight(String key) {
+        AtomicInteger counter = inFlight.get(key);
+        return counter == null ? 0 : counter.get();
+    }
+
+    public int getTotalInFlight() {
+        return inFlight.values().stream().mapToInt(AtomicInteger::get).sum();
+    }
+
+    public Set<String> getKeys() {
+        return Collections.unmodifiableSet(inFlight.keySet());
+    }
+}
@@ -19,26 +19,45 @@
 
 package org.dinky.daemon.pool;
 
+import org.dinky.daemon.entity.DelayedTask;
+import org.dinky.daemon.entity.TaskDispatcher;
 import org.dinky.daemon.entity.TaskQueue;
 import org.dinky.daemon.entity.TaskWorker;
 import org.dinky.daemon.task.DaemonTask;
 import org.dinky.daemon.task.DaemonTaskConfig;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+
 /**
  * @operate
  * @return
  */
+@Slf4j
 public class FlinkJobThreadPool implements ThreadPool {
 
     private static final int MAX_WORKER_NUM = 20;
     private static final int DEFAULT_WORKER_NUM = 1;
     private static final int MIN_WORKER_NUM = 1;
 
+    /** Max platform threads used by async mode when virtual threads are not available */
+    private static final int ASYNC_MAX_THREAD_NUM = 256;
+
+    private static final int DEFAULT_MAX_REQUESTS_PER_HOST = 8;
+
     private final List<TaskWorker> workers = Collections.synchronizedList(new ArrayList<>());
 
     private final Object lock = new Object();
@@ -47,6 +66,11 @@ public class FlinkJobThreadPool implements ThreadPool {
 
     private final TaskQueue<DaemonTask> queue = new TaskQueue<>();
 
+    private final ConcurrencyLimiter limiter = new ConcurrencyLimiter(DEFAULT_MAX_REQUESTS_PER_HOST);
+
+    /** Not null when the pool runs in async mode */
+    private volatile TaskDispatcher dispatcher;
+
     private FlinkJobThreadPool() {
         addWorkers(DEFAULT_WORKER_NUM);
     }
@@ -67,14 +91,114 @@ public class FlinkJobThreadPool implements ThreadPool {
         }
     }
 
+    /**
+     * Add a task that has just been processed by the caller, its next run is due after its refresh interval.
+     */
+    public void delayExecute(DaemonTask daemonTask) {
+        if (daemonTask != null) {
+            queue.addTask(daemonTask, daemonTask.getRefreshInterval());
+            resizeWorkers(queue.getTaskSize() / 10);
+        }
+    }
+
+    /**
+     * Make a task due now, see {@link TaskQueue#trigger}. A task that a worker is processing runs again right
+     * after it, never concurrently.
+     *
+     * @return the result of the triggered run, true if it found the task done
+     */
+    public CompletableFuture<Boolean> trigger(DaemonTaskConfig config) {
+        return trigger(config, false);
+    }
+
+    /**
+     * Make a task due now like {@link #trigger(DaemonTaskConfig)}.
+     *
+     * @param rebuild run a newly built task, which reloads its state, instead of the queued one
+     */
+    public CompletableFuture<Boolean> trigger(DaemonTaskConfig config, boolean rebuild) {
+        CompletableFuture<Boolean> result = queue.trigger(config, () -> DaemonTask.build(config), rebuild);
+        resizeWorkers(queue.getTaskSize() / 10);
+        return result;
+    }
+
+    /**
+     * Remove a task whose run has just completed it, unless it was replaced in the meantime.
+     */
+    public void complete(DelayedTask<DaemonTask> delayedTask) {
+        if (queue.complete(delayedTask)) {
+            delayedTask.getTask().onRemoved();
+        }
+        resizeWorkers(queue.getTaskSize() / 10);
+    }
+
     public DaemonTask removeByTaskConfig(DaemonTaskConfig daemonTask) {
         DaemonTask removed = queue.removeByTaskConfig(daemonTask);
+        if (removed != null) {
+            removed.onRemoved();
+        }
         resizeWorkers(queue.getTaskSize() / 10);
         return removed;
     }
 
+    /**
+     * Switch between the worker mode and the async mode.
+     * <p>
+     * In worker mode a fixed set of worker threads processes the due tasks one by one.
+     * In async mode a dispatcher hands every due task to its own virtual thread (or to an elastic platform
+     * thread pool when virtual threads are not available), limiting the in-flight tasks per JobManager host.
+     * </p>
+     *
+     * @param async whether to use the async mode
+     */
+    public void setAsyncMode(boolean async) {
+        synchronized (lock) {
+            if (async == (dispatcher != null)) {
+                return;
+            }
+            if (async) {
+                stopWorkers();
+                dispatcher = new TaskDispatcher(queue, newAsyncExecutor(), limiter);
+                Thread thread = new Thread(dispatcher, "ThreadPool-Dispatcher");
+                thread.start();
+            } else {
+                dispatcher.shutdown();
+                dispatcher = null;
+                addWorkers(DEFAULT_WORKER_NUM);
+                resizeWorkers(queue.getTaskSize() / 10);
+            }
+            log.info("Flink job thread pool switched to {} mode", async ? "async" : "worker");
+        }
+    }
+
+    public void setMaxRequestsPerHost(int maxRequestsPerHost) {
+        limiter.setMaxPerKey(Math.max(maxRequestsPerHost, 1));
+    }
+
+    private static ExecutorService newAsyncExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            log.info("Virtual threads are not available, use platform threads for the async mode");
+        }
+        ThreadFactory threadFactory =
+                ThreadFactoryBuilder.create().setNamePrefix("ThreadPool-Async-").build();
+        return new ThreadPoolExecutor(
+                0, ASYNC_MAX_THREAD_NUM, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), threadFactory);
+    }
+
+    private void stopWorkers() {
+        workers.forEach(TaskWorker::shutdown);
+        workers.clear();
+        workerNum.set(0);
+    }
+
     private void resizeWorkers(int afterNum) {
         synchronized (lock) {
+            if (dispatcher != null) {
+                return;
+            }
             int workerNum = this.workerNum.get();
 
             afterNum = Math.min(afterNum, MAX_WORKER_NUM);
@@ -132,4 +256,19 @@ public class FlinkJobThreadPool implements ThreadPool {
     public DaemonTask getByTaskConfig(DaemonTaskConfig daemonTask) {
         return queue.getByTaskConfig(daemonTask);
     }
+
+    public int getQueueSize() {
+        return queue.getTaskSize();
+    }
+
+    /**
+     * How late (ms) the most recently started refresh was compared with the time it was due.
+     */
+    public long getRefreshLag() {
+        return queue.getRefreshLag();
+    }
+
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return limiter;
+    }
 }
@@ -20,6 +20,7 @@
 package org.dinky.daemon.task;
 
 import org.dinky.assertion.Asserts;
+import org.dinky.daemon.constant.FlinkTaskConstant;
 import org.dinky.daemon.exception.DaemonTaskException;
 import org.dinky.data.enums.Status;
 
@@ -58,4 +59,25 @@ public interface DaemonTask {
     String getType();
 
     boolean dealTask();
+
+    /**
+     * Interval in milliseconds between the end of one {@link #dealTask()} and the start of the next one.
+     */
+    default long getRefreshInterval() {
+        return FlinkTaskConstant.TIME_SLEEP;
+    }
+
+    /**
+     * Key of the remote endpoint this task talks to, tasks sharing a key are limited in how many of them run
+     * concurrently in async mode. Null means the task is not limited.
+     */
+    default String getConcurrencyKey() {
+        return null;
+    }
+
+    /**
+     * Called once the task has left the pool, because a run found it done or it was removed, to release what is
+     * kept for it elsewhere.
+     */
+    default void onRemoved() {}
 }
@@ -24,6 +24,7 @@ import org.dinky.function.data.model.UDF;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import cn.hutool.core.util.StrUtil;
@@ -38,22 +39,29 @@ public class UdfCodePool {
 
     private static final Map<String, String> GIT_POOL = new ConcurrentHashMap<>();
 
+    /** bumped on every change of the pools, a version stamp for what is cached from the UDF code */
+    private static final AtomicLong VERSION = new AtomicLong();
+
     public static void registerPool(List<UDF> udfList) {
         CODE_POOL.clear();
         CODE_POOL.putAll(udfList.stream().collect(Collectors.toMap(UDF::getClassName, udf -> udf)));
+        VERSION.incrementAndGet();
     }
 
     public static void updateGitPool(Map<String, String> newPool) {
         GIT_POOL.clear();
         GIT_POOL.putAll(newPool);
+        VERSION.incrementAndGet();
     }
 
     public static void addOrUpdate(UDF udf) {
         CODE_POOL.put(udf.getClassName(), udf);
+        VERSION.incrementAndGet();
     }
 
     public static void remove(String className) {
         CODE_POOL.remove(className);
+        VERSION.incrementAndGet();
     }
 
     public static UDF getUDF(String className) {
@@ -69,6 +77,10 @@ public class UdfCodePool {
         return GIT_POOL.get(className);
     }
 
+    public static long getVersion() {
+        return VERSION.get();
+    }
+
     // return CODE_POOL
     public static Map<String, UDF> getUdfCodePool() {
         return CODE_POOL;
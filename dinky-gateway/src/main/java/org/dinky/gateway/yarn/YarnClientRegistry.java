@@ -0,0 +1,272 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.gateway.yarn;
+
+import org.dinky.data.enums.JobStatus;
+import org.dinky.gateway.Gateway;
+import org.dinky.gateway.config.ClusterConfig;
+import org.dinky.gateway.config.FlinkConfig;
+import org.dinky.gateway.config.GatewayConfig;
+import org.dinky.gateway.exception.GatewayException;
+import org.dinky.utils.JsonUtils;
+
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.yarn.YarnClusterClientFactory;
+import org.apache.flink.yarn.configuration.YarnConfigOptions;
+import org.apache.hadoop.yarn.api.records.ApplicationId;
+import org.apache.hadoop.yarn.api.records.ApplicationReport;
+import org.apache.hadoop.yarn.client.api.YarnClient;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * YarnClientRegistry
+ *
+ * <p>Long-lived YARN clients shared by the job monitor, keyed by the cluster configuration. Building a
+ * {@link YarnGateway} loads the Flink configuration from disk, starts a new {@link YarnClient} and may log in with
+ * Kerberos, which is too much work to read the state of one application on every refresh. A client that has not
+ * been used for {@link #setIdleTimeoutMillis idle timeout} is stopped. A client that is evicted or invalidated while
+ * a refresh is using it is stopped when the last user releases it.
+ *
+ * <p>In bulk mode the reports of all applications launched by Dinky are read with one {@code getApplications} call
+ * per ResourceManager and shared by every job refreshed until the snapshot is older than the given age.
+ */
+@Slf4j
+public class YarnClientRegistry {
+
+    /** Application types of the Flink applications launched by Dinky, per-job clusters keep the Flink default */
+    private static final Set<String> APPLICATION_TYPES =
+            new HashSet<>(Arrays.asList("Dinky Flink", YarnConfigOptions.APPLICATION_TYPE.defaultValue()));
+
+    private static final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Setter
+    private static volatile long idleTimeoutMillis = TimeUnit.MINUTES.toMillis(10);
+
+    private YarnClientRegistry() {}
+
+    /**
+     * Gets the status of a YARN application.
+     *
+     * @param config the gateway config of the cluster the application was launched with
+     * @param appId the YARN application id
+     * @param maxSnapshotAgeMillis the age up to which a bulk snapshot of all applications is reused, 0 to read the
+     *     report of the application alone
+     */
+    public static JobStatus getJobStatus(GatewayConfig config, String appId, long maxSnapshotAgeMillis) {
+        Entry entry = acquire(config);
+        ApplicationId applicationId = toApplicationId(appId);
+        try {
+            if (maxSnapshotAgeMillis > 0) {
+                ApplicationReport report =
+                        entry.getSnapshot(maxSnapshotAgeMillis).get(applicationId);
+                if (report != null) {
+                    return YarnGateway.toJobStatus(report);
+                }
+            }
+            // not launched by Dinky or already removed from the ResourceManager's memory
+            return YarnGateway.toJobStatus(entry.client.getApplicationReport(applicationId));
+        } catch (Exception e) {
+            log.error("Failed to get the report of yarn application {}: {}", appId, e.getMessage());
+            return JobStatus.UNKNOWN;
+        } finally {
+            entry.release();
+        }
+    }
+
+    /**
+     * Reads the address of the leading JobManager of an application in a high available cluster.
+     *
+     * @return the new address, null if it did not change or could not be read
+     */
+    public static String getLatestJobManageHost(GatewayConfig config, String appId, String oldJobManagerHost) {
+        Configuration configuration;
+        Entry entry = acquire(config);
+        try {
+            configuration = new Configuration(entry.configuration);
+        } finally {
+            entry.release();
+        }
+        return YarnGateway.getLatestJobManageHost(configuration, appId, oldJobManagerHost);
+    }
+
+    /**
+     * Stops the client of a cluster config, it is created again on the next use.
+     */
+    public static void invalidate(GatewayConfig config) {
+        if (config == null || config.getClusterConfig() == null) {
+            return;
+        }
+        Entry entry = entries.remove(key(config));
+        if (entry != null) {
+            entry.retire();
+        }
+    }
+
+    public static int size() {
+        return entries.size();
+    }
+
+    private static ApplicationId toApplicationId(String appId) {
+        Configuration configuration = new Configuration();
+        configuration.set(YarnConfigOptions.APPLICATION_ID, appId);
+        return new YarnClusterClientFactory().getClusterId(configuration);
+    }
+
+    /**
+     * Gets the client of a cluster config, the caller must {@link Entry#release release} it.
+     */
+    private static Entry acquire(GatewayConfig config) {
+        long now = System.currentTimeMillis();
+        evictIdle(now);
+        String key = key(config);
+        while (true) {
+            Entry entry = entries.computeIfAbsent(key, k -> create(config));
+            if (entry.acquire()) {
+                entry.lastAccess = now;
+                return entry;
+            }
+            // retired between lookup and acquire
+            entries.remove(key, entry);
+        }
+    }
+
+    private static void evictIdle(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (now - entry.lastAccess > idleTimeoutMillis) {
+                iterator.remove();
+                entry.retire();
+            }
+        }
+    }
+
+    /**
+     * Builds the key of a cluster from the parts of the config that the client depends on, the job name and
+     * application id are left out.
+     */
+    static String key(GatewayConfig config) {
+        ClusterConfig clusterConfig = config.getClusterConfig();
+        FlinkConfig flinkConfig = config.getFlinkConfig();
+        Map<String, Object> key = new LinkedHashMap<>();
+        key.put("flinkConfigPath", clusterConfig.getFlinkConfigPath());
+        key.put("hadoopConfigPath", clusterConfig.getHadoopConfigPath());
+        key.put("hadoopConfigList", clusterConfig.getHadoopConfigList());
+        if (flinkConfig != null) {
+            if (flinkConfig.getConfiguration() != null) {
+                key.put("configuration", new TreeMap<>(flinkConfig.getConfiguration()));
+            }
+            key.put("flinkConfigList", flinkConfig.getFlinkConfigList());
+        }
+        return JsonUtils.toJsonString(key);
+    }
+
+    private static Entry create(GatewayConfig config) {
+        Gateway gateway = Gateway.build(config);
+        if (!(gateway instanceof YarnGateway)) {
+            throw new GatewayException("Not a yarn gateway: " + config.getType());
+        }
+        YarnGateway yarnGateway = (YarnGateway) gateway;
+        yarnGateway.init();
+        log.info(
+                "Created a shared yarn client for {}", config.getClusterConfig().getHadoopConfigPath());
+        return new Entry(yarnGateway.getYarnClient(), yarnGateway.getFlinkConfiguration());
+    }
+
+    private static class Entry {
+        private final YarnClient client;
+        private final Configuration configuration;
+        private volatile long lastAccess;
+        private volatile Map<ApplicationId, ApplicationReport> snapshot = new HashMap<>();
+        private volatile long snapshotTime;
+        private final Object snapshotLock = new Object();
+        private int users;
+        private boolean retired;
+
+        private Entry(YarnClient client, Configuration configuration) {
+            this.client = client;
+            this.configuration = configuration;
+        }
+
+        private Map<ApplicationId, ApplicationReport> getSnapshot(long maxAgeMillis) throws Exception {
+            if (System.currentTimeMillis() - snapshotTime <= maxAgeMillis) {
+                return snapshot;
+            }
+            synchronized (snapshotLock) {
+                // another thread may have refreshed it while this one was waiting
+                if (System.currentTimeMillis() - snapshotTime > maxAgeMillis) {
+                    Map<ApplicationId, ApplicationReport> reports = new HashMap<>();
+                    for (ApplicationReport report : client.getApplications(APPLICATION_TYPES)) {
+                        reports.put(report.getApplicationId(), report);
+                    }
+                    snapshot = reports;
+                    snapshotTime = System.currentTimeMillis();
+                }
+                return snapshot;
+            }
+        }
+
+        private synchronized boolean acquire() {
+            if (retired) {
+                return false;
+            }
+            users++;
+            return true;
+        }
+
+        private synchronized void release() {
+            if (--users == 0 && retired) {
+                close();
+            }
+        }
+
+        /** Stops the client now if it is not in use, otherwise when the last user releases it. */
+        private synchronized void retire() {
+            if (retired) {
+                return;
+            }
+            retired = true;
+            if (users == 0) {
+                close();
+            }
+        }
+
+        private void close() {
+            try {
+                client.stop();
+            } catch (Exception e) {
+                log.warn("Failed to stop yarn client: {}", e.getMessage());
+            }
+        }
+    }
+}
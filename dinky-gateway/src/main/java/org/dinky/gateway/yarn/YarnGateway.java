@@ -44,6 +44,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.flink.client.deployment.ClusterRetrieveException;
 import org.apache.flink.client.program.ClusterClient;
 import org.apache.flink.configuration.ConfigConstants;
+import org.apache.flink.configuration.Configuration;
 import org.apache.flink.configuration.CoreOptions;
 import org.apache.flink.configuration.DeploymentOptions;
 import org.apache.flink.configuration.GlobalConfiguration;
@@ -306,39 +307,53 @@ public abstract class YarnGateway extends AbstractGateway {
         }
         config.getClusterConfig().setAppId(id);
         try {
-            ApplicationReport applicationReport = yarnClient.getApplicationReport(getApplicationId());
-            YarnApplicationState yarnApplicationState = applicationReport.getYarnApplicationState();
-            FinalApplicationStatus finalApplicationStatus = applicationReport.getFinalApplicationStatus();
-            switch (yarnApplicationState) {
-                case FINISHED:
-                    switch (finalApplicationStatus) {
-                        case KILLED:
-                            return JobStatus.CANCELED;
-                        case FAILED:
-                            return JobStatus.FAILED;
-                        default:
-                            return JobStatus.FINISHED;
-                    }
-                case RUNNING:
-                    return JobStatus.RUNNING;
-                case FAILED:
-                    return JobStatus.FAILED;
-                case KILLED:
-                    return JobStatus.CANCELED;
-                case SUBMITTED:
-                case ACCEPTED:
-                case NEW:
-                case NEW_SAVING:
-                    return JobStatus.CREATED;
-                default:
-                    return JobStatus.UNKNOWN;
-            }
+            return toJobStatus(yarnClient.getApplicationReport(getApplicationId()));
         } catch (YarnException | IOException e) {
             logger.error(e.getMessage());
             return JobStatus.UNKNOWN;
         }
     }
 
+    /**
+     * Maps the state of a YARN application to the status of the Flink job it runs.
+     */
+    static JobStatus toJobStatus(ApplicationReport applicationReport) {
+        YarnApplicationState yarnApplicationState = applicationReport.getYarnApplicationState();
+        FinalApplicationStatus finalApplicationStatus = applicationReport.getFinalApplicationStatus();
+        switch (yarnApplicationState) {
+            case FINISHED:
+                switch (finalApplicationStatus) {
+                    case KILLED:
+                        return JobStatus.CANCELED;
+                    case FAILED:
+                        return JobStatus.FAILED;
+                    default:
+                        return JobStatus.FINISHED;
+                }
+            case RUNNING:
+                return JobStatus.RUNNING;
+            case FAILED:
+                return JobStatus.FAILED;
+            case KILLED:
+                return JobStatus.CANCELED;
+            case SUBMITTED:
+            case ACCEPTED:
+            case NEW:
+            case NEW_SAVING:
+                return JobStatus.CREATED;
+            default:
+                return JobStatus.UNKNOWN;
+        }
+    }
+
+    YarnClient getYarnClient() {
+        return yarnClient;
+    }
+
+    Configuration getFlinkConfiguration() {
+        return configuration;
+    }
+
     @Override
     public void killCluster() {
         if (Asserts.isNull(yarnClient)) {
@@ -463,7 +478,16 @@ public abstract class YarnGateway extends AbstractGateway {
     @Override
     public String getLatestJobManageHost(String appId, String oldJobManagerHost) {
         initConfig();
+        return getLatestJobManageHost(configuration, appId, oldJobManagerHost);
+    }
 
+    /**
+     * Reads the address of the leading JobManager of an application from ZooKeeper.
+     *
+     * @param configuration the Flink configuration of the cluster, the HA cluster id is set on it
+     * @return the new address, null if it did not change or could not be read
+     */
+    static String getLatestJobManageHost(Configuration configuration, String appId, String oldJobManagerHost) {
         HighAvailabilityMode highAvailabilityMode = HighAvailabilityMode.fromConfig(configuration);
 
         if (HighAvailabilityMode.ZOOKEEPER == highAvailabilityMode) {
@@ -19,7 +19,6 @@
 
 package org.dinky.metadata.driver;
 
-import static org.dinky.utils.SplitUtil.contains;
 import static org.dinky.utils.SplitUtil.getReValue;
 import static org.dinky.utils.SplitUtil.isSplit;
 
@@ -27,6 +26,7 @@ import org.dinky.assertion.Asserts;
 import org.dinky.data.constant.CommonConstant;
 import org.dinky.data.enums.TableType;
 import org.dinky.data.exception.BusException;
+import org.dinky.data.exception.MetaDataException;
 import org.dinky.data.model.Column;
 import org.dinky.data.model.QueryData;
 import org.dinky.data.model.Schema;
@@ -35,6 +35,7 @@ import org.dinky.data.result.SqlExplainResult;
 import org.dinky.metadata.config.AbstractJdbcConfig;
 import org.dinky.metadata.config.DriverConfig;
 import org.dinky.metadata.query.IDBQuery;
+import org.dinky.metadata.result.JdbcResultCursor;
 import org.dinky.metadata.result.JdbcSelectResult;
 import org.dinky.utils.JsonUtils;
 import org.dinky.utils.LogUtil;
@@ -57,7 +58,16 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -67,6 +77,7 @@ import com.alibaba.druid.sql.SQLUtils;
 import com.alibaba.druid.sql.ast.SQLStatement;
 
 import cn.hutool.core.text.CharSequenceUtil;
+import cn.hutool.core.thread.ThreadUtil;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -79,8 +90,23 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
 
     protected ThreadLocal<Connection> conn = new ThreadLocal<>();
 
-    private DruidDataSource dataSource;
+    private static final int QUERY_BATCH_SIZE = 1000;
+    private static final Pattern JDBC_ADDRESS = Pattern.compile("^jdbc:[^/]*//([^/?;]+)");
+    private static final Pattern JDBC_PATH_DATABASE = Pattern.compile("^/([^/?;&]+)");
+    private static final Pattern JDBC_PARAM_DATABASE =
+            Pattern.compile("[;?&](?:databaseName|database|dbname)=([^;&]+)", Pattern.CASE_INSENSITIVE);
+
+    private volatile DruidDataSource dataSource;
+    /** Set once the pool has destroyed the driver, a caller still holding it then gets unpooled connections */
+    private volatile boolean destroyed;
+
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder borrowNanos = new LongAdder();
+    private final AtomicLong maxBorrowNanos = new AtomicLong();
+    private volatile long lastBorrowTime;
     protected String validationQuery = "select 1";
+    /** Upper bound of the pooled connections used to list the columns of a schema table by table */
+    protected int metadataParallelism = 4;
 
     abstract String getDriverClass();
 
@@ -134,7 +160,19 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
         ds.setFailFast(true);
         ds.setInitialSize(1);
         ds.setMaxActive(8);
-        ds.setMinIdle(5);
+        ds.setMinIdle(1);
+        ds.setMaxWait(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    @Override
+    public Driver init() {
+        try {
+            Class.forName(getDriverClass());
+            createDataSource();
+        } catch (ClassNotFoundException | SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return this;
     }
 
     @Override
@@ -142,8 +180,7 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
         if (Asserts.isNull(conn.get())) {
             try {
                 Class.forName(getDriverClass());
-                DruidPooledConnection connection = createDataSource().getConnection();
-                conn.set(connection);
+                conn.set(borrowConnection());
             } catch (ClassNotFoundException | SQLException e) {
                 throw new RuntimeException(e);
             }
@@ -151,13 +188,61 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
         return this;
     }
 
+    /**
+     * 获取连接，当前线程通过 {@link #connect()} 绑定了连接时复用该连接，否则从连接池借出，用完后由 {@link
+     * #releaseConnection(Connection)} 归还
+     */
+    protected Connection getConnection() throws SQLException {
+        Connection connection = conn.get();
+        return Asserts.isNotNull(connection) ? connection : borrowConnection();
+    }
+
+    protected Connection borrowConnection() throws SQLException {
+        if (destroyed) {
+            AbstractJdbcConfig connectConfig = config.getConnectConfig();
+            return DriverManager.getConnection(
+                    connectConfig.getUrl(), connectConfig.getUsername(), connectConfig.getPassword());
+        }
+        long start = System.nanoTime();
+        DruidPooledConnection connection = createDataSource().getConnection();
+        long nanos = System.nanoTime() - start;
+        borrowCount.increment();
+        borrowNanos.add(nanos);
+        maxBorrowNanos.accumulateAndGet(nanos, Math::max);
+        lastBorrowTime = System.currentTimeMillis();
+        return connection;
+    }
+
+    protected void releaseConnection(Connection connection) {
+        if (Asserts.isNull(connection) || connection == conn.get()) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.error("close jdbc error:", e);
+        }
+    }
+
+    /**
+     * 连接池未关闭，且最近一次建立连接失败之后还有过成功的借出或者仍持有连接
+     */
     @Override
     public boolean isHealth() {
+        if (destroyed) {
+            return false;
+        }
         try {
             if (Asserts.isNotNull(conn.get())) {
                 return !conn.get().isClosed();
             }
-            return false;
+            DruidDataSource ds = dataSource;
+            if (Asserts.isNull(ds) || ds.isClosed() || !ds.isEnable()) {
+                return false;
+            }
+            return ds.getLastCreateError() == null
+                    || ds.getLastCreateErrorTimeMillis() < lastBorrowTime
+                    || ds.getActiveCount() + ds.getPoolingCount() > 0;
         } catch (Exception e) {
             log.error("check is health errr:", e);
             return false;
@@ -176,6 +261,44 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
         }
     }
 
+    @Override
+    public void destroy() {
+        destroyed = true;
+        close();
+        if (Asserts.isNotNull(dataSource)) {
+            dataSource.close();
+        }
+    }
+
+    @Override
+    public DriverPoolMetrics getPoolMetrics() {
+        DruidDataSource ds = dataSource;
+        if (Asserts.isNull(ds)) {
+            return null;
+        }
+        long borrows = borrowCount.sum();
+        DriverPoolMetrics metrics = new DriverPoolMetrics();
+        metrics.setName(config.getName());
+        metrics.setType(getType());
+        metrics.setActive(ds.getActiveCount());
+        metrics.setIdle(ds.getPoolingCount());
+        metrics.setMaxActive(ds.getMaxActive());
+        metrics.setWaitThreads(ds.getWaitThreadCount());
+        metrics.setWaitCount(ds.getNotEmptyWaitCount());
+        metrics.setWaitMillis(ds.getNotEmptyWaitMillis());
+        metrics.setBorrowCount(borrows);
+        metrics.setBorrowAvgMillis(borrows == 0 ? 0 : borrowNanos.sum() / 1e6 / borrows);
+        metrics.setBorrowMaxMillis(maxBorrowNanos.get() / 1e6);
+        metrics.setCreateErrorCount(ds.getCreateErrorCount());
+        return metrics;
+    }
+
+    /** Closes the statement and the result, then returns the connection to the pool unless bound to the thread. */
+    public void close(PreparedStatement preparedStatement, ResultSet results, Connection connection) {
+        close(preparedStatement, results);
+        releaseConnection(connection);
+    }
+
     public void close(PreparedStatement preparedStatement, ResultSet results) {
         try {
             if (Asserts.isNotNull(results)) {
@@ -193,10 +316,12 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
     public List<Schema> listSchemas() {
         List<Schema> schemas = new ArrayList<>();
         PreparedStatement preparedStatement = null;
+        Connection connection = null;
         ResultSet results = null;
         String schemasSql = getDBQuery().schemaAllSql();
         try {
-            preparedStatement = conn.get().prepareStatement(schemasSql);
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(schemasSql);
             results = preparedStatement.executeQuery();
             while (results.next()) {
                 String schemaName = results.getString(getDBQuery().schemaName());
@@ -209,7 +334,7 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
             log.error("ListSchemas failed", e);
             throw new BusException(e.getMessage());
         } finally {
-            close(preparedStatement, results);
+            close(preparedStatement, results, connection);
         }
         return schemas;
     }
@@ -238,11 +363,13 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
     public List<Table> listTables(String schemaName) {
         List<Table> tableList = new ArrayList<>();
         PreparedStatement preparedStatement = null;
+        Connection connection = null;
         ResultSet results = null;
         IDBQuery dbQuery = getDBQuery();
         String sql = dbQuery.tablesSql(schemaName);
         try {
-            preparedStatement = conn.get().prepareStatement(sql);
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(sql);
             results = preparedStatement.executeQuery();
             ResultSetMetaData metaData = results.getMetaData();
             List<String> columnList = new ArrayList<>();
@@ -287,7 +414,7 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
             log.error("ListTables error:", e);
             throw new BusException(e.getMessage());
         } finally {
-            close(preparedStatement, results);
+            close(preparedStatement, results, connection);
         }
         return tableList;
     }
@@ -296,11 +423,13 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
     public List<Table> listTables(String schemaName, String tableName) {
         List<Table> tableList = new ArrayList<>();
         PreparedStatement preparedStatement = null;
+        Connection connection = null;
         ResultSet results = null;
         IDBQuery dbQuery = getDBQuery();
         String sql = dbQuery.tablesSql(schemaName, tableName);
         try {
-            preparedStatement = conn.get().prepareStatement(sql);
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(sql);
             results = preparedStatement.executeQuery();
             ResultSetMetaData metaData = results.getMetaData();
             List<String> columnList = new ArrayList<>();
@@ -345,7 +474,7 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
             log.error("ListTables error:", e);
             throw new BusException(e.getMessage());
         } finally {
-            close(preparedStatement, results);
+            close(preparedStatement, results, connection);
         }
         return tableList;
     }
@@ -354,95 +483,226 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
     public List<Column> listColumns(String schemaName, String tableName) {
         List<Column> columns = new ArrayList<>();
         PreparedStatement preparedStatement = null;
+        Connection connection = null;
         ResultSet results = null;
         IDBQuery dbQuery = getDBQuery();
         String tableFieldsSql = dbQuery.columnsSql(schemaName, tableName);
         try {
-            preparedStatement = conn.get().prepareStatement(tableFieldsSql);
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(tableFieldsSql);
             results = preparedStatement.executeQuery();
-            ResultSetMetaData metaData = results.getMetaData();
-            List<String> columnList = new ArrayList<>();
-            for (int i = 1; i <= metaData.getColumnCount(); i++) {
-                columnList.add(metaData.getColumnLabel(i));
+            List<String> columnList = getColumnLabels(results);
+            while (results.next()) {
+                columns.add(buildColumn(results, columnList, dbQuery));
             }
+        } catch (SQLException e) {
+            log.error("ListColumns error", e);
+            throw new BusException(e.getMessage());
+        } finally {
+            close(preparedStatement, results, connection);
+        }
+        return columns;
+    }
+
+    /**
+     * Lists the columns of every table of a schema with the single query of {@link IDBQuery#columnsSql(String)},
+     * keyed by table name.
+     */
+    protected Map<String, List<Column>> listColumnsOfSchema(String schemaName) {
+        Map<String, List<Column>> columns = new HashMap<>();
+        PreparedStatement preparedStatement = null;
+        Connection connection = null;
+        ResultSet results = null;
+        IDBQuery dbQuery = getDBQuery();
+        String schemaFieldsSql = dbQuery.columnsSql(schemaName);
+        try {
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(schemaFieldsSql);
+            results = preparedStatement.executeQuery();
+            List<String> columnList = getColumnLabels(results);
             while (results.next()) {
-                Column field = new Column();
-                String columnName = results.getString(dbQuery.columnName());
-                if (columnList.contains(dbQuery.columnKey())) {
-                    String key = results.getString(dbQuery.columnKey());
-                    field.setKeyFlag(Asserts.isNotNullString(key) && Asserts.isEqualsIgnoreCase(dbQuery.isPK(), key));
-                }
-                field.setName(columnName);
-                if (columnList.contains(dbQuery.columnType())) {
-                    String columnType = results.getString(dbQuery.columnType());
-                    if (columnType.contains("(")) {
-                        String type = columnType.replaceAll("\\(.*\\)", "");
-                        if (!columnType.contains(",")) {
-                            Integer length = Integer.valueOf(columnType.replaceAll("\\D", ""));
-                            field.setLength(length);
-                        } else {
-                            // some database does not have precision
-                            if (dbQuery.precision() != null) {
-                                // 例如浮点类型的长度和精度是一样的，decimal(10,2)
-                                field.setLength(results.getInt(dbQuery.precision()));
-                            }
-                        }
-                        field.setType(type);
-                    } else {
-                        field.setType(columnType);
+                String tableName = results.getString(dbQuery.columnTableName());
+                columns.computeIfAbsent(tableName, k -> new ArrayList<>())
+                        .add(buildColumn(results, columnList, dbQuery));
+            }
+        } catch (SQLException e) {
+            log.error("ListColumnsOfSchema error", e);
+            throw new BusException(e.getMessage());
+        } finally {
+            close(preparedStatement, results, connection);
+        }
+        return columns;
+    }
+
+    private List<String> getColumnLabels(ResultSet results) throws SQLException {
+        ResultSetMetaData metaData = results.getMetaData();
+        List<String> columnList = new ArrayList<>();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            columnList.add(metaData.getColumnLabel(i));
+        }
+        return columnList;
+    }
+
+    protected Column buildColumn(ResultSet results, List<String> columnList, IDBQuery dbQuery) throws SQLException {
+        Column field = new Column();
+        String columnName = results.getString(dbQuery.columnName());
+        if (columnList.contains(dbQuery.columnKey())) {
+            String key = results.getString(dbQuery.columnKey());
+            field.setKeyFlag(Asserts.isNotNullString(key) && Asserts.isEqualsIgnoreCase(dbQuery.isPK(), key));
+        }
+        field.setName(columnName);
+        if (columnList.contains(dbQuery.columnType())) {
+            String columnType = results.getString(dbQuery.columnType());
+            if (columnType.contains("(")) {
+                String type = columnType.replaceAll("\\(.*\\)", "");
+                if (!columnType.contains(",")) {
+                    Integer length = Integer.valueOf(columnType.replaceAll("\\D", ""));
+                    field.setLength(length);
+                } else {
+                    // some database does not have precision
+                    if (dbQuery.precision() != null) {
+                        // 例如浮点类型的长度和精度是一样的，decimal(10,2)
+                        field.setLength(results.getInt(dbQuery.precision()));
                     }
                 }
-                if (columnList.contains(dbQuery.columnComment())
-                        && Asserts.isNotNull(results.getString(dbQuery.columnComment()))) {
-                    String columnComment =
-                            results.getString(dbQuery.columnComment()).replaceAll("\"|'", "");
-                    field.setComment(columnComment);
-                }
-                if (columnList.contains(dbQuery.columnLength())) {
-                    int length = results.getInt(dbQuery.columnLength());
-                    if (!results.wasNull()) {
-                        field.setLength(length);
+                field.setType(type);
+            } else {
+                field.setType(columnType);
+            }
+        }
+        if (columnList.contains(dbQuery.columnComment())
+                && Asserts.isNotNull(results.getString(dbQuery.columnComment()))) {
+            String columnComment = results.getString(dbQuery.columnComment()).replaceAll("\"|'", "");
+            field.setComment(columnComment);
+        }
+        if (columnList.contains(dbQuery.columnLength())) {
+            int length = results.getInt(dbQuery.columnLength());
+            if (!results.wasNull()) {
+                field.setLength(length);
+            }
+        }
+        if (columnList.contains(dbQuery.isNullable())) {
+            field.setNullable(
+                    Asserts.isEqualsIgnoreCase(results.getString(dbQuery.isNullable()), dbQuery.nullableValue()));
+        }
+        if (columnList.contains(dbQuery.characterSet())) {
+            field.setCharacterSet(results.getString(dbQuery.characterSet()));
+        }
+        if (columnList.contains(dbQuery.collation())) {
+            field.setCollation(results.getString(dbQuery.collation()));
+        }
+        if (columnList.contains(dbQuery.columnPosition())) {
+            field.setPosition(results.getInt(dbQuery.columnPosition()));
+        }
+        if (columnList.contains(dbQuery.precision())) {
+            field.setPrecision(results.getInt(dbQuery.precision()));
+        }
+        if (columnList.contains(dbQuery.scale())) {
+            field.setScale(results.getInt(dbQuery.scale()));
+        }
+        if (columnList.contains(dbQuery.defaultValue())) {
+            field.setDefaultValue(results.getString(dbQuery.defaultValue()));
+        }
+        if (columnList.contains(dbQuery.autoIncrement())) {
+            field.setAutoIncrement(
+                    Asserts.isEqualsIgnoreCase(results.getString(dbQuery.autoIncrement()), "auto_increment"));
+        }
+        if (columnList.contains(dbQuery.defaultValue())) {
+            field.setDefaultValue(results.getString(dbQuery.defaultValue()));
+        }
+        field.setJavaType(getTypeConvert().convert(field, config));
+        return field;
+    }
+
+    /**
+     * Loads the tables of a schema with their columns. Databases with a schema wide columns query answer it
+     * in one round trip, the others list the columns of the tables in parallel, each worker holding one
+     * connection of the pool.
+     */
+    @Override
+    public List<Table> getTablesAndColumns(String schemaName) {
+        List<Table> tables = listTables(schemaName);
+        if (Asserts.isNotNullString(getDBQuery().columnsSql(schemaName))) {
+            Map<String, List<Column>> columns = listColumnsOfSchema(schemaName);
+            for (Table table : tables) {
+                table.setColumns(columns.getOrDefault(table.getName(), new ArrayList<>()));
+            }
+        } else {
+            listColumnsInParallel(schemaName, tables);
+        }
+        Collections.sort(tables);
+        return tables;
+    }
+
+    private void listColumnsInParallel(String schemaName, List<Table> tables) {
+        int parallelism = Math.min(Math.min(metadataParallelism, getMaxActive() - 1), tables.size());
+        if (parallelism <= 1) {
+            tables.forEach(table -> table.setColumns(listColumns(schemaName, table.getName())));
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(
+                parallelism,
+                ThreadUtil.newNamedThreadFactory("metadata-" + config.getName().replaceAll("[^\\w]", ""), true));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < parallelism; i++) {
+                final int offset = i;
+                futures.add(executor.submit(() -> {
+                    connect();
+                    try {
+                        for (int j = offset; j < tables.size(); j += parallelism) {
+                            Table table = tables.get(j);
+                            table.setColumns(listColumns(schemaName, table.getName()));
+                        }
+                    } finally {
+                        close();
                     }
-                }
-                if (columnList.contains(dbQuery.isNullable())) {
-                    field.setNullable(Asserts.isEqualsIgnoreCase(
-                            results.getString(dbQuery.isNullable()), dbQuery.nullableValue()));
-                }
-                if (columnList.contains(dbQuery.characterSet())) {
-                    field.setCharacterSet(results.getString(dbQuery.characterSet()));
-                }
-                if (columnList.contains(dbQuery.collation())) {
-                    field.setCollation(results.getString(dbQuery.collation()));
-                }
-                if (columnList.contains(dbQuery.columnPosition())) {
-                    field.setPosition(results.getInt(dbQuery.columnPosition()));
-                }
-                if (columnList.contains(dbQuery.precision())) {
-                    field.setPrecision(results.getInt(dbQuery.precision()));
-                }
-                if (columnList.contains(dbQuery.scale())) {
-                    field.setScale(results.getInt(dbQuery.scale()));
-                }
-                if (columnList.contains(dbQuery.defaultValue())) {
-                    field.setDefaultValue(results.getString(dbQuery.defaultValue()));
-                }
-                if (columnList.contains(dbQuery.autoIncrement())) {
-                    field.setAutoIncrement(
-                            Asserts.isEqualsIgnoreCase(results.getString(dbQuery.autoIncrement()), "auto_increment"));
-                }
-                if (columnList.contains(dbQuery.defaultValue())) {
-                    field.setDefaultValue(results.getString(dbQuery.defaultValue()));
-                }
-                field.setJavaType(getTypeConvert().convert(field, config));
-                columns.add(field);
+                }));
             }
-        } catch (SQLException e) {
-            log.error("ListColumns error", e);
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new BusException(e.getMessage());
+        } catch (ExecutionException e) {
+            log.error("ListColumnsInParallel error", e.getCause());
+            throw new BusException(e.getCause().getMessage());
         } finally {
-            close(preparedStatement, results);
+            executor.shutdownNow();
         }
-        return columns;
+    }
+
+    private int getMaxActive() {
+        return dataSource == null ? metadataParallelism + 1 : dataSource.getMaxActive();
+    }
+
+    @Override
+    public String getMetadataKey() {
+        AbstractJdbcConfig connectConfig = config.getConnectConfig();
+        return buildMetadataKey(getType(), connectConfig.getUsername(), connectConfig.getUrl());
+    }
+
+    /**
+     * Builds {@code type://user@host:port/database} from a jdbc url. The database is part of the key because
+     * schema names such as {@code public} or {@code dbo} repeat across the databases of one server.
+     * Urls without a {@code //host} part, such as Oracle's {@code @host:port:sid}, are kept whole.
+     */
+    static String buildMetadataKey(String type, String username, String url) {
+        Matcher matcher = JDBC_ADDRESS.matcher(url);
+        if (!matcher.find()) {
+            return type + "://" + username + "@" + url;
+        }
+        String rest = url.substring(matcher.end());
+        String database = "";
+        Matcher pathDatabase = JDBC_PATH_DATABASE.matcher(rest);
+        Matcher paramDatabase = JDBC_PARAM_DATABASE.matcher(rest);
+        if (pathDatabase.find()) {
+            database = pathDatabase.group(1);
+        } else if (paramDatabase.find()) {
+            database = paramDatabase.group(1);
+        }
+        return type + "://" + username + "@" + matcher.group(1) + "/" + database;
     }
 
     @Override
@@ -496,10 +756,12 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
     public String getCreateTableSql(Table table) {
         String createTable = null;
         PreparedStatement preparedStatement = null;
+        Connection connection = null;
         ResultSet results = null;
         String createTableSql = getDBQuery().createTableSql(table.getSchema(), table.getName());
         try {
-            preparedStatement = conn.get().prepareStatement(createTableSql);
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(createTableSql);
             results = preparedStatement.executeQuery();
             if (results.next()) {
                 ResultSetMetaData rsmd = results.getMetaData();
@@ -519,7 +781,7 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
             log.error("GetCreateTableSql Failed", e);
             throw new BusException(e.getMessage());
         } finally {
-            close(preparedStatement, results);
+            close(preparedStatement, results, connection);
         }
         return createTable;
     }
@@ -555,10 +817,13 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
     @Override
     public boolean execute(String sql) throws Exception {
         Asserts.checkNullString(sql, "Sql 语句为空");
-        try (Statement statement = conn.get().createStatement()) {
+        Connection connection = getConnection();
+        try (Statement statement = connection.createStatement()) {
             // logger.info("执行sql的连接id：" + ((DruidPooledConnection)
             // conn).getTransactionInfo().getId());
             statement.execute(sql);
+        } finally {
+            releaseConnection(connection);
         }
         return true;
     }
@@ -567,8 +832,11 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
     public int executeUpdate(String sql) throws Exception {
         Asserts.checkNullString(sql, "Sql 语句为空");
         int res = 0;
-        try (Statement statement = conn.get().createStatement()) {
+        Connection connection = getConnection();
+        try (Statement statement = connection.createStatement()) {
             res = statement.executeUpdate(sql);
+        } finally {
+            releaseConnection(connection);
         }
         return res;
     }
@@ -610,22 +878,48 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
         }
         JdbcSelectResult result = new JdbcSelectResult();
         List<LinkedHashMap<String, Object>> datas = new ArrayList<>();
-        List<Column> columns = new ArrayList<>();
-        List<String> columnNameList = new ArrayList<>();
-        PreparedStatement preparedStatement = null;
+        try (JdbcResultCursor cursor = openCursor(sql, Math.min(limit, QUERY_BATCH_SIZE), limit)) {
+            result.setColumns(cursor.getColumnNames());
+            while (cursor.hasNext() && datas.size() < limit) {
+                datas.addAll(cursor.next().toRowData());
+            }
+            result.success();
+        } catch (Exception e) {
+            result.error(LogUtil.getError(e));
+            log.error("Query failed", e);
+        }
+        result.setRowData(datas.size() > limit ? new ArrayList<>(datas.subList(0, limit)) : datas);
+        return result;
+    }
+
+    @Override
+    public JdbcResultCursor openCursor(String sql, int batchSize) {
+        return openCursor(sql, batchSize, 0);
+    }
+
+    protected JdbcResultCursor openCursor(String sql, int batchSize, int maxRows) {
+        Connection connection;
+        try {
+            connection = getConnection();
+        } catch (SQLException e) {
+            throw new MetaDataException(e.getMessage());
+        }
+        Runnable restore = prepareStreaming(connection);
+        Runnable onClose = () -> {
+            restore.run();
+            releaseConnection(connection);
+        };
+        Statement statement = null;
         ResultSet results = null;
-        int count = 0;
         try {
-            preparedStatement = conn.get().prepareStatement(sql);
-            results = preparedStatement.executeQuery();
-            if (Asserts.isNull(results)) {
-                result.setSuccess(true);
-                close(preparedStatement, results);
-                return result;
+            statement = createStreamingStatement(connection, batchSize);
+            if (maxRows > 0) {
+                statement.setMaxRows(maxRows);
             }
+            results = statement.executeQuery(sql);
+            List<Column> columns = new ArrayList<>();
             ResultSetMetaData metaData = results.getMetaData();
             for (int i = 1; i <= metaData.getColumnCount(); i++) {
-                columnNameList.add(metaData.getColumnLabel(i));
                 Column column = new Column();
                 column.setName(metaData.getColumnLabel(i));
                 column.setType(metaData.getColumnTypeName(i));
@@ -634,34 +928,37 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
                 column.setJavaType(getTypeConvert().convert(column, config));
                 columns.add(column);
             }
-            result.setColumns(columnNameList);
-            while (results.next()) {
-                LinkedHashMap<String, Object> data = new LinkedHashMap<>();
-                for (Column column : columns) {
-                    String name = column.getName();
-                    String type = column.getType();
-                    Object value = getTypeConvert().convertValue(results, name, type);
-                    if (Asserts.isNotNull(value)) {
-                        data.put(name, value.toString());
-                    } else {
-                        data.put(name, null);
-                    }
+            return new JdbcResultCursor(statement, results, columns, getTypeConvert(), batchSize, onClose);
+        } catch (SQLException e) {
+            try {
+                if (Asserts.isNotNull(results)) {
+                    results.close();
                 }
-                datas.add(data);
-                count++;
-                if (count >= limit) {
-                    break;
+                if (Asserts.isNotNull(statement)) {
+                    statement.close();
                 }
+            } catch (SQLException ex) {
+                log.error("close jdbc error:", ex);
             }
-            result.success();
-        } catch (Exception e) {
-            result.error(LogUtil.getError(e));
-            log.error("Query failed", e);
-        } finally {
-            close(preparedStatement, results);
+            onClose.run();
+            throw new MetaDataException(e.getMessage());
         }
-        result.setRowData(datas);
-        return result;
+    }
+
+    /**
+     * 创建流式查询的 Statement，默认按批大小设置 fetchSize，方言可覆盖以启用服务端游标
+     */
+    protected Statement createStreamingStatement(Connection connection, int fetchSize) throws SQLException {
+        Statement statement = connection.createStatement();
+        statement.setFetchSize(fetchSize);
+        return statement;
+    }
+
+    /**
+     * 流式查询前调整连接状态，返回游标关闭时的恢复动作
+     */
+    protected Runnable prepareStreaming(Connection connection) {
+        return () -> {};
     }
 
     /**
@@ -798,6 +1095,7 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
 
     public List<Map<String, String>> getSplitSchemaList() {
         PreparedStatement preparedStatement = null;
+        Connection connection = null;
         ResultSet results = null;
         IDBQuery dbQuery = getDBQuery();
         String sql = "select DATA_LENGTH,TABLE_NAME AS `NAME`,TABLE_SCHEMA AS `Database`,TABLE_COMMENT"
@@ -807,7 +1105,8 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
                 + " TABLE_TYPE='BASE TABLE'";
         List<Map<String, String>> schemas = null;
         try {
-            preparedStatement = conn.get().prepareStatement(sql);
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(sql);
             results = preparedStatement.executeQuery();
             ResultSetMetaData metaData = results.getMetaData();
             List<String> columnList = new ArrayList<>();
@@ -826,7 +1125,7 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
             log.error("GetSplitSchemaList failed", e);
             throw new BusException(e.getMessage());
         } finally {
-            close(preparedStatement, results);
+            close(preparedStatement, results, connection);
         }
         return schemas;
     }
@@ -839,70 +1138,56 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
 
         for (String table : tableRegList) {
             String[] split = table.split("\\\\.");
-            String database = split[0];
-            String tableName = split[1];
-            // 匹配对应的表
-            List<Map<String, String>> mapList = schemaList.stream()
-                    // 过滤不匹配的表
-                    .filter(x -> contains(database, x.get(dbQuery.schemaName()))
-                            && contains(tableName, x.get(dbQuery.tableName())))
-                    .collect(Collectors.toList());
-            List<Table> tableList = mapList.stream()
-                    // 去重
-                    .collect(Collectors.collectingAndThen(
-                            Collectors.toCollection(() -> new TreeSet<>(
-                                    Comparator.comparing(x -> getReValue(x.get(dbQuery.schemaName()), splitConfig)
-                                            + "."
-                                            + getReValue(x.get(dbQuery.tableName()), splitConfig)))),
-                            ArrayList::new))
-                    .stream()
-                    .map(x -> {
-                        Table tableInfo = new Table();
-                        tableInfo.setDriverType(getType());
-                        tableInfo.setName(getReValue(x.get(dbQuery.tableName()), splitConfig));
-                        tableInfo.setComment(x.get(dbQuery.tableComment()));
-                        tableInfo.setSchema(getReValue(x.get(dbQuery.schemaName()), splitConfig));
-                        tableInfo.setType(x.get(dbQuery.tableType()));
-                        tableInfo.setCatalog(x.get(dbQuery.catalogName()));
-                        tableInfo.setEngine(x.get(dbQuery.engine()));
-                        tableInfo.setOptions(x.get(dbQuery.options()));
-                        tableInfo.setRows(Long.valueOf(x.get(dbQuery.rows())));
-                        try {
-                            tableInfo.setCreateTime(
-                                    SimpleDateFormat.getDateInstance().parse(x.get(dbQuery.createTime())));
-                            String updateTime = x.get(dbQuery.updateTime());
-                            if (Asserts.isNotNullString(updateTime)) {
-                                tableInfo.setUpdateTime(
-                                        SimpleDateFormat.getDateInstance().parse(updateTime));
-                            }
-                        } catch (ParseException ignored) {
-                            log.warn("set date fail");
-                        }
-                        TableType tableType = TableType.type(
-                                isSplit(x.get(dbQuery.schemaName()), splitConfig),
-                                isSplit(x.get(dbQuery.tableName()), splitConfig));
-                        tableInfo.setTableType(tableType);
-
-                        if (tableType != TableType.SINGLE_DATABASE_AND_TABLE) {
-                            String currentSchemaName = getReValue(x.get(dbQuery.schemaName()), splitConfig)
-                                    + "."
-                                    + getReValue(x.get(dbQuery.tableName()), splitConfig);
-                            List<String> schemaTableNameList = mapList.stream()
-                                    .filter(y -> (getReValue(y.get(dbQuery.schemaName()), splitConfig)
-                                                    + "."
-                                                    + getReValue(y.get(dbQuery.tableName()), splitConfig))
-                                            .equals(currentSchemaName))
-                                    .map(y -> y.get(dbQuery.schemaName()) + "." + y.get(dbQuery.tableName()))
-                                    .collect(Collectors.toList());
-                            tableInfo.setSchemaTableNameList(schemaTableNameList);
-                        } else {
-                            tableInfo.setSchemaTableNameList(Collections.singletonList(
-                                    x.get(dbQuery.schemaName()) + "." + x.get(dbQuery.tableName())));
-                        }
-                        return tableInfo;
-                    })
-                    .collect(Collectors.toList());
-            set.addAll(tableList);
+            Pattern databasePattern = Pattern.compile(split[0]);
+            Pattern tablePattern = Pattern.compile(split[1]);
+            // 匹配对应的表，并按分库分表合并后的表名分组，组内第一张表作为代表
+            Map<String, List<Map<String, String>>> groups = new TreeMap<>();
+            for (Map<String, String> x : schemaList) {
+                String schemaName = x.get(dbQuery.schemaName());
+                String tableName = x.get(dbQuery.tableName());
+                if (databasePattern.matcher(schemaName).matches()
+                        && tablePattern.matcher(tableName).matches()) {
+                    String key = getReValue(schemaName, splitConfig) + "." + getReValue(tableName, splitConfig);
+                    groups.computeIfAbsent(key, k -> new ArrayList<>()).add(x);
+                }
+            }
+            for (List<Map<String, String>> group : groups.values()) {
+                Map<String, String> x = group.get(0);
+                Table tableInfo = new Table();
+                tableInfo.setDriverType(getType());
+                tableInfo.setName(getReValue(x.get(dbQuery.tableName()), splitConfig));
+                tableInfo.setComment(x.get(dbQuery.tableComment()));
+                tableInfo.setSchema(getReValue(x.get(dbQuery.schemaName()), splitConfig));
+                tableInfo.setType(x.get(dbQuery.tableType()));
+                tableInfo.setCatalog(x.get(dbQuery.catalogName()));
+                tableInfo.setEngine(x.get(dbQuery.engine()));
+                tableInfo.setOptions(x.get(dbQuery.options()));
+                tableInfo.setRows(Long.valueOf(x.get(dbQuery.rows())));
+                try {
+                    tableInfo.setCreateTime(SimpleDateFormat.getDateInstance().parse(x.get(dbQuery.createTime())));
+                    String updateTime = x.get(dbQuery.updateTime());
+                    if (Asserts.isNotNullString(updateTime)) {
+                        tableInfo.setUpdateTime(
+                                SimpleDateFormat.getDateInstance().parse(updateTime));
+                    }
+                } catch (ParseException ignored) {
+                    log.warn("set date fail");
+                }
+                TableType tableType = TableType.type(
+                        isSplit(x.get(dbQuery.schemaName()), splitConfig),
+                        isSplit(x.get(dbQuery.tableName()), splitConfig));
+                tableInfo.setTableType(tableType);
+
+                if (tableType != TableType.SINGLE_DATABASE_AND_TABLE) {
+                    tableInfo.setSchemaTableNameList(group.stream()
+                            .map(y -> y.get(dbQuery.schemaName()) + "." + y.get(dbQuery.tableName()))
+                            .collect(Collectors.toList()));
+                } else {
+                    tableInfo.setSchemaTableNameList(
+                            Collections.singletonList(x.get(dbQuery.schemaName()) + "." + x.get(dbQuery.tableName())));
+                }
+                set.add(tableInfo);
+            }
         }
         return set;
     }
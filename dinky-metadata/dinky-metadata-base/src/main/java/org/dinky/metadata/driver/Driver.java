@@ -30,6 +30,7 @@ import org.dinky.data.result.SqlExplainResult;
 import org.dinky.metadata.config.AbstractJdbcConfig;
 import org.dinky.metadata.config.DriverConfig;
 import org.dinky.metadata.enums.DriverType;
+import org.dinky.metadata.result.JdbcResultCursor;
 import org.dinky.metadata.result.JdbcSelectResult;
 import org.dinky.utils.JsonUtils;
 
@@ -81,41 +82,34 @@ public interface Driver extends AutoCloseable {
     }
 
     static Driver build(String name, String type, Map<String, Object> config) {
-        if (DriverPool.exist(name)) {
-            return getHealthDriver(name);
-        }
-        Driver driver = getDriver(type).buildDriverConfig(name, type, config).connect();
-        DriverPool.push(name, driver);
-        return driver;
+        return DriverPool.getOrCreate(
+                name,
+                () -> getDriver(type).buildDriverConfig(name, type, config).init());
     }
 
     static <T> Driver build(DriverConfig<T> config) {
-        if (DriverPool.exist(config.getName())) {
-            return getHealthDriver(config.getName());
-        }
-        Driver driver = getDriver(config.getType())
+        return DriverPool.getOrCreate(config.getName(), () -> getDriver(config.getType())
                 .buildDriverConfig(config.getName(), config.getType(), config.getConnectConfig())
-                .connect();
-        DriverPool.push(config.getName(), driver);
-        return driver;
+                .init());
     }
 
     static Driver buildWithOutPool(String name, String type, Map<String, Object> config) {
         Driver driver = getDriver(type);
-        return driver.buildDriverConfig(name, type, config).connect();
+        return driver.buildDriverConfig(name, type, config).init();
     }
 
     static Driver buildUnconnected(String name, String type, Map<String, Object> config) {
         return getDriver(type).buildDriverConfig(name, type, config);
     }
 
+    /** The pooled driver of the key, an unhealthy one is destroyed and null returned so that it is built again */
     static Driver getHealthDriver(String key) {
         Driver driver = DriverPool.get(key);
-        if (driver.isHealth()) {
+        if (Asserts.isNull(driver) || driver.isHealth()) {
             return driver;
-        } else {
-            return driver.connect();
         }
+        DriverPool.remove(key);
+        return null;
     }
 
     static Driver build(String connector, String url, String username, String password) {
@@ -161,15 +155,44 @@ public interface Driver extends AutoCloseable {
 
     String getName();
 
+    /** Identity of the metadata this driver reads, drivers reading the same database share {@link MetadataCache} */
+    default String getMetadataKey() {
+        return getType() + "://" + getName();
+    }
+
     String test();
 
     boolean isHealth();
 
+    /**
+     * 初始化驱动，jdbc 驱动仅创建连接池，各操作自行从连接池借还连接
+     */
+    default Driver init() {
+        return connect();
+    }
+
+    /**
+     * 打开连接，jdbc 驱动会将一个连接绑定到当前线程直到 {@link #close()}，期间该线程的操作复用此连接
+     */
     Driver connect();
 
     @Override
     void close();
 
+    /**
+     * 关闭驱动及其连接池，由 {@link DriverPool} 淘汰或移除驱动时调用
+     */
+    default void destroy() {
+        close();
+    }
+
+    /**
+     * 连接池状态，没有连接池的驱动返回 null
+     */
+    default DriverPoolMetrics getPoolMetrics() {
+        return null;
+    }
+
     List<Schema> listSchemas();
 
     boolean existSchema(String schemaName);
@@ -230,6 +253,17 @@ public interface Driver extends AutoCloseable {
 
     JdbcSelectResult query(QueryData queryData);
 
+    /**
+     * 流式查询，按批读取结果，内存占用与批大小而非总行数成正比，使用后需关闭游标
+     *
+     * @param sql       查询语句
+     * @param batchSize 每批行数，同时作为 fetchSize
+     * @return {@link JdbcResultCursor}
+     */
+    default JdbcResultCursor openCursor(String sql, int batchSize) {
+        throw new MetaDataException("该数据源暂不支持流式查询");
+    }
+
     StringBuilder genQueryOption(QueryData queryData);
 
     JdbcSelectResult executeSql(String sql, Integer limit);
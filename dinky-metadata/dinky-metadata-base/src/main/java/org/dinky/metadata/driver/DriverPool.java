@@ -19,33 +19,224 @@
 
 package org.dinky.metadata.driver;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import cn.hutool.core.thread.ThreadUtil;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * DriverPool
  *
+ * <p>Drivers by data source name, each one owning a connection pool. The drivers are kept in access order: beyond
+ * {@code maxPools} the least recently used ones are destroyed, and a sweep destroys the ones idle for longer than
+ * {@code idleTimeoutMillis} or no longer healthy. A driver is only destroyed while it is not in use: none of its
+ * connections is borrowed, and it was not handed out within the last {@code handoutGraceMillis}, as callers keep
+ * the driver they got for the whole operation. A replaced or removed driver still in use is retired and destroyed
+ * by a later sweep.
+ *
  * @since 2022/2/17 15:29
  */
+@Slf4j
 public class DriverPool {
 
-    private static volatile Map<String, Driver> driverMap = new ConcurrentHashMap<>();
+    private static final Map<String, Entry> driverMap = new LinkedHashMap<>(16, 0.75f, true);
+    private static final List<Entry> retired = new ArrayList<>();
+    private static final Map<String, Object> buildLocks = new ConcurrentHashMap<>();
+
+    @Setter
+    private static volatile int maxPools = 32;
+
+    @Setter
+    private static volatile long idleTimeoutMillis = TimeUnit.MINUTES.toMillis(30);
+
+    @Setter
+    private static volatile long handoutGraceMillis = TimeUnit.MINUTES.toMillis(1);
+
+    private static volatile ScheduledExecutorService evictor;
 
-    public static boolean exist(String key) {
+    public static synchronized boolean exist(String key) {
         return driverMap.containsKey(key);
     }
 
+    /**
+     * The healthy pooled driver of the key, or a new one from the factory that replaces it. Builds for the same key
+     * are serialized, so concurrent callers share one driver instead of each initializing its own pool.
+     */
+    public static Driver getOrCreate(String key, Supplier<Driver> factory) {
+        synchronized (buildLocks.computeIfAbsent(key, k -> new Object())) {
+            Driver driver = get(key);
+            if (driver != null && driver.isHealth()) {
+                return driver;
+            }
+            driver = factory.get();
+            push(key, driver);
+            synchronized (DriverPool.class) {
+                driverMap.get(key).handoutTime = System.currentTimeMillis();
+            }
+            return driver;
+        }
+    }
+
     public static Integer push(String key, Driver gainer) {
-        driverMap.put(key, gainer);
-        return driverMap.size();
+        List<Driver> evicted = new ArrayList<>();
+        int size;
+        synchronized (DriverPool.class) {
+            long now = System.currentTimeMillis();
+            Entry previous = driverMap.put(key, new Entry(gainer));
+            if (previous != null && previous.driver != gainer) {
+                retire(previous, now, evicted);
+            }
+            Iterator<Map.Entry<String, Entry>> iterator = driverMap.entrySet().iterator();
+            while (driverMap.size() > maxPools && iterator.hasNext()) {
+                Map.Entry<String, Entry> eldest = iterator.next();
+                if (!eldest.getKey().equals(key) && !eldest.getValue().isInUse(now)) {
+                    iterator.remove();
+                    evicted.add(eldest.getValue().driver);
+                }
+            }
+            if (driverMap.size() > maxPools) {
+                log.warn("{} data source pools are in use, above the limit of {}", driverMap.size(), maxPools);
+            }
+            size = driverMap.size();
+        }
+        evicted.forEach(DriverPool::destroy);
+        startEvictor();
+        return size;
     }
 
     public static Integer remove(String key) {
-        driverMap.remove(key);
-        return driverMap.size();
+        List<Driver> evicted = new ArrayList<>();
+        int size;
+        synchronized (DriverPool.class) {
+            Entry entry = driverMap.remove(key);
+            if (entry != null) {
+                retire(entry, System.currentTimeMillis(), evicted);
+            }
+            size = driverMap.size();
+        }
+        evicted.forEach(DriverPool::destroy);
+        return size;
+    }
+
+    public static synchronized Driver get(String key) {
+        Entry entry = driverMap.get(key);
+        if (entry == null) {
+            return null;
+        }
+        entry.lastAccessTime = System.currentTimeMillis();
+        entry.handoutTime = entry.lastAccessTime;
+        return entry.driver;
+    }
+
+    /**
+     * Destroys the drivers idle for longer than the idle timeout, the unhealthy ones and the retired ones, unless
+     * in use, returns how many.
+     */
+    public static int evict() {
+        List<Driver> evicted = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        synchronized (DriverPool.class) {
+            Iterator<Map.Entry<String, Entry>> iterator = driverMap.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Entry> item = iterator.next();
+                Entry entry = item.getValue();
+                if (entry.isInUse(now)) {
+                    continue;
+                }
+                boolean idle = now - entry.lastAccessTime > idleTimeoutMillis;
+                boolean broken = entry.driver.getPoolMetrics() != null && !entry.driver.isHealth();
+                if (idle || broken) {
+                    iterator.remove();
+                    evicted.add(entry.driver);
+                    log.info("Evict {} data source pool [{}]", idle ? "idle" : "unhealthy", item.getKey());
+                }
+            }
+            Iterator<Entry> retiredIterator = retired.iterator();
+            while (retiredIterator.hasNext()) {
+                Entry entry = retiredIterator.next();
+                if (!entry.isInUse(now)) {
+                    retiredIterator.remove();
+                    evicted.add(entry.driver);
+                }
+            }
+        }
+        evicted.forEach(DriverPool::destroy);
+        return evicted.size();
+    }
+
+    public static List<DriverPoolMetrics> getMetrics() {
+        long now = System.currentTimeMillis();
+        List<DriverPoolMetrics> metrics = new ArrayList<>();
+        List<Entry> entries;
+        synchronized (DriverPool.class) {
+            entries = new ArrayList<>(driverMap.values());
+        }
+        for (Entry entry : entries) {
+            DriverPoolMetrics poolMetrics = entry.driver.getPoolMetrics();
+            if (poolMetrics != null) {
+                poolMetrics.setIdleMillis(now - entry.lastAccessTime);
+                metrics.add(poolMetrics);
+            }
+        }
+        metrics.sort(Comparator.comparing(DriverPoolMetrics::getName));
+        return metrics;
     }
 
-    public static Driver get(String key) {
-        return driverMap.get(key);
+    private static void destroy(Driver driver) {
+        try {
+            driver.destroy();
+        } catch (Exception e) {
+            log.error("Destroy data source pool failed", e);
+        }
+    }
+
+    /** Destroys the driver taken out of the map right away when not in use, otherwise leaves it to the sweep. */
+    private static void retire(Entry entry, long now, List<Driver> evicted) {
+        if (entry.isInUse(now)) {
+            retired.add(entry);
+        } else {
+            evicted.add(entry.driver);
+        }
+    }
+
+    private static void startEvictor() {
+        if (evictor == null) {
+            synchronized (DriverPool.class) {
+                if (evictor == null) {
+                    evictor = Executors.newSingleThreadScheduledExecutor(
+                            ThreadUtil.newNamedThreadFactory("driver-pool-evictor", true));
+                    evictor.scheduleWithFixedDelay(DriverPool::evict, 1, 1, TimeUnit.MINUTES);
+                }
+            }
+        }
+    }
+
+    private static class Entry {
+        private final Driver driver;
+        private volatile long lastAccessTime = System.currentTimeMillis();
+        private volatile long handoutTime;
+
+        private Entry(Driver driver) {
+            this.driver = driver;
+        }
+
+        private boolean isInUse(long now) {
+            if (now - handoutTime < handoutGraceMillis) {
+                return true;
+            }
+            DriverPoolMetrics metrics = driver.getPoolMetrics();
+            return metrics != null && metrics.getActive() > 0;
+        }
     }
 }
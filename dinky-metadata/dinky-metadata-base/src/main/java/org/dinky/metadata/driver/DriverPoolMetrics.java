@@ -0,0 +1,56 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.metadata.driver;
+
+import java.io.Serializable;
+
+import lombok.Data;
+
+/**
+ * DriverPoolMetrics
+ *
+ * <p>Connection pool state of a pooled driver, see {@link DriverPool#getMetrics()}.
+ */
+@Data
+public class DriverPoolMetrics implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String name;
+    private String type;
+    /** Connections borrowed and not returned yet */
+    private int active;
+    /** Connections waiting in the pool */
+    private int idle;
+
+    private int maxActive;
+    /** Threads waiting for a connection right now */
+    private int waitThreads;
+    /** Borrows that had to wait for a connection, and how long they waited in total */
+    private long waitCount;
+
+    private long waitMillis;
+    private long borrowCount;
+    private double borrowAvgMillis;
+    private double borrowMaxMillis;
+    private long createErrorCount;
+    /** Since the driver was last taken from the {@link DriverPool} */
+    private long idleMillis;
+}
@@ -0,0 +1,205 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.metadata.driver;
+
+import org.dinky.data.exception.MetaDataException;
+import org.dinky.data.model.Column;
+import org.dinky.data.model.Table;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import cn.hutool.core.thread.ThreadUtil;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * MetadataCache
+ *
+ * <p>Tables and columns of a schema, shared by every driver reading the same database, see {@link
+ * Driver#getMetadataKey()}. Each database has a version, invalidating it bumps the version so that entries
+ * loaded before are reloaded on their next read.
+ */
+@Slf4j
+public class MetadataCache {
+
+    private static final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private static final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /** Threads loading schemas for {@link #getTablesAndColumns(Map, int)}, shared by all callers */
+    private static final int LOADER_THREADS = 8;
+
+    private static final ThreadPoolExecutor LOADER = newLoader();
+
+    @Setter
+    private static volatile long maxAgeMillis = TimeUnit.MINUTES.toMillis(10);
+
+    public static List<Table> getTablesAndColumns(Driver driver, String schemaName) {
+        return getTablesAndColumns(driver, schemaName, false);
+    }
+
+    /**
+     * With {@code connect} the driver is an unconnected one owned by the caller: it is connected only on a cache
+     * miss and destroyed afterwards, closing the data source the connection was borrowed from.
+     */
+    private static List<Table> getTablesAndColumns(Driver driver, String schemaName, boolean connect) {
+        String metadataKey = driver.getMetadataKey();
+        long version = getVersion(metadataKey);
+        String key = metadataKey + "/" + schemaName;
+        Entry entry = entries.get(key);
+        if (entry == null || entry.version != version || entry.isExpired()) {
+            if (connect) {
+                driver.connect();
+            }
+            try {
+                entry = new Entry(version, driver.getTablesAndColumns(schemaName));
+            } finally {
+                if (connect) {
+                    driver.destroy();
+                }
+            }
+            entries.put(key, entry);
+        }
+        return copy(entry.tables);
+    }
+
+    /**
+     * Loads the tables and columns of several schemas in parallel, each schema with its own unconnected driver,
+     * which is connected only when the schema is not cached and destroyed again afterwards. At most {@code
+     * parallelism} schemas of one call are loaded at a time.
+     */
+    public static Map<String, List<Table>> getTablesAndColumns(Map<String, Driver> drivers, int parallelism) {
+        Map<String, List<Table>> tables = new LinkedHashMap<>();
+        if (drivers.size() <= 1 || parallelism <= 1) {
+            drivers.forEach(
+                    (schemaName, driver) -> tables.put(schemaName, getTablesAndColumns(driver, schemaName, true)));
+            return tables;
+        }
+        Queue<Map.Entry<String, Driver>> pending = new ConcurrentLinkedQueue<>(drivers.entrySet());
+        Map<String, List<Table>> loaded = new ConcurrentHashMap<>();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < Math.min(parallelism, drivers.size()); i++) {
+                futures.add(LOADER.submit(() -> {
+                    Map.Entry<String, Driver> next;
+                    while ((next = pending.poll()) != null) {
+                        loaded.put(next.getKey(), getTablesAndColumns(next.getValue(), next.getKey(), true));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MetaDataException(e.getMessage());
+        } catch (ExecutionException e) {
+            log.error("Load metadata failed", e.getCause());
+            throw new MetaDataException(e.getCause().getMessage());
+        } finally {
+            // the schemas not taken yet are dropped, the ones being loaded destroy their drivers when done
+            pending.clear();
+        }
+        drivers.keySet().forEach(schemaName -> tables.put(schemaName, loaded.get(schemaName)));
+        return tables;
+    }
+
+    /** The columns of a table, from the cached schema when there is one, otherwise read for this table only. */
+    public static List<Column> listColumns(Driver driver, String schemaName, String tableName) {
+        String metadataKey = driver.getMetadataKey();
+        Entry entry = entries.get(metadataKey + "/" + schemaName);
+        if (entry != null && entry.version == getVersion(metadataKey) && !entry.isExpired()) {
+            for (Table table : entry.tables) {
+                if (table.getName().equals(tableName) && table.getColumns() != null) {
+                    return new ArrayList<>(table.getColumns());
+                }
+            }
+        }
+        // not cached, or a table created after the schema was cached
+        return driver.listColumns(schemaName, tableName);
+    }
+
+    public static long getVersion(Driver driver) {
+        return getVersion(driver.getMetadataKey());
+    }
+
+    private static long getVersion(String metadataKey) {
+        return versions.computeIfAbsent(metadataKey, k -> new AtomicLong()).get();
+    }
+
+    /** Drops the cached schemas of the database read by the driver, returns its new version. */
+    public static long invalidate(Driver driver) {
+        String metadataKey = driver.getMetadataKey();
+        long version =
+                versions.computeIfAbsent(metadataKey, k -> new AtomicLong()).incrementAndGet();
+        entries.keySet().removeIf(key -> key.startsWith(metadataKey + "/"));
+        return version;
+    }
+
+    private static ThreadPoolExecutor newLoader() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                LOADER_THREADS,
+                LOADER_THREADS,
+                1,
+                TimeUnit.MINUTES,
+                new LinkedBlockingQueue<>(),
+                ThreadUtil.newNamedThreadFactory("metadata-cache", true));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static List<Table> copy(List<Table> tables) {
+        List<Table> copies = new ArrayList<>(tables.size());
+        for (Table table : tables) {
+            Table copy = (Table) table.clone();
+            if (table.getColumns() != null) {
+                copy.setColumns(new ArrayList<>(table.getColumns()));
+            }
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    private static class Entry {
+        private final long version;
+        private final long loadTime = System.currentTimeMillis();
+        private final List<Table> tables;
+
+        private Entry(long version, List<Table> tables) {
+            this.version = version;
+            this.tables = tables;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() - loadTime > maxAgeMillis;
+        }
+    }
+}
@@ -38,6 +38,16 @@ public interface IDBQuery {
     /** 表字段信息查询 SQL */
     String columnsSql(String schemaName, String tableName);
 
+    /** 整库表字段信息查询 SQL，按表名与字段序号排序，不支持时返回 null */
+    default String columnsSql(String schemaName) {
+        return null;
+    }
+
+    /** 整库字段查询结果中的表名列 */
+    default String columnTableName() {
+        return "TABLE_NAME";
+    }
+
     /** 建表 SQL */
     String createTableSql(String schemaName, String tableName);
 
@@ -0,0 +1,174 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.metadata.result;
+
+import org.dinky.data.model.Column;
+import org.dinky.metadata.convert.ITypeConvert;
+
+import java.io.Closeable;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * JdbcResultCursor
+ *
+ * <p>Reads a query result batch by batch instead of all at once, only one batch is held in memory. The
+ * statement is created by the driver with a dialect specific fetch size, so that the database streams rows
+ * rather than the jdbc driver buffering the whole result. {@link #cancel()} may be called from another thread
+ * to stop the query on the server.
+ */
+@Slf4j
+public class JdbcResultCursor implements Iterator<JdbcRowBatch>, Closeable {
+
+    private final Statement statement;
+    private final ResultSet results;
+    private final List<Column> columns;
+    private final List<String> columnNames;
+    private final ITypeConvert<?> typeConvert;
+    private final int batchSize;
+    private final Runnable onClose;
+
+    private Boolean hasRow;
+    private long rowCount;
+    private volatile boolean cancelled;
+    private boolean closed;
+
+    public JdbcResultCursor(
+            Statement statement,
+            ResultSet results,
+            List<Column> columns,
+            ITypeConvert<?> typeConvert,
+            int batchSize,
+            Runnable onClose) {
+        this.statement = statement;
+        this.results = results;
+        this.columns = columns;
+        this.columnNames = columns.stream().map(Column::getName).collect(Collectors.toList());
+        this.typeConvert = typeConvert;
+        this.batchSize = Math.max(1, batchSize);
+        this.onClose = onClose;
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    /** Rows read so far. */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed || cancelled) {
+            return false;
+        }
+        if (hasRow == null) {
+            try {
+                hasRow = results.next();
+            } catch (SQLException e) {
+                if (cancelled) {
+                    return false;
+                }
+                throw new IllegalStateException(e);
+            }
+        }
+        return hasRow;
+    }
+
+    @Override
+    public JdbcRowBatch next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Object[][] values = new Object[columns.size()][batchSize];
+        int count = 0;
+        try {
+            do {
+                for (int i = 0; i < columns.size(); i++) {
+                    Column column = columns.get(i);
+                    values[i][count] = typeConvert.convertValue(results, column.getName(), column.getType());
+                }
+                count++;
+                hasRow = count < batchSize ? results.next() : null;
+            } while (count < batchSize && hasRow && !cancelled);
+        } catch (SQLException e) {
+            if (!cancelled) {
+                throw new IllegalStateException(e);
+            }
+            hasRow = false;
+        }
+        rowCount += count;
+        if (count < batchSize) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = Arrays.copyOf(values[i], count);
+            }
+        }
+        return new JdbcRowBatch(columnNames, values, count);
+    }
+
+    /** Stops the query on the server, the batches not read yet are dropped. */
+    public void cancel() {
+        if (cancelled || closed) {
+            return;
+        }
+        cancelled = true;
+        try {
+            statement.cancel();
+        } catch (SQLException e) {
+            log.warn("Cancel query failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            results.close();
+        } catch (SQLException e) {
+            log.error("close jdbc error:", e);
+        }
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            log.error("close jdbc error:", e);
+        }
+        onClose.run();
+    }
+}
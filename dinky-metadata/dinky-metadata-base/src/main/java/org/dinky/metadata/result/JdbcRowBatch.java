@@ -0,0 +1,63 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.metadata.result;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * JdbcRowBatch
+ *
+ * <p>A batch of rows read by a {@link JdbcResultCursor}, stored column by column: {@code values[column][row]}.
+ */
+@Getter
+public class JdbcRowBatch {
+
+    private final List<String> columns;
+    private final Object[][] values;
+    private final int rowCount;
+
+    public JdbcRowBatch(List<String> columns, Object[][] values, int rowCount) {
+        this.columns = columns;
+        this.values = values;
+        this.rowCount = rowCount;
+    }
+
+    public Object getValue(int column, int row) {
+        return values[column][row];
+    }
+
+    /** Rows of the batch in the layout of {@link JdbcSelectResult#getRowData()}, values as strings. */
+    public List<LinkedHashMap<String, Object>> toRowData() {
+        List<LinkedHashMap<String, Object>> rows = new ArrayList<>(rowCount);
+        for (int row = 0; row < rowCount; row++) {
+            LinkedHashMap<String, Object> data = new LinkedHashMap<>();
+            for (int column = 0; column < columns.size(); column++) {
+                Object value = values[column][row];
+                data.put(columns.get(column), value == null ? null : value.toString());
+            }
+            rows.add(data);
+        }
+        return rows;
+    }
+}
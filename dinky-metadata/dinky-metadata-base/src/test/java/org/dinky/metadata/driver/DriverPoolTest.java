@@ -0,0 +1,171 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.metadata.driver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class DriverPoolTest {
+
+    @AfterEach
+    void reset() {
+        DriverPool.setMaxPools(32);
+        DriverPool.setIdleTimeoutMillis(-1);
+        DriverPool.setHandoutGraceMillis(0);
+        DriverPool.evict();
+        DriverPool.setIdleTimeoutMillis(TimeUnit.MINUTES.toMillis(30));
+        DriverPool.setHandoutGraceMillis(TimeUnit.MINUTES.toMillis(1));
+    }
+
+    @Test
+    void leastRecentlyUsedPoolIsDestroyedBeyondTheLimit() {
+        DriverPool.setMaxPools(2);
+        Driver first = driver("first", 0);
+        Driver second = driver("second", 0);
+        DriverPool.push("lru-first", first);
+        DriverPool.push("lru-second", second);
+        // reading the first one makes the second the least recently used
+        assertSame(first, DriverPool.get("lru-first"));
+
+        assertEquals(2, DriverPool.push("lru-third", driver("third", 0)));
+        verify(second).destroy();
+        verify(first, never()).destroy();
+        assertFalse(DriverPool.exist("lru-second"));
+    }
+
+    @Test
+    void idleAndUnhealthyPoolsAreEvictedUnlessInUse() throws InterruptedException {
+        Driver idle = driver("idle", 0);
+        Driver busy = driver("busy", 1);
+        DriverPool.push("evict-idle", idle);
+        DriverPool.push("evict-busy", busy);
+        Thread.sleep(5);
+
+        DriverPool.setIdleTimeoutMillis(1);
+        assertEquals(1, DriverPool.evict());
+        verify(idle).destroy();
+        verify(busy, never()).destroy();
+        assertNull(DriverPool.get("evict-idle"));
+
+        DriverPool.setIdleTimeoutMillis(TimeUnit.MINUTES.toMillis(30));
+        Driver broken = driver("broken", 0);
+        when(broken.isHealth()).thenReturn(false);
+        DriverPool.push("evict-broken", broken);
+        assertEquals(1, DriverPool.evict());
+        verify(broken).destroy();
+    }
+
+    @Test
+    void handedOutPoolIsNotDestroyedBeyondTheLimit() {
+        DriverPool.setMaxPools(1);
+        Driver first = driver("first", 0);
+        assertSame(first, DriverPool.getOrCreate("handout-first", () -> first));
+
+        // nothing is borrowed from the first one yet, but its caller is about to
+        DriverPool.push("handout-second", driver("second", 0));
+        verify(first, never()).destroy();
+        assertTrue(DriverPool.exist("handout-first"));
+
+        DriverPool.setHandoutGraceMillis(0);
+        DriverPool.push("handout-third", driver("third", 0));
+        verify(first).destroy();
+        assertFalse(DriverPool.exist("handout-first"));
+    }
+
+    @Test
+    void concurrentBuildsOfTheSameKeyShareOneDriver() throws Exception {
+        AtomicInteger builds = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Driver>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return DriverPool.getOrCreate("build-shared", () -> {
+                        builds.incrementAndGet();
+                        return driver("shared", 0);
+                    });
+                }));
+            }
+            start.countDown();
+            Driver first = futures.get(0).get();
+            for (Future<Driver> future : futures) {
+                assertSame(first, future.get());
+            }
+            assertEquals(1, builds.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void replacedPoolInUseIsRetiredUntilReleased() {
+        Driver broken = driver("broken", 0);
+        DriverPool.getOrCreate("retire-key", () -> broken);
+        when(broken.isHealth()).thenReturn(false);
+        Driver rebuilt = driver("rebuilt", 0);
+
+        assertSame(rebuilt, DriverPool.getOrCreate("retire-key", () -> rebuilt));
+        verify(broken, never()).destroy();
+
+        DriverPool.setHandoutGraceMillis(0);
+        DriverPool.evict();
+        verify(broken).destroy();
+        verify(rebuilt, never()).destroy();
+    }
+
+    @Test
+    void metricsOfEveryPool() {
+        DriverPool.push("metrics-b", driver("metrics-b", 2));
+        DriverPool.push("metrics-a", driver("metrics-a", 0));
+        assertEquals("metrics-a", DriverPool.getMetrics().get(0).getName());
+        assertEquals(2, DriverPool.getMetrics().get(1).getActive());
+    }
+
+    private static Driver driver(String name, int active) {
+        Driver driver = mock(Driver.class);
+        DriverPoolMetrics metrics = new DriverPoolMetrics();
+        metrics.setName(name);
+        metrics.setActive(active);
+        when(driver.getPoolMetrics()).thenReturn(metrics);
+        when(driver.isHealth()).thenReturn(true);
+        return driver;
+    }
+}
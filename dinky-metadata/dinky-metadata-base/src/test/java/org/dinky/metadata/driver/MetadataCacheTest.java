@@ -0,0 +1,134 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.metadata.driver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.dinky.data.model.Column;
+import org.dinky.data.model.Table;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class MetadataCacheTest {
+
+    @Test
+    void getTablesAndColumnsIsCachedUntilInvalidated() {
+        Driver driver = mockDriver("mysql://root@cache-test:3306", "shop");
+
+        List<Table> first = MetadataCache.getTablesAndColumns(driver, "shop");
+        List<Table> second = MetadataCache.getTablesAndColumns(driver, "shop");
+        verify(driver, times(1)).getTablesAndColumns("shop");
+        assertEquals(1, second.size());
+        assertNotSame(first.get(0), second.get(0));
+
+        long version = MetadataCache.getVersion(driver);
+        assertEquals(version + 1, MetadataCache.invalidate(driver));
+        MetadataCache.getTablesAndColumns(driver, "shop");
+        verify(driver, times(2)).getTablesAndColumns("shop");
+    }
+
+    @Test
+    void driversOfTheSameDatabaseShareTheCache() {
+        Driver admin = mockDriver("mysql://root@shared-test:3306", "shop");
+        Driver cdc = mockDriver("mysql://root@shared-test:3306", "shop");
+
+        MetadataCache.getTablesAndColumns(admin, "shop");
+        List<Column> columns = MetadataCache.listColumns(cdc, "shop", "orders");
+        assertEquals(2, columns.size());
+        verify(cdc, times(0)).getTablesAndColumns("shop");
+    }
+
+    @Test
+    void listColumnsOfAnUncachedSchemaReadsOnlyTheTable() {
+        Driver driver = mockDriver("mysql://root@cold-test:3306", "shop");
+        when(driver.listColumns("shop", "orders"))
+                .thenReturn(Collections.singletonList(
+                        Column.builder().name("id").keyFlag(true).build()));
+
+        assertEquals(1, MetadataCache.listColumns(driver, "shop", "orders").size());
+        verify(driver, times(0)).getTablesAndColumns("shop");
+        verify(driver).listColumns("shop", "orders");
+    }
+
+    @Test
+    void databasesOfTheSameServerDoNotShareTheCache() {
+        String db1 = AbstractJdbcDriver.buildMetadataKey(
+                "PostgreSql", "postgres", "jdbc:postgresql://pg-test:5432/db1?currentSchema=public");
+        String db2 =
+                AbstractJdbcDriver.buildMetadataKey("PostgreSql", "postgres", "jdbc:postgresql://pg-test:5432/db2");
+        assertNotEquals(db1, db2);
+        assertEquals(
+                db2,
+                AbstractJdbcDriver.buildMetadataKey(
+                        "PostgreSql", "postgres", "jdbc:postgresql://pg-test:5432/db2?ssl=false"));
+        assertNotEquals(
+                AbstractJdbcDriver.buildMetadataKey(
+                        "SqlServer", "sa", "jdbc:sqlserver://mssql-test:1433;databaseName=db1"),
+                AbstractJdbcDriver.buildMetadataKey(
+                        "SqlServer", "sa", "jdbc:sqlserver://mssql-test:1433;databaseName=db2"));
+
+        Driver first = mockDriver(db1, "public");
+        Driver second = mockDriver(db2, "public");
+        MetadataCache.getTablesAndColumns(first, "public");
+        MetadataCache.getTablesAndColumns(second, "public");
+        verify(first, times(1)).getTablesAndColumns("public");
+        verify(second, times(1)).getTablesAndColumns("public");
+    }
+
+    @Test
+    void getTablesAndColumnsOfSeveralSchemasInParallel() {
+        Map<String, Driver> drivers = new LinkedHashMap<>();
+        for (int i = 0; i < 6; i++) {
+            String schemaName = "db_" + i;
+            drivers.put(schemaName, mockDriver("mysql://root@parallel-test-" + i + ":3306", schemaName));
+        }
+        Map<String, List<Table>> tables = MetadataCache.getTablesAndColumns(drivers, 3);
+        assertEquals(new ArrayList<>(drivers.keySet()), new ArrayList<>(tables.keySet()));
+        drivers.forEach((schemaName, driver) -> {
+            verify(driver).connect();
+            verify(driver).destroy();
+            assertEquals(schemaName, tables.get(schemaName).get(0).getSchema());
+        });
+    }
+
+    private static Driver mockDriver(String metadataKey, String schemaName) {
+        Driver driver = mock(Driver.class);
+        when(driver.getMetadataKey()).thenReturn(metadataKey);
+        List<Column> columns = new ArrayList<>();
+        columns.add(Column.builder().name("id").keyFlag(true).build());
+        columns.add(Column.builder().name("amount").build());
+        when(driver.getTablesAndColumns(schemaName))
+                .thenAnswer(invocation ->
+                        Collections.singletonList(new Table("orders", schemaName, new ArrayList<>(columns))));
+        return driver;
+    }
+}
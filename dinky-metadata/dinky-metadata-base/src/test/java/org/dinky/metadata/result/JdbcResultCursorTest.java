@@ -0,0 +1,110 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.metadata.result;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.dinky.data.enums.ColumnType;
+import org.dinky.data.model.Column;
+import org.dinky.metadata.convert.ITypeConvert;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class JdbcResultCursorTest {
+
+    @Test
+    void readsRowsInColumnOrientedBatches() throws SQLException {
+        Statement statement = mock(Statement.class);
+        ResultSet results = rows(5);
+        AtomicBoolean released = new AtomicBoolean();
+        JdbcResultCursor cursor =
+                new JdbcResultCursor(statement, results, columns(), typeConvert(), 2, () -> released.set(true));
+
+        int[] sizes = new int[3];
+        int batches = 0;
+        while (cursor.hasNext()) {
+            JdbcRowBatch batch = cursor.next();
+            sizes[batches++] = batch.getRowCount();
+            assertEquals(batch.getRowCount(), batch.getValues()[0].length);
+        }
+        assertEquals(3, batches);
+        assertEquals(Arrays.toString(new int[] {2, 2, 1}), Arrays.toString(sizes));
+        assertEquals(5, cursor.getRowCount());
+
+        cursor.close();
+        verify(results).close();
+        verify(statement).close();
+        assertTrue(released.get());
+    }
+
+    @Test
+    void cancelStopsTheQueryOnTheServer() throws SQLException {
+        Statement statement = mock(Statement.class);
+        JdbcResultCursor cursor = new JdbcResultCursor(statement, rows(100), columns(), typeConvert(), 10, () -> {});
+        assertEquals("1", cursor.next().toRowData().get(1).get("id"));
+
+        cursor.cancel();
+        verify(statement).cancel();
+        assertFalse(cursor.hasNext());
+        cursor.close();
+    }
+
+    private static ResultSet rows(int count) throws SQLException {
+        ResultSet results = mock(ResultSet.class);
+        AtomicInteger row = new AtomicInteger(-1);
+        when(results.next()).thenAnswer(invocation -> row.incrementAndGet() < count);
+        when(results.getString(anyString())).thenAnswer(invocation -> String.valueOf(row.get()));
+        return results;
+    }
+
+    private static List<Column> columns() {
+        return Arrays.asList(
+                Column.builder().name("id").type("varchar").build(),
+                Column.builder().name("name").type("varchar").build());
+    }
+
+    private static ITypeConvert<?> typeConvert() {
+        return new ITypeConvert() {
+            @Override
+            public ColumnType convert(Column column) {
+                return ColumnType.STRING;
+            }
+
+            @Override
+            public String convertToDB(ColumnType columnType) {
+                return "varchar";
+            }
+        };
+    }
+}
@@ -34,6 +34,7 @@ import org.dinky.metadata.query.ClickHouseQuery;
 import org.dinky.metadata.query.IDBQuery;
 import org.dinky.utils.LogUtil;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
@@ -94,6 +95,7 @@ public class ClickHouseDriver extends AbstractJdbcDriver {
         List<SqlExplainResult> sqlExplainResults = new ArrayList<>();
         StringBuilder explain = new StringBuilder();
         PreparedStatement preparedStatement = null;
+        Connection connection = null;
         ResultSet results = null;
         String current = null;
         try {
@@ -123,7 +125,10 @@ public class ClickHouseDriver extends AbstractJdbcDriver {
                     }
                     continue;
                 }
-                preparedStatement = conn.get().prepareStatement("explain " + current);
+                if (Asserts.isNull(connection)) {
+                    connection = getConnection();
+                }
+                preparedStatement = connection.prepareStatement("explain " + current);
                 results = preparedStatement.executeQuery();
                 while (results.next()) {
                     explain.append(getTypeConvert().convertValue(results, "explain", "string") + "\r\n");
@@ -133,7 +138,7 @@ public class ClickHouseDriver extends AbstractJdbcDriver {
         } catch (Exception e) {
             sqlExplainResults.add(SqlExplainResult.fail(current, LogUtil.getError(e)));
         } finally {
-            close(preparedStatement, results);
+            close(preparedStatement, results, connection);
             return sqlExplainResults;
         }
     }
@@ -180,11 +185,13 @@ public class ClickHouseDriver extends AbstractJdbcDriver {
     public List<Column> listColumns(String schemaName, String tableName) {
         List<Column> columns = new ArrayList<>();
         PreparedStatement preparedStatement = null;
+        Connection connection = null;
         ResultSet results = null;
         IDBQuery dbQuery = getDBQuery();
         String tableFieldsSql = dbQuery.columnsSql(schemaName, tableName);
         try {
-            preparedStatement = conn.get().prepareStatement(tableFieldsSql);
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(tableFieldsSql);
             results = preparedStatement.executeQuery();
             ResultSetMetaData metaData = results.getMetaData();
             List<String> columnList = new ArrayList<>();
@@ -232,7 +239,7 @@ public class ClickHouseDriver extends AbstractJdbcDriver {
         } catch (SQLException e) {
             log.error("ClickHouseDriver listColumns error.", e);
         } finally {
-            close(preparedStatement, results);
+            close(preparedStatement, results, connection);
         }
         return columns;
     }
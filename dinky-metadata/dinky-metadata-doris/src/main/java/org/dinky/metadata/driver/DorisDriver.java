@@ -78,7 +78,7 @@ public class DorisDriver extends AbstractJdbcDriver {
     public JdbcSelectResult executeSql(String sql, Integer limit) {
         // TODO 改为ProcessStep注释
         log.info("Start parse sql...");
-        String[] statements = SqlUtil.getStatements(SqlUtil.removeNote(sql));
+        String[] statements = SqlUtil.getCleanStatements(sql);
         log.info(CharSequenceUtil.format("A total of {} statement have been Parsed.", statements.length));
         List<Object> resList = new ArrayList<>();
         JdbcSelectResult result = JdbcSelectResult.buildResult();
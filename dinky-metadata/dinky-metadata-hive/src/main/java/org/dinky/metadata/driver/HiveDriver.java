@@ -35,6 +35,7 @@ import org.dinky.utils.LogUtil;
 
 import org.apache.commons.lang3.StringUtils;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
@@ -68,12 +69,14 @@ public class HiveDriver extends AbstractJdbcDriver implements Driver {
     public List<Table> listTables(String schemaName) {
         List<Table> tableList = new ArrayList<>();
         PreparedStatement preparedStatement = null;
+        Connection connection = null;
         ResultSet results = null;
         IDBQuery dbQuery = getDBQuery();
         String sql = dbQuery.tablesSql(schemaName);
         try {
             execute(String.format(HiveConstant.USE_DB, schemaName));
-            preparedStatement = conn.get().prepareStatement(sql);
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(sql);
             results = preparedStatement.executeQuery();
             ResultSetMetaData metaData = results.getMetaData();
             List<String> columnList = new ArrayList<>();
@@ -104,7 +107,7 @@ public class HiveDriver extends AbstractJdbcDriver implements Driver {
         } catch (Exception e) {
             e.printStackTrace();
         } finally {
-            close(preparedStatement, results);
+            close(preparedStatement, results, connection);
         }
         return tableList;
     }
@@ -119,10 +122,12 @@ public class HiveDriver extends AbstractJdbcDriver implements Driver {
 
         List<Schema> schemas = new ArrayList<>();
         PreparedStatement preparedStatement = null;
+        Connection connection = null;
         ResultSet results = null;
         String schemasSql = getDBQuery().schemaAllSql();
         try {
-            preparedStatement = conn.get().prepareStatement(schemasSql);
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(schemasSql);
             results = preparedStatement.executeQuery();
             while (results.next()) {
                 String schemaName = results.getString(getDBQuery().schemaName());
@@ -137,7 +142,7 @@ public class HiveDriver extends AbstractJdbcDriver implements Driver {
         } catch (Exception e) {
             e.printStackTrace();
         } finally {
-            close(preparedStatement, results);
+            close(preparedStatement, results, connection);
         }
         return schemas;
     }
@@ -146,11 +151,13 @@ public class HiveDriver extends AbstractJdbcDriver implements Driver {
     public List<Column> listColumns(String schemaName, String tableName) {
         List<Column> columns = new ArrayList<>();
         PreparedStatement preparedStatement = null;
+        Connection connection = null;
         ResultSet results = null;
         IDBQuery dbQuery = getDBQuery();
         String tableFieldsSql = dbQuery.columnsSql(schemaName, tableName);
         try {
-            preparedStatement = conn.get().prepareStatement(tableFieldsSql);
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(tableFieldsSql);
             results = preparedStatement.executeQuery();
             ResultSetMetaData metaData = results.getMetaData();
             List<String> columnList = new ArrayList<>();
@@ -184,7 +191,7 @@ public class HiveDriver extends AbstractJdbcDriver implements Driver {
         } catch (SQLException e) {
             e.printStackTrace();
         } finally {
-            close(preparedStatement, results);
+            close(preparedStatement, results, connection);
         }
         return columns;
     }
@@ -193,10 +200,12 @@ public class HiveDriver extends AbstractJdbcDriver implements Driver {
     public String getCreateTableSql(Table table) {
         StringBuilder createTable = new StringBuilder();
         PreparedStatement preparedStatement = null;
+        Connection connection = null;
         ResultSet results = null;
         String createTableSql = getDBQuery().createTableSql(table.getSchema(), table.getName());
         try {
-            preparedStatement = conn.get().prepareStatement(createTableSql);
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(createTableSql);
             results = preparedStatement.executeQuery();
             while (results.next()) {
                 createTable
@@ -206,7 +215,7 @@ public class HiveDriver extends AbstractJdbcDriver implements Driver {
         } catch (Exception e) {
             e.printStackTrace();
         } finally {
-            close(preparedStatement, results);
+            close(preparedStatement, results, connection);
         }
         return createTable.toString();
     }
@@ -216,8 +225,11 @@ public class HiveDriver extends AbstractJdbcDriver implements Driver {
         Asserts.checkNullString(sql, "Sql 语句为空");
         String querySQL = sql.trim().replaceAll(";$", "");
         int res = 0;
-        try (Statement statement = conn.get().createStatement()) {
+        Connection connection = getConnection();
+        try (Statement statement = connection.createStatement()) {
             res = statement.executeUpdate(querySQL);
+        } finally {
+            releaseConnection(connection);
         }
         return res;
     }
@@ -232,11 +244,13 @@ public class HiveDriver extends AbstractJdbcDriver implements Driver {
         List<Column> columns = new ArrayList<>();
         List<String> columnNameList = new ArrayList<>();
         PreparedStatement preparedStatement = null;
+        Connection connection = null;
         ResultSet results = null;
         int count = 0;
         try {
             String querySQL = sql.trim().replaceAll(";$", "");
-            preparedStatement = conn.get().prepareStatement(querySQL);
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(querySQL);
             results = preparedStatement.executeQuery();
             if (Asserts.isNull(results)) {
                 result.setSuccess(true);
@@ -277,7 +291,7 @@ public class HiveDriver extends AbstractJdbcDriver implements Driver {
             result.setError(LogUtil.getError(e));
             result.setSuccess(false);
         } finally {
-            close(preparedStatement, results);
+            close(preparedStatement, results, connection);
             result.setRowData(datas);
             return result;
         }
@@ -30,6 +30,10 @@ import org.dinky.metadata.enums.DriverType;
 import org.dinky.metadata.query.IDBQuery;
 import org.dinky.metadata.query.MySqlQuery;
 
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.text.MessageFormat;
 import java.util.HashMap;
 import java.util.List;
@@ -73,6 +77,14 @@ public class MySqlDriver extends AbstractJdbcDriver {
         return "com.mysql.cj.jdbc.Driver";
     }
 
+    /** Connector/J buffers the whole result unless the fetch size is {@link Integer#MIN_VALUE}. */
+    @Override
+    protected Statement createStreamingStatement(Connection connection, int fetchSize) throws SQLException {
+        Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(Integer.MIN_VALUE);
+        return statement;
+    }
+
     @Override
     public Map<String, String> getFlinkColumnTypeConversion() {
         HashMap<String, String> map = new HashMap<>();
@@ -160,6 +160,11 @@ public class PaimonDriver extends AbstractDriver<PaimonConfig> {
         return this;
     }
 
+    @Override
+    public boolean isHealth() {
+        return catalog != null;
+    }
+
     @Override
     public void close() {
         try {
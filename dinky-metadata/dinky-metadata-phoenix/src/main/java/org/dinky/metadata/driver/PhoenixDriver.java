@@ -111,24 +111,34 @@ public class PhoenixDriver extends AbstractJdbcDriver {
     }
 
     @Override
-    public Driver connect() {
+    public Driver init() {
         try {
             Class.forName(getDriverClass());
-            // TODO：phoenix连接配置，后续可设置为参数传入，以适应不同配置的集群
-            Properties properties = new Properties();
-            properties.put("phoenix.schema.isNamespaceMappingEnabled", "true");
-            properties.put("phoenix.schema.mapSystemTablesToNamespac", "true");
-            Connection connection =
-                    DriverManager.getConnection(config.getConnectConfig().getUrl(), properties);
-            conn.set(connection);
-            // 设置为自动提交，否则upsert语句不生效
-            connection.setAutoCommit(true);
-        } catch (ClassNotFoundException | SQLException e) {
+        } catch (ClassNotFoundException e) {
             throw new RuntimeException(e);
         }
         return this;
     }
 
+    /** Phoenix does not go through the connection pool, every borrow opens a connection that release closes */
+    @Override
+    protected Connection borrowConnection() throws SQLException {
+        // TODO：phoenix连接配置，后续可设置为参数传入，以适应不同配置的集群
+        Properties properties = new Properties();
+        properties.put("phoenix.schema.isNamespaceMappingEnabled", "true");
+        properties.put("phoenix.schema.mapSystemTablesToNamespac", "true");
+        Connection connection =
+                DriverManager.getConnection(config.getConnectConfig().getUrl(), properties);
+        // 设置为自动提交，否则upsert语句不生效
+        connection.setAutoCommit(true);
+        return connection;
+    }
+
+    @Override
+    public boolean isHealth() {
+        return true;
+    }
+
     /**
      * 解决phoenix SQL多语句执行问题 phoenix SQL中不能执行带;语句
      *
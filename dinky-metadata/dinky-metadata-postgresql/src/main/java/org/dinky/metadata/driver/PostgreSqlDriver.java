@@ -30,16 +30,21 @@ import org.dinky.metadata.enums.DriverType;
 import org.dinky.metadata.query.IDBQuery;
 import org.dinky.metadata.query.PostgreSqlQuery;
 
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import lombok.extern.slf4j.Slf4j;
+
 /**
  * PostgreSqlDriver
  *
  * @since 2021/7/22 9:28
  */
+@Slf4j
 public class PostgreSqlDriver extends AbstractJdbcDriver {
 
     @Override
@@ -153,6 +158,28 @@ public class PostgreSqlDriver extends AbstractJdbcDriver {
         return ddl;
     }
 
+    /** pgjdbc only reads through a server side cursor when auto commit is off. */
+    @Override
+    protected Runnable prepareStreaming(Connection connection) {
+        try {
+            if (!connection.getAutoCommit()) {
+                return () -> {};
+            }
+            connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            log.warn("Disable auto commit failed, the query result will be buffered: {}", e.getMessage());
+            return () -> {};
+        }
+        return () -> {
+            try {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                log.error("Restore auto commit failed", e);
+            }
+        };
+    }
+
     @Override
     public StringBuilder genQueryOption(QueryData queryData) {
 
@@ -36,6 +36,7 @@ import org.dinky.utils.LogUtil;
 
 import org.apache.commons.lang3.StringUtils;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
@@ -69,11 +70,13 @@ public class PrestoDriver extends AbstractJdbcDriver implements Driver {
     public List<Table> listTables(String schemaName) {
         List<Table> tableList = new ArrayList<>();
         PreparedStatement preparedStatement = null;
+        Connection connection = null;
         ResultSet results = null;
         IDBQuery dbQuery = getDBQuery();
         String sql = dbQuery.tablesSql(schemaName);
         try {
-            preparedStatement = conn.get().prepareStatement(String.format(sql, schemaName));
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(String.format(sql, schemaName));
             results = preparedStatement.executeQuery();
             ResultSetMetaData metaData = results.getMetaData();
             List<String> columnList = new ArrayList<>();
@@ -104,7 +107,7 @@ public class PrestoDriver extends AbstractJdbcDriver implements Driver {
         } catch (Exception e) {
             e.printStackTrace();
         } finally {
-            close(preparedStatement, results);
+            close(preparedStatement, results, connection);
         }
         return tableList;
     }
@@ -118,20 +121,22 @@ public class PrestoDriver extends AbstractJdbcDriver implements Driver {
     public List<Schema> listSchemas() {
         List<Schema> schemas = new ArrayList<>();
         PreparedStatement preparedStatement = null;
+        Connection connection = null;
         ResultSet results = null;
         PreparedStatement ps = null;
         ResultSet rs = null;
 
         String schemasSql = getDBQuery().schemaAllSql();
         try {
-            preparedStatement = conn.get().prepareStatement(schemasSql);
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(schemasSql);
             results = preparedStatement.executeQuery();
             while (results.next()) {
                 String schemaName = results.getString(getDBQuery().schemaName());
                 // !PrestoConstant.EXTRA_SCHEMA.equals(schemaName) filter system catalog
                 if (Asserts.isNotNullString(schemaName) && !PrestoConstant.EXTRA_SCHEMA.equals(schemaName)) {
-                    ps = conn.get()
-                            .prepareStatement(String.format(PrestoConstant.QUERY_TABLE_COLUMNS_ONLY, schemaName));
+                    ps = connection.prepareStatement(
+                            String.format(PrestoConstant.QUERY_TABLE_COLUMNS_ONLY, schemaName));
                     rs = ps.executeQuery();
                     while (rs.next()) {
                         String db = rs.getString(PrestoConstant.SCHEMA);
@@ -149,7 +154,7 @@ public class PrestoDriver extends AbstractJdbcDriver implements Driver {
             e.printStackTrace();
         } finally {
             close(ps, rs);
-            close(preparedStatement, results);
+            close(preparedStatement, results, connection);
         }
         return schemas;
     }
@@ -158,11 +163,13 @@ public class PrestoDriver extends AbstractJdbcDriver implements Driver {
     public List<Column> listColumns(String schemaName, String tableName) {
         List<Column> columns = new ArrayList<>();
         PreparedStatement preparedStatement = null;
+        Connection connection = null;
         ResultSet results = null;
         IDBQuery dbQuery = getDBQuery();
         String tableFieldsSql = dbQuery.columnsSql(schemaName, tableName);
         try {
-            preparedStatement = conn.get().prepareStatement(tableFieldsSql);
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(tableFieldsSql);
             results = preparedStatement.executeQuery();
             ResultSetMetaData metaData = results.getMetaData();
             List<String> columnList = new ArrayList<>();
@@ -196,7 +203,7 @@ public class PrestoDriver extends AbstractJdbcDriver implements Driver {
         } catch (SQLException e) {
             e.printStackTrace();
         } finally {
-            close(preparedStatement, results);
+            close(preparedStatement, results, connection);
         }
         return columns;
     }
@@ -205,10 +212,12 @@ public class PrestoDriver extends AbstractJdbcDriver implements Driver {
     public String getCreateTableSql(Table table) {
         StringBuilder createTable = new StringBuilder();
         PreparedStatement preparedStatement = null;
+        Connection connection = null;
         ResultSet results = null;
         String createTableSql = getDBQuery().createTableSql(table.getSchema(), table.getName());
         try {
-            preparedStatement = conn.get().prepareStatement(createTableSql);
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(createTableSql);
             results = preparedStatement.executeQuery();
             ResultSetMetaData metaData = results.getMetaData();
             while (results.next()) {
@@ -219,7 +228,7 @@ public class PrestoDriver extends AbstractJdbcDriver implements Driver {
         } catch (Exception e) {
             e.printStackTrace();
         } finally {
-            close(preparedStatement, results);
+            close(preparedStatement, results, connection);
         }
         return createTable.toString();
     }
@@ -229,8 +238,11 @@ public class PrestoDriver extends AbstractJdbcDriver implements Driver {
         Asserts.checkNullString(sql, "Sql 语句为空");
         String querySQL = sql.trim().replaceAll(";$", "");
         int res = 0;
-        try (Statement statement = conn.get().createStatement()) {
+        Connection connection = getConnection();
+        try (Statement statement = connection.createStatement()) {
             res = statement.executeUpdate(querySQL);
+        } finally {
+            releaseConnection(connection);
         }
         return res;
     }
@@ -245,11 +257,13 @@ public class PrestoDriver extends AbstractJdbcDriver implements Driver {
         List<Column> columns = new ArrayList<>();
         List<String> columnNameList = new ArrayList<>();
         PreparedStatement preparedStatement = null;
+        Connection connection = null;
         ResultSet results = null;
         int count = 0;
         try {
             String querySQL = sql.trim().replaceAll(";$", "");
-            preparedStatement = conn.get().prepareStatement(querySQL);
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(querySQL);
             results = preparedStatement.executeQuery();
             if (Asserts.isNull(results)) {
                 result.setSuccess(true);
@@ -290,7 +304,7 @@ public class PrestoDriver extends AbstractJdbcDriver implements Driver {
             result.setError(LogUtil.getError(e));
             result.setSuccess(false);
         } finally {
-            close(preparedStatement, results);
+            close(preparedStatement, results, connection);
             result.setRowData(datas);
             return result;
         }
@@ -63,7 +63,7 @@ public class StarRocksDriver extends AbstractJdbcDriver {
 
     @Override
     public JdbcSelectResult executeSql(String sql, Integer limit) {
-        String[] statements = SqlUtil.getStatements(SqlUtil.removeNote(sql));
+        String[] statements = SqlUtil.getCleanStatements(sql);
         List<Object> resList = new ArrayList<>();
         JdbcSelectResult result = JdbcSelectResult.buildResult();
         for (String item : statements) {
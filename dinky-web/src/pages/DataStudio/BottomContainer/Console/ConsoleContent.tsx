@@ -20,7 +20,7 @@
 import { LoadingBtn } from '@/components/CallBackButton/LoadingBtn';
 import CodeShow from '@/components/CustomEditor/CodeShow';
 import { DataStudioTabsItemType, StateType, VIEW } from '@/pages/DataStudio/model';
-import { handleDeleteOperation } from '@/services/BusinessCrud';
+import { handleDeleteOperation, queryDataByParams } from '@/services/BusinessCrud';
 import { API_CONSTANTS } from '@/services/endpoints';
 import { JobStatus } from '@/types/Studio/data.d';
 import { parseMilliSecondStr } from '@/utils/function';
@@ -50,10 +50,63 @@ export interface ProcessStep extends DataNode {
   endTime: string;
   time: number;
   log: string;
-  lastUpdateStep: ProcessStep;
   children: ProcessStep[];
 }
 
+/**
+ * Lines appended to a step, the first of them has sequence number seq.
+ * Global lines are also appended to the process itself.
+ */
+type LogSegment = {
+  seq: number;
+  stepKey?: string;
+  global: boolean;
+  lines: string[];
+};
+
+/**
+ * A full update carries the process with all logs,
+ * a delta carries the step tree without logs and the lines after fromSeq.
+ */
+type ConsoleUpdate = {
+  key: string;
+  full: boolean;
+  fromSeq: number;
+  seq: number;
+  process: ProcessStep;
+  segments?: LogSegment[];
+};
+
+type ConsoleState = {
+  key?: string;
+  seq: number;
+  logs: Record<string, string>;
+};
+
+const collectLogs = (node: ProcessStep, logs: Record<string, string>) => {
+  logs[node.key as string] = node.log ?? '';
+  node.children?.forEach((child) => collectLogs(child, logs));
+};
+
+const fillLogs = (node: ProcessStep, logs: Record<string, string>): ProcessStep => ({
+  ...node,
+  log: logs[node.key as string] ?? '',
+  children: (node.children ?? []).map((child) => fillLogs(child, logs))
+});
+
+const findStep = (node: ProcessStep, key: Key): ProcessStep | undefined => {
+  if (node.key === key) {
+    return node;
+  }
+  for (const child of node.children ?? []) {
+    const found = findStep(child, key);
+    if (found) {
+      return found;
+    }
+  }
+  return undefined;
+};
+
 const buildExpandKeys = (node: ProcessStep) => {
   const keys: Key[] = [];
   keys.push(node.key);
@@ -84,34 +137,80 @@ const ConsoleContent = (props: ConsoleProps) => {
     wsState: model?.wsState
   }));
 
-  const onUpdate = (data: ProcessStep) => {
-    setProcessNode((prevState: any) => {
-      //如果key不一致代表重新提交了任务，清空旧状态
-      if ((prevState && prevState?.key != data?.key) || !data) {
-        setSelectNode(undefined);
+  const consoleRef = useRef<ConsoleState>({ seq: -1, logs: {} });
+  const resumingRef = useRef<boolean>(false);
+
+  const onUpdate = (data?: ProcessStep) => {
+    setProcessNode(data);
+    //保持选中的节点，任务重新提交后选中的节点不存在时选择根节点
+    setSelectNode((prevState?: ProcessStep) =>
+      prevState && data ? findStep(data, prevState.key) ?? data : data
+    );
+  };
+
+  const applyUpdate = (update?: ConsoleUpdate) => {
+    const state = consoleRef.current;
+    if (!update) {
+      consoleRef.current = { seq: -1, logs: {} };
+      onUpdate(undefined);
+      return;
+    }
+    if (update.full) {
+      const logs: Record<string, string> = {};
+      collectLogs(update.process, logs);
+      consoleRef.current = { key: update.key, seq: update.seq, logs };
+      onUpdate(fillLogs(update.process, logs));
+      return;
+    }
+    if (state.key !== update.key || update.fromSeq > state.seq) {
+      //任务重新提交或丢失了部分日志，从已有的最后一行日志处续传
+      resume(state.key === update.key ? state.seq : -1);
+      return;
+    }
+    if (update.seq < state.seq) {
+      return;
+    }
+    update.segments?.forEach((segment) => {
+      const lines = segment.lines.slice(Math.max(0, state.seq - segment.seq + 1));
+      if (lines.length === 0) {
+        return;
       }
-      return data;
-    });
-    setSelectNode((prevState: any) => {
-      if (prevState && data?.lastUpdateStep && prevState?.key === data?.lastUpdateStep?.key) {
-        //更新当前节点
-        return data?.lastUpdateStep;
-      } else if (!prevState || prevState?.key === data?.key) {
-        //未选择节点状态下选择根节点
-        return data;
+      const text = lines.map((line) => line + '\n').join('');
+      if (segment.global) {
+        state.logs[update.key] = (state.logs[update.key] ?? '') + text;
+      }
+      if (segment.stepKey) {
+        state.logs[segment.stepKey] = (state.logs[segment.stepKey] ?? '') + text;
       }
-      return prevState;
     });
+    state.seq = update.seq;
+    onUpdate(fillLogs(update.process, state.logs));
+  };
+
+  const resume = async (seq: number) => {
+    if (resumingRef.current) {
+      return;
+    }
+    resumingRef.current = true;
+    try {
+      const update = await queryDataByParams<ConsoleUpdate>(API_CONSTANTS.PROCESS_CONSOLE, {
+        processName: process,
+        seq
+      });
+      applyUpdate(update);
+    } finally {
+      resumingRef.current = false;
+    }
   };
 
   const killProcess = useRequest(
     { url: API_CONSTANTS.KILL_PROCESS, params: { processName: process } },
-    { onSuccess: async (res) => onUpdate(res) }
+    { onSuccess: async () => resume(-1) }
   );
 
   const refreshProcess = () => {
     subscribeTopic(Topic.PROCESS_CONSOLE, [process], (data: SseData) =>
-      onUpdate(data?.data[process])
+      applyUpdate(data?.data[process])
     );
   };
 